@@ -0,0 +1,62 @@
+package com.alura.forohub.controller;
+
+import com.alura.forohub.dto.TopicoResponseDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización Jackson de Page&lt;TopicoResponseDto&gt; (respuesta de GET /api/topicos)
+ * para distintos tamaños de página. El ObjectMapper se arma como lo hace Spring Boot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaginaJsonBenchmark {
+
+    @Param({"10", "20", "50", "100"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private Page<TopicoResponseDto> pagina;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        LocalDateTime fecha = LocalDateTime.of(2025, 1, 1, 12, 0);
+        List<TopicoResponseDto> contenido = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            contenido.add(new TopicoResponseDto((long) i, "Título del tópico " + i,
+                    "Mensaje del tópico número " + i + " con un poco de texto de relleno",
+                    fecha.plusMinutes(i), "ABIERTO", (long) (i % 10), "Autor " + (i % 10), "Spring Boot"));
+        }
+        pagina = new PageImpl<>(contenido, PageRequest.of(0, size), 10_000);
+    }
+
+    @Benchmark
+    public byte[] serializar() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(pagina);
+    }
+}
@@ -0,0 +1,83 @@
+package com.alura.forohub.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de un 404 / 400 en GlobalExceptionHandler, con el cuerpo ya serializado.
+ * "conExcepcion" incluye crear la excepción; "noEncontradoLegado" reproduce el
+ * camino anterior (excepción con stack trace + HashMap + Instant + Jackson sobre el mapa)
+ * para comparar en la misma corrida.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorBodyBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private ObjectMapper objectMapper;
+    private MockHttpServletRequest request;
+    private RecursoNoEncontradoException noEncontrado;
+
+    /** Equivalente a las excepciones de dominio antes de ser stackless. */
+    private static class ExcepcionConStack extends RuntimeException {
+        ExcepcionConStack(String mensaje) {
+            super(mensaje);
+        }
+    }
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        handler = new GlobalExceptionHandler(objectMapper);
+        request = new MockHttpServletRequest("GET", "/api/topicos/999");
+        noEncontrado = new RecursoNoEncontradoException("Tópico no encontrado (id=999)");
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> noEncontrado() {
+        return handler.handleNotFound(noEncontrado, request);
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> noEncontradoConExcepcion() {
+        return handler.handleNotFound(new RecursoNoEncontradoException("Tópico no encontrado (id=999)"), request);
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> parametroInvalidoConExcepcion() {
+        return handler.handleParametroInvalido(new ParametroInvalidoException("Cursor inválido"), request);
+    }
+
+    @Benchmark
+    public byte[] noEncontradoLegado() throws Exception {
+        ExcepcionConStack ex = new ExcepcionConStack("Tópico no encontrado (id=999)");
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", Instant.now());
+        body.put("status", 404);
+        body.put("error", "Not Found");
+        body.put("message", ex.getMessage());
+        body.put("path", request.getRequestURI());
+        return objectMapper.writeValueAsBytes(body);
+    }
+}
@@ -0,0 +1,55 @@
+package com.alura.forohub.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generación y validación de JWT (HS256), lo que hacen login y JwtFilter en cada request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+    private UserDetails userDetails;
+
+    @Setup
+    public void setup() {
+        jwtUtil = new JwtUtil("clave-de-benchmark-de-al-menos-32-bytes-hs256", 86_400_000L);
+        token = jwtUtil.generarToken("usuario");
+        userDetails = new User("usuario", "hash", List.of(() -> "ROLE_USER"));
+    }
+
+    @Benchmark
+    public String generarToken() {
+        return jwtUtil.generarToken("usuario");
+    }
+
+    @Benchmark
+    public boolean validarToken() {
+        return jwtUtil.validarToken(token, userDetails);
+    }
+
+    @Benchmark
+    public String extraerUsuario() {
+        return jwtUtil.extractUsername(token);
+    }
+}
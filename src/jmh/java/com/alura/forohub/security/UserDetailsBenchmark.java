@@ -0,0 +1,62 @@
+package com.alura.forohub.security;
+
+import com.alura.forohub.model.Usuario;
+import com.alura.forohub.repository.UsuarioRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CustomUserDetailsService.loadUserByUsername con el repositorio stubeado:
+ * mide solo el armado del UserDetails (sin base de datos).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserDetailsBenchmark {
+
+    private CustomUserDetailsService service;
+
+    @Setup
+    public void setup() {
+        Usuario u = new Usuario();
+        u.setId(1L);
+        u.setUsername("usuario");
+        u.setNombre("Usuario");
+        u.setEmail("usuario@example.com");
+        u.setPassword("$2a$10$hash");
+        Optional<Usuario> encontrado = Optional.of(u);
+
+        UsuarioRepository repo = (UsuarioRepository) Proxy.newProxyInstance(
+                UsuarioRepository.class.getClassLoader(),
+                new Class<?>[]{UsuarioRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findByUsername")) return encontrado;
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        service = new CustomUserDetailsService();
+        ReflectionTestUtils.setField(service, "usuarioRepository", repo);
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return service.loadUserByUsername("usuario");
+    }
+}
@@ -0,0 +1,84 @@
+package com.alura.forohub.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IndiceCasiDuplicados: lo que agrega crearTopico (firma + búsqueda en las bandas)
+ * con 'topicos' tópicos indexados, sin base.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CasiDuplicadosBenchmark {
+
+    private static final String[] VOCABULARIO = ("el la de que en un una para con no se por los java spring "
+            + "curso error clase método objeto lista mapa base datos consulta tabla usuario tópico respuesta "
+            + "servidor cliente filtro token seguridad controlador servicio repositorio entidad").split(" ");
+
+    @Param({"10000", "100000"})
+    public int topicos;
+
+    private IndiceCasiDuplicados indice;
+    private String titulo;
+    private String repost;
+    private String nuevo;
+
+    @Setup
+    public void setup() {
+        indice = new IndiceCasiDuplicados(null, new SimpleMeterRegistry(), IndiceCasiDuplicados.MARCAR, 0.8, 8);
+        Random random = new Random(42);
+        for (long id = 1; id <= topicos; id++) {
+            indice.agregar(id, "Consulta " + id, texto(random, 40));
+        }
+        titulo = "Error al conectar con MySQL";
+        String original = "Al levantar la aplicación con Spring Boot aparece Communications link failure y no "
+                + "encuentro la causa, ya revisé el usuario y la contraseña del datasource";
+        indice.agregar(topicos + 1L, titulo, original);
+        repost = original.replace("causa", "razón");
+        nuevo = texto(random, 40);
+    }
+
+    /** Repost con una palabra cambiada: encuentra el original. */
+    @Benchmark
+    public Optional<IndiceCasiDuplicados.Coincidencia> casiDuplicado() {
+        return indice.masParecido(indice.firma(titulo, repost), 0.8);
+    }
+
+    /** El caso común: un tópico nuevo sin parecidos. */
+    @Benchmark
+    public Optional<IndiceCasiDuplicados.Coincidencia> sinParecidos() {
+        return indice.masParecido(indice.firma(titulo, nuevo), 0.8);
+    }
+
+    /** Solo la firma MinHash (normalización + 5-gramas). */
+    @Benchmark
+    public char[] firma() {
+        return indice.firma(titulo, repost);
+    }
+
+    private static String texto(Random random, int palabras) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < palabras; i++) {
+            sb.append(VOCABULARIO[random.nextInt(VOCABULARIO.length)]).append(random.nextInt(1000)).append(' ');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package com.alura.forohub.service;
+
+import com.alura.forohub.dto.RespuestaResponseDto;
+import com.alura.forohub.dto.TopicoResponseDto;
+import com.alura.forohub.model.Respuesta;
+import com.alura.forohub.model.Topico;
+import com.alura.forohub.model.Usuario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * mapToResponseDto de TopicoServiceImpl y RespuestaServiceImpl (entidad -> DTO).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapeoDtoBenchmark {
+
+    private TopicoServiceImpl topicoService;
+    private RespuestaServiceImpl respuestaService;
+    private Topico topico;
+    private Respuesta respuesta;
+
+    @Setup
+    public void setup() {
+        // el mapeo no usa dependencias
+        topicoService = new TopicoServiceImpl(null, null, null, null, null, null, null, null);
+        respuestaService = new RespuestaServiceImpl(null, null, null, null, null, null, null, null);
+
+        Usuario autor = new Usuario();
+        autor.setId(7L);
+        autor.setNombre("Autor");
+
+        topico = new Topico();
+        topico.setId(1L);
+        topico.setTitulo("Título de ejemplo");
+        topico.setMensaje("Mensaje de ejemplo con algo de texto");
+        topico.setCurso("Spring Boot");
+        topico.setAutor(autor);
+
+        respuesta = new Respuesta();
+        respuesta.setId(2L);
+        respuesta.setMensaje("Respuesta de ejemplo");
+        respuesta.setAutor(autor);
+        respuesta.setTopico(topico);
+    }
+
+    @Benchmark
+    public TopicoResponseDto topico() {
+        return topicoService.mapToResponseDto(topico);
+    }
+
+    @Benchmark
+    public RespuestaResponseDto respuesta() {
+        return respuestaService.mapToResponseDto(respuesta);
+    }
+}
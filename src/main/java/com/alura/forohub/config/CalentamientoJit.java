@@ -0,0 +1,240 @@
+package com.alura.forohub.config;
+
+import com.alura.forohub.model.Topico;
+import com.alura.forohub.model.Usuario;
+import com.alura.forohub.repository.TopicoRepository;
+import com.alura.forohub.repository.UsuarioRepository;
+import com.alura.forohub.security.JwtUtil;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calentamiento del JIT antes de aceptar tráfico.
+ *
+ * Corre como ApplicationRunner: Spring Boot publica ReadinessState.ACCEPTING_TRAFFIC
+ * recién cuando terminan los runners, así que /actuator/health/readiness responde
+ * 503 mientras dura. El servidor ya escucha, y el calentamiento hace pedidos
+ * reales por loopback con un JWT de un usuario existente: JwtFilter, Spring
+ * Security, controladores, consultas de Hibernate y serialización con Jackson
+ * pasan por el mismo camino que el tráfico. Solo lectura: no escribe nada.
+ *
+ * Corta cuando la mediana de las últimas 'ventana' vueltas cambia menos que
+ * 'tolerancia' respecto de la ventana anterior, o al llegar a 'iteraciones' o
+ * 'max-ms'. Si algo falla se registra y la app queda lista igual: mejor servir
+ * en frío que no servir.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class CalentamientoJit implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CalentamientoJit.class);
+
+    private final ApplicationContext context;
+    private final Environment environment;
+    private final JwtUtil jwtUtil;
+    private final UsuarioRepository usuarioRepository;
+    private final TopicoRepository topicoRepository;
+    private final MeterRegistry meterRegistry;
+    private final boolean habilitado;
+    private final String usuario;
+    private final int minIteraciones;
+    private final int maxIteraciones;
+    private final int ventana;
+    private final double tolerancia;
+    private final long maxMillis;
+
+    private final AtomicInteger iteraciones = new AtomicInteger();
+    private final AtomicLong latenciaMicros = new AtomicLong();
+    private volatile boolean terminado;
+
+    public CalentamientoJit(ApplicationContext context,
+                            Environment environment,
+                            JwtUtil jwtUtil,
+                            UsuarioRepository usuarioRepository,
+                            TopicoRepository topicoRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${forohub.calentamiento.habilitado:true}") boolean habilitado,
+                            @Value("${forohub.calentamiento.usuario:}") String usuario,
+                            @Value("${forohub.calentamiento.min-iteraciones:50}") int minIteraciones,
+                            @Value("${forohub.calentamiento.iteraciones:500}") int maxIteraciones,
+                            @Value("${forohub.calentamiento.ventana:20}") int ventana,
+                            @Value("${forohub.calentamiento.tolerancia:0.1}") double tolerancia,
+                            @Value("${forohub.calentamiento.max-ms:60000}") long maxMillis) {
+        this.context = context;
+        this.environment = environment;
+        this.jwtUtil = jwtUtil;
+        this.usuarioRepository = usuarioRepository;
+        this.topicoRepository = topicoRepository;
+        this.meterRegistry = meterRegistry;
+        this.habilitado = habilitado;
+        this.usuario = usuario;
+        this.minIteraciones = Math.max(1, minIteraciones);
+        this.maxIteraciones = Math.max(this.minIteraciones, maxIteraciones);
+        this.ventana = Math.max(2, ventana);
+        this.tolerancia = tolerancia;
+        this.maxMillis = maxMillis;
+        Gauge.builder("forohub.calentamiento.progreso", this,
+                        c -> c.terminado ? 1.0 : (double) c.iteraciones.get() / c.maxIteraciones)
+                .description("Avance del calentamiento del JIT (0 a 1; 1 = terminado)")
+                .register(meterRegistry);
+        Gauge.builder("forohub.calentamiento.iteraciones", iteraciones, AtomicInteger::get)
+                .description("Vueltas de calentamiento completadas")
+                .register(meterRegistry);
+        Gauge.builder("forohub.calentamiento.latencia", latenciaMicros, v -> v.get() / 1000.0)
+                .description("Duración de la última vuelta de calentamiento (ms)")
+                .register(meterRegistry);
+    }
+
+    public boolean isTerminado() {
+        return terminado;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!habilitado) {
+            terminado = true;
+            return;
+        }
+        AvailabilityChangeEvent.publish(context, ReadinessState.REFUSING_TRAFFIC);
+        long inicio = System.nanoTime();
+        String resultado;
+        try {
+            resultado = calentar(inicio);
+        } catch (RuntimeException e) {
+            resultado = "error";
+            log.warn("Calentamiento interrumpido: {}", e.getMessage());
+        }
+        long duracion = System.nanoTime() - inicio;
+        Timer.builder("forohub.calentamiento.duracion")
+                .description("Duración del calentamiento del JIT antes de aceptar tráfico")
+                .tag("resultado", resultado)
+                .register(meterRegistry)
+                .record(duracion, TimeUnit.NANOSECONDS);
+        terminado = true;
+        log.info("Calentamiento '{}': {} vueltas en {} ms (última vuelta {} ms)", resultado, iteraciones.get(),
+                TimeUnit.NANOSECONDS.toMillis(duracion), latenciaMicros.get() / 1000.0);
+    }
+
+    /**
+     * Devuelve cómo terminó: estable, iteraciones, tiempo, sin-datos o sin-servidor.
+     */
+    private String calentar(long inicio) {
+        String puerto = environment.getProperty("local.server.port");
+        if (puerto == null) return "sin-servidor";
+
+        List<Topico> topicos = topicoRepository.findTop10ByActivoTrueOrderByFechaCreacionAsc();
+        Optional<Usuario> autor = !usuario.isBlank()
+                ? usuarioRepository.findByUsername(usuario)
+                : topicos.isEmpty() ? Optional.empty() : usuarioRepository.findById(topicos.get(0).getAutor().getId());
+        if (autor.isEmpty()) {
+            // sin datos que leer: al menos se calienta la firma y el parseo del token
+            for (int i = 0; i < minIteraciones; i++) {
+                jwtUtil.extractUsername(jwtUtil.generarToken("calentamiento"));
+                iteraciones.incrementAndGet();
+            }
+            return "sin-datos";
+        }
+
+        String base = "http://localhost:" + puerto;
+        String bearer = "Bearer " + jwtUtil.generarToken(autor.get().getUsername());
+        Long autorId = autor.get().getId();
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        long[] vueltas = new long[maxIteraciones];
+        long limite = inicio + TimeUnit.MILLISECONDS.toNanos(maxMillis);
+
+        for (int i = 0; i < maxIteraciones; i++) {
+            if (System.nanoTime() > limite) return "tiempo";
+            List<String> rutas = rutas(i, topicos, autorId);
+            long t0 = System.nanoTime();
+            for (String ruta : rutas) {
+                get(http, base + ruta, bearer);
+            }
+            vueltas[i] = System.nanoTime() - t0;
+            latenciaMicros.set(vueltas[i] / 1000);
+            iteraciones.incrementAndGet();
+            if (i + 1 >= minIteraciones && i + 1 >= 2 * ventana && estable(vueltas, i + 1)) return "estable";
+        }
+        return "iteraciones";
+    }
+
+    /**
+     * Una vuelta: listado (cacheado y sin cachear), detalle, respuestas, árbol y resumen del autor.
+     * Los tópicos rotan para que las consultas no vean siempre el mismo id.
+     */
+    private static List<String> rutas(int vuelta, List<Topico> topicos, Long autorId) {
+        List<String> rutas = new ArrayList<>();
+        rutas.add("/api/topicos");
+        // página fuera de las que guarda ListadoTopicosCacheFilter: llega al controlador
+        rutas.add("/api/topicos?page=" + (100 + vuelta % 10) + "&size=10");
+        if (!topicos.isEmpty()) {
+            Long topicoId = topicos.get(vuelta % topicos.size()).getId();
+            rutas.add("/api/topicos/" + topicoId);
+            rutas.add("/api/respuestas?topicoId=" + topicoId);
+            rutas.add("/api/respuestas/arbol?topicoId=" + topicoId);
+        }
+        rutas.add("/api/usuarios/" + autorId + "/resumen");
+        return rutas;
+    }
+
+    private static void get(HttpClient http, String url, String bearer) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(10))
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .GET()
+                .build();
+        try {
+            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() == 401 || response.statusCode() == 403) {
+                throw new IllegalStateException("el token de calentamiento fue rechazado (" + response.statusCode() + ")");
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("no se pudo llamar a " + url, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrumpido", e);
+        }
+    }
+
+    /**
+     * Mediana de la última ventana contra la de la ventana anterior.
+     */
+    private boolean estable(long[] vueltas, int n) {
+        long actual = mediana(vueltas, n - ventana, n);
+        long anterior = mediana(vueltas, n - 2 * ventana, n - ventana);
+        return anterior > 0 && Math.abs(actual - anterior) <= tolerancia * anterior;
+    }
+
+    private static long mediana(long[] valores, int desde, int hasta) {
+        long[] copia = Arrays.copyOfRange(valores, desde, hasta);
+        Arrays.sort(copia);
+        return copia[copia.length / 2];
+    }
+}
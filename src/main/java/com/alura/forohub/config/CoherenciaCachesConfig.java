@@ -0,0 +1,44 @@
+package com.alura.forohub.config;
+
+import com.alura.forohub.model.Usuario;
+import com.alura.forohub.service.DiarioCambiosCache;
+import com.alura.forohub.service.IndiceCasiDuplicados;
+import com.alura.forohub.service.ListadoTopicosCache;
+import com.alura.forohub.service.UsuarioResumenCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caches locales que se invalidan con los cambios de otros nodos (ver DiarioCambiosCache).
+ * Sin forohub.coherencia.habilitado=true nunca llega ningún cambio remoto.
+ */
+@Configuration
+public class CoherenciaCachesConfig {
+
+    public CoherenciaCachesConfig(DiarioCambiosCache diario,
+                                  ListadoTopicosCache listadoCache,
+                                  UsuarioResumenCache resumenCache,
+                                  IndiceCasiDuplicados indiceSimilares,
+                                  EntityManagerFactory entityManagerFactory) {
+        diario.suscribir(DiarioCambiosCache.LISTADOS, clave -> listadoCache.invalidar());
+
+        diario.suscribir(DiarioCambiosCache.RESUMENES, clave -> {
+            if (clave == null) resumenCache.invalidarTodo();
+            else resumenCache.invalidar(Long.valueOf(clave));
+        });
+
+        org.hibernate.Cache segundoNivel = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        diario.suscribir(DiarioCambiosCache.USUARIOS, clave -> {
+            if (clave == null) segundoNivel.evictEntityData(Usuario.class);
+            else segundoNivel.evictEntityData(Usuario.class, Long.valueOf(clave));
+            // la referencia username -> id no se puede desalojar por clave
+            segundoNivel.evictNaturalIdData(Usuario.class);
+        });
+
+        diario.suscribir(DiarioCambiosCache.SIMILARES, clave -> {
+            if (clave == null) indiceSimilares.reconstruir();
+            else indiceSimilares.recargar(Long.valueOf(clave));
+        });
+    }
+}
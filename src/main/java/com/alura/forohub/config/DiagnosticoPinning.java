@@ -0,0 +1,82 @@
+package com.alura.forohub.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Diagnóstico de "pinning": un hilo virtual que se bloquea dentro de un bloque
+ * synchronized (o en código nativo) retiene su carrier thread y anula la
+ * ventaja de los hilos virtuales.
+ *
+ * Escucha en proceso el evento JFR jdk.VirtualThreadPinned (Java 21+) y loguea
+ * cada ocurrencia con las primeras frames del stack, para identificar si viene
+ * de nuestro código o de una librería. En Java 17 el evento no existe y el
+ * stream simplemente no recibe nada.
+ */
+@Component
+@ConditionalOnProperty(name = "forohub.diagnostico.pinning", havingValue = "true")
+public class DiagnosticoPinning {
+
+    private static final Logger log = LoggerFactory.getLogger(DiagnosticoPinning.class);
+
+    private static final String EVENTO = "jdk.VirtualThreadPinned";
+    private static final int FRAMES = 8;
+
+    private final Duration umbral;
+    private final AtomicLong eventos = new AtomicLong();
+    private RecordingStream stream;
+
+    public DiagnosticoPinning(@Value("${forohub.diagnostico.pinning-umbral-ms:20}") long umbralMillis) {
+        this.umbral = Duration.ofMillis(umbralMillis);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        stream = new RecordingStream();
+        stream.enable(EVENTO).withThreshold(umbral).withStackTrace();
+        stream.onEvent(EVENTO, this::registrar);
+        stream.startAsync();
+        log.info("Diagnóstico de pinning activo (umbral {} ms)", umbral.toMillis());
+    }
+
+    private void registrar(RecordedEvent e) {
+        eventos.incrementAndGet();
+        StringBuilder sb = new StringBuilder();
+        if (e.getStackTrace() != null) {
+            List<RecordedFrame> frames = e.getStackTrace().getFrames();
+            for (int i = 0; i < Math.min(FRAMES, frames.size()); i++) {
+                RecordedFrame f = frames.get(i);
+                sb.append("\n    at ").append(f.getMethod().getType().getName())
+                        .append('.').append(f.getMethod().getName())
+                        .append(':').append(f.getLineNumber());
+            }
+        }
+        log.warn("Hilo virtual fijado a su carrier durante {} ms{}", e.getDuration().toMillis(), sb);
+    }
+
+    /**
+     * Cantidad de eventos de pinning vistos desde el arranque.
+     */
+    public long totalEventos() {
+        return eventos.get();
+    }
+
+    @PreDestroy
+    void detener() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.alura.forohub.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.stereotype.Component;
+
+/**
+ * Difiere la creación de los beans de springdoc / OpenAPI (incluido OpenApiConfig)
+ * hasta el primer pedido a /v3/api-docs o /swagger-ui: no hacen falta para
+ * atender la API y su inicialización (escaneo de controllers, modelos) se paga
+ * en cada arranque. Los controllers lazy siguen registrados en el handler mapping.
+ *
+ * forohub.arranque.diferir-docs=false vuelve al comportamiento anterior.
+ * Con AOT (perfil Maven "rapido") el flag queda fijado al procesar el build.
+ */
+@Component
+public class DocumentacionDiferidaConfig implements BeanFactoryPostProcessor, EnvironmentAware {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentacionDiferidaConfig.class);
+
+    private static final String PAQUETE_SPRINGDOC = "org.springdoc.";
+
+    private boolean diferir = true;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.diferir = environment.getProperty("forohub.arranque.diferir-docs", Boolean.class, true);
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        if (!diferir) return;
+        int diferidos = 0;
+        for (String nombre : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition bd = beanFactory.getBeanDefinition(nombre);
+            if (bd.isLazyInit() || bd.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE) continue;
+            String origen = origen(bd);
+            if (origen != null && (origen.startsWith(PAQUETE_SPRINGDOC) || origen.equals(OpenApiConfig.class.getName()))) {
+                bd.setLazyInit(true);
+                diferidos++;
+            }
+        }
+        log.debug("Beans de documentación diferidos: {}", diferidos);
+    }
+
+    /**
+     * Clase que declara el bean: la del método @Bean si es un bean de fábrica, si no la del bean.
+     */
+    private static String origen(BeanDefinition bd) {
+        if (bd instanceof AnnotatedBeanDefinition abd) {
+            MethodMetadata fabrica = abd.getFactoryMethodMetadata();
+            if (fabrica != null) return fabrica.getDeclaringClassName();
+        }
+        return bd.getBeanClassName();
+    }
+}
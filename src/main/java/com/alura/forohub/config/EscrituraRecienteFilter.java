@@ -0,0 +1,86 @@
+package com.alura.forohub.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Read-your-writes entre nodos: la hora de la última escritura viaja con el
+ * cliente en la cookie 'forohub_escritura' (epoch ms).
+ *
+ * Cada request publica esa hora para {@link RuteoDataSource}: mientras no pase
+ * 'ventana-escritura-ms' sus lecturas readOnly van al primario, lo atienda el
+ * nodo que lo atienda. Si en el request se escribe, la cookie se renueva con la
+ * hora actual (antes de que la respuesta se comprometa: las escrituras ocurren
+ * en el controller, antes de serializar el cuerpo).
+ *
+ * Un valor en el futuro (más allá de la ventana) se ignora; uno falsificado solo
+ * hace que ese cliente lea del primario durante la ventana.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnProperty(name = "forohub.replicas.habilitado", havingValue = "true")
+public class EscrituraRecienteFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "forohub_escritura";
+
+    private final long ventanaMillis;
+
+    public EscrituraRecienteFilter(@Value("${forohub.replicas.ventana-escritura-ms:5000}") long ventanaMillis) {
+        this.ventanaMillis = ventanaMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        RuteoDataSource.abrir(new RuteoDataSource.MarcaCliente(ultimaEscritura(request), () -> {
+            if (!response.isCommitted()) {
+                response.addHeader(HttpHeaders.SET_COOKIE, cookie(System.currentTimeMillis()));
+            }
+        }));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RuteoDataSource.cerrar();
+        }
+    }
+
+    private long ultimaEscritura(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) return 0;
+        for (Cookie c : cookies) {
+            if (!COOKIE.equals(c.getName())) continue;
+            try {
+                long millis = Long.parseLong(c.getValue());
+                return millis <= System.currentTimeMillis() + ventanaMillis ? millis : 0;
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    private String cookie(long millis) {
+        return ResponseCookie.from(COOKIE, Long.toString(millis))
+                .path("/")
+                .httpOnly(true)
+                .sameSite("Lax")
+                .maxAge(Duration.ofMillis(ventanaMillis).plusSeconds(1))
+                .build()
+                .toString();
+    }
+}
@@ -0,0 +1,263 @@
+package com.alura.forohub.config;
+
+import com.alura.forohub.dto.ProblemaDto;
+import com.alura.forohub.service.RegistroIdempotencia;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Soporte de Idempotency-Key en POST /api/topicos y POST /api/respuestas.
+ *
+ * - Primera vez: se ejecuta normalmente y se guarda status + Location + cuerpo.
+ * - Repetición (mismo usuario y clave): se devuelve la respuesta guardada con
+ *   el header Idempotent-Replayed: true, sin llegar al controlador ni a la base.
+ * - Repetición mientras la primera sigue en curso: espera su resultado (hasta espera-ms, luego 409).
+ * - Misma clave con otro cuerpo: 422.
+ *
+ * Va después de Spring Security (necesita el usuario para armar la clave).
+ * Las respuestas 5xx no se guardan: el cliente puede reintentar con la misma clave.
+ */
+@Component
+@Order(1)
+@ConditionalOnProperty(name = "forohub.idempotencia.habilitado", havingValue = "true", matchIfMissing = true)
+public class IdempotenciaFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final Set<String> RUTAS = Set.of("/api/topicos", "/api/respuestas");
+    private static final int LARGO_MAX_CLAVE = 255;
+
+    private final RegistroIdempotencia registro;
+    private final ObjectWriter writer;
+    private final MeterRegistry meterRegistry;
+    private final long esperaMillis;
+
+    public IdempotenciaFilter(RegistroIdempotencia registro,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${forohub.idempotencia.espera-ms:10000}") long esperaMillis) {
+        this.registro = registro;
+        this.writer = objectMapper.writerFor(ProblemaDto.class);
+        this.meterRegistry = meterRegistry;
+        this.esperaMillis = esperaMillis;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !RUTAS.contains(request.getRequestURI())
+                || request.getHeader(HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String valor = request.getHeader(HEADER);
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (valor.isBlank() || valor.length() > LARGO_MAX_CLAVE) {
+            problema(request, response, HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key debe tener entre 1 y " + LARGO_MAX_CLAVE + " caracteres");
+            return;
+        }
+
+        byte[] cuerpo = request.getInputStream().readAllBytes();
+        byte[] huella = huella(cuerpo);
+        String clave = auth.getName() + '\n' + request.getRequestURI() + '\n' + valor;
+        CuerpoLeido requestLeido = new CuerpoLeido(request, cuerpo);
+
+        // si la ejecución original falla, los que esperaban reintentan la reserva una vez
+        for (int intento = 0; intento < 2; intento++) {
+            RegistroIdempotencia.Reserva existente = registro.reservarOObtener(clave, huella);
+            if (existente == null) {
+                ejecutar(clave, requestLeido, response, chain);
+                return;
+            }
+            if (!existente.mismaHuella(huella)) {
+                contar("conflicto");
+                problema(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Idempotency-Key ya usada con otro cuerpo");
+                return;
+            }
+            RegistroIdempotencia.Resultado resultado = esperar(existente);
+            if (resultado != null) {
+                contar("repetida");
+                repetir(response, resultado);
+                return;
+            }
+            if (!existente.resultado().isDone()) {
+                contar("en-curso");
+                problema(request, response, HttpStatus.CONFLICT,
+                        "Hay un request con la misma Idempotency-Key en curso");
+                return;
+            }
+        }
+        problema(request, response, HttpStatus.CONFLICT, "Hay un request con la misma Idempotency-Key en curso");
+    }
+
+    private void ejecutar(String clave, HttpServletRequest request, HttpServletResponse response,
+                          FilterChain chain) throws ServletException, IOException {
+        ContentCachingResponseWrapper captura = new ContentCachingResponseWrapper(response);
+        boolean completado = false;
+        try {
+            chain.doFilter(request, captura);
+            if (captura.getStatus() < 500) {
+                registro.completar(clave, new RegistroIdempotencia.Resultado(captura.getStatus(),
+                        captura.getContentType(), captura.getHeader(HttpHeaders.LOCATION),
+                        captura.getContentAsByteArray()));
+                completado = true;
+                contar("nueva");
+            }
+        } finally {
+            if (!completado) {
+                registro.liberar(clave);
+            }
+            captura.copyBodyToResponse();
+        }
+    }
+
+    private RegistroIdempotencia.Resultado esperar(RegistroIdempotencia.Reserva reserva) throws IOException {
+        try {
+            return reserva.resultado().get(esperaMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrumpido esperando la ejecución original", e);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private static void repetir(HttpServletResponse response, RegistroIdempotencia.Resultado r) throws IOException {
+        response.setStatus(r.status());
+        if (r.contentType() != null) response.setContentType(r.contentType());
+        if (r.location() != null) response.setHeader(HttpHeaders.LOCATION, r.location());
+        response.setHeader("Idempotent-Replayed", "true");
+        response.setContentLength(r.cuerpo().length);
+        response.getOutputStream().write(r.cuerpo());
+    }
+
+    private void problema(HttpServletRequest request, HttpServletResponse response,
+                          HttpStatus status, String detalle) throws IOException {
+        byte[] json = writer.writeValueAsBytes(new ProblemaDto("about:blank", status.getReasonPhrase(),
+                status.value(), detalle, request.getRequestURI(), null));
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.setContentLength(json.length);
+        response.getOutputStream().write(json);
+    }
+
+    private void contar(String resultado) {
+        meterRegistry.counter("forohub.idempotencia", "resultado", resultado).increment();
+    }
+
+    private static byte[] huella(byte[] cuerpo) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(cuerpo);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Request con el cuerpo ya leído (para calcular la huella) disponible de nuevo para el controlador.
+     */
+    private static final class CuerpoLeido extends HttpServletRequestWrapper {
+
+        private final byte[] cuerpo;
+
+        CuerpoLeido(HttpServletRequest request, byte[] cuerpo) {
+            super(request);
+            this.cuerpo = cuerpo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(cuerpo);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /** El cuerpo ya está en memoria: todo está disponible desde el principio. */
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return cuerpo.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return cuerpo.length;
+        }
+    }
+}
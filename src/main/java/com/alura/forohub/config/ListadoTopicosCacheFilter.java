@@ -0,0 +1,137 @@
+package com.alura.forohub.config;
+
+import com.alura.forohub.service.ListadoTopicosCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Sirve GET /api/topicos (primeras páginas, orden por defecto, con o sin ?curso=)
+ * desde {@link ListadoTopicosCache}.
+ *
+ * Va después de Spring Security (orden 0 > -100): la autenticación se sigue
+ * exigiendo, pero un hit no llega al DispatcherServlet, no consulta la base y
+ * no serializa; escribe el byte[] cacheado directo al output stream.
+ * Con un miss se captura el cuerpo que generó el controlador y se guarda.
+ * El listado es igual para todos los usuarios autenticados.
+ */
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "forohub.listados.cache.habilitado", havingValue = "true", matchIfMissing = true)
+public class ListadoTopicosCacheFilter extends OncePerRequestFilter {
+
+    private static final String RUTA = "/api/topicos";
+    private static final int TAMANIO_POR_DEFECTO = 20;
+
+    private final ListadoTopicosCache cache;
+    private final int maxPaginas;
+    private final int maxTamanio;
+
+    public ListadoTopicosCacheFilter(ListadoTopicosCache cache,
+                                     @Value("${forohub.listados.cache.paginas:3}") int maxPaginas,
+                                     @Value("${forohub.listados.cache.max-tamanio:50}") int maxTamanio) {
+        this.cache = cache;
+        this.maxPaginas = maxPaginas;
+        this.maxTamanio = maxTamanio;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !RUTA.equals(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String clave = clave(request.getParameterMap());
+        if (clave == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ListadoTopicosCache.Entrada entrada = cache.obtener(clave);
+        if (entrada != null) {
+            escribir(request, response, entrada);
+            return;
+        }
+
+        long version = cache.version();
+        ContentCachingResponseWrapper captura = new ContentCachingResponseWrapper(response);
+        captura.setHeader("X-Cache", "MISS");
+        try {
+            chain.doFilter(request, captura);
+            String contentType = captura.getContentType();
+            if (captura.getStatus() == HttpServletResponse.SC_OK && contentType != null
+                    && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType))) {
+                cache.guardar(clave, version, captura.getContentAsByteArray(), contentType);
+            }
+        } finally {
+            captura.copyBodyToResponse();
+        }
+    }
+
+    private static void escribir(HttpServletRequest request, HttpServletResponse response,
+                                 ListadoTopicosCache.Entrada entrada) throws IOException {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = entrada.gzip() != null && acceptEncoding != null && acceptEncoding.contains("gzip");
+        byte[] cuerpo = gzip ? entrada.gzip() : entrada.json();
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(entrada.contentType());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader("X-Cache", "HIT");
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(cuerpo.length);
+        response.getOutputStream().write(cuerpo);
+    }
+
+    /**
+     * Clave normalizada "curso|page|size", o null si el request no es cacheable:
+     * parámetros desconocidos (ej: sort), valores inválidos o páginas fuera del rango cacheado.
+     */
+    String clave(Map<String, String[]> parametros) {
+        String curso = "";
+        int pagina = 0;
+        int tamanio = TAMANIO_POR_DEFECTO;
+        for (Map.Entry<String, String[]> p : parametros.entrySet()) {
+            String[] valores = p.getValue();
+            if (valores.length != 1) return null;
+            String valor = valores[0];
+            switch (p.getKey()) {
+                case "curso" -> curso = valor;
+                case "page" -> pagina = entero(valor);
+                case "size" -> tamanio = entero(valor);
+                default -> {
+                    return null;
+                }
+            }
+        }
+        if (pagina < 0 || pagina >= maxPaginas || tamanio < 1 || tamanio > maxTamanio) return null;
+        // 'curso' vacío y ausente no son lo mismo para el controlador
+        String prefijo = parametros.containsKey("curso") ? "c:" + curso : "-";
+        return prefijo + "|" + pagina + "|" + tamanio;
+    }
+
+    private static int entero(String valor) {
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
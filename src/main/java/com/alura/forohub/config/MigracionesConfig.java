@@ -0,0 +1,47 @@
+package com.alura.forohub.config;
+
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Qué hace Flyway al arrancar, decidido en tiempo de ejecución.
+ *
+ * Con varios pods solo uno (o un Job de deploy) necesita migrar: el resto
+ * puede arrancar con forohub.flyway.migrar=false y se ahorra escanear las
+ * migraciones y validar checksums contra flyway_schema_history.
+ * forohub.flyway.validar=false migra sin validar las ya aplicadas.
+ *
+ * Se usa una estrategia en lugar de spring.flyway.enabled porque con AOT
+ * (perfil Maven "rapido") las condiciones de autoconfiguración quedan fijas
+ * en el build; estas propiedades se leen siempre al arrancar.
+ */
+@Configuration
+public class MigracionesConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(MigracionesConfig.class);
+
+    @Bean
+    public FlywayMigrationStrategy estrategiaMigraciones(@Value("${forohub.flyway.migrar:true}") boolean migrar,
+                                                         @Value("${forohub.flyway.validar:true}") boolean validar) {
+        return flyway -> {
+            if (!migrar) {
+                log.info("Migraciones omitidas en este nodo (forohub.flyway.migrar=false)");
+                return;
+            }
+            if (validar) {
+                flyway.migrate();
+            } else {
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .validateOnMigrate(false)
+                        .load()
+                        .migrate();
+            }
+        };
+    }
+}
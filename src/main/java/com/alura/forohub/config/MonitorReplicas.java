@@ -0,0 +1,173 @@
+package com.alura.forohub.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Estado de las réplicas de lectura: disponibilidad y retraso de replicación.
+ *
+ * Cada 'intervalo' se lee la marca de latido (tabla replicacion_latido) en
+ * cada réplica y se escribe una nueva en el primario. El retraso de una
+ * réplica es cuánto le falta para tener la marca escrita en la verificación
+ * anterior. Una réplica que no responde o con retraso mayor a 'maxLag' queda
+ * fuera hasta la próxima verificación; sin réplicas disponibles se lee del primario.
+ *
+ * Las marcas las pone siempre la app (no los relojes de cada base): con varios
+ * nodos escribiendo, gana la más reciente y el retraso calculado solo puede bajar.
+ */
+public class MonitorReplicas implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MonitorReplicas.class);
+
+    /** Pool de una réplica y su último estado conocido. */
+    public static final class Replica {
+        private final String nombre;
+        private final HikariDataSource dataSource;
+        private final JdbcTemplate jdbc;
+        private volatile boolean disponible;
+        private volatile long lagMillis = -1;
+
+        Replica(String nombre, HikariDataSource dataSource, int timeoutSegundos) {
+            this.nombre = nombre;
+            this.dataSource = dataSource;
+            this.jdbc = new JdbcTemplate(dataSource);
+            this.jdbc.setQueryTimeout(timeoutSegundos);
+        }
+
+        public String nombre() {
+            return nombre;
+        }
+
+        public HikariDataSource dataSource() {
+            return dataSource;
+        }
+
+        public boolean disponible() {
+            return disponible;
+        }
+
+        public long lagMillis() {
+            return lagMillis;
+        }
+    }
+
+    private final HikariDataSource primario;
+    private final JdbcTemplate jdbcPrimario;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final AtomicInteger turno = new AtomicInteger();
+    private final ScheduledExecutorService programador;
+
+    private volatile long ultimaMarca;
+
+    public MonitorReplicas(HikariDataSource primario, List<Replica> replicas, long maxLagMillis,
+                           long intervaloMillis, MeterRegistry meterRegistry) {
+        this.primario = primario;
+        this.jdbcPrimario = new JdbcTemplate(primario);
+        this.replicas = replicas;
+        this.maxLagMillis = maxLagMillis;
+
+        for (Replica r : replicas) {
+            Gauge.builder("forohub.db.replica.lag", r, Replica::lagMillis)
+                    .description("Retraso de replicación medido con la tabla de latido (ms, -1 = desconocido)")
+                    .tag("replica", r.nombre())
+                    .register(meterRegistry);
+            Gauge.builder("forohub.db.replica.disponible", r, x -> x.disponible() ? 1 : 0)
+                    .tag("replica", r.nombre())
+                    .register(meterRegistry);
+        }
+
+        this.programador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "monitor-replicas");
+            t.setDaemon(true);
+            return t;
+        });
+        this.programador.scheduleWithFixedDelay(this::verificarSinFallar, 0, intervaloMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public HikariDataSource primario() {
+        return primario;
+    }
+
+    public List<Replica> replicas() {
+        return replicas;
+    }
+
+    /**
+     * Próxima réplica disponible (round robin), o null si no hay ninguna.
+     */
+    public Replica elegir() {
+        int n = replicas.size();
+        int inicio = Math.floorMod(turno.getAndIncrement(), Math.max(1, n));
+        for (int i = 0; i < n; i++) {
+            Replica r = replicas.get((inicio + i) % n);
+            if (r.disponible) return r;
+        }
+        return null;
+    }
+
+    /**
+     * Una vuelta de verificación: lee el latido en cada réplica y escribe uno nuevo en el primario.
+     * Sincronizado: la corre el hilo del monitor y también los tests.
+     */
+    public synchronized void verificar() {
+        long esperada = ultimaMarca;
+        for (Replica r : replicas) {
+            try {
+                Long marca = r.jdbc.queryForObject("SELECT marca_ms FROM replicacion_latido WHERE id = 1", Long.class);
+                long lag = Math.max(0, esperada - (marca != null ? marca : 0));
+                boolean antes = r.disponible;
+                r.lagMillis = lag;
+                // sin una marca escrita todavía no hay con qué medir: se espera a la próxima vuelta
+                r.disponible = esperada > 0 && lag <= maxLagMillis;
+                if (antes && !r.disponible) {
+                    log.warn("Réplica '{}' fuera de servicio: retraso {} ms (máx {} ms)", r.nombre, lag, maxLagMillis);
+                } else if (!antes && r.disponible) {
+                    log.info("Réplica '{}' disponible (retraso {} ms)", r.nombre, lag);
+                }
+            } catch (RuntimeException e) {
+                if (r.disponible) {
+                    log.warn("Réplica '{}' fuera de servicio: {}", r.nombre, e.getMessage());
+                }
+                r.disponible = false;
+                r.lagMillis = -1;
+            }
+        }
+
+        long marca = System.currentTimeMillis();
+        if (jdbcPrimario.update("UPDATE replicacion_latido SET marca_ms = GREATEST(marca_ms, ?) WHERE id = 1", marca) > 0) {
+            ultimaMarca = marca;
+        }
+    }
+
+    private void verificarSinFallar() {
+        try {
+            verificar();
+        } catch (RuntimeException e) {
+            // primario caído o sin la tabla de latido: las lecturas van al primario igual
+            log.warn("No se pudo escribir el latido de replicación: {}", e.getMessage());
+            for (Replica r : replicas) {
+                r.disponible = false;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        programador.shutdownNow();
+        for (Replica r : replicas) {
+            r.dataSource.close();
+        }
+        primario.close();
+    }
+}
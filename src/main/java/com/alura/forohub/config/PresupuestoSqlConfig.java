@@ -0,0 +1,22 @@
+package com.alura.forohub.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registra el {@link PresupuestoSqlInspector} (bean de Spring, con métricas)
+ * como StatementInspector de la SessionFactory. Con
+ * forohub.sql.presupuesto.habilitado=false no se registra nada (ni el filtro).
+ */
+@Configuration
+@ConditionalOnProperty(name = "forohub.sql.presupuesto.habilitado", havingValue = "true", matchIfMissing = true)
+public class PresupuestoSqlConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer presupuestoSqlCustomizer(PresupuestoSqlInspector inspector) {
+        return props -> props.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+}
@@ -0,0 +1,78 @@
+package com.alura.forohub.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Abre un ámbito de {@link PresupuestoSqlInspector} por request HTTP.
+ * Va primero en la cadena para incluir también la carga del usuario en JwtFilter.
+ *
+ * Al terminar registra forohub.sql.sentencias {ambito=request, nombre=endpoint}
+ * y, si se superó el presupuesto, loguea la forma de SQL más repetida.
+ * El endpoint es el patrón del mapping (ej: GET /api/topicos/{id}), no la URI.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "forohub.sql.presupuesto.habilitado", havingValue = "true", matchIfMissing = true)
+public class PresupuestoSqlFilter extends OncePerRequestFilter {
+
+    private final PresupuestoSqlInspector inspector;
+    private final MeterRegistry meterRegistry;
+    private final int presupuestoRequest;
+    /** Un summary por patrón de endpoint (conjunto acotado): se registra la primera vez y se reutiliza. */
+    private final Map<String, DistributionSummary> porEndpoint = new ConcurrentHashMap<>();
+
+    public PresupuestoSqlFilter(PresupuestoSqlInspector inspector,
+                                MeterRegistry meterRegistry,
+                                @Value("${forohub.sql.presupuesto.request:10}") int presupuestoRequest) {
+        this.inspector = inspector;
+        this.meterRegistry = meterRegistry;
+        this.presupuestoRequest = presupuestoRequest;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        PresupuestoSqlInspector.Ambito ambito = PresupuestoSqlInspector.abrir("request");
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ambito.close();
+            String endpoint = endpoint(request);
+            porEndpoint.computeIfAbsent(endpoint, this::summary).record(ambito.total());
+            if (ambito.total() > presupuestoRequest) {
+                inspector.excedido("request", endpoint, ambito, presupuestoRequest);
+            }
+        }
+    }
+
+    private DistributionSummary summary(String endpoint) {
+        return DistributionSummary.builder("forohub.sql.sentencias")
+                .description("Sentencias SQL por request / transacción")
+                .tag("ambito", "request")
+                .tag("nombre", endpoint)
+                .register(meterRegistry);
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        // sin patrón (404, recursos estáticos) se agrupa todo bajo un valor fijo
+        return request.getMethod() + " " + (patron != null ? patron : "sin-mapping");
+    }
+}
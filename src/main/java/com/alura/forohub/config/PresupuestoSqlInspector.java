@@ -0,0 +1,207 @@
+package com.alura.forohub.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * StatementInspector de Hibernate que cuenta las sentencias SQL ejecutadas
+ * para detectar N+1 (típico con las asociaciones LAZY autor / topico).
+ *
+ * Cuenta en dos niveles:
+ *  - Ámbitos abiertos en el hilo actual ({@link #abrir(String)}): el request
+ *    HTTP (ver PresupuestoSqlFilter) o un test (PresupuestoSqlExtension).
+ *  - Transacción de Spring: al terminar se compara contra el presupuesto por transacción.
+ *
+ * Las sentencias se agrupan por "forma" (SQL sin literales ni listas IN), así
+ * un N+1 aparece como una misma forma repetida muchas veces. En el camino de
+ * cada sentencia solo se cuenta el SQL tal cual; normalizar (tres regex) queda
+ * para cuando se pide el detalle, es decir cuando se excede un presupuesto.
+ * Solo ve el SQL que pasa por Hibernate (no el de JdbcTemplate).
+ */
+@Component
+@ConditionalOnProperty(name = "forohub.sql.presupuesto.habilitado", havingValue = "true", matchIfMissing = true)
+public class PresupuestoSqlInspector implements StatementInspector {
+
+    private static final Logger log = LoggerFactory.getLogger(PresupuestoSqlInspector.class);
+
+    private static final ThreadLocal<Deque<Ambito>> AMBITOS = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+    private static final Pattern LITERALES = Pattern.compile("'(?:[^']|'')*'|\\b\\d+\\b");
+    private static final Pattern LISTA_IN = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private final MeterRegistry meterRegistry;
+    private final int presupuestoTransaccion;
+
+    public PresupuestoSqlInspector(MeterRegistry meterRegistry,
+                                   @Value("${forohub.sql.presupuesto.transaccion:10}") int presupuestoTransaccion) {
+        this.meterRegistry = meterRegistry;
+        this.presupuestoTransaccion = presupuestoTransaccion;
+    }
+
+    // -----------------------
+    // ÁMBITOS
+    // -----------------------
+
+    /**
+     * Abre un ámbito de conteo en el hilo actual. Los ámbitos se anidan: cada
+     * sentencia cuenta en todos los abiertos. Cerrar con try-with-resources.
+     */
+    public static Ambito abrir(String nombre) {
+        Ambito a = new Ambito(nombre);
+        AMBITOS.get().push(a);
+        return a;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        for (Ambito a : AMBITOS.get()) {
+            a.registrar(sql);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            contadorTransaccion().registrar(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * SQL normalizado: sin literales, espacios colapsados y listas IN reducidas a un elemento.
+     */
+    static String forma(String sql) {
+        String s = ESPACIOS.matcher(sql.trim()).replaceAll(" ");
+        s = LITERALES.matcher(s).replaceAll("?");
+        return LISTA_IN.matcher(s).replaceAll("(?)");
+    }
+
+    // -----------------------
+    // POR TRANSACCIÓN
+    // -----------------------
+
+    /**
+     * Contador de la transacción actual, ligado como recurso con este inspector
+     * como clave. Al suspenderse la transacción (REQUIRES_NEW) la synchronization
+     * lo desliga y al reanudarse lo vuelve a ligar: la interna tiene su propio contador.
+     */
+    private ContadorTransaccion contadorTransaccion() {
+        ContadorTransaccion c = (ContadorTransaccion) TransactionSynchronizationManager.getResource(this);
+        if (c == null) {
+            String nombre = TransactionSynchronizationManager.getCurrentTransactionName();
+            c = new ContadorTransaccion(nombre != null ? nombre : "desconocida");
+            TransactionSynchronizationManager.bindResource(this, c);
+            TransactionSynchronizationManager.registerSynchronization(c);
+        }
+        return c;
+    }
+
+    private final class ContadorTransaccion extends Ambito implements TransactionSynchronization {
+
+        ContadorTransaccion(String nombre) {
+            super(nombre);
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(PresupuestoSqlInspector.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(PresupuestoSqlInspector.this, this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(PresupuestoSqlInspector.this);
+            DistributionSummary.builder("forohub.sql.sentencias")
+                    .description("Sentencias SQL por request / transacción")
+                    .tag("ambito", "transaccion")
+                    .tag("nombre", nombre)
+                    .register(meterRegistry)
+                    .record(total);
+            if (total > presupuestoTransaccion) {
+                excedido("transaccion", nombre, this, presupuestoTransaccion);
+            }
+        }
+    }
+
+    /**
+     * Registra y loguea un ámbito que superó su presupuesto.
+     */
+    void excedido(String ambito, String nombre, Ambito a, int presupuesto) {
+        Counter.builder("forohub.sql.presupuesto.excedido")
+                .description("Requests / transacciones que superaron el presupuesto de sentencias SQL")
+                .tag("ambito", ambito)
+                .tag("nombre", nombre)
+                .register(meterRegistry)
+                .increment();
+        Map.Entry<String, Integer> repetida = a.formaMasRepetida();
+        log.warn("Presupuesto SQL excedido en {} '{}': {} sentencias (máx {}). Más repetida x{}: {}",
+                ambito, nombre, a.total(), presupuesto,
+                repetida != null ? repetida.getValue() : 0,
+                repetida != null ? recortar(repetida.getKey()) : "-");
+    }
+
+    private static String recortar(String sql) {
+        return sql.length() <= 300 ? sql : sql.substring(0, 300) + "...";
+    }
+
+    /**
+     * Conteo de sentencias (total y por SQL tal cual) dentro de un ámbito.
+     * Las formas se calculan recién al pedirlas.
+     */
+    public static class Ambito implements AutoCloseable {
+        final String nombre;
+        int total;
+        private final Map<String, Integer> porSql = new HashMap<>();
+
+        Ambito(String nombre) {
+            this.nombre = nombre;
+        }
+
+        void registrar(String sql) {
+            total++;
+            porSql.merge(sql, 1, Integer::sum);
+        }
+
+        public String nombre() {
+            return nombre;
+        }
+
+        public int total() {
+            return total;
+        }
+
+        /** Sentencias agrupadas por forma (normaliza cada SQL distinto una vez). */
+        public Map<String, Integer> porForma() {
+            Map<String, Integer> porForma = new HashMap<>();
+            porSql.forEach((sql, n) -> porForma.merge(forma(sql), n, Integer::sum));
+            return porForma;
+        }
+
+        public Map.Entry<String, Integer> formaMasRepetida() {
+            return porForma().entrySet().stream()
+                    .max(Map.Entry.comparingByValue())
+                    .orElse(null);
+        }
+
+        @Override
+        public void close() {
+            AMBITOS.get().remove(this);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.alura.forohub.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecturas en réplicas (forohub.replicas.habilitado=true).
+ *
+ * El DataSource de la app pasa a ser LazyConnectionDataSourceProxy -> {@link RuteoDataSource}:
+ * las transacciones @Transactional(readOnly = true) van a una réplica disponible
+ * y todo lo demás (escrituras, Flyway, DDL de Hibernate) al primario.
+ *
+ * Primario: spring.datasource.* (+ spring.datasource.hikari.*).
+ * Réplicas: forohub.replicas.urls separadas por coma, con el mismo usuario /
+ * password y ajustes de Hikari salvo forohub.replicas.username / password / pool-size.
+ */
+@Configuration
+@ConditionalOnProperty(name = "forohub.replicas.habilitado", havingValue = "true")
+public class ReplicasConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicasConfig.class);
+
+    @Bean(destroyMethod = "close")
+    MonitorReplicas monitorReplicas(DataSourceProperties propiedades,
+                                    Environment env,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${forohub.replicas.urls}") List<String> urls,
+                                    @Value("${forohub.replicas.username:${spring.datasource.username:}}") String usuario,
+                                    @Value("${forohub.replicas.password:${spring.datasource.password:}}") String password,
+                                    @Value("${forohub.replicas.pool-size:10}") int poolSize,
+                                    @Value("${forohub.replicas.max-lag-ms:2000}") long maxLagMillis,
+                                    @Value("${forohub.replicas.intervalo-ms:500}") long intervaloMillis,
+                                    @Value("${forohub.replicas.timeout-s:2}") int timeoutSegundos) {
+        HikariDataSource primario = pool(env, meterRegistry, "forohub-primario", propiedades.determineUrl(),
+                propiedades.determineUsername(), propiedades.determinePassword(), propiedades.determineDriverClassName());
+
+        List<MonitorReplicas.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            String nombre = "replica-" + i;
+            HikariDataSource ds = pool(env, meterRegistry, "forohub-" + nombre, urls.get(i).trim(),
+                    usuario, password, propiedades.determineDriverClassName());
+            ds.setMaximumPoolSize(poolSize);
+            // una réplica caída no debe frenar el arranque: el monitor la deja fuera
+            ds.setInitializationFailTimeout(-1);
+            ds.setReadOnly(true);
+            replicas.add(new MonitorReplicas.Replica(nombre, ds, timeoutSegundos));
+        }
+        log.info("Lecturas readOnly repartidas en {} réplica(s); retraso máximo {} ms", replicas.size(), maxLagMillis);
+        return new MonitorReplicas(primario, replicas, maxLagMillis, intervaloMillis, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(MonitorReplicas monitor,
+                          MeterRegistry meterRegistry,
+                          @Value("${forohub.replicas.ventana-escritura-ms:5000}") long ventanaMillis) {
+        return new LazyConnectionDataSourceProxy(new RuteoDataSource(monitor, ventanaMillis, meterRegistry));
+    }
+
+    private static HikariDataSource pool(Environment env, MeterRegistry meterRegistry, String nombre,
+                                         String url, String usuario, String password, String driver) {
+        HikariDataSource ds = new HikariDataSource();
+        // mismos ajustes que el pool por defecto de Spring Boot
+        Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(ds));
+        ds.setPoolName(nombre);
+        ds.setJdbcUrl(url);
+        ds.setUsername(usuario);
+        ds.setPassword(password);
+        if (driver != null) ds.setDriverClassName(driver);
+        ds.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return ds;
+    }
+}
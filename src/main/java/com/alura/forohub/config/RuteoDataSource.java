@@ -0,0 +1,160 @@
+package com.alura.forohub.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Elige primario o réplica por conexión:
+ *  - transacción de escritura (o sin transacción) -> primario, y se anota al usuario;
+ *  - readOnly de un usuario que escribió hace menos de 'ventana' -> primario
+ *    (lee lo que acaba de escribir aunque la réplica venga atrasada);
+ *  - readOnly -> réplica disponible según {@link MonitorReplicas}, o primario si no hay.
+ *
+ * "Escribió hace poco" se sabe por dos vías: el mapa por usuario de este nodo y
+ * la hora de la última escritura que trae el cliente (cookie, ver
+ * {@link EscrituraRecienteFilter}). El mapa solo ve lo escrito en este nodo; con
+ * varios nodos detrás de un balanceador es la cookie la que mantiene la garantía.
+ *
+ * Debe usarse detrás de un LazyConnectionDataSourceProxy: la conexión real se
+ * pide con la primera sentencia, cuando el flag readOnly de la transacción ya está puesto.
+ */
+public class RuteoDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARIO = "primario";
+
+    private static final int MAX_ESCRITORES = 10_000;
+
+    private final MonitorReplicas monitor;
+    private final long ventanaMillis;
+    private final Map<String, Long> escriturasRecientes = new ConcurrentHashMap<>();
+
+    /** Marca del request actual (la abre EscrituraRecienteFilter). */
+    private static final ThreadLocal<MarcaCliente> MARCA = new ThreadLocal<>();
+
+    private final Counter aPrimario;
+    private final Counter aReplica;
+    private final Counter porEscrituraReciente;
+    private final Counter sinReplicas;
+
+    public RuteoDataSource(MonitorReplicas monitor, long ventanaMillis, MeterRegistry meterRegistry) {
+        this.monitor = monitor;
+        this.ventanaMillis = ventanaMillis;
+
+        Map<Object, Object> destinos = new HashMap<>();
+        destinos.put(PRIMARIO, monitor.primario());
+        for (MonitorReplicas.Replica r : monitor.replicas()) {
+            destinos.put(r.nombre(), r.dataSource());
+        }
+        setTargetDataSources(destinos);
+        setDefaultTargetDataSource(monitor.primario());
+        afterPropertiesSet();
+
+        aPrimario = contador(meterRegistry, "primario", "escritura");
+        aReplica = contador(meterRegistry, "replica", "lectura");
+        porEscrituraReciente = contador(meterRegistry, "primario", "escritura-reciente");
+        sinReplicas = contador(meterRegistry, "primario", "sin-replicas");
+    }
+
+    /**
+     * Última escritura informada por el cliente en el request actual. Si en el
+     * request se escribe, avisa una vez para que el filtro renueve la cookie.
+     */
+    static final class MarcaCliente {
+        private final long escrituraMillis;
+        private final Runnable alEscribir;
+        private boolean avisado;
+
+        MarcaCliente(long escrituraMillis, Runnable alEscribir) {
+            this.escrituraMillis = escrituraMillis;
+            this.alEscribir = alEscribir;
+        }
+
+        boolean vigente(long ventanaMillis) {
+            return escrituraMillis > 0 && escrituraMillis + ventanaMillis > System.currentTimeMillis();
+        }
+
+        void escribio() {
+            if (!avisado) {
+                avisado = true;
+                alEscribir.run();
+            }
+        }
+    }
+
+    static void abrir(MarcaCliente marca) {
+        MARCA.set(marca);
+    }
+
+    static void cerrar() {
+        MARCA.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String usuario = usuarioActual();
+        MarcaCliente marca = MARCA.get();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                if (usuario != null) anotarEscritura(usuario);
+                if (marca != null) marca.escribio();
+            }
+            aPrimario.increment();
+            return PRIMARIO;
+        }
+        if ((usuario != null && escribioRecien(usuario)) || (marca != null && marca.vigente(ventanaMillis))) {
+            porEscrituraReciente.increment();
+            return PRIMARIO;
+        }
+        MonitorReplicas.Replica replica = monitor.elegir();
+        if (replica == null) {
+            sinReplicas.increment();
+            return PRIMARIO;
+        }
+        aReplica.increment();
+        return replica.nombre();
+    }
+
+    private void anotarEscritura(String usuario) {
+        long ahora = System.currentTimeMillis();
+        if (escriturasRecientes.size() >= MAX_ESCRITORES) {
+            escriturasRecientes.values().removeIf(hasta -> hasta <= ahora);
+        }
+        escriturasRecientes.put(usuario, ahora + ventanaMillis);
+    }
+
+    private boolean escribioRecien(String usuario) {
+        Long hasta = escriturasRecientes.get(usuario);
+        return hasta != null && hasta > System.currentTimeMillis();
+    }
+
+    private static String usuarioActual() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || auth instanceof AnonymousAuthenticationToken || !auth.isAuthenticated()) {
+            return null;
+        }
+        return auth.getName();
+    }
+
+    private static Counter contador(MeterRegistry registry, String destino, String motivo) {
+        return Counter.builder("forohub.db.ruteo")
+                .description("Conexiones entregadas por destino y motivo")
+                .tag("destino", destino)
+                .tag("motivo", motivo)
+                .register(registry);
+    }
+
+    /** Pool al que iría una conexión pedida ahora (para tests y diagnóstico). */
+    DataSource destinoActual() {
+        return determineTargetDataSource();
+    }
+}
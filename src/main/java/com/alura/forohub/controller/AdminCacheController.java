@@ -0,0 +1,80 @@
+package com.alura.forohub.controller;
+
+import com.alura.forohub.model.Usuario;
+import com.alura.forohub.service.ListadoTopicosCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.NaturalIdStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Estadísticas del cache de segundo nivel de Hibernate y del cache de listados serializados.
+ * Rutas bajo /api/admin/cache. SOLO ADMIN.
+ */
+@RestController
+@RequestMapping("/api/admin/cache")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminCacheController {
+
+    private final Statistics statistics;
+    private final ListadoTopicosCache listadoCache;
+
+    public AdminCacheController(EntityManagerFactory entityManagerFactory, ListadoTopicosCache listadoCache) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.listadoCache = listadoCache;
+    }
+
+    public record RegionDto(String region, long hits, long misses, long puts, long elementosEnMemoria) { }
+
+    public record ListadosDto(long hits, long misses, int entradas, long version) { }
+
+    public record CacheEstadisticasDto(
+            boolean estadisticasHabilitadas,
+            RegionDto usuarios,
+            RegionDto usuariosPorUsername,
+            long naturalIdConsultasSql,
+            long sentenciasPreparadas,
+            ListadosDto listados
+    ) { }
+
+    /**
+     * GET /api/admin/cache
+     * Hits / misses / puts de las regiones de Usuario.
+     */
+    @GetMapping
+    public ResponseEntity<CacheEstadisticasDto> estadisticas() {
+        NaturalIdStatistics naturalId = statistics.getNaturalIdStatistics(Usuario.class.getName());
+        return ResponseEntity.ok(new CacheEstadisticasDto(
+                statistics.isStatisticsEnabled(),
+                region("usuarios"),
+                region("usuarios-username"),
+                naturalId.getExecutionCount(),
+                statistics.getPrepareStatementCount(),
+                new ListadosDto((long) listadoCache.hits(), (long) listadoCache.misses(),
+                        listadoCache.tamanio(), listadoCache.version())
+        ));
+    }
+
+    /**
+     * DELETE /api/admin/cache/listados
+     * Descarta las páginas de GET /api/topicos cacheadas (ej: después de cargar datos por JDBC).
+     */
+    @DeleteMapping("/listados")
+    public ResponseEntity<Void> invalidarListados() {
+        listadoCache.invalidar();
+        return ResponseEntity.noContent().build();
+    }
+
+    private RegionDto region(String nombre) {
+        CacheRegionStatistics r = statistics.getDomainDataRegionStatistics(nombre);
+        return new RegionDto(nombre, r.getHitCount(), r.getMissCount(), r.getPutCount(),
+                r.getElementCountInMemory());
+    }
+}
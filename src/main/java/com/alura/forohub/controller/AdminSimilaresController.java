@@ -0,0 +1,66 @@
+package com.alura.forohub.controller;
+
+import com.alura.forohub.dto.TopicoResponseDto;
+import com.alura.forohub.repository.TopicoRepository;
+import com.alura.forohub.service.IndiceCasiDuplicados;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Grupos de tópicos casi duplicados según IndiceCasiDuplicados, para moderación.
+ * Rutas bajo /api/admin/topicos/similares. SOLO ADMIN.
+ */
+@RestController
+@RequestMapping("/api/admin/topicos/similares")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminSimilaresController {
+
+    private static final int MAX_GRUPOS = 100;
+
+    private final IndiceCasiDuplicados indice;
+    private final TopicoRepository topicoRepository;
+
+    public AdminSimilaresController(IndiceCasiDuplicados indice, TopicoRepository topicoRepository) {
+        this.indice = indice;
+        this.topicoRepository = topicoRepository;
+    }
+
+    public record GrupoDto(int cantidad, double similitudMaxima, List<TopicoResponseDto> topicos) { }
+
+    public record SimilaresDto(boolean listo, int indexados, double umbral, List<GrupoDto> grupos) { }
+
+    /**
+     * GET /api/admin/topicos/similares?umbral=0.9&max=20
+     * Grupos más grandes primero; 'umbral' por defecto el de forohub.similares.umbral.
+     */
+    @GetMapping
+    public ResponseEntity<SimilaresDto> grupos(@RequestParam(required = false) Double umbral,
+                                               @RequestParam(defaultValue = "20") int max) {
+        double u = umbral != null ? Math.max(0.0, Math.min(1.0, umbral)) : indice.umbral();
+        List<IndiceCasiDuplicados.Grupo> grupos = indice.grupos(u, Math.max(1, Math.min(max, MAX_GRUPOS)));
+
+        // un único SELECT para todos los tópicos de todos los grupos
+        List<Long> ids = grupos.stream().flatMap(g -> g.topicoIds().stream()).toList();
+        Map<Long, TopicoResponseDto> porId = ids.isEmpty() ? Map.of()
+                : topicoRepository.findDtoPorIds(ids).stream()
+                        .collect(Collectors.toMap(TopicoResponseDto::id, Function.identity()));
+
+        List<GrupoDto> contenido = new ArrayList<>(grupos.size());
+        for (IndiceCasiDuplicados.Grupo g : grupos) {
+            List<TopicoResponseDto> topicos = g.topicoIds().stream().map(porId::get)
+                    .filter(t -> t != null).toList();
+            if (topicos.size() > 1) contenido.add(new GrupoDto(topicos.size(), g.similitudMaxima(), topicos));
+        }
+        return ResponseEntity.ok(new SimilaresDto(indice.isListo(), indice.tamanio(), u, contenido));
+    }
+}
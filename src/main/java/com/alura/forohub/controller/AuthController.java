@@ -3,12 +3,17 @@ package com.alura.forohub.controller;
 import com.alura.forohub.model.Usuario;
 import com.alura.forohub.repository.UsuarioRepository;
 import com.alura.forohub.security.JwtUtil;
+import com.alura.forohub.service.DiarioCambiosCache;
+import com.alura.forohub.util.RestriccionesBd;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Optional;
@@ -21,6 +26,7 @@ import java.util.Optional;
  * Implementación imperativa para evitar problemas de inferencia de tipos
  * al combinar ramas que devuelven ResponseEntity con diferentes genéricos.
  */
+@Timed(value = "forohub.auth", histogram = true)
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
@@ -28,13 +34,19 @@ public class AuthController {
     private final JwtUtil jwtUtil;
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+    private final DiarioCambiosCache diario;
 
     public AuthController(JwtUtil jwtUtil,
                           UsuarioRepository usuarioRepository,
-                          PasswordEncoder passwordEncoder) {
+                          PasswordEncoder passwordEncoder,
+                          TransactionTemplate transactionTemplate,
+                          DiarioCambiosCache diario) {
         this.jwtUtil = jwtUtil;
         this.usuarioRepository = usuarioRepository;
         this.passwordEncoder = passwordEncoder;
+        this.transactionTemplate = transactionTemplate;
+        this.diario = diario;
     }
 
     // DTOs internos
@@ -85,13 +97,6 @@ public class AuthController {
      */
     @PostMapping("/register")
     public ResponseEntity<Object> register(@Valid @RequestBody RegisterRequest req) {
-        if (usuarioRepository.existsByUsername(req.username())) {
-            return ResponseEntity.badRequest().body("El username ya existe");
-        }
-        if (usuarioRepository.existsByEmail(req.email())) {
-            return ResponseEntity.badRequest().body("El email ya está registrado");
-        }
-
         Usuario u = new Usuario();
         u.setUsername(req.username());
         u.setNombre(req.nombre());
@@ -99,7 +104,23 @@ public class AuthController {
         u.setPassword(passwordEncoder.encode(req.password()));
         u.setActivo(true);
         u.setRol("ROLE_USER");
-        usuarioRepository.save(u);
+        // un solo INSERT: los duplicados los detectan las claves únicas (sin carrera entre requests).
+        // La anotación para los otros nodos va en la misma transacción; la excepción sale del
+        // template (rollback) antes de traducirse a 400.
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                usuarioRepository.save(u);
+                diario.anotar(DiarioCambiosCache.USUARIOS, u.getId());
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (RestriccionesBd.violada(e, RestriccionesBd.UQ_USUARIO_USERNAME)) {
+                return ResponseEntity.badRequest().body("El username ya existe");
+            }
+            if (RestriccionesBd.violada(e, RestriccionesBd.UQ_USUARIO_EMAIL)) {
+                return ResponseEntity.badRequest().body("El email ya está registrado");
+            }
+            throw e;
+        }
 
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
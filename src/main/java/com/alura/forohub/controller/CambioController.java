@@ -0,0 +1,35 @@
+package com.alura.forohub.controller;
+
+import com.alura.forohub.dto.CambiosDto;
+import com.alura.forohub.service.CambioService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Sincronización incremental para clientes (ej: escritorio).
+ * Rutas bajo /api/cambios
+ */
+@RestController
+@RequestMapping("/api/cambios")
+public class CambioController {
+
+    private final CambioService cambioService;
+
+    public CambioController(CambioService cambioService) {
+        this.cambioService = cambioService;
+    }
+
+    /**
+     * GET /api/cambios?desde=&size=
+     * Altas, ediciones, bajas y reactivaciones de tópicos y respuestas posteriores
+     * al cursor, en orden de confirmación. desde=0 trae todo el registro.
+     */
+    @GetMapping
+    public ResponseEntity<CambiosDto> cambios(@RequestParam(defaultValue = "0") long desde,
+                                              @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(cambioService.listarDesde(desde, size));
+    }
+}
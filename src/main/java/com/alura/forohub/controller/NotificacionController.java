@@ -0,0 +1,36 @@
+package com.alura.forohub.controller;
+
+import com.alura.forohub.dto.CursorPageDto;
+import com.alura.forohub.dto.NotificacionDto;
+import com.alura.forohub.service.NotificacionService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Bandeja de notificaciones del usuario autenticado.
+ * Rutas bajo /api/notificaciones
+ */
+@RestController
+@RequestMapping("/api/notificaciones")
+public class NotificacionController {
+
+    private final NotificacionService notificacionService;
+
+    public NotificacionController(NotificacionService notificacionService) {
+        this.notificacionService = notificacionService;
+    }
+
+    /**
+     * GET /api/notificaciones?cursor=&size=
+     * Respuestas nuevas en tópicos propios o donde el usuario participó,
+     * agrupadas por tópico, más nuevas primero, paginadas por cursor.
+     */
+    @GetMapping
+    public ResponseEntity<CursorPageDto<NotificacionDto>> listar(@RequestParam(required = false) String cursor,
+                                                                 @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(notificacionService.listarPropias(cursor, size));
+    }
+}
@@ -1,8 +1,11 @@
 package com.alura.forohub.controller;
 
+import com.alura.forohub.dto.CursorPageDto;
 import com.alura.forohub.dto.RespuestaCreateDto;
+import com.alura.forohub.dto.RespuestaNodoDto;
 import com.alura.forohub.dto.RespuestaResponseDto;
 import com.alura.forohub.dto.RespuestaUpdateDto;
+import com.alura.forohub.service.RespuestaIngesta;
 import com.alura.forohub.service.RespuestaService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
@@ -23,19 +26,42 @@ import java.net.URI;
 public class RespuestaController {
 
     private final RespuestaService respuestaService;
+    private final RespuestaIngesta ingesta;
 
-    public RespuestaController(RespuestaService respuestaService) {
+    public RespuestaController(RespuestaService respuestaService, RespuestaIngesta ingesta) {
         this.respuestaService = respuestaService;
+        this.ingesta = ingesta;
     }
 
     /**
      * POST /api/respuestas
      * Crea una nueva respuesta.
      * Devuelve 201 Created con ubicación del recurso.
+     *
+     * Con la ingesta por lotes habilitada (forohub.ingesta.habilitada=true):
+     *  - por defecto se espera a que el lote se escriba (mismo 201 de siempre);
+     *  - con el header "Prefer: respond-async" se devuelve 202 Accepted con
+     *    Location apuntando a /api/respuestas/ingesta/{ticket}.
+     *  - si la espera vence la respuesta sigue encolada: también 202 con su
+     *    ticket, para que el cliente consulte en lugar de reenviarla.
      */
     @PostMapping
-    public ResponseEntity<RespuestaResponseDto> crearRespuesta(@Valid @RequestBody RespuestaCreateDto dto) {
-        RespuestaResponseDto creado = respuestaService.crearRespuesta(dto);
+    public ResponseEntity<RespuestaResponseDto> crearRespuesta(
+            @Valid @RequestBody RespuestaCreateDto dto,
+            @RequestHeader(name = "Prefer", required = false) String prefer) {
+        RespuestaResponseDto creado;
+        if (ingesta.isHabilitada()) {
+            if (prefer != null && prefer.contains("respond-async")) {
+                return aceptada(ingesta.encolarConTicket(dto));
+            }
+            RespuestaIngesta.Resultado resultado = ingesta.crearYEsperar(dto);
+            if (resultado.creada() == null) {
+                return aceptada(resultado.ticket());
+            }
+            creado = resultado.creada();
+        } else {
+            creado = respuestaService.crearRespuesta(dto);
+        }
 
         URI location = ServletUriComponentsBuilder.fromCurrentRequest()
                 .path("/{id}")
@@ -45,6 +71,14 @@ public class RespuestaController {
         return ResponseEntity.created(location).body(creado);
     }
 
+    private static ResponseEntity<RespuestaResponseDto> aceptada(String ticket) {
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/ingesta/{ticket}")
+                .buildAndExpand(ticket)
+                .toUri();
+        return ResponseEntity.accepted().location(location).build();
+    }
+
     /**
      * GET /api/respuestas?topicoId={id}
      * Listado paginado de respuestas de un tópico (activo=true).
@@ -57,6 +91,56 @@ public class RespuestaController {
         return ResponseEntity.ok(page);
     }
 
+    /**
+     * GET /api/respuestas/ingesta/{ticket}
+     * Estado de una respuesta encolada: 202 mientras está pendiente,
+     * 200 con la respuesta una vez escrita.
+     */
+    @GetMapping("/ingesta/{ticket}")
+    public ResponseEntity<RespuestaResponseDto> estadoIngesta(@PathVariable String ticket) {
+        RespuestaResponseDto dto = ingesta.resultado(ticket);
+        if (dto == null) {
+            return ResponseEntity.accepted().build();
+        }
+        return ResponseEntity.ok(dto);
+    }
+
+    /**
+     * GET /api/respuestas/ingesta/metricas
+     * Profundidad de la cola y tamaño de los lotes. SOLO ADMIN.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/ingesta/metricas")
+    public ResponseEntity<RespuestaIngesta.Metricas> metricasIngesta() {
+        return ResponseEntity.ok(ingesta.metricas());
+    }
+
+    /**
+     * GET /api/respuestas/arbol?topicoId={id}&cursor=&size=&profundidad=
+     * Hilos del tópico ya ensamblados como árbol (raíces paginadas por cursor).
+     * Un nodo con "truncado": true tiene más descendientes de los que entraron:
+     * se completan con /{id}/subarbol.
+     */
+    @GetMapping("/arbol")
+    public ResponseEntity<CursorPageDto<RespuestaNodoDto>> arbol(
+            @RequestParam(name = "topicoId") Long topicoId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "5") int profundidad) {
+        return ResponseEntity.ok(respuestaService.arbolPorTopico(topicoId, cursor, size, profundidad));
+    }
+
+    /**
+     * GET /api/respuestas/{id}/subarbol?profundidad=
+     * Subárbol de una respuesta (ella + sus descendientes). 'profundidad' es
+     * relativa a la respuesta pedida.
+     */
+    @GetMapping("/{id}/subarbol")
+    public ResponseEntity<RespuestaNodoDto> subarbol(@PathVariable Long id,
+                                                     @RequestParam(defaultValue = "5") int profundidad) {
+        return ResponseEntity.ok(respuestaService.subarbol(id, profundidad));
+    }
+
     /**
      * GET /api/respuestas/{id}
      * Devuelve detalle de una respuesta activa.
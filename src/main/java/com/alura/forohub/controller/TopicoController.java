@@ -3,14 +3,17 @@ package com.alura.forohub.controller;
 import com.alura.forohub.dto.TopicoCreateDto;
 import com.alura.forohub.dto.TopicoResponseDto;
 import com.alura.forohub.dto.TopicoUpdateDto;
+import com.alura.forohub.eventos.TopicoEventosHub;
 import com.alura.forohub.service.TopicoService;
 import jakarta.validation.Valid;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
@@ -24,9 +27,11 @@ import java.net.URI;
 public class TopicoController {
 
     private final TopicoService topicoService;
+    private final TopicoEventosHub eventosHub;
 
-    public TopicoController(TopicoService topicoService) {
+    public TopicoController(TopicoService topicoService, TopicoEventosHub eventosHub) {
         this.topicoService = topicoService;
+        this.eventosHub = eventosHub;
     }
 
     /**
@@ -48,12 +53,16 @@ public class TopicoController {
 
     /**
      * GET /api/topicos
-     * Listado paginado de tópicos activos.
+     * Listado paginado de tópicos activos, opcionalmente filtrado por ?curso=.
      * @ParameterObject mejora cómo springdoc/swaggeR UI renderiza los campos de Pageable.
+     * Las primeras páginas se sirven ya serializadas desde ListadoTopicosCacheFilter.
      */
     @GetMapping
-    public ResponseEntity<Page<TopicoResponseDto>> listarTopicos(@ParameterObject Pageable pageable) {
-        Page<TopicoResponseDto> page = topicoService.listarTopicos(pageable);
+    public ResponseEntity<Page<TopicoResponseDto>> listarTopicos(@RequestParam(required = false) String curso,
+                                                                 @ParameterObject Pageable pageable) {
+        Page<TopicoResponseDto> page = curso != null
+                ? topicoService.listarPorCurso(curso, pageable)
+                : topicoService.listarTopicos(pageable);
         return ResponseEntity.ok(page);
     }
 
@@ -67,6 +76,18 @@ public class TopicoController {
         return ResponseEntity.ok(dto);
     }
 
+    /**
+     * GET /api/topicos/{id}/eventos
+     * Stream SSE con las respuestas nuevas del tópico (reemplaza el polling de
+     * GET /api/respuestas?topicoId=). Con el header Last-Event-ID se reenvían
+     * las respuestas perdidas durante la reconexión.
+     */
+    @GetMapping(path = "/{id}/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter eventos(@PathVariable Long id,
+                              @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return eventosHub.suscribir(id, lastEventId);
+    }
+
     /**
      * PUT /api/topicos/{id}
      * Actualiza un tópico existente.
@@ -0,0 +1,112 @@
+package com.alura.forohub.controller;
+
+import com.alura.forohub.dto.CursorPageDto;
+import com.alura.forohub.dto.RespuestaResponseDto;
+import com.alura.forohub.dto.TopicoResponseDto;
+import com.alura.forohub.dto.UsuarioResumenDto;
+import com.alura.forohub.service.RespuestaService;
+import com.alura.forohub.service.TopicoService;
+import com.alura.forohub.service.UsuarioService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Controlador REST para el historial de usuarios.
+ * Rutas bajo /api/usuarios
+ */
+@RestController
+@RequestMapping("/api/usuarios")
+public class UsuarioController {
+
+    /** Content-Type de las exportaciones: un objeto JSON por línea. */
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final TopicoService topicoService;
+    private final RespuestaService respuestaService;
+    private final UsuarioService usuarioService;
+    private final ObjectWriter writer;
+
+    public UsuarioController(TopicoService topicoService,
+                             RespuestaService respuestaService,
+                             UsuarioService usuarioService,
+                             ObjectMapper objectMapper) {
+        this.topicoService = topicoService;
+        this.respuestaService = respuestaService;
+        this.usuarioService = usuarioService;
+        this.writer = objectMapper.writer();
+    }
+
+    /**
+     * GET /api/usuarios/{id}/resumen
+     * Resumen de actividad para el hovercard de perfil (cacheado).
+     */
+    @GetMapping("/{id}/resumen")
+    public ResponseEntity<UsuarioResumenDto> resumen(@PathVariable Long id) {
+        return ResponseEntity.ok(usuarioService.obtenerResumen(id));
+    }
+
+    /**
+     * GET /api/usuarios/{id}/respuestas?cursor=&size=
+     * Respuestas activas del usuario, más nuevas primero, paginadas por cursor.
+     */
+    @GetMapping("/{id}/respuestas")
+    public ResponseEntity<CursorPageDto<RespuestaResponseDto>> respuestas(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(respuestaService.listarPorAutor(id, cursor, size));
+    }
+
+    /**
+     * GET /api/usuarios/{id}/topicos?cursor=&size=
+     * Tópicos activos del usuario, más nuevos primero, paginados por cursor.
+     */
+    @GetMapping("/{id}/topicos")
+    public ResponseEntity<CursorPageDto<TopicoResponseDto>> topicos(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(topicoService.listarPorAutor(id, cursor, size));
+    }
+
+    /**
+     * GET /api/usuarios/{id}/respuestas/export
+     * Exportación completa (NDJSON en streaming) para moderación. SOLO ADMIN.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/{id}/respuestas/export")
+    public ResponseEntity<StreamingResponseBody> exportarRespuestas(@PathVariable Long id) {
+        StreamingResponseBody body = out -> respuestaService.exportarPorAutor(id, dto -> escribirLinea(out, dto));
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    /**
+     * GET /api/usuarios/{id}/topicos/export
+     * Exportación completa (NDJSON en streaming) para moderación. SOLO ADMIN.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/{id}/topicos/export")
+    public ResponseEntity<StreamingResponseBody> exportarTopicos(@PathVariable Long id) {
+        StreamingResponseBody body = out -> topicoService.exportarPorAutor(id, dto -> escribirLinea(out, dto));
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    private void escribirLinea(OutputStream out, Object dto) {
+        try {
+            out.write(writer.writeValueAsBytes(dto));
+            out.write('\n');
+        } catch (IOException e) {
+            // cliente desconectado: cortamos el recorrido del stream
+            throw new UncheckedIOException(e);
+        }
+    }
+}
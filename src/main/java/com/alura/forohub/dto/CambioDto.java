@@ -0,0 +1,22 @@
+package com.alura.forohub.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * Un cambio del registro. Para altas, ediciones y reactivaciones incluye el
+ * estado actual del tópico o la respuesta (puede ser más nuevo que el cambio);
+ * para bajas solo los ids.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CambioDto(
+        long id,
+        String entidad,
+        Long entidadId,
+        Long topicoId,
+        String operacion,
+        LocalDateTime fecha,
+        TopicoResponseDto topico,
+        RespuestaResponseDto respuesta
+) { }
@@ -0,0 +1,15 @@
+package com.alura.forohub.dto;
+
+import java.util.List;
+
+/**
+ * Lote de GET /api/cambios.
+ * - cambios: en orden de confirmación
+ * - cursor: valor a enviar como ?desde= en el próximo pedido (igual al recibido si no hubo cambios)
+ * - hayMas: true si conviene pedir de nuevo enseguida (el lote se cortó por tamaño)
+ */
+public record CambiosDto(
+        List<CambioDto> cambios,
+        long cursor,
+        boolean hayMas
+) { }
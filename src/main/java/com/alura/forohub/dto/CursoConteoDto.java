@@ -0,0 +1,9 @@
+package com.alura.forohub.dto;
+
+/**
+ * Curso y cantidad de tópicos que un usuario publicó en él.
+ */
+public record CursoConteoDto(
+        String curso,
+        Long topicos
+) { }
@@ -0,0 +1,13 @@
+package com.alura.forohub.dto;
+
+import java.util.List;
+
+/**
+ * Página de resultados con paginación por cursor (keyset).
+ * - contenido: elementos de la página
+ * - siguienteCursor: valor a enviar como ?cursor= para pedir la próxima página (null si no hay más)
+ */
+public record CursorPageDto<T>(
+        List<T> contenido,
+        String siguienteCursor
+) { }
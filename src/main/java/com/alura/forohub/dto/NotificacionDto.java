@@ -0,0 +1,16 @@
+package com.alura.forohub.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notificación de la bandeja del usuario.
+ * - respuestaId: la respuesta más nueva de las 'cantidad' agrupadas en el tópico
+ */
+public record NotificacionDto(
+        Long id,
+        String tipo,
+        Long topicoId,
+        Long respuestaId,
+        int cantidad,
+        LocalDateTime fecha
+) { }
@@ -0,0 +1,24 @@
+package com.alura.forohub.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+/**
+ * Cuerpo de error en formato RFC 7807 (application/problem+json).
+ *
+ * - type: siempre "about:blank" (el significado lo da el status)
+ * - title: frase estándar del status (ej: "Not Found")
+ * - detail: mensaje para el cliente
+ * - instance: URI del request
+ * - errors: solo en errores de validación (campo -> mensaje)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProblemaDto(
+        String type,
+        String title,
+        int status,
+        String detail,
+        String instance,
+        Map<String, String> errors
+) { }
@@ -15,5 +15,8 @@ public record RespuestaCreateDto(
         Long autorId,
 
         @NotNull(message = "El id del tópico es obligatorio")
-        Long topicoId
+        Long topicoId,
+
+        // Opcional: id de la respuesta a la que se contesta (hilo anidado)
+        Long parentId
 ) { }
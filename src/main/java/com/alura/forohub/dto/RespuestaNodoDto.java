@@ -0,0 +1,45 @@
+package com.alura.forohub.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Nodo del árbol de respuestas (hilo anidado).
+ * 'respuestas' contiene los hijos directos ya ensamblados.
+ *
+ * 'truncado' (solo aparece en el JSON cuando es true): el nodo tiene
+ * descendientes que no entraron por el tope de nodos de la respuesta; se piden
+ * con GET /api/respuestas/{id}/subarbol.
+ */
+public record RespuestaNodoDto(
+        Long id,
+        String mensaje,
+        LocalDateTime fechaCreacion,
+        Long autorId,
+        String autorNombre,
+        Long parentId,
+        Integer profundidad,
+        List<RespuestaNodoDto> respuestas,
+        @JsonInclude(JsonInclude.Include.NON_DEFAULT) boolean truncado
+) {
+
+    /**
+     * Constructor usado por las proyecciones JPQL (nodo sin hijos todavía).
+     */
+    public RespuestaNodoDto(Long id, String mensaje, LocalDateTime fechaCreacion,
+                            Long autorId, String autorNombre, Long parentId, Integer profundidad) {
+        this(id, mensaje, fechaCreacion, autorId, autorNombre, parentId, profundidad, new ArrayList<>(), false);
+    }
+
+    /**
+     * El mismo nodo marcado como truncado. Comparte la lista de hijos: se llama
+     * antes de colgarle descendientes.
+     */
+    public RespuestaNodoDto comoTruncado() {
+        return new RespuestaNodoDto(id, mensaje, fechaCreacion, autorId, autorNombre, parentId, profundidad,
+                respuestas, true);
+    }
+}
@@ -0,0 +1,16 @@
+package com.alura.forohub.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Resumen de actividad de un usuario (hovercard de perfil).
+ */
+public record UsuarioResumenDto(
+        Long usuarioId,
+        String nombre,
+        long topicos,
+        long respuestas,
+        LocalDateTime ultimaActividad,
+        List<CursoConteoDto> cursosPrincipales
+) { }
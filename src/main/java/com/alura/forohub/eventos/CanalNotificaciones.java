@@ -0,0 +1,25 @@
+package com.alura.forohub.eventos;
+
+import com.alura.forohub.dto.NotificacionDto;
+
+import java.util.List;
+
+/**
+ * Canal de entrega de notificaciones (push, email, webhook...).
+ *
+ * DespachadorNotificaciones llama a todos los beans que implementan esta
+ * interfaz, desde su hilo y después de escribir la bandeja: la bandeja es la
+ * fuente de verdad y un canal que falla no pierde nada (el usuario la ve en
+ * GET /api/notificaciones). No hay reintentos: si un canal los necesita, los
+ * maneja él mismo, sin bloquear al despachador.
+ */
+public interface CanalNotificaciones {
+
+    /** Nombre corto para métricas y logs. */
+    String nombre();
+
+    /**
+     * Notificaciones nuevas de un destinatario, ya agrupadas por tópico y guardadas (con id).
+     */
+    void entregar(Long usuarioId, List<NotificacionDto> notificaciones);
+}
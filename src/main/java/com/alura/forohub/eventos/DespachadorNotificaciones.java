@@ -0,0 +1,319 @@
+package com.alura.forohub.eventos;
+
+import com.alura.forohub.dto.NotificacionDto;
+import com.alura.forohub.dto.RespuestaResponseDto;
+import com.alura.forohub.model.Notificacion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Notificaciones de respuestas nuevas, fuera del camino del request.
+ *
+ * Diseño:
+ *  - RespuestaCreadaEvent llega después del commit (creación directa o ingesta
+ *    por lotes) y solo se encola en una cola acotada: el request no espera ni
+ *    consulta nada. Con la cola llena la notificación se descarta y se cuenta
+ *    (la respuesta ya está guardada; perder un aviso es preferible a frenar escrituras).
+ *  - Un único hilo drena la cola en lotes ('max-lote' o 'max-latencia-ms' desde
+ *    el primero) y resuelve los destinatarios de todos los tópicos del lote con
+ *    dos consultas: el autor de cada tópico y quienes ya habían respondido.
+ *  - Se agrupa por (destinatario, tópico): diez respuestas seguidas en un tópico
+ *    son una sola notificación con cantidad=10, no diez.
+ *  - La bandeja se escribe con INSERT multi-fila en una transacción; después se
+ *    entrega a los CanalNotificaciones registrados.
+ *
+ * Nadie se notifica a sí mismo, y un participante solo recibe las respuestas
+ * posteriores a su primera respuesta en el tópico.
+ */
+@Component
+public class DespachadorNotificaciones {
+
+    private static final Logger log = LoggerFactory.getLogger(DespachadorNotificaciones.class);
+
+    private static final String INSERT_PREFIJO =
+            "INSERT INTO notificaciones (usuario_id, tipo, topico_id, respuesta_id, cantidad, fecha) VALUES ";
+    private static final String INSERT_FILA = "(?, ?, ?, ?, ?, ?)";
+    /** Filas por sentencia: un tópico muy concurrido puede tener miles de participantes. */
+    private static final int FILAS_POR_INSERT = 500;
+
+    /** Notificación acumulada para un destinatario en un tópico. */
+    private record Clave(Long usuarioId, Long topicoId) { }
+
+    private static final class Acumulada {
+        String tipo;
+        long respuestaId;
+        int cantidad;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<CanalNotificaciones> proveedorCanales;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean habilitado;
+    private final int maxLote;
+    private final long maxLatenciaNanos;
+    private final BlockingQueue<RespuestaResponseDto> cola;
+
+    private final Counter descartadas;
+    private final Counter escritas;
+
+    private List<CanalNotificaciones> canales = List.of();
+    private volatile boolean corriendo;
+    private Thread despachador;
+
+    public DespachadorNotificaciones(JdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     ObjectProvider<CanalNotificaciones> proveedorCanales,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${forohub.notificaciones.habilitado:true}") boolean habilitado,
+                                     @Value("${forohub.notificaciones.capacidad:10000}") int capacidad,
+                                     @Value("${forohub.notificaciones.max-lote:500}") int maxLote,
+                                     @Value("${forohub.notificaciones.max-latencia-ms:200}") long maxLatenciaMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.proveedorCanales = proveedorCanales;
+        this.meterRegistry = meterRegistry;
+        this.habilitado = habilitado;
+        this.maxLote = maxLote;
+        this.maxLatenciaNanos = TimeUnit.MILLISECONDS.toNanos(maxLatenciaMillis);
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        Gauge.builder("forohub.notificaciones.cola", cola, BlockingQueue::size)
+                .description("Respuestas esperando ser notificadas")
+                .register(meterRegistry);
+        this.descartadas = Counter.builder("forohub.notificaciones.descartadas")
+                .description("Respuestas no notificadas por cola llena")
+                .register(meterRegistry);
+        this.escritas = Counter.builder("forohub.notificaciones.escritas")
+                .description("Notificaciones escritas en las bandejas (ya agrupadas)")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (!habilitado) return;
+        canales = proveedorCanales.orderedStream().toList();
+        corriendo = true;
+        despachador = new Thread(this::bucleDespachador, "despachador-notificaciones");
+        despachador.setDaemon(true);
+        despachador.start();
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        corriendo = false;
+        if (despachador != null) {
+            despachador.interrupt();
+            despachador.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Solo encola: corre en el hilo que confirmó la transacción.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onRespuestaCreada(RespuestaCreadaEvent event) {
+        if (!corriendo) return;
+        if (!cola.offer(event.respuesta())) {
+            descartadas.increment();
+        }
+    }
+
+    // -----------------------
+    // DESPACHADOR
+    // -----------------------
+
+    private void bucleDespachador() {
+        List<RespuestaResponseDto> lote = new ArrayList<>(maxLote);
+        while (corriendo || !cola.isEmpty()) {
+            try {
+                RespuestaResponseDto primera = cola.poll(1, TimeUnit.SECONDS);
+                if (primera == null) continue;
+                lote.add(primera);
+                long limite = System.nanoTime() + maxLatenciaNanos;
+                while (lote.size() < maxLote) {
+                    if (cola.drainTo(lote, maxLote - lote.size()) > 0) continue;
+                    long resta = limite - System.nanoTime();
+                    if (resta <= 0) break;
+                    RespuestaResponseDto r = cola.poll(resta, TimeUnit.NANOSECONDS);
+                    if (r == null) break;
+                    lote.add(r);
+                }
+                despachar(lote);
+            } catch (InterruptedException e) {
+                if (!corriendo) {
+                    // apagado: se despacha lo que quedó sin esperar
+                    cola.drainTo(lote);
+                    if (!lote.isEmpty()) despachar(lote);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                log.error("Falló un lote de {} notificaciones", lote.size(), e);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    /**
+     * Destinatarios, agrupación, bandeja y entrega de un lote de respuestas.
+     */
+    void despachar(List<RespuestaResponseDto> respuestas) {
+        Set<Long> topicoIds = new LinkedHashSet<>();
+        respuestas.forEach(r -> topicoIds.add(r.topicoId()));
+        String enLista = topicoIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+
+        Map<Long, Long> autorDeTopico = new HashMap<>();
+        jdbcTemplate.query("SELECT id, autor_id FROM topicos WHERE id IN (" + enLista + ")",
+                rs -> { autorDeTopico.put(rs.getLong("id"), rs.getLong("autor_id")); });
+
+        // topicoId -> (autorId -> id de su primera respuesta en el tópico)
+        Map<Long, Map<Long, Long>> participantes = new HashMap<>();
+        jdbcTemplate.query("SELECT topico_id, autor_id, MIN(id) AS primera FROM respuestas "
+                        + "WHERE topico_id IN (" + enLista + ") AND activo = TRUE GROUP BY topico_id, autor_id",
+                rs -> {
+                    participantes.computeIfAbsent(rs.getLong("topico_id"), k -> new HashMap<>())
+                            .put(rs.getLong("autor_id"), rs.getLong("primera"));
+                });
+
+        Map<Clave, Acumulada> acumuladas = new LinkedHashMap<>();
+        List<RespuestaResponseDto> ordenadas = new ArrayList<>(respuestas);
+        ordenadas.sort(Comparator.comparing(RespuestaResponseDto::id));
+        for (RespuestaResponseDto r : ordenadas) {
+            Long autorTopico = autorDeTopico.get(r.topicoId());
+            if (autorTopico == null) continue;  // tópico borrado físicamente
+            if (!autorTopico.equals(r.autorId())) {
+                acumular(acumuladas, new Clave(autorTopico, r.topicoId()), Notificacion.TOPICO_PROPIO, r.id());
+            }
+            for (Map.Entry<Long, Long> p : participantes.getOrDefault(r.topicoId(), Map.of()).entrySet()) {
+                Long usuarioId = p.getKey();
+                if (usuarioId.equals(r.autorId()) || usuarioId.equals(autorTopico) || p.getValue() >= r.id()) continue;
+                acumular(acumuladas, new Clave(usuarioId, r.topicoId()), Notificacion.PARTICIPACION, r.id());
+            }
+        }
+        if (acumuladas.isEmpty()) return;
+
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Map.Entry<Clave, Acumulada>> filas = new ArrayList<>(acumuladas.entrySet());
+        List<NotificacionDto> guardadas = transactionTemplate.execute(tx -> {
+            List<NotificacionDto> dtos = new ArrayList<>(filas.size());
+            for (int desde = 0; desde < filas.size(); desde += FILAS_POR_INSERT) {
+                dtos.addAll(insertar(filas.subList(desde, Math.min(filas.size(), desde + FILAS_POR_INSERT)), ahora));
+            }
+            return dtos;
+        });
+        escritas.increment(guardadas.size());
+
+        Map<Long, List<NotificacionDto>> porUsuario = new LinkedHashMap<>();
+        for (int i = 0; i < filas.size(); i++) {
+            porUsuario.computeIfAbsent(filas.get(i).getKey().usuarioId(), k -> new ArrayList<>()).add(guardadas.get(i));
+        }
+        entregar(porUsuario);
+    }
+
+    private static void acumular(Map<Clave, Acumulada> acumuladas, Clave clave, String tipo, long respuestaId) {
+        Acumulada a = acumuladas.computeIfAbsent(clave, k -> new Acumulada());
+        a.tipo = tipo;
+        a.respuestaId = Math.max(a.respuestaId, respuestaId);
+        a.cantidad++;
+    }
+
+    /**
+     * INSERT multi-fila + ids generados (en orden de inserción).
+     */
+    private List<NotificacionDto> insertar(List<Map.Entry<Clave, Acumulada>> filas, LocalDateTime fecha) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIJO.length() + filas.size() * (INSERT_FILA.length() + 1));
+        sql.append(INSERT_PREFIJO);
+        for (int i = 0; i < filas.size(); i++) {
+            if (i > 0) sql.append(',');
+            sql.append(INSERT_FILA);
+        }
+
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString(), Statement.RETURN_GENERATED_KEYS);
+            int i = 1;
+            for (Map.Entry<Clave, Acumulada> f : filas) {
+                ps.setLong(i++, f.getKey().usuarioId());
+                ps.setString(i++, f.getValue().tipo);
+                ps.setLong(i++, f.getKey().topicoId());
+                ps.setLong(i++, f.getValue().respuestaId);
+                ps.setInt(i++, f.getValue().cantidad);
+                ps.setTimestamp(i++, Timestamp.valueOf(fecha));
+            }
+            return ps;
+        }, keys);
+
+        List<Map<String, Object>> ids = keys.getKeyList();
+        List<NotificacionDto> dtos = new ArrayList<>(filas.size());
+        for (int i = 0; i < filas.size(); i++) {
+            Map.Entry<Clave, Acumulada> f = filas.get(i);
+            Number id = (Number) ids.get(i).values().iterator().next();
+            dtos.add(new NotificacionDto(id.longValue(), f.getValue().tipo, f.getKey().topicoId(),
+                    f.getValue().respuestaId, f.getValue().cantidad, fecha));
+        }
+        return dtos;
+    }
+
+    private void entregar(Map<Long, List<NotificacionDto>> porUsuario) {
+        for (CanalNotificaciones canal : canales) {
+            int ok = 0;
+            int errores = 0;
+            for (Map.Entry<Long, List<NotificacionDto>> e : porUsuario.entrySet()) {
+                try {
+                    canal.entregar(e.getKey(), e.getValue());
+                    ok++;
+                } catch (RuntimeException ex) {
+                    errores++;
+                    log.warn("El canal '{}' no pudo entregar al usuario {}: {}", canal.nombre(), e.getKey(), ex.getMessage());
+                }
+            }
+            contarEntregas(canal, "ok", ok);
+            contarEntregas(canal, "error", errores);
+        }
+    }
+
+    /**
+     * Counter forohub.notificaciones.entregas {canal, resultado}: un destinatario por entrega.
+     */
+    private void contarEntregas(CanalNotificaciones canal, String resultado, int cantidad) {
+        if (cantidad == 0) return;
+        Counter.builder("forohub.notificaciones.entregas")
+                .description("Entregas por canal (una por destinatario y lote)")
+                .tag("canal", canal.nombre())
+                .tag("resultado", resultado)
+                .register(meterRegistry)
+                .increment(cantidad);
+    }
+}
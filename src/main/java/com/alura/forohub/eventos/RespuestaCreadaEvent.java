@@ -0,0 +1,10 @@
+package com.alura.forohub.eventos;
+
+import com.alura.forohub.dto.RespuestaResponseDto;
+
+/**
+ * Evento de aplicación publicado por RespuestaServiceImpl al crear una respuesta.
+ * Los listeners lo consumen con @TransactionalEventListener(AFTER_COMMIT),
+ * así nunca se notifica una respuesta cuya transacción terminó en rollback.
+ */
+public record RespuestaCreadaEvent(RespuestaResponseDto respuesta) { }
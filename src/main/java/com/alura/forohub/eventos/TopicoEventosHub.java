@@ -0,0 +1,527 @@
+package com.alura.forohub.eventos;
+
+import com.alura.forohub.dto.RespuestaResponseDto;
+import com.alura.forohub.exception.RecursoNoEncontradoException;
+import com.alura.forohub.repository.RespuestaRepository;
+import com.alura.forohub.repository.TopicoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Hub en memoria que reparte (fan-out) las respuestas nuevas de cada tópico
+ * a los clientes suscriptos por Server-Sent Events.
+ *
+ * Diseño:
+ *  - Registro concurrente topicoId -> canal con sus suscriptores.
+ *  - Publicar nunca bloquea: el evento se serializa a JSON una sola vez y se
+ *    encola en el buffer acotado de cada cliente; un pool chico de escritores
+ *    drena los buffers. Si un cliente no consume y su buffer se llena, se lo
+ *    expulsa (cierra la conexión y reconecta con Last-Event-ID).
+ *  - emitter.send es una escritura bloqueante del servlet: un vigía expulsa al
+ *    cliente cuya escritura lleva más de 'plazo-escritura-ms' (también si ya se
+ *    lo expulsó por buffer lleno) y suma un hilo al pool mientras el escritor
+ *    trabado no vuelve, así un par de TCP colgados no frenan a los clientes sanos.
+ *  - Heartbeat periódico (comentario SSE) para mantener vivas las conexiones
+ *    y detectar clientes desconectados.
+ *  - Cada canal guarda las últimas N respuestas para reanudar con Last-Event-ID
+ *    sin ir a la base; si el hueco es mayor, se completa con una consulta acotada.
+ *    Mientras se reenvía, lo publicado en vivo espera y después se descarta lo
+ *    que ya salió en el reenvío: sin duplicados ni ids fuera de orden.
+ *
+ * Un suscriptor inactivo no ocupa hilos (async servlet), solo un par de objetos.
+ */
+@Component
+public class TopicoEventosHub {
+
+    private static final Logger log = LoggerFactory.getLogger(TopicoEventosHub.class);
+
+    private static final String NOMBRE_EVENTO = "respuesta";
+
+    private final RespuestaRepository respuestaRepository;
+    private final TopicoRepository topicoRepository;
+    private final ObjectMapper objectMapper;
+
+    private final int bufferPorCliente;
+    private final int historialPorTopico;
+    private final long timeoutMillis;
+    private final long plazoEscrituraNanos;
+    private final int hilosEscritura;
+
+    private final Map<Long, Canal> canales = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor escritores;
+    private final ScheduledExecutorService heartbeat;
+    /** Escritores trabados en un send que el vigía dio por perdidos (tienen reemplazo en el pool). */
+    private int abandonados;
+    /**
+     * Expulsados que todavía pueden estar en un send: ya no están en su canal y
+     * el vigía los busca acá. Es el caso típico: el cliente trabado es el que
+     * desborda el buffer antes de que venza el plazo.
+     */
+    private final Set<Suscriptor> saliendo = ConcurrentHashMap.newKeySet();
+
+    public TopicoEventosHub(RespuestaRepository respuestaRepository,
+                            TopicoRepository topicoRepository,
+                            ObjectMapper objectMapper,
+                            @Value("${forohub.sse.buffer-por-cliente:64}") int bufferPorCliente,
+                            @Value("${forohub.sse.historial-por-topico:256}") int historialPorTopico,
+                            @Value("${forohub.sse.timeout-ms:1800000}") long timeoutMillis,
+                            @Value("${forohub.sse.heartbeat-ms:20000}") long heartbeatMillis,
+                            @Value("${forohub.sse.hilos-escritura:4}") int hilosEscritura,
+                            @Value("${forohub.sse.plazo-escritura-ms:5000}") long plazoEscrituraMillis) {
+        this.respuestaRepository = respuestaRepository;
+        this.topicoRepository = topicoRepository;
+        this.objectMapper = objectMapper;
+        this.bufferPorCliente = bufferPorCliente;
+        this.historialPorTopico = historialPorTopico;
+        this.timeoutMillis = timeoutMillis;
+        this.plazoEscrituraNanos = TimeUnit.MILLISECONDS.toNanos(plazoEscrituraMillis);
+        this.hilosEscritura = hilosEscritura;
+
+        AtomicInteger n = new AtomicInteger();
+        this.escritores = new ThreadPoolExecutor(hilosEscritura, hilosEscritura, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "sse-escritor-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "sse-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        this.heartbeat.scheduleAtFixedRate(this::enviarHeartbeat,
+                heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        long periodoVigia = Math.max(10, Math.min(1000, plazoEscrituraMillis / 2));
+        this.heartbeat.scheduleAtFixedRate(this::vigilarEscrituras,
+                periodoVigia, periodoVigia, TimeUnit.MILLISECONDS);
+    }
+
+    /** Punto de extensión para los tests (emitter que registra o traba los send). */
+    SseEmitter nuevoEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    // -----------------------
+    // SUSCRIPCIÓN
+    // -----------------------
+
+    /**
+     * Registra un nuevo cliente para el tópico.
+     * Si viene lastEventId, antes de las novedades se reenvía lo que se perdió.
+     */
+    public SseEmitter suscribir(Long topicoId, Long lastEventId) {
+        Boolean activo = topicoRepository.findActivoById(topicoId).orElse(false);
+        if (!Boolean.TRUE.equals(activo)) {
+            throw new RecursoNoEncontradoException("Tópico no encontrado (id=" + topicoId + ")");
+        }
+
+        SseEmitter emitter = nuevoEmitter(timeoutMillis);
+        // con Last-Event-ID, lo publicado en vivo espera hasta terminar el reenvío
+        Suscriptor s = new Suscriptor(topicoId, emitter, lastEventId != null);
+
+        Canal canal = canales.compute(topicoId, (k, c) -> {
+            Canal actual = c != null ? c : new Canal();
+            actual.suscriptores.add(s);
+            return actual;
+        });
+        // Primer suscriptor del canal: fijamos desde qué id el historial en memoria es completo.
+        // Se hace después de registrar el canal para no perder publicaciones concurrentes.
+        canal.inicializarCota(() -> respuestaRepository.findMaxIdPorTopico(topicoId));
+
+        emitter.onCompletion(() -> remover(s));
+        emitter.onTimeout(() -> remover(s));
+        emitter.onError(e -> remover(s));
+
+        if (lastEventId != null) {
+            reanudar(canal, s, lastEventId);
+        }
+        return emitter;
+    }
+
+    private void reanudar(Canal canal, Suscriptor s, long lastEventId) {
+        List<Evento> reenvio = new ArrayList<>();
+        long ultimoEnviado = lastEventId;
+        try {
+            if (lastEventId < canal.cota) {
+                // El hueco es anterior a lo que guardamos en memoria: consulta acotada a la base
+                List<RespuestaResponseDto> perdidas = respuestaRepository.findNuevasPorTopico(
+                        s.topicoId, lastEventId, PageRequest.of(0, historialPorTopico));
+                for (RespuestaResponseDto r : perdidas) {
+                    reenvio.add(new Evento(r.id(), serializar(r)));
+                    ultimoEnviado = r.id();
+                }
+            }
+            for (Evento e : canal.historialDesde(ultimoEnviado)) {
+                reenvio.add(e);
+                ultimoEnviado = e.id();
+            }
+        } finally {
+            s.terminarReanudacion(reenvio, ultimoEnviado);
+        }
+    }
+
+    private void remover(Suscriptor s) {
+        s.cerrado = true;
+        canales.computeIfPresent(s.topicoId, (k, c) -> {
+            c.suscriptores.remove(s);
+            return c.suscriptores.isEmpty() ? null : c;
+        });
+    }
+
+    // -----------------------
+    // PUBLICACIÓN
+    // -----------------------
+
+    /**
+     * Se ejecuta solo si la transacción que creó la respuesta hizo commit.
+     * El JSON se arma una vez y se comparte entre todos los suscriptores.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onRespuestaCreada(RespuestaCreadaEvent event) {
+        RespuestaResponseDto r = event.respuesta();
+        Canal canal = canales.get(r.topicoId());
+        if (canal == null) {
+            return; // nadie escuchando este tópico
+        }
+        Evento evento = new Evento(r.id(), serializar(r));
+        canal.agregarHistorial(evento, historialPorTopico);
+        for (Suscriptor s : canal.suscriptores) {
+            s.entregar(evento);
+        }
+    }
+
+    private void enviarHeartbeat() {
+        try {
+            for (Canal canal : canales.values()) {
+                for (Suscriptor s : canal.suscriptores) {
+                    s.encolar(Evento.HEARTBEAT);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Error enviando heartbeat SSE: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Expulsa a los clientes con un send trabado más de 'plazo-escritura-ms'. El hilo
+     * trabado no se puede liberar (la escritura bloqueante del servlet termina sola
+     * cuando vence el timeout del socket), así que se agrega un reemplazo al pool
+     * hasta que vuelva.
+     */
+    private void vigilarEscrituras() {
+        try {
+            long ahora = System.nanoTime();
+            for (Canal canal : canales.values()) {
+                for (Suscriptor s : canal.suscriptores) {
+                    vigilar(s, ahora);
+                }
+            }
+            for (Suscriptor s : saliendo) {
+                if (s.escribiendoDesde == 0 && !s.drenando.get()) {
+                    saliendo.remove(s); // su escritor ya salió
+                } else {
+                    vigilar(s, ahora);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Error vigilando escrituras SSE: {}", e.getMessage());
+        }
+    }
+
+    private void vigilar(Suscriptor s, long ahora) {
+        long desde = s.escribiendoDesde;
+        if (desde != 0 && ahora - desde > plazoEscrituraNanos && s.abandonar()) {
+            log.debug("Cliente SSE con escritura trabada expulsado (topico={})", s.topicoId);
+            ajustarEscritores(+1);
+        }
+    }
+
+    /**
+     * Pool = hilosEscritura + escritores abandonados; a lo sumo 4 x hilosEscritura de reemplazo.
+     */
+    private synchronized void ajustarEscritores(int delta) {
+        abandonados += delta;
+        int tamanio = hilosEscritura + Math.min(abandonados, 4 * hilosEscritura);
+        if (tamanio > escritores.getMaximumPoolSize()) {
+            escritores.setMaximumPoolSize(tamanio);
+            escritores.setCorePoolSize(tamanio);
+        } else if (tamanio < escritores.getCorePoolSize()) {
+            escritores.setCorePoolSize(tamanio);
+            escritores.setMaximumPoolSize(tamanio);
+        }
+    }
+
+    /** Hilos del pool de escritores (tests). */
+    int hilosEscritores() {
+        return escritores.getCorePoolSize();
+    }
+
+    private String serializar(RespuestaResponseDto r) {
+        try {
+            return objectMapper.writeValueAsString(r);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta " + r.id(), e);
+        }
+    }
+
+    /**
+     * Cantidad de clientes conectados (todos los tópicos).
+     */
+    public int totalSuscriptores() {
+        return canales.values().stream().mapToInt(c -> c.suscriptores.size()).sum();
+    }
+
+    @PreDestroy
+    void cerrar() {
+        heartbeat.shutdownNow();
+        escritores.shutdownNow();
+        canales.values().forEach(c -> c.suscriptores.forEach(s -> s.emitter.complete()));
+        canales.clear();
+    }
+
+    // -----------------------
+    // ESTRUCTURAS INTERNAS
+    // -----------------------
+
+    /**
+     * Evento ya serializado; id = id de la respuesta (monótono, sirve como Last-Event-ID).
+     */
+    private record Evento(long id, String json) {
+        static final Evento HEARTBEAT = new Evento(-1, null);
+    }
+
+    /**
+     * Suscriptores de un tópico + historial reciente para reanudación.
+     * Usa ReentrantLock y no synchronized: inicializarCota consulta la base
+     * con el lock tomado y, con hilos virtuales, synchronized fijaría el carrier.
+     */
+    private static final class Canal {
+        final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+        private final ArrayDeque<Evento> historial = new ArrayDeque<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        /** Todo evento con id > cota está en 'historial' (o fue publicado después). */
+        volatile long cota = Long.MAX_VALUE;
+        private boolean cotaInicializada;
+
+        void inicializarCota(LongSupplier maxId) {
+            lock.lock();
+            try {
+                if (!cotaInicializada) {
+                    cota = maxId.getAsLong();
+                    cotaInicializada = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void agregarHistorial(Evento e, int max) {
+            lock.lock();
+            try {
+                historial.addLast(e);
+                if (historial.size() > max) {
+                    Evento descartado = historial.removeFirst();
+                    cota = Math.max(cota == Long.MAX_VALUE ? 0 : cota, descartado.id());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        List<Evento> historialDesde(long id) {
+            lock.lock();
+            try {
+                List<Evento> res = new ArrayList<>();
+                for (Evento e : historial) {
+                    if (e.id() > id) res.add(e);
+                }
+                return res;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Cliente conectado con su buffer acotado de eventos pendientes.
+     * Solo un escritor a la vez drena la cola de un suscriptor (flag 'drenando').
+     *
+     * Reanudación: 'reenvio' (lo perdido, ya ordenado) se drena antes que 'cola';
+     * mientras se arma, lo publicado en vivo queda en 'enEspera', y al terminar se
+     * descarta lo que tenga id <= 'piso' (el último reenviado).
+     *
+     * Expulsar no llama a emitter.complete() desde otro hilo (toma el lock de
+     * escritura del emitter y quedaría esperando al send trabado): lo completa
+     * el escritor al salir de drenar.
+     */
+    private final class Suscriptor {
+        final Long topicoId;
+        final SseEmitter emitter;
+        private final Queue<Evento> reenvio = new ConcurrentLinkedQueue<>();
+        private final Queue<Evento> cola = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendientes = new AtomicInteger();
+        private final AtomicBoolean drenando = new AtomicBoolean();
+        private final AtomicBoolean expulsado = new AtomicBoolean();
+        private final AtomicBoolean abandonado = new AtomicBoolean();
+        private final ReentrantLock lock = new ReentrantLock();
+        /** El reemplazo en el pool ya se devolvió (solo lo toca el escritor de turno). */
+        private boolean reemplazoDevuelto;
+        private boolean reanudando;
+        private List<Evento> enEspera;
+        private long piso;
+        volatile boolean cerrado;
+        /** nanoTime del send en curso; 0 si no está escribiendo. */
+        volatile long escribiendoDesde;
+
+        Suscriptor(Long topicoId, SseEmitter emitter, boolean reanudando) {
+            this.topicoId = topicoId;
+            this.emitter = emitter;
+            this.reanudando = reanudando;
+            this.enEspera = reanudando ? new ArrayList<>() : null;
+        }
+
+        /** Evento en vivo (publicación o heartbeat). */
+        void entregar(Evento e) {
+            if (e != Evento.HEARTBEAT) {
+                lock.lock();
+                try {
+                    if (reanudando) {
+                        enEspera.add(e);
+                        return;
+                    }
+                    if (e.id() <= piso) return; // ya salió en el reenvío
+                } finally {
+                    lock.unlock();
+                }
+            }
+            encolar(e);
+        }
+
+        void terminarReanudacion(List<Evento> eventos, long ultimoEnviado) {
+            lock.lock();
+            try {
+                reenvio.addAll(eventos);
+                piso = ultimoEnviado;
+                enEspera.sort((a, b) -> Long.compare(a.id(), b.id()));
+                for (Evento e : enEspera) {
+                    if (e.id() > piso) encolar(e);
+                }
+                enEspera = null;
+                reanudando = false;
+            } finally {
+                lock.unlock();
+            }
+            programar();
+        }
+
+        void encolar(Evento e) {
+            if (cerrado) return;
+            if (pendientes.incrementAndGet() > bufferPorCliente) {
+                // Consumidor lento: se lo expulsa para no acumular memoria
+                log.debug("Cliente SSE lento expulsado (topico={})", topicoId);
+                expulsar();
+                return;
+            }
+            cola.offer(e);
+            programar();
+        }
+
+        void expulsar() {
+            if (expulsado.compareAndSet(false, true)) {
+                saliendo.add(this);
+                remover(this);
+                programar(); // si nadie está drenando, un escritor completa el emitter
+            }
+        }
+
+        /** Lo llama el vigía: true si este suscriptor recién se da por perdido. */
+        boolean abandonar() {
+            if (!abandonado.compareAndSet(false, true)) return false;
+            expulsar();
+            return true;
+        }
+
+        private void programar() {
+            if (drenando.compareAndSet(false, true)) {
+                try {
+                    escritores.execute(this::drenar);
+                } catch (RuntimeException rejected) {
+                    drenando.set(false);
+                }
+            }
+        }
+
+        private void drenar() {
+            try {
+                Evento e;
+                while (!cerrado) {
+                    e = reenvio.poll();
+                    if (e == null) {
+                        e = cola.poll();
+                        if (e == null) break;
+                        pendientes.decrementAndGet();
+                    }
+                    escribiendoDesde = System.nanoTime();
+                    if (e == Evento.HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(e.id()))
+                                .name(NOMBRE_EVENTO)
+                                .data(e.json()));
+                    }
+                    escribiendoDesde = 0;
+                }
+            } catch (IOException | IllegalStateException ex) {
+                // cliente desconectado o emitter ya completado
+                remover(this);
+            } finally {
+                escribiendoDesde = 0;
+                if (abandonado.get() && !reemplazoDevuelto) {
+                    // volvió el escritor trabado: sobra el hilo de reemplazo
+                    reemplazoDevuelto = true;
+                    ajustarEscritores(-1);
+                }
+                if (expulsado.get()) {
+                    // cierra la conexión: el cliente reconecta con Last-Event-ID
+                    emitter.complete();
+                }
+                drenando.set(false);
+                if (expulsado.get()) {
+                    saliendo.remove(this);
+                }
+                if (!cerrado && (!cola.isEmpty() || !reenvio.isEmpty())) {
+                    programar();
+                }
+            }
+        }
+    }
+}
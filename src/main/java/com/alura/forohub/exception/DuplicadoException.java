@@ -8,7 +8,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
  * Se traduce a HTTP 400 Bad Request.
  */
 @ResponseStatus(HttpStatus.BAD_REQUEST)
-public class DuplicadoException extends RuntimeException {
+public class DuplicadoException extends ExcepcionDeDominio {
 
     public DuplicadoException(String mensaje) {
         super(mensaje);
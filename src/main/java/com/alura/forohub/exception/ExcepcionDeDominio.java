@@ -0,0 +1,15 @@
+package com.alura.forohub.exception;
+
+/**
+ * Base de las excepciones de negocio que se traducen a una respuesta HTTP (404, 400, 503).
+ *
+ * No captura stack trace: son resultados esperados (ej: bots pidiendo ids
+ * inexistentes), no errores de programación, y el stack nunca llega al cliente
+ * ni al log. Llenarlo es lo más caro de lanzarlas.
+ */
+public abstract class ExcepcionDeDominio extends RuntimeException {
+
+    protected ExcepcionDeDominio(String mensaje) {
+        super(mensaje, null, false, false);
+    }
+}
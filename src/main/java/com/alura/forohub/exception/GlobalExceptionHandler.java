@@ -1,59 +1,89 @@
 package com.alura.forohub.exception;
 
+import com.alura.forohub.dto.ProblemaDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.TypeMismatchException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
+import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.CannotCreateTransactionException;
 
-import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Traduce excepciones a respuestas RFC 7807 (application/problem+json).
+ *
+ * El cuerpo es un {@link ProblemaDto} inmutable que se serializa acá mismo con
+ * un ObjectWriter creado una sola vez: la respuesta sale como byte[] y no pasa
+ * por la negociación de contenido de los message converters.
+ */
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    private static final String TIPO = "about:blank";
+
+    private final ObjectWriter writer;
+
+    public GlobalExceptionHandler(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writerFor(ProblemaDto.class);
+    }
+
     @ExceptionHandler(RecursoNoEncontradoException.class)
-    public ResponseEntity<Object> handleNotFound(RecursoNoEncontradoException ex, HttpServletRequest req) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", Instant.now());
-        body.put("status", HttpStatus.NOT_FOUND.value());
-        body.put("error", "Not Found");
-        body.put("message", ex.getMessage());
-        body.put("path", req.getRequestURI());
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
+    public ResponseEntity<byte[]> handleNotFound(RecursoNoEncontradoException ex, HttpServletRequest req) {
+        return problema(HttpStatus.NOT_FOUND, ex.getMessage(), req, null);
     }
 
     @ExceptionHandler(DuplicadoException.class)
-    public ResponseEntity<Object> handleDuplicado(DuplicadoException ex, HttpServletRequest req) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", Instant.now());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-        body.put("error", "Bad Request");
-        body.put("message", ex.getMessage());
-        body.put("path", req.getRequestURI());
-        return ResponseEntity.badRequest().body(body);
+    public ResponseEntity<byte[]> handleDuplicado(DuplicadoException ex, HttpServletRequest req) {
+        return problema(HttpStatus.BAD_REQUEST, ex.getMessage(), req, null);
+    }
+
+    @ExceptionHandler(ParametroInvalidoException.class)
+    public ResponseEntity<byte[]> handleParametroInvalido(ParametroInvalidoException ex, HttpServletRequest req) {
+        return problema(HttpStatus.BAD_REQUEST, ex.getMessage(), req, null);
+    }
+
+    @ExceptionHandler(ServicioSaturadoException.class)
+    public ResponseEntity<byte[]> handleSaturado(ServicioSaturadoException ex, HttpServletRequest req) {
+        return reintentable(ex.getMessage(), req);
+    }
+
+    /**
+     * No se pudo obtener conexión para abrir la transacción (pool de conexiones
+     * agotado o base caída): el cliente puede reintentar.
+     */
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<byte[]> handleSinConexion(CannotCreateTransactionException ex, HttpServletRequest req) {
+        return reintentable("Base de datos no disponible, reintentar en unos segundos", req);
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<Object> handleValidation(MethodArgumentNotValidException ex, HttpServletRequest req) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", Instant.now());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-        body.put("error", "Validation Error");
+    public ResponseEntity<byte[]> handleValidation(MethodArgumentNotValidException ex, HttpServletRequest req) {
         Map<String, String> errors = new HashMap<>();
         ex.getBindingResult().getAllErrors().forEach(err -> {
             String field = (err instanceof FieldError) ? ((FieldError) err).getField() : err.getObjectName();
             String msg = err.getDefaultMessage();
             errors.put(field, msg);
         });
-        body.put("message", "Validation failed");
-        body.put("errors", errors);
-        body.put("path", req.getRequestURI());
-        return ResponseEntity.badRequest().body(body);
+        return problema(HttpStatus.BAD_REQUEST, "Validation failed", req, errors);
     }
 
     /**
@@ -62,24 +92,93 @@ public class GlobalExceptionHandler {
      * Retorna 403 Forbidden con mensaje claro.
      */
     @ExceptionHandler(AccessDeniedException.class)
-    public ResponseEntity<Object> handleAccessDenied(AccessDeniedException ex, HttpServletRequest req) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", Instant.now());
-        body.put("status", HttpStatus.FORBIDDEN.value());
-        body.put("error", "Forbidden");
-        body.put("message", ex.getMessage());
-        body.put("path", req.getRequestURI());
-        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(body);
+    public ResponseEntity<byte[]> handleAccessDenied(AccessDeniedException ex, HttpServletRequest req) {
+        return problema(HttpStatus.FORBIDDEN, ex.getMessage(), req, null);
     }
 
+    /**
+     * Parámetros mal formados o faltantes (/api/topicos/abc, ?topicoId ausente, JSON roto):
+     * 400 sin log, son errores del cliente (y lo típico de los bots).
+     */
+    @ExceptionHandler({TypeMismatchException.class, MissingServletRequestParameterException.class,
+            HttpMessageNotReadableException.class})
+    public ResponseEntity<byte[]> handleParametroMalFormado(Exception ex, HttpServletRequest req) {
+        String detalle = ex instanceof TypeMismatchException tm && tm.getPropertyName() != null
+                ? "Valor inválido para '" + tm.getPropertyName() + "'"
+                : ex instanceof MissingServletRequestParameterException mp
+                ? "Falta el parámetro '" + mp.getParameterName() + "'"
+                : "Cuerpo del request ilegible";
+        return problema(HttpStatus.BAD_REQUEST, detalle, req, null);
+    }
+
+    /**
+     * Vence un SSE inactivo (forohub.sse.timeout-ms): no es un error. Se relanza para que
+     * la resuelva DefaultHandlerExceptionResolver, que solo cierra la respuesta ya comprometida.
+     */
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public void handleTimeoutAsync(AsyncRequestTimeoutException ex) {
+        throw ex;
+    }
+
+    /**
+     * Errores no previstos: el detalle (y el stack) va solo al log; el mensaje
+     * de la excepción puede contener SQL, nombres de clases o datos internos.
+     *
+     * Las excepciones del framework que ya traen su status (ErrorResponse:
+     * NoResourceFoundException 404 para rutas desconocidas, 405, 415,
+     * ResponseStatusException...) lo conservan, y solo las 5xx van al log.
+     */
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Object> handleOther(Exception ex, HttpServletRequest req) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", Instant.now());
-        body.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-        body.put("error", "Internal Server Error");
-        body.put("message", ex.getMessage());
-        body.put("path", req.getRequestURI());
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(body);
+    public ResponseEntity<byte[]> handleOther(Exception ex, HttpServletRequest req) {
+        if (ex instanceof ErrorResponse er) {
+            return errorDelFramework(er, ex, req);
+        }
+        log.error("Error no controlado en {} {}", req.getMethod(), req.getRequestURI(), ex);
+        return problema(HttpStatus.INTERNAL_SERVER_ERROR, "Error interno del servidor", req, null);
+    }
+
+    private ResponseEntity<byte[]> errorDelFramework(ErrorResponse er, Exception ex, HttpServletRequest req) {
+        HttpStatusCode status = er.getStatusCode();
+        if (status.is5xxServerError()) {
+            log.error("Error en {} {}", req.getMethod(), req.getRequestURI(), ex);
+        }
+        HttpStatus conocido = HttpStatus.resolve(status.value());
+        return ResponseEntity.status(status)
+                .headers(er.getHeaders())
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(cuerpo(status.value(), conocido != null ? conocido.getReasonPhrase() : null,
+                        er.getBody().getDetail(), req, null));
+    }
+
+    private ResponseEntity<byte[]> problema(HttpStatus status, String detalle, HttpServletRequest req,
+                                            Map<String, String> errors) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(cuerpo(status, detalle, req, errors));
+    }
+
+    /**
+     * 503 con Retry-After: el cliente puede reintentar en un segundo.
+     */
+    private ResponseEntity<byte[]> reintentable(String detalle, HttpServletRequest req) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .header("Retry-After", "1")
+                .body(cuerpo(HttpStatus.SERVICE_UNAVAILABLE, detalle, req, null));
+    }
+
+    private byte[] cuerpo(HttpStatus status, String detalle, HttpServletRequest req, Map<String, String> errors) {
+        return cuerpo(status.value(), status.getReasonPhrase(), detalle, req, errors);
+    }
+
+    private byte[] cuerpo(int status, String titulo, String detalle, HttpServletRequest req,
+                          Map<String, String> errors) {
+        try {
+            return writer.writeValueAsBytes(new ProblemaDto(TIPO, titulo, status,
+                    detalle, req.getRequestURI(), errors));
+        } catch (JsonProcessingException e) {
+            // solo strings y un mapa de strings: no debería ocurrir
+            throw new IllegalStateException("No se pudo serializar el cuerpo de error", e);
+        }
     }
 }
@@ -0,0 +1,16 @@
+package com.alura.forohub.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción para parámetros de entrada mal formados (ej: un cursor de paginación inválido).
+ * Se traduce a HTTP 400 Bad Request.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class ParametroInvalidoException extends ExcepcionDeDominio {
+
+    public ParametroInvalidoException(String mensaje) {
+        super(mensaje);
+    }
+}
@@ -8,7 +8,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
  * Se marca con @ResponseStatus para que Spring devuelva 404 automáticamente.
  */
 @ResponseStatus(HttpStatus.NOT_FOUND)
-public class RecursoNoEncontradoException extends RuntimeException {
+public class RecursoNoEncontradoException extends ExcepcionDeDominio {
 
     public RecursoNoEncontradoException(String mensaje) {
         super(mensaje);
@@ -0,0 +1,16 @@
+package com.alura.forohub.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción para cuando un recurso interno está saturado (ej: cola de ingesta llena).
+ * Se traduce a HTTP 503 Service Unavailable para que el cliente reintente.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServicioSaturadoException extends ExcepcionDeDominio {
+
+    public ServicioSaturadoException(String mensaje) {
+        super(mensaje);
+    }
+}
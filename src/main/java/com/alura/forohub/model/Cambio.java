@@ -0,0 +1,47 @@
+package com.alura.forohub.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Fila del registro de cambios (solo se agregan filas, ver V9__cambios.sql).
+ * La escribe CambioServiceImpl por JDBC al confirmar cada transacción de escritura;
+ * la entidad se usa para leer el registro y para el esquema de tests.
+ */
+@Entity
+@Table(name = "cambios")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class Cambio {
+
+    public static final String TOPICO = "TOPICO";
+    public static final String RESPUESTA = "RESPUESTA";
+
+    public static final String CREADO = "CREADO";
+    public static final String ACTUALIZADO = "ACTUALIZADO";
+    public static final String ELIMINADO = "ELIMINADO";
+    public static final String REACTIVADO = "REACTIVADO";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 16)
+    private String entidad;  // TOPICO / RESPUESTA
+
+    @Column(name = "entidad_id", nullable = false)
+    private Long entidadId;
+
+    @Column(name = "topico_id", nullable = false)
+    private Long topicoId;  // el propio id para tópicos, el tópico de la respuesta para respuestas
+
+    @Column(nullable = false, length = 16)
+    private String operacion;  // CREADO / ACTUALIZADO / ELIMINADO / REACTIVADO
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+}
@@ -0,0 +1,47 @@
+package com.alura.forohub.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Notificación en la bandeja de un usuario (ver V10__notificaciones.sql).
+ * La escribe DespachadorNotificaciones por JDBC, de a lotes; la entidad se usa
+ * para leer la bandeja y para el esquema de tests.
+ */
+@Entity
+@Table(name = "notificaciones")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class Notificacion {
+
+    /** Respuestas nuevas en un tópico del destinatario. */
+    public static final String TOPICO_PROPIO = "TOPICO_PROPIO";
+    /** Respuestas nuevas en un tópico donde el destinatario respondió antes. */
+    public static final String PARTICIPACION = "PARTICIPACION";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(nullable = false, length = 16)
+    private String tipo;  // TOPICO_PROPIO / PARTICIPACION
+
+    @Column(name = "topico_id", nullable = false)
+    private Long topicoId;
+
+    @Column(name = "respuesta_id", nullable = false)
+    private Long respuestaId;  // la más nueva de las agrupadas
+
+    @Column(nullable = false)
+    private Integer cantidad;  // respuestas agrupadas en esta notificación
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+}
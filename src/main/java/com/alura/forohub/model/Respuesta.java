@@ -13,6 +13,11 @@ import java.time.LocalDateTime;
 @ToString
 public class Respuesta {
 
+    // Valores de bajaOrigen (ver V5__respuestas_baja_origen.sql)
+    public static final int BAJA_NINGUNA = 0;
+    public static final int BAJA_INDIVIDUAL = 1;
+    public static final int BAJA_CON_TOPICO = 2;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -34,4 +39,20 @@ public class Respuesta {
     @Column(nullable = false)
     private Boolean activo = true;
 
+    @Column(name = "baja_origen", nullable = false)
+    private Integer bajaOrigen = BAJA_NINGUNA;  // por qué quedó inactiva (individual / con el tópico)
+
+    // --- Hilos anidados (materialized path, ver V4__respuestas_anidadas.sql) ---
+    // parent se guarda como id plano: el árbol se arma desde proyecciones,
+    // nunca navegando la asociación, así evitamos proxies y cargas en cascada.
+
+    @Column(name = "parent_id")
+    private Long parentId;  // null = respuesta directa al tópico
+
+    @Column(nullable = false, length = 767)
+    private String path = "";  // ids de los ancestros, ej: "000000000003/"
+
+    @Column(nullable = false)
+    private Integer profundidad = 0;  // 0 = raíz
+
 }
@@ -51,6 +51,7 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "topicos",
         uniqueConstraints = @UniqueConstraint(
+                name = "uq_topico_titulo_mensaje",
                 columnNames = {"titulo", "mensaje"})) // Evita duplicados por título y mensaje
 @Getter
 @Setter
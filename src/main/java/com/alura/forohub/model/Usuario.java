@@ -2,10 +2,23 @@ package com.alura.forohub.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "usuarios")  // Mapeo con la tabla usuarios en la base
+@Table(name = "usuarios",  // Mapeo con la tabla usuarios en la base
+        uniqueConstraints = {
+                // mismos nombres que en V1: se usan para traducir violaciones (RestriccionesBd)
+                @UniqueConstraint(name = "uq_usuario_username", columnNames = "username"),
+                @UniqueConstraint(name = "uq_usuario_email", columnNames = "email")
+        })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuarios")  // cache de 2do nivel (ehcache.xml)
+@NaturalIdCache(region = "usuarios-username")  // username -> id sin ir a la base
 @Getter
 @Setter
 @NoArgsConstructor
@@ -17,13 +30,14 @@ public class Usuario {
     @GeneratedValue(strategy = GenerationType.IDENTITY)  // Auto-incremental en MySQL
     private Long id;
 
-    @Column(nullable = false, unique = true, length = 100)
-    private String username; // Nombre de usuario único
+    @NaturalId
+    @Column(nullable = false, length = 100)
+    private String username; // Nombre de usuario único (inmutable, clave natural)
 
     @Column(nullable = false, length = 150)
     private String nombre;   // Nombre real o completo
 
-    @Column(nullable = false, unique = true, length = 150)
+    @Column(nullable = false, length = 150)
     private String email;    // Email único para contacto / login
 
     @Column(nullable = false, length = 255)
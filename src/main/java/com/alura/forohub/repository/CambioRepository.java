@@ -0,0 +1,20 @@
+package com.alura.forohub.repository;
+
+import com.alura.forohub.model.Cambio;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Lectura del registro de cambios por rango de la clave primaria.
+ */
+@Repository
+public interface CambioRepository extends JpaRepository<Cambio, Long> {
+
+    @Query("select c from Cambio c where c.id > :desde order by c.id")
+    List<Cambio> findDesde(@Param("desde") long desde, Pageable limite);
+}
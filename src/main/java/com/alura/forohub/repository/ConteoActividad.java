@@ -0,0 +1,14 @@
+package com.alura.forohub.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección de un agregado por autor: cantidad de filas activas y fecha de la más reciente.
+ * Usada por TopicoRepository y RespuestaRepository para el resumen de perfil.
+ */
+public interface ConteoActividad {
+
+    Long getTotal();
+
+    LocalDateTime getUltima();
+}
@@ -0,0 +1,42 @@
+package com.alura.forohub.repository;
+
+import com.alura.forohub.dto.NotificacionDto;
+import com.alura.forohub.model.Notificacion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Bandeja de notificaciones, más nuevas primero, paginada por cursor
+ * (resuelto sobre idx_notificaciones_usuario_fecha).
+ */
+@Repository
+public interface NotificacionRepository extends JpaRepository<Notificacion, Long> {
+
+    @Query("""
+            select new com.alura.forohub.dto.NotificacionDto(
+                n.id, n.tipo, n.topicoId, n.respuestaId, n.cantidad, n.fecha)
+            from Notificacion n
+            where n.usuarioId = :usuarioId
+            order by n.fecha desc, n.id desc
+            """)
+    List<NotificacionDto> findPorUsuario(@Param("usuarioId") Long usuarioId, Pageable limite);
+
+    @Query("""
+            select new com.alura.forohub.dto.NotificacionDto(
+                n.id, n.tipo, n.topicoId, n.respuestaId, n.cantidad, n.fecha)
+            from Notificacion n
+            where n.usuarioId = :usuarioId
+              and (n.fecha < :fecha or (n.fecha = :fecha and n.id < :id))
+            order by n.fecha desc, n.id desc
+            """)
+    List<NotificacionDto> findPorUsuarioDespuesDe(@Param("usuarioId") Long usuarioId,
+                                                  @Param("fecha") LocalDateTime fecha,
+                                                  @Param("id") Long id,
+                                                  Pageable limite);
+}
@@ -1,12 +1,27 @@
 package com.alura.forohub.repository;
 
+import com.alura.forohub.dto.RespuestaNodoDto;
+import com.alura.forohub.dto.RespuestaResponseDto;
 import com.alura.forohub.model.Respuesta;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Repositorio para la entidad Respuesta.
@@ -43,19 +58,99 @@ public interface RespuestaRepository extends JpaRepository<Respuesta, Long> {
     /**
      * Lista paginada de respuestas activas (activo=true) para un tópico.
      * Usado en RespuestaServiceImpl.listarPorTopico().
+     * El autor viene por JOIN: evita un SELECT de usuario por fila (N+1).
      */
+    @EntityGraph(attributePaths = "autor")
     Page<Respuesta> findByTopicoIdAndActivoTrue(Long topicoId, Pageable pageable);
 
+    /**
+     * Respuesta con su autor en un solo SELECT (detalle).
+     */
+    @EntityGraph(attributePaths = "autor")
+    Optional<Respuesta> findConAutorById(Long id);
+
     /**
      * Lista simple (sin paginar) de respuestas activas para un tópico.
      */
     List<Respuesta> findByTopicoIdAndActivoTrue(Long topicoId);
 
+    /**
+     * Cantidad de respuestas activas del autor y fecha de la última
+     * (resuelto sobre idx_respuestas_autor_activo_fecha).
+     */
+    @Query("select count(r) as total, max(r.fechaCreacion) as ultima from Respuesta r where r.autor.id = :autorId and r.activo = true")
+    ConteoActividad contarPorAutor(@Param("autorId") Long autorId);
+
     /**
      * Lista de respuestas activas por id de autor (sin paginar).
+     * Para exponer el historial de un usuario usar los métodos keyset de abajo.
      */
     List<Respuesta> findByAutorIdAndActivoTrue(Long autorId);
 
+    /**
+     * Estado actual de varias respuestas (activas o no) proyectado al DTO (ver TopicoRepository.findDtoPorIds).
+     */
+    @Query("""
+            select new com.alura.forohub.dto.RespuestaResponseDto(
+                r.id, r.mensaje, r.fechaCreacion, a.id, a.nombre, r.topico.id)
+            from Respuesta r join r.autor a
+            where r.id in :ids
+            """)
+    List<RespuestaResponseDto> findDtoPorIds(@Param("ids") Collection<Long> ids);
+
+    // ---------------------------
+    // HISTORIAL POR AUTOR (keyset sobre idx_respuestas_autor_activo_fecha)
+    // ---------------------------
+
+    /**
+     * Primera página del historial de respuestas activas de un autor (más nuevas primero).
+     * Proyecta directo al DTO: no se materializan entidades ni proxies.
+     * El Pageable solo se usa como límite (retorno List -> sin count query).
+     */
+    @Query("""
+            select new com.alura.forohub.dto.RespuestaResponseDto(
+                r.id, r.mensaje, r.fechaCreacion, a.id, a.nombre, r.topico.id)
+            from Respuesta r join r.autor a
+            where a.id = :autorId and r.activo = true
+            order by r.fechaCreacion desc, r.id desc
+            """)
+    List<RespuestaResponseDto> findPorAutor(@Param("autorId") Long autorId, Pageable limite);
+
+    /**
+     * Página siguiente a partir del cursor (fecha, id) de la última fila vista.
+     */
+    @Query("""
+            select new com.alura.forohub.dto.RespuestaResponseDto(
+                r.id, r.mensaje, r.fechaCreacion, a.id, a.nombre, r.topico.id)
+            from Respuesta r join r.autor a
+            where a.id = :autorId and r.activo = true
+              and (r.fechaCreacion < :fecha or (r.fechaCreacion = :fecha and r.id < :id))
+            order by r.fechaCreacion desc, r.id desc
+            """)
+    List<RespuestaResponseDto> findPorAutorDespuesDe(@Param("autorId") Long autorId,
+                                                     @Param("fecha") LocalDateTime fecha,
+                                                     @Param("id") Long id,
+                                                     Pageable limite);
+
+    /**
+     * Recorre todas las respuestas activas de un autor como Stream (exportación de moderación).
+     * Con fetch size = Integer.MIN_VALUE el driver de MySQL entrega las filas de a una
+     * en lugar de cargar todo el resultado en memoria.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new com.alura.forohub.dto.RespuestaResponseDto(
+                r.id, r.mensaje, r.fechaCreacion, a.id, a.nombre, r.topico.id)
+            from Respuesta r join r.autor a
+            where a.id = :autorId and r.activo = true
+            order by r.fechaCreacion desc, r.id desc
+            """)
+    Stream<RespuestaResponseDto> streamPorAutor(@Param("autorId") Long autorId);
+
     /**
      * Búsqueda paginada de todas las respuestas.
      *
@@ -64,4 +159,143 @@ public interface RespuestaRepository extends JpaRepository<Respuesta, Long> {
      */
     @Override
     Page<Respuesta> findAll(Pageable pageable);
+
+    // ---------------------------
+    // HILOS ANIDADOS (materialized path sobre idx_respuestas_topico_path)
+    // ---------------------------
+
+    /**
+     * Datos mínimos de una respuesta para ubicarla en el árbol.
+     */
+    interface NodoResumen {
+        Long getId();
+        Long getTopicoId();
+        String getPath();
+        Integer getProfundidad();
+        Boolean getActivo();
+    }
+
+    @Query("""
+            select r.id as id, r.topico.id as topicoId, r.path as path,
+                   r.profundidad as profundidad, r.activo as activo
+            from Respuesta r where r.id = :id
+            """)
+    Optional<NodoResumen> findNodoById(@Param("id") Long id);
+
+    /**
+     * Respuestas raíz activas de un tópico con id mayor a 'despuesDe' (keyset por id).
+     */
+    @Query("""
+            select new com.alura.forohub.dto.RespuestaNodoDto(
+                r.id, r.mensaje, r.fechaCreacion, a.id, a.nombre, r.parentId, r.profundidad)
+            from Respuesta r join r.autor a
+            where r.topico.id = :topicoId and r.parentId is null and r.activo = true
+              and r.id > :despuesDe
+            order by r.id
+            """)
+    List<RespuestaNodoDto> findRaicesArbol(@Param("topicoId") Long topicoId,
+                                           @Param("despuesDe") Long despuesDe,
+                                           Pageable limite);
+
+    /**
+     * Descendientes activos cuyo path cae en [desde, hasta), hasta la profundidad indicada.
+     * Un único range scan: sirve tanto para el subárbol de una respuesta como para
+     * todos los hilos de una página de raíces (ids contiguos).
+     * Ordenado por path: cada padre llega antes que sus hijos.
+     */
+    @Query("""
+            select new com.alura.forohub.dto.RespuestaNodoDto(
+                r.id, r.mensaje, r.fechaCreacion, a.id, a.nombre, r.parentId, r.profundidad)
+            from Respuesta r join r.autor a
+            where r.topico.id = :topicoId and r.activo = true
+              and r.path >= :desde and r.path < :hasta
+              and r.profundidad <= :profundidadMax
+            order by r.path, r.id
+            """)
+    List<RespuestaNodoDto> findDescendientes(@Param("topicoId") Long topicoId,
+                                             @Param("desde") String desde,
+                                             @Param("hasta") String hasta,
+                                             @Param("profundidadMax") Integer profundidadMax,
+                                             Pageable limite);
+
+    /**
+     * De los ids dados, los que tienen al menos una respuesta activa (para
+     * marcar nodos truncados cuando el árbol se corta por tope).
+     */
+    @Query("select distinct r.parentId from Respuesta r where r.parentId in :ids and r.activo = true")
+    List<Long> findPadresConRespuestas(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Nodo individual (activo) proyectado, para la raíz de un subárbol.
+     */
+    @Query("""
+            select new com.alura.forohub.dto.RespuestaNodoDto(
+                r.id, r.mensaje, r.fechaCreacion, a.id, a.nombre, r.parentId, r.profundidad)
+            from Respuesta r join r.autor a
+            where r.id = :id and r.activo = true
+            """)
+    Optional<RespuestaNodoDto> findNodoDtoById(@Param("id") Long id);
+
+    // ---------------------------
+    // EVENTOS SSE (reanudación con Last-Event-ID)
+    // ---------------------------
+
+    /**
+     * Id más alto de respuesta del tópico (0 si no tiene). Marca desde dónde
+     * el hub de eventos tiene las novedades en memoria.
+     */
+    @Query("select coalesce(max(r.id), 0) from Respuesta r where r.topico.id = :topicoId")
+    Long findMaxIdPorTopico(@Param("topicoId") Long topicoId);
+
+    /**
+     * Respuestas activas del tópico con id mayor a 'desdeId', en orden de creación.
+     */
+    @Query("""
+            select new com.alura.forohub.dto.RespuestaResponseDto(
+                r.id, r.mensaje, r.fechaCreacion, a.id, a.nombre, r.topico.id)
+            from Respuesta r join r.autor a
+            where r.topico.id = :topicoId and r.activo = true and r.id > :desdeId
+            order by r.id
+            """)
+    List<RespuestaResponseDto> findNuevasPorTopico(@Param("topicoId") Long topicoId,
+                                                   @Param("desdeId") Long desdeId,
+                                                   Pageable limite);
+
+    // ---------------------------
+    // BORRADO LÓGICO EN CASCADA (un UPDATE por dirección, sin cargar entidades)
+    // bajaOrigen: constantes de Respuesta, referenciadas por nombre completo en el JPQL
+    // ---------------------------
+
+    /**
+     * Autores distintos de las respuestas del tópico con ese origen de baja
+     * (BAJA_NINGUNA = las activas). Se consulta antes de la baja / reactivación
+     * en cascada para invalidar solo los resúmenes de quienes respondieron.
+     */
+    @Query("select distinct r.autor.id from Respuesta r where r.topico.id = :topicoId and r.bajaOrigen = :bajaOrigen")
+    List<Long> findAutoresPorTopico(@Param("topicoId") Long topicoId, @Param("bajaOrigen") int bajaOrigen);
+
+    /**
+     * Da de baja todas las respuestas activas del tópico marcándolas como
+     * "borradas con el tópico". Devuelve la cantidad de filas afectadas.
+     */
+    @Modifying
+    @Query("""
+            update Respuesta r
+            set r.activo = false, r.bajaOrigen = com.alura.forohub.model.Respuesta.BAJA_CON_TOPICO
+            where r.topico.id = :topicoId and r.activo = true
+            """)
+    int darDeBajaPorTopico(@Param("topicoId") Long topicoId);
+
+    /**
+     * Reactiva solo las respuestas que cayeron junto con el tópico; las borradas
+     * individualmente siguen inactivas.
+     */
+    @Modifying
+    @Query("""
+            update Respuesta r
+            set r.activo = true, r.bajaOrigen = com.alura.forohub.model.Respuesta.BAJA_NINGUNA
+            where r.topico.id = :topicoId
+              and r.bajaOrigen = com.alura.forohub.model.Respuesta.BAJA_CON_TOPICO
+            """)
+    int reactivarPorTopico(@Param("topicoId") Long topicoId);
 }
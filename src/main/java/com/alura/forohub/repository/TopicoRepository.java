@@ -1,14 +1,26 @@
 package com.alura.forohub.repository;
 
+import com.alura.forohub.dto.CursoConteoDto;
+import com.alura.forohub.dto.TopicoResponseDto;
 import com.alura.forohub.model.Topico;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Repositorio JPA para la entidad Topico.
@@ -21,6 +33,8 @@ import java.util.Optional;
  * Rutas de uso:
  *  - findByActivoTrue(Pageable) -> listado de tópicos activos (para GET)
  *  - findByIdAndActivoTrue(id) -> obtener detalle solo si está activo
+ *  - findActivoById(id) -> solo el flag activo (sin traer el mensaje TEXT)
+ *  - findPorAutor / findPorAutorDespuesDe / streamPorAutor -> historial keyset de un autor
  */
 @Repository
 public interface TopicoRepository extends JpaRepository<Topico, Long> {
@@ -55,17 +69,110 @@ public interface TopicoRepository extends JpaRepository<Topico, Long> {
 
     /**
      * Busca un tópico por id solo si está activo (filtra borrados lógicos).
+     * Trae el autor en el mismo SELECT (el DTO siempre lo usa).
      */
+    @EntityGraph(attributePaths = "autor")
     Optional<Topico> findByIdAndActivoTrue(Long id);
 
+    /**
+     * Devuelve únicamente el flag 'activo' del tópico (vacío si no existe).
+     * Usado al crear respuestas para validar sin cargar la entidad completa.
+     */
+    @Query("select t.activo from Topico t where t.id = :id")
+    Optional<Boolean> findActivoById(@Param("id") Long id);
+
     /**
      * Listado paginado solo con tópicos activos (excluye borrados lógicamente).
+     * El autor viene por JOIN: evita un SELECT de usuario por fila (N+1).
      */
+    @EntityGraph(attributePaths = "autor")
     Page<Topico> findByActivoTrue(Pageable pageable);
 
     List<Topico> findTop10ByActivoTrueOrderByFechaCreacionAsc();
 
     List<Topico> findByCursoAndActivoTrue(String curso);
 
+    /**
+     * Listado paginado de tópicos activos de un curso (GET /api/topicos?curso=), con el autor por JOIN.
+     */
+    @EntityGraph(attributePaths = "autor")
+    Page<Topico> findByCursoAndActivoTrue(String curso, Pageable pageable);
+
     List<Topico> findByCursoAndFechaCreacionBetweenAndActivoTrue(String curso, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Estado actual de varios tópicos (activos o no) proyectado al DTO, en una consulta.
+     * Lo usa GET /api/cambios para acompañar cada cambio.
+     */
+    @Query("""
+            select new com.alura.forohub.dto.TopicoResponseDto(
+                t.id, t.titulo, t.mensaje, t.fechaCreacion, t.status, a.id, a.nombre, t.curso)
+            from Topico t join t.autor a
+            where t.id in :ids
+            """)
+    List<TopicoResponseDto> findDtoPorIds(@Param("ids") Collection<Long> ids);
+
+    // --- Historial por autor (keyset sobre idx_topicos_autor_activo_fecha) ---
+
+    /**
+     * Primera página de tópicos activos de un autor (más nuevos primero), proyectada al DTO.
+     */
+    @Query("""
+            select new com.alura.forohub.dto.TopicoResponseDto(
+                t.id, t.titulo, t.mensaje, t.fechaCreacion, t.status, a.id, a.nombre, t.curso)
+            from Topico t join t.autor a
+            where a.id = :autorId and t.activo = true
+            order by t.fechaCreacion desc, t.id desc
+            """)
+    List<TopicoResponseDto> findPorAutor(@Param("autorId") Long autorId, Pageable limite);
+
+    /**
+     * Página siguiente a partir del cursor (fecha, id) de la última fila vista.
+     */
+    @Query("""
+            select new com.alura.forohub.dto.TopicoResponseDto(
+                t.id, t.titulo, t.mensaje, t.fechaCreacion, t.status, a.id, a.nombre, t.curso)
+            from Topico t join t.autor a
+            where a.id = :autorId and t.activo = true
+              and (t.fechaCreacion < :fecha or (t.fechaCreacion = :fecha and t.id < :id))
+            order by t.fechaCreacion desc, t.id desc
+            """)
+    List<TopicoResponseDto> findPorAutorDespuesDe(@Param("autorId") Long autorId,
+                                                  @Param("fecha") LocalDateTime fecha,
+                                                  @Param("id") Long id,
+                                                  Pageable limite);
+
+    /**
+     * Stream de todos los tópicos activos de un autor (exportación de moderación).
+     * Ver RespuestaRepository.streamPorAutor para el detalle del fetch size.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new com.alura.forohub.dto.TopicoResponseDto(
+                t.id, t.titulo, t.mensaje, t.fechaCreacion, t.status, a.id, a.nombre, t.curso)
+            from Topico t join t.autor a
+            where a.id = :autorId and t.activo = true
+            order by t.fechaCreacion desc, t.id desc
+            """)
+    Stream<TopicoResponseDto> streamPorAutor(@Param("autorId") Long autorId);
+
+    // --- Resumen de perfil (agregados sobre los índices por autor) ---
+
+    @Query("select count(t) as total, max(t.fechaCreacion) as ultima from Topico t where t.autor.id = :autorId and t.activo = true")
+    ConteoActividad contarPorAutor(@Param("autorId") Long autorId);
+
+    /**
+     * Cursos con más tópicos activos del autor (usa idx_topicos_autor_activo_curso).
+     */
+    @Query("""
+            select new com.alura.forohub.dto.CursoConteoDto(t.curso, count(t))
+            from Topico t
+            where t.autor.id = :autorId and t.activo = true
+            group by t.curso
+            order by count(t) desc, t.curso
+            """)
+    List<CursoConteoDto> findCursosPorAutor(@Param("autorId") Long autorId, Pageable limite);
 }
@@ -0,0 +1,19 @@
+package com.alura.forohub.repository;
+
+import com.alura.forohub.model.Usuario;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Fragmento de repositorio para buscar usuarios por su natural id (username).
+ *
+ * A diferencia de una query derivada (que siempre va a la base), la búsqueda
+ * por natural id pasa por el cache de natural id y el de entidades de
+ * Hibernate: en el caso caliente (JwtFilter en cada request) no ejecuta SQL.
+ */
+public interface UsuarioNaturalIdRepository {
+
+    @Transactional(readOnly = true)
+    Optional<Usuario> findByUsername(String username);
+}
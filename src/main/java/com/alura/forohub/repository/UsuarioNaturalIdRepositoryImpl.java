@@ -0,0 +1,25 @@
+package com.alura.forohub.repository;
+
+import com.alura.forohub.model.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+/**
+ * Implementación del fragmento UsuarioNaturalIdRepository (Spring Data la
+ * detecta por el sufijo Impl).
+ */
+class UsuarioNaturalIdRepositoryImpl implements UsuarioNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Usuario> findByUsername(String username) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Usuario.class)
+                .loadOptional(username);
+    }
+}
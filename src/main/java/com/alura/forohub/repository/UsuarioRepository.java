@@ -2,6 +2,8 @@ package com.alura.forohub.repository;
 
 import com.alura.forohub.model.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -12,12 +14,14 @@ import java.util.Optional;
  *
  * Métodos útiles añadidos:
  *  - findByUsername / findByEmail  -> para buscar datos de autenticación
+ *    (findByUsername resuelve por natural id: cache de 2do nivel, sin SQL si está cacheado)
  *  - existsByUsername / existsByEmail -> para validaciones antes de crear usuarios
+ *  - findAutorResumenById -> proyección liviana (sin password) para el resumen de perfil
  */
 @Repository
-public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+public interface UsuarioRepository extends JpaRepository<Usuario, Long>, UsuarioNaturalIdRepository {
 
-    Optional<Usuario> findByUsername(String username);
+    // findByUsername(String) viene de UsuarioNaturalIdRepository (usa el cache de natural id)
 
     Optional<Usuario> findByEmail(String email);
 
@@ -25,4 +29,20 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
     boolean existsByEmail(String email);
 
+    /**
+     * Proyección mínima de un usuario usada por el resumen de perfil.
+     * Solo trae las columnas necesarias para armar el DTO
+     * (evita cargar el hash de password y el resto de la fila).
+     * Las altas de tópicos / respuestas no la usan: resuelven el autor con
+     * findById contra el cache de segundo nivel, que la proyección no aprovecha.
+     */
+    interface AutorResumen {
+        Long getId();
+        String getNombre();
+        Boolean getActivo();
+    }
+
+    @Query("select u.id as id, u.nombre as nombre, u.activo as activo from Usuario u where u.id = :id")
+    Optional<AutorResumen> findAutorResumenById(@Param("id") Long id);
+
 }
@@ -1,5 +1,7 @@
 package com.alura.forohub.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -31,6 +33,22 @@ public class JwtFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    private final MeterRegistry meterRegistry;
+
+    // forohub.jwt {etapa=parse|validacion, resultado}: pocas combinaciones fijas, registradas una vez
+    private final Timer parseOk;
+    private final Timer parseError;
+    private final Timer validacionOk;
+    private final Timer validacionInvalido;
+
+    public JwtFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.parseOk = timerJwt(meterRegistry, "parse", "ok");
+        this.parseError = timerJwt(meterRegistry, "parse", "error");
+        this.validacionOk = timerJwt(meterRegistry, "validacion", "ok");
+        this.validacionInvalido = timerJwt(meterRegistry, "validacion", "invalido");
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -45,10 +63,15 @@ public class JwtFilter extends OncePerRequestFilter {
         // 2 Validar formato "Bearer TOKEN"
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             token = authHeader.substring(7); // Remover "Bearer "
+            Timer.Sample parse = Timer.start(meterRegistry);
+            Timer resultado = parseOk;
             try {
                 username = jwtUtil.extractUsername(token);
             } catch (Exception e) {
+                resultado = parseError;
                 logger.error("Error al extraer usuario del token: " + e.getMessage());
+            } finally {
+                parse.stop(resultado);
             }
         }
 
@@ -59,7 +82,11 @@ public class JwtFilter extends OncePerRequestFilter {
             UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
 
             // Validar token con los datos del usuario
-            if (jwtUtil.validateToken(token, userDetails)) {
+            Timer.Sample validacion = Timer.start(meterRegistry);
+            boolean valido = jwtUtil.validateToken(token, userDetails);
+            validacion.stop(valido ? validacionOk : validacionInvalido);
+
+            if (valido) {
 
                 // Crear objeto de autenticación para Spring Security
                 UsernamePasswordAuthenticationToken authToken =
@@ -80,4 +107,12 @@ public class JwtFilter extends OncePerRequestFilter {
         // 4️⃣ Continuar con la cadena de filtros
         chain.doFilter(request, response);
     }
+
+    private static Timer timerJwt(MeterRegistry registry, String etapa, String resultado) {
+        return Timer.builder("forohub.jwt")
+                .description("Tiempo de parseo / validación del JWT")
+                .tag("etapa", etapa)
+                .tag("resultado", resultado)
+                .register(registry);
+    }
 }
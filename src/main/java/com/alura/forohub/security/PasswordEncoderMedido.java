@@ -0,0 +1,49 @@
+package com.alura.forohub.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Decorador del PasswordEncoder que mide cuánto tarda cada hash / verificación.
+ * BCrypt es deliberadamente lento (CPU-bound): este timer muestra cuánto del
+ * tiempo de login / registro se va en el hashing.
+ *
+ * Métrica: forohub.password {operacion=encode|matches}
+ */
+public class PasswordEncoderMedido implements PasswordEncoder {
+
+    private final PasswordEncoder delegado;
+    private final Timer encode;
+    private final Timer matches;
+
+    public PasswordEncoderMedido(PasswordEncoder delegado, MeterRegistry registry) {
+        this.delegado = delegado;
+        this.encode = timer(registry, "encode");
+        this.matches = timer(registry, "matches");
+    }
+
+    private static Timer timer(MeterRegistry registry, String operacion) {
+        return Timer.builder("forohub.password")
+                .description("Tiempo de hashing / verificación de contraseñas")
+                .tag("operacion", operacion)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encode.record(() -> delegado.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        Boolean ok = matches.record(() -> delegado.matches(rawPassword, encodedPassword));
+        return Boolean.TRUE.equals(ok);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegado.upgradeEncoding(encodedPassword);
+    }
+}
@@ -1,5 +1,7 @@
 package com.alura.forohub.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpStatus;
@@ -41,10 +43,16 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 // Endpoints públicos y protegidos
                 .authorizeHttpRequests(auth -> auth
+                        // Dispatch ASYNC de respuestas ya autorizadas (SSE / streaming)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Endpoints públicos para autenticación
                         .requestMatchers("/api/auth/**").permitAll()
                         // Swagger / OpenAPI (hacer públicos para poder testear la UI)
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
+                        // Actuator: health y métricas Prometheus (el puerto de management escucha solo en localhost)
+                        .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
+                        // Probes de liveness / readiness en el puerto principal (sin datos sensibles)
+                        .requestMatchers("/livez", "/readyz").permitAll()
                         // Opcional: permitir acceso a recursos estáticos y root
                         .requestMatchers("/", "/index.html", "/favicon.ico", "/webjars/**", "/swagger-ui/**").permitAll()
                         // Resto requiere autenticación
@@ -67,9 +75,9 @@ public class SecurityConfig {
         return configuration.getAuthenticationManager();
     }
 
-    // BCrypt PasswordEncoder para la app
+    // BCrypt PasswordEncoder para la app (medido: forohub.password)
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new PasswordEncoderMedido(new BCryptPasswordEncoder(), meterRegistry);
     }
 }
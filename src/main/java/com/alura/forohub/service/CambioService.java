@@ -0,0 +1,19 @@
+package com.alura.forohub.service;
+
+import com.alura.forohub.dto.CambiosDto;
+
+/**
+ * Registro de cambios de tópicos y respuestas para la sincronización incremental de clientes.
+ */
+public interface CambioService {
+
+    /**
+     * Anota un cambio en la transacción actual (se escribe al confirmar).
+     */
+    void registrar(String entidad, Long entidadId, Long topicoId, String operacion);
+
+    /**
+     * Cambios posteriores al cursor 'desde', en orden de confirmación, de a 'size' como máximo.
+     */
+    CambiosDto listarDesde(long desde, int size);
+}
@@ -0,0 +1,186 @@
+package com.alura.forohub.service;
+
+import com.alura.forohub.dto.CambioDto;
+import com.alura.forohub.dto.CambiosDto;
+import com.alura.forohub.dto.RespuestaResponseDto;
+import com.alura.forohub.dto.TopicoResponseDto;
+import com.alura.forohub.model.Cambio;
+import com.alura.forohub.repository.CambioRepository;
+import com.alura.forohub.repository.RespuestaRepository;
+import com.alura.forohub.repository.TopicoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registro de cambios para GET /api/cambios?desde=.
+ *
+ * Escritura: los servicios anotan cada alta / edición / baja / reactivación y
+ * las anotaciones de la transacción se escriben con un INSERT multi-fila en
+ * beforeCommit (misma transacción: si hay rollback no queda nada). La fecha la
+ * pone la base en ese INSERT (NOW(6)), no el momento de la anotación: en una
+ * transacción larga las dos pueden estar muy separadas, y el id se asigna al insertar.
+ *
+ * Lectura: rango "id > desde" sobre la clave primaria. Los ids AUTO_INCREMENT
+ * se asignan al insertar pero se ven al confirmar, así que un hueco reciente
+ * puede ser una transacción todavía abierta: el lote se corta antes del hueco
+ * y el cliente lo recibe en el próximo pedido. Un hueco más viejo que
+ * 'espera-huecos-ms' (según el reloj de la base, el mismo que fechó la fila) se
+ * da por rollback. De esta forma el cursor nunca pasa
+ * por encima de un cambio que después aparece.
+ */
+@Service
+public class CambioServiceImpl implements CambioService {
+
+    /** Máximo de cambios por lote. */
+    public static final int MAX_SIZE = 500;
+
+    private static final String INSERT_PREFIJO =
+            "INSERT INTO cambios (entidad, entidad_id, topico_id, operacion, fecha) VALUES ";
+    private static final String INSERT_FILA = "(?, ?, ?, ?, NOW(6))";
+
+    private record Anotacion(String entidad, Long entidadId, Long topicoId, String operacion) { }
+
+    private final CambioRepository cambioRepository;
+    private final TopicoRepository topicoRepository;
+    private final RespuestaRepository respuestaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final long esperaHuecosMillis;
+
+    public CambioServiceImpl(CambioRepository cambioRepository,
+                             TopicoRepository topicoRepository,
+                             RespuestaRepository respuestaRepository,
+                             JdbcTemplate jdbcTemplate,
+                             @Value("${forohub.cambios.espera-huecos-ms:5000}") long esperaHuecosMillis) {
+        this.cambioRepository = cambioRepository;
+        this.topicoRepository = topicoRepository;
+        this.respuestaRepository = respuestaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.esperaHuecosMillis = esperaHuecosMillis;
+    }
+
+    @Override
+    public void registrar(String entidad, Long entidadId, Long topicoId, String operacion) {
+        Anotacion a = new Anotacion(entidad, entidadId, topicoId, operacion);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insertar(List.of(a));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<Anotacion> pendientes = (List<Anotacion>) TransactionSynchronizationManager.getResource(this);
+        if (pendientes == null) {
+            List<Anotacion> nuevas = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, nuevas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insertar(nuevas);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CambioServiceImpl.this);
+                }
+            });
+            pendientes = nuevas;
+        }
+        pendientes.add(a);
+    }
+
+    private void insertar(List<Anotacion> anotaciones) {
+        if (anotaciones.isEmpty()) return;
+        StringBuilder sql = new StringBuilder(INSERT_PREFIJO.length() + anotaciones.size() * (INSERT_FILA.length() + 1));
+        sql.append(INSERT_PREFIJO);
+        Object[] args = new Object[anotaciones.size() * 4];
+        int i = 0;
+        for (Anotacion a : anotaciones) {
+            if (i > 0) sql.append(',');
+            sql.append(INSERT_FILA);
+            args[i++] = a.entidad();
+            args[i++] = a.entidadId();
+            args[i++] = a.topicoId();
+            args[i++] = a.operacion();
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+
+    /**
+     * Transacción de escritura a propósito: con réplicas habilitadas las de solo
+     * lectura van a una réplica, y el cursor tiene que avanzar sobre el primario.
+     */
+    @Override
+    @Transactional
+    public CambiosDto listarDesde(long desde, int size) {
+        int limite = Math.max(1, Math.min(size, MAX_SIZE));
+        List<Cambio> filas = cambioRepository.findDesde(Math.max(0, desde), PageRequest.of(0, limite));
+
+        LocalDateTime corte = null;
+        List<Cambio> visibles = new ArrayList<>(filas.size());
+        long previo = Math.max(0, desde);
+        for (Cambio c : filas) {
+            if (c.getId() != previo + 1) {
+                // hueco reciente: puede confirmarse todavía, se corta acá
+                if (corte == null) corte = ahoraEnLaBase().minusNanos(esperaHuecosMillis * 1_000_000);
+                if (c.getFecha().isAfter(corte)) break;
+            }
+            visibles.add(c);
+            previo = c.getId();
+        }
+        boolean hayMas = visibles.size() == limite;
+
+        Map<Long, TopicoResponseDto> topicos = new HashMap<>();
+        Map<Long, RespuestaResponseDto> respuestas = new HashMap<>();
+        cargarEstados(visibles, topicos, respuestas);
+
+        List<CambioDto> cambios = new ArrayList<>(visibles.size());
+        for (Cambio c : visibles) {
+            boolean conEstado = !Cambio.ELIMINADO.equals(c.getOperacion());
+            boolean esTopico = Cambio.TOPICO.equals(c.getEntidad());
+            cambios.add(new CambioDto(c.getId(), c.getEntidad(), c.getEntidadId(), c.getTopicoId(),
+                    c.getOperacion(), c.getFecha(),
+                    conEstado && esTopico ? topicos.get(c.getEntidadId()) : null,
+                    conEstado && !esTopico ? respuestas.get(c.getEntidadId()) : null));
+        }
+        return new CambiosDto(cambios, previo, hayMas);
+    }
+
+    /** Solo si hay un hueco: la fecha de las filas viene del reloj de la base. */
+    private LocalDateTime ahoraEnLaBase() {
+        Timestamp ahora = jdbcTemplate.queryForObject("SELECT NOW(6)", Timestamp.class);
+        return ahora != null ? ahora.toLocalDateTime() : LocalDateTime.now();
+    }
+
+    /**
+     * Estado actual de lo que cambió: a lo sumo una consulta para tópicos y otra para respuestas.
+     */
+    private void cargarEstados(List<Cambio> cambios,
+                               Map<Long, TopicoResponseDto> topicos,
+                               Map<Long, RespuestaResponseDto> respuestas) {
+        Set<Long> topicoIds = new HashSet<>();
+        Set<Long> respuestaIds = new HashSet<>();
+        for (Cambio c : cambios) {
+            if (Cambio.ELIMINADO.equals(c.getOperacion())) continue;
+            if (Cambio.TOPICO.equals(c.getEntidad())) topicoIds.add(c.getEntidadId());
+            else respuestaIds.add(c.getEntidadId());
+        }
+        if (!topicoIds.isEmpty()) {
+            topicoRepository.findDtoPorIds(topicoIds).forEach(t -> topicos.put(t.id(), t));
+        }
+        if (!respuestaIds.isEmpty()) {
+            respuestaRepository.findDtoPorIds(respuestaIds).forEach(r -> respuestas.put(r.id(), r));
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.alura.forohub.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Coherencia de los caches locales entre nodos, sin broker de mensajes.
+ *
+ * Las escrituras anotan qué cache cambió en la tabla cache_cambios, dentro
+ * de la misma transacción (un INSERT multi-fila en beforeCommit). Cada nodo
+ * sigue la tabla con "id > último visto" sobre la clave primaria y aplica las
+ * invalidaciones de los otros nodos (las propias ya se aplicaron después del commit).
+ * Desactualización acotada por el intervalo de sondeo; el TTL de cada cache
+ * sigue siendo el respaldo si el sondeo falla.
+ *
+ * Los ids AUTO_INCREMENT se asignan al insertar pero se vuelven visibles al
+ * confirmar: un id salteado puede aparecer después. Los huecos se vuelven a
+ * consultar durante 'espera-huecos-ms' antes de darlos por perdidos (rollback).
+ */
+@Component
+public class DiarioCambiosCache {
+
+    private static final Logger log = LoggerFactory.getLogger(DiarioCambiosCache.class);
+
+    /** Páginas de GET /api/topicos (ListadoTopicosCache); sin clave. */
+    public static final String LISTADOS = "listados";
+    /** Resúmenes de perfil (UsuarioResumenCache); clave = id de usuario, o null para todos. */
+    public static final String RESUMENES = "resumenes";
+    /** Usuario en el cache de segundo nivel de Hibernate; clave = id de usuario. */
+    public static final String USUARIOS = "usuarios";
+    /** Huellas de IndiceCasiDuplicados; clave = id de tópico (se relee de la base). */
+    public static final String SIMILARES = "similares";
+
+    private static final String INSERT_PREFIJO = "INSERT INTO cache_cambios (cache, clave, nodo, creado_ms) VALUES ";
+    private static final String INSERT_FILA = "(?, ?, ?, ?)";
+    private static final String SELECT = "SELECT id, cache, clave, nodo, creado_ms FROM cache_cambios ";
+
+    /** Cambio anotado; clave null = todo el cache. */
+    public record Cambio(String cache, String clave) { }
+
+    private record Fila(long id, Cambio cambio, String nodo, long creadoMs) { }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean habilitado;
+    private final String nodo;
+    private final long intervaloMillis;
+    private final int maxFilas;
+    private final long esperaHuecosMillis;
+    private final long retencionMillis;
+
+    private final Map<String, List<Consumer<String>>> suscriptores = new ConcurrentHashMap<>();
+
+    /** Ids salteados todavía no vistos -> momento en que se dejan de esperar. */
+    private final TreeMap<Long, Long> huecos = new TreeMap<>();
+    private long ultimoVisto = -1;
+    private long ultimaPurga;
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong demoraMillis = new AtomicLong();
+    private ScheduledExecutorService programador;
+
+    public DiarioCambiosCache(JdbcTemplate jdbcTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${forohub.coherencia.habilitado:false}") boolean habilitado,
+                              @Value("${forohub.coherencia.nodo:}") String nodo,
+                              @Value("${forohub.coherencia.intervalo-ms:1000}") long intervaloMillis,
+                              @Value("${forohub.coherencia.max-filas:500}") int maxFilas,
+                              @Value("${forohub.coherencia.espera-huecos-ms:10000}") long esperaHuecosMillis,
+                              @Value("${forohub.coherencia.retencion-ms:3600000}") long retencionMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.habilitado = habilitado;
+        this.nodo = nodo == null || nodo.isBlank() ? UUID.randomUUID().toString().substring(0, 8) : nodo;
+        this.intervaloMillis = intervaloMillis;
+        this.maxFilas = maxFilas;
+        this.esperaHuecosMillis = esperaHuecosMillis;
+        this.retencionMillis = retencionMillis;
+        Gauge.builder("forohub.coherencia.demora", demoraMillis, AtomicLong::get)
+                .description("Tiempo entre la anotación y la aplicación del último cambio remoto (ms)")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (!habilitado) return;
+        programador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "diario-cambios-cache");
+            t.setDaemon(true);
+            return t;
+        });
+        programador.scheduleWithFixedDelay(this::sondearSinFallar, intervaloMillis, intervaloMillis,
+                TimeUnit.MILLISECONDS);
+        log.info("Coherencia de caches habilitada (nodo '{}', sondeo cada {} ms)", nodo, intervaloMillis);
+    }
+
+    @PreDestroy
+    void detener() {
+        if (programador != null) programador.shutdownNow();
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public String nodo() {
+        return nodo;
+    }
+
+    /**
+     * Registra el invalidador local de un cache. Recibe la clave anotada (null = todo el cache).
+     */
+    public void suscribir(String cache, Consumer<String> invalidador) {
+        suscriptores.computeIfAbsent(cache, k -> new CopyOnWriteArrayList<>()).add(invalidador);
+    }
+
+    /**
+     * Anota un cambio para los demás nodos. Dentro de una transacción se acumula
+     * y se escribe en beforeCommit (una sola sentencia por transacción, sin
+     * repetidos); si la transacción se revierte, la anotación también.
+     */
+    public void anotar(String cache, Object clave) {
+        if (!habilitado) return;
+        Cambio cambio = new Cambio(cache, clave != null ? clave.toString() : null);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insertar(List.of(cambio));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Cambio> pendientes = (Set<Cambio>) TransactionSynchronizationManager.getResource(this);
+        if (pendientes == null) {
+            Set<Cambio> nuevos = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, nuevos);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insertar(nuevos);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DiarioCambiosCache.this);
+                }
+            });
+            pendientes = nuevos;
+        }
+        pendientes.add(cambio);
+    }
+
+    private void insertar(Iterable<Cambio> cambios) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(INSERT_PREFIJO);
+        long ahora = System.currentTimeMillis();
+        for (Cambio c : cambios) {
+            if (!args.isEmpty()) sql.append(',');
+            sql.append(INSERT_FILA);
+            args.add(c.cache());
+            args.add(c.clave());
+            args.add(nodo);
+            args.add(ahora);
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+    }
+
+    /**
+     * Una vuelta de sondeo: lee los cambios nuevos (y los huecos pendientes) y
+     * aplica los de otros nodos. Devuelve cuántas invalidaciones se aplicaron.
+     * Sincronizado: lo corre el hilo del diario y también los tests.
+     */
+    public synchronized int sondear() {
+        long ahora = System.currentTimeMillis();
+        if (ultimoVisto < 0) {
+            // al arrancar los caches están vacíos: se sigue desde el último cambio existente
+            Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM cache_cambios", Long.class);
+            ultimoVisto = max != null ? max : 0;
+            ultimaPurga = ahora;
+            return 0;
+        }
+
+        List<Fila> filas = new ArrayList<>();
+        if (!huecos.isEmpty()) {
+            huecos.values().removeIf(limite -> limite <= ahora);
+            if (!huecos.isEmpty()) {
+                String enLista = String.join(",", huecos.keySet().stream().map(String::valueOf).toList());
+                filas.addAll(jdbcTemplate.query(SELECT + "WHERE id IN (" + enLista + ")", this::fila));
+                filas.forEach(f -> huecos.remove(f.id()));
+            }
+        }
+
+        List<Fila> nuevas = jdbcTemplate.query(SELECT + "WHERE id > ? ORDER BY id LIMIT ?",
+                this::fila, ultimoVisto, maxFilas);
+        for (Fila f : nuevas) {
+            // un salto muy grande no es una transacción en vuelo (ej: tabla recreada)
+            if (f.id() - ultimoVisto <= maxFilas) {
+                for (long id = ultimoVisto + 1; id < f.id(); id++) {
+                    huecos.put(id, ahora + esperaHuecosMillis);
+                }
+            }
+            ultimoVisto = f.id();
+        }
+        filas.addAll(nuevas);
+
+        int aplicadas = aplicar(filas, ahora);
+
+        if (ahora - ultimaPurga >= retencionMillis / 10) {
+            // cualquier nodo puede purgar: borrar dos veces lo mismo no hace daño
+            jdbcTemplate.update("DELETE FROM cache_cambios WHERE creado_ms < ?", ahora - retencionMillis);
+            ultimaPurga = ahora;
+        }
+        return aplicadas;
+    }
+
+    /**
+     * Aplica los cambios remotos sin repetir: una invalidación total tapa las parciales del mismo cache.
+     */
+    private int aplicar(List<Fila> filas, long ahora) {
+        Set<Cambio> cambios = new LinkedHashSet<>();
+        for (Fila f : filas) {
+            if (nodo.equals(f.nodo())) continue;
+            cambios.add(f.cambio());
+            demoraMillis.set(Math.max(0, ahora - f.creadoMs()));
+        }
+        for (Iterator<Cambio> it = cambios.iterator(); it.hasNext(); ) {
+            Cambio c = it.next();
+            if (c.clave() != null && cambios.contains(new Cambio(c.cache(), null))) it.remove();
+        }
+
+        for (Cambio c : cambios) {
+            for (Consumer<String> invalidador : suscriptores.getOrDefault(c.cache(), List.of())) {
+                invalidador.accept(c.clave());
+            }
+            Counter.builder("forohub.coherencia.aplicadas").tag("cache", c.cache())
+                    .register(meterRegistry).increment();
+        }
+        return cambios.size();
+    }
+
+    private Fila fila(ResultSet rs, int n) throws SQLException {
+        return new Fila(rs.getLong("id"), new Cambio(rs.getString("cache"), rs.getString("clave")),
+                rs.getString("nodo"), rs.getLong("creado_ms"));
+    }
+
+    private void sondearSinFallar() {
+        try {
+            sondear();
+        } catch (RuntimeException e) {
+            // base caída: los caches siguen venciendo por TTL
+            log.warn("No se pudo leer cache_cambios: {}", e.getMessage());
+        }
+    }
+}
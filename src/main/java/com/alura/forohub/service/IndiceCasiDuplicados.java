@@ -0,0 +1,480 @@
+package com.alura.forohub.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice en memoria de tópicos casi duplicados (repost con alguna palabra cambiada).
+ *
+ * Cada tópico activo tiene una firma MinHash de 32 valores sobre los 5-gramas
+ * de caracteres de título + mensaje normalizados (minúscula, sin acentos ni
+ * signos): la fracción de valores iguales entre dos firmas estima la similitud
+ * de Jaccard de los textos. De cada valor se guardan 16 bits (b-bit MinHash):
+ * la firma ocupa 64 bytes y el error por colisión (1/65536) no se nota.
+ *
+ * LSH para no comparar contra todos: la firma se parte en 8 bandas de 4 valores
+ * y cada banda indexa sus tópicos por un hash de esos 4 valores. Dos textos con
+ * similitud 0.8 comparten al menos una banda con probabilidad 0.985 (0.5: 0.40,
+ * descartados al verificar). Buscar revisa 8 cubetas y compara las firmas de los
+ * candidatos: microsegundos, sin SQL.
+ *
+ * Se arma al arrancar (antes de aceptar tráfico) y se actualiza después del
+ * commit de cada alta / edición / baja / reactivación. Mientras se arma, buscar
+ * no encuentra nada (no frena las altas). ~250 bytes por tópico.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class IndiceCasiDuplicados implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceCasiDuplicados.class);
+
+    public static final String MARCAR = "marcar";
+    public static final String RECHAZAR = "rechazar";
+    public static final String APAGADO = "apagado";
+
+    private static final int BANDAS = 8;
+    private static final int FILAS = 4;
+    private static final int VALORES = BANDAS * FILAS;
+    private static final int BITS_CUBETA = 16;
+    private static final int LARGO_SHINGLE = 5;
+    /** Pares comparados por cubeta al armar grupos: cubetas enormes se recortan. */
+    private static final int MAX_POR_CUBETA = 2000;
+
+    private static final long[] SEMILLAS = new long[VALORES];
+
+    static {
+        long x = 0;
+        for (int i = 0; i < VALORES; i++) {
+            x += 0x9E3779B97F4A7C15L;
+            SEMILLAS[i] = mezclar(x);
+        }
+    }
+
+    private static final Pattern NO_ALFANUMERICO = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    /** Tópico parecido al texto buscado. */
+    public record Coincidencia(Long topicoId, double similitud) { }
+
+    /** Tópicos conectados por pares de similitud >= umbral. */
+    public record Grupo(List<Long> topicoIds, double similitudMaxima) { }
+
+    /** Ids de una cubeta en un long[] que crece. */
+    private static final class Cubeta {
+        long[] ids = new long[2];
+        int n;
+
+        void agregar(long id) {
+            if (n == ids.length) ids = Arrays.copyOf(ids, n * 2);
+            ids[n++] = id;
+        }
+
+        void quitar(long id) {
+            for (int i = 0; i < n; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--n];
+                    return;
+                }
+            }
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String modo;
+    private final double umbral;
+    private final int minPalabras;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /** Cubetas creadas al primer uso: 8 x 65536 referencias (2 MB) fijas. */
+    private final Cubeta[][] bandas = new Cubeta[BANDAS][1 << BITS_CUBETA];
+    private final Map<Long, char[]> firmas = new HashMap<>();
+    /** Bajas que llegaron mientras se armaba el índice: no se agregan con la fila leída antes. */
+    private final Set<Long> quitadosDuranteArmado = new HashSet<>();
+    private volatile boolean armando;
+    private volatile boolean listo;
+
+    private final Counter marcados;
+    private final Counter rechazados;
+
+    public IndiceCasiDuplicados(JdbcTemplate jdbcTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${forohub.similares.modo:marcar}") String modo,
+                                @Value("${forohub.similares.umbral:0.8}") double umbral,
+                                @Value("${forohub.similares.min-palabras:8}") int minPalabras) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.modo = modo;
+        this.umbral = umbral;
+        this.minPalabras = minPalabras;
+        Gauge.builder("forohub.similares.indexados", this, IndiceCasiDuplicados::tamanio)
+                .description("Tópicos en el índice de casi duplicados")
+                .register(meterRegistry);
+        this.marcados = Counter.builder("forohub.similares.detectados").tag("accion", MARCAR)
+                .description("Altas de tópicos casi duplicados").register(meterRegistry);
+        this.rechazados = Counter.builder("forohub.similares.detectados").tag("accion", RECHAZAR)
+                .description("Altas de tópicos casi duplicados").register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (isHabilitado()) reconstruir();
+    }
+
+    public boolean isHabilitado() {
+        return !APAGADO.equals(modo);
+    }
+
+    /** true si crearTopico debe rechazar (DuplicadoException, 400) en lugar de solo marcar. */
+    public boolean isRechazar() {
+        return RECHAZAR.equals(modo);
+    }
+
+    public boolean isListo() {
+        return listo;
+    }
+
+    public double umbral() {
+        return umbral;
+    }
+
+    public int tamanio() {
+        lock.readLock().lock();
+        try {
+            return firmas.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // -----------------------
+    // BÚSQUEDA
+    // -----------------------
+
+    /**
+     * El tópico indexado más parecido con similitud >= umbral, si hay. Cuenta la detección en
+     * forohub.similares.detectados{accion} según el modo.
+     */
+    public Optional<Coincidencia> buscar(String titulo, String mensaje) {
+        if (!isHabilitado() || !listo) return Optional.empty();
+        Optional<Coincidencia> c = masParecido(firma(titulo, mensaje), umbral);
+        c.ifPresent(m -> (isRechazar() ? rechazados : marcados).increment());
+        return c;
+    }
+
+    /**
+     * Sin métricas ni chequeo de modo: para tests y benchmarks.
+     */
+    Optional<Coincidencia> masParecido(char[] firma, double minimo) {
+        if (firma == null) return Optional.empty();
+        long mejorId = -1;
+        int mejor = -1;
+        lock.readLock().lock();
+        try {
+            for (int b = 0; b < BANDAS; b++) {
+                Cubeta cubeta = bandas[b][cubeta(firma, b)];
+                if (cubeta == null) continue;
+                for (int i = 0; i < cubeta.n; i++) {
+                    long id = cubeta.ids[i];
+                    int c = coincidencias(firma, firmas.get(id));
+                    if (c > mejor) {
+                        mejor = c;
+                        mejorId = id;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (mejorId < 0 || mejor < iguales(minimo)) return Optional.empty();
+        return Optional.of(new Coincidencia(mejorId, similitud(mejor)));
+    }
+
+    // -----------------------
+    // ACTUALIZACIÓN (después del commit)
+    // -----------------------
+
+    public void agregar(Long id, String titulo, String mensaje) {
+        if (!isHabilitado()) return;
+        char[] firma = firma(titulo, mensaje);
+        despuesDelCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                quitarSinLock(id);
+                if (firma != null) agregarSinLock(id, firma);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void quitar(Long id) {
+        if (!isHabilitado()) return;
+        despuesDelCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                quitarSinLock(id);
+                if (armando) quitadosDuranteArmado.add(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Vuelve a leer un tópico de la base (cambio hecho en otro nodo, ver DiarioCambiosCache).
+     */
+    public void recargar(Long id) {
+        if (!isHabilitado()) return;
+        List<String[]> filas = jdbcTemplate.query(
+                "SELECT titulo, mensaje FROM topicos WHERE id = ? AND activo = TRUE",
+                (rs, n) -> new String[]{rs.getString(1), rs.getString(2)}, id);
+        if (filas.isEmpty()) quitar(id);
+        else agregar(id, filas.get(0)[0], filas.get(0)[1]);
+    }
+
+    /**
+     * Arma el índice con todos los tópicos activos, leídos en streaming: con
+     * fetch size = Integer.MIN_VALUE el driver de MySQL entrega las filas de a
+     * una (como la exportación de moderación) en lugar de cargar el resultado
+     * entero en memoria, que es lo que hace con cualquier fetch size positivo
+     * si la URL no tiene useCursorFetch. Otros drivers (H2 en los tests)
+     * rechazan ese valor y respetan un fetch size positivo.
+     */
+    public void reconstruir() {
+        long inicio = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            armando = true;
+            listo = false;
+            quitadosDuranteArmado.clear();
+            firmas.clear();
+            for (Cubeta[] banda : bandas) Arrays.fill(banda, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            jdbcTemplate.query(con -> {
+                var ps = con.prepareStatement("SELECT id, titulo, mensaje FROM topicos WHERE activo = TRUE");
+                boolean mysql = "MySQL".equals(con.getMetaData().getDatabaseProductName());
+                ps.setFetchSize(mysql ? Integer.MIN_VALUE : 1000);
+                return ps;
+            }, rs -> {
+                long id = rs.getLong(1);
+                char[] firma = firma(rs.getString(2), rs.getString(3));
+                if (firma == null) return;
+                lock.writeLock().lock();
+                try {
+                    // un alta posterior ya lo agregó con el texto nuevo; una baja posterior lo sacó
+                    if (!firmas.containsKey(id) && !quitadosDuranteArmado.contains(id)) agregarSinLock(id, firma);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+        } finally {
+            lock.writeLock().lock();
+            try {
+                armando = false;
+                quitadosDuranteArmado.clear();
+                listo = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Índice de casi duplicados: {} tópicos en {} ms", tamanio(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+    }
+
+    private void agregarSinLock(long id, char[] firma) {
+        firmas.put(id, firma);
+        for (int b = 0; b < BANDAS; b++) {
+            int i = cubeta(firma, b);
+            if (bandas[b][i] == null) bandas[b][i] = new Cubeta();
+            bandas[b][i].agregar(id);
+        }
+    }
+
+    private void quitarSinLock(long id) {
+        char[] firma = firmas.remove(id);
+        if (firma == null) return;
+        for (int b = 0; b < BANDAS; b++) {
+            int i = cubeta(firma, b);
+            bandas[b][i].quitar(id);
+            if (bandas[b][i].n == 0) bandas[b][i] = null;
+        }
+    }
+
+    // -----------------------
+    // GRUPOS (admin)
+    // -----------------------
+
+    /**
+     * Grupos de tópicos casi duplicados (pares a similitud >= umbral unidos
+     * transitivamente), los más grandes primero. Recorre todas las cubetas:
+     * pensado para moderación, no para el camino de un request.
+     */
+    public List<Grupo> grupos(double umbralGrupos, int max) {
+        int necesarios = iguales(umbralGrupos);
+        Map<Long, Long> padre = new HashMap<>();
+        Map<Long, Integer> mejor = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Cubeta[] banda : bandas) {
+                for (Cubeta c : banda) {
+                    if (c == null || c.n < 2) continue;
+                    int n = Math.min(c.n, MAX_POR_CUBETA);
+                    for (int i = 0; i < n; i++) {
+                        char[] fi = firmas.get(c.ids[i]);
+                        for (int j = i + 1; j < n; j++) {
+                            int iguales = coincidencias(fi, firmas.get(c.ids[j]));
+                            if (iguales < necesarios) continue;
+                            unir(padre, c.ids[i], c.ids[j]);
+                            mejor.merge(c.ids[i], iguales, Math::max);
+                            mejor.merge(c.ids[j], iguales, Math::max);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<Long, List<Long>> porRaiz = new HashMap<>();
+        for (Long id : padre.keySet()) {
+            porRaiz.computeIfAbsent(raiz(padre, id), k -> new ArrayList<>()).add(id);
+        }
+        List<Grupo> grupos = new ArrayList<>(porRaiz.size());
+        for (List<Long> ids : porRaiz.values()) {
+            Collections.sort(ids);
+            int m = ids.stream().mapToInt(id -> mejor.getOrDefault(id, 0)).max().orElse(0);
+            grupos.add(new Grupo(ids, similitud(m)));
+        }
+        grupos.sort(Comparator.comparingInt((Grupo g) -> g.topicoIds().size()).reversed()
+                .thenComparing(Grupo::similitudMaxima, Comparator.reverseOrder())
+                .thenComparing(g -> g.topicoIds().get(0)));
+        return grupos.size() > max ? new ArrayList<>(grupos.subList(0, max)) : grupos;
+    }
+
+    private static void unir(Map<Long, Long> padre, long a, long b) {
+        long ra = raiz(padre, a);
+        long rb = raiz(padre, b);
+        if (ra != rb) padre.put(Math.max(ra, rb), Math.min(ra, rb));
+    }
+
+    private static long raiz(Map<Long, Long> padre, long id) {
+        long r = id;
+        padre.putIfAbsent(r, r);
+        while (padre.get(r) != r) r = padre.get(r);
+        // compresión de camino
+        long x = id;
+        while (padre.get(x) != r) {
+            long siguiente = padre.get(x);
+            padre.put(x, r);
+            x = siguiente;
+        }
+        return r;
+    }
+
+    // -----------------------
+    // FIRMA
+    // -----------------------
+
+    /**
+     * Firma MinHash de título + mensaje; null si el texto tiene menos de
+     * 'min-palabras' palabras (muy poca señal: daría falsos positivos).
+     */
+    char[] firma(String titulo, String mensaje) {
+        String texto = (titulo != null ? titulo : "") + " " + (mensaje != null ? mensaje : "");
+        String normalizado = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        normalizado = NO_ALFANUMERICO.matcher(normalizado.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+        if (normalizado.isEmpty() || normalizado.split(" ").length < minPalabras) return null;
+
+        long[] minimos = new long[VALORES];
+        Arrays.fill(minimos, Long.MAX_VALUE);
+        for (int i = 0; i + LARGO_SHINGLE <= normalizado.length(); i++) {
+            long h = 0xcbf29ce484222325L;
+            for (int j = i; j < i + LARGO_SHINGLE; j++) {
+                h ^= normalizado.charAt(j);
+                h *= 0x100000001b3L;
+            }
+            for (int k = 0; k < VALORES; k++) {
+                long v = mezclar(h ^ SEMILLAS[k]) >>> 1;
+                if (v < minimos[k]) minimos[k] = v;
+            }
+        }
+        char[] firma = new char[VALORES];
+        for (int k = 0; k < VALORES; k++) firma[k] = (char) minimos[k];
+        return firma;
+    }
+
+    private static int coincidencias(char[] a, char[] b) {
+        int iguales = 0;
+        for (int k = 0; k < VALORES; k++) {
+            if (a[k] == b[k]) iguales++;
+        }
+        return iguales;
+    }
+
+    private static int cubeta(char[] firma, int banda) {
+        long h = banda;
+        for (int k = banda * FILAS; k < (banda + 1) * FILAS; k++) h = (h << 16) ^ firma[k];
+        return (int) (mezclar(h) >>> (64 - BITS_CUBETA));
+    }
+
+    /** Finalizador de MurmurHash3: reparte los bits de forma pareja. */
+    private static long mezclar(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int iguales(double similitud) {
+        return (int) Math.ceil(similitud * VALORES - 1e-9);
+    }
+
+    private static double similitud(int iguales) {
+        return Math.round(iguales * 1000.0 / VALORES) / 1000.0;
+    }
+
+    private static void despuesDelCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
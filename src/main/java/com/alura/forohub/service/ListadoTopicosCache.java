@@ -0,0 +1,132 @@
+package com.alura.forohub.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache de respuestas ya serializadas (JSON y, si conviene, gzip) de las
+ * primeras páginas de GET /api/topicos.
+ *
+ * Invalidación por versión: cada escritura de tópicos incrementa el contador
+ * después del commit. Una entrada solo se sirve si fue calculada con la
+ * versión vigente; quien leyó antes del incremento guarda con la versión
+ * vieja y su entrada nunca se entrega. El TTL cubre cambios hechos por fuera
+ * de la app (ej: GeneradorDatos).
+ */
+@Component
+public class ListadoTopicosCache {
+
+    /** Respuesta serializada; gzip es null si el JSON es chico o no comprime. */
+    public record Entrada(byte[] json, byte[] gzip, String contentType, long version, long expiraEn) { }
+
+    private final AtomicLong version = new AtomicLong();
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+
+    private final long ttlMillis;
+    private final int maxEntradas;
+    private final int umbralGzip;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public ListadoTopicosCache(@Value("${forohub.listados.cache.ttl-ms:30000}") long ttlMillis,
+                               @Value("${forohub.listados.cache.max-entradas:500}") int maxEntradas,
+                               @Value("${forohub.listados.cache.umbral-gzip-bytes:1024}") int umbralGzip,
+                               MeterRegistry meterRegistry) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntradas = maxEntradas;
+        this.umbralGzip = umbralGzip;
+        this.hits = Counter.builder("forohub.listados.cache").tag("resultado", "hit").register(meterRegistry);
+        this.misses = Counter.builder("forohub.listados.cache").tag("resultado", "miss").register(meterRegistry);
+        Gauge.builder("forohub.listados.cache.entradas", entradas, Map::size).register(meterRegistry);
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Entrada vigente para la clave, o null (miss).
+     */
+    public Entrada obtener(String clave) {
+        Entrada e = entradas.get(clave);
+        if (e == null || e.version() != version.get() || System.currentTimeMillis() >= e.expiraEn()) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return e;
+    }
+
+    /**
+     * Guarda el JSON calculado con 'versionLeida' (tomada antes de ejecutar la consulta).
+     * Si hubo una escritura en el medio no se guarda nada.
+     */
+    public void guardar(String clave, long versionLeida, byte[] json, String contentType) {
+        if (versionLeida != version.get()) return;
+        if (entradas.size() >= maxEntradas) {
+            // las entradas son baratas de recalcular: se vacía antes que crecer sin límite
+            entradas.clear();
+        }
+        byte[] gzip = json.length >= umbralGzip ? gzip(json) : null;
+        if (gzip != null && gzip.length >= json.length) gzip = null;
+        entradas.put(clave, new Entrada(json, gzip, contentType, versionLeida,
+                System.currentTimeMillis() + ttlMillis));
+    }
+
+    /**
+     * Invalida todas las páginas cuando la transacción actual confirme.
+     */
+    public void invalidar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidarAhora();
+                }
+            });
+        } else {
+            invalidarAhora();
+        }
+    }
+
+    private void invalidarAhora() {
+        version.incrementAndGet();
+        entradas.clear();
+    }
+
+    public int tamanio() {
+        return entradas.size();
+    }
+
+    public double hits() {
+        return hits.count();
+    }
+
+    public double misses() {
+        return misses.count();
+    }
+
+    private static byte[] gzip(byte[] datos) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(datos.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(datos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,15 @@
+package com.alura.forohub.service;
+
+import com.alura.forohub.dto.CursorPageDto;
+import com.alura.forohub.dto.NotificacionDto;
+
+/**
+ * Bandeja de notificaciones del usuario autenticado.
+ */
+public interface NotificacionService {
+
+    /**
+     * Notificaciones del usuario autenticado, más nuevas primero, paginadas por cursor.
+     */
+    CursorPageDto<NotificacionDto> listarPropias(String cursor, int size);
+}
@@ -0,0 +1,51 @@
+package com.alura.forohub.service;
+
+import com.alura.forohub.dto.CursorPageDto;
+import com.alura.forohub.dto.NotificacionDto;
+import com.alura.forohub.exception.RecursoNoEncontradoException;
+import com.alura.forohub.model.Usuario;
+import com.alura.forohub.repository.NotificacionRepository;
+import com.alura.forohub.repository.UsuarioRepository;
+import com.alura.forohub.security.SecurityUtils;
+import com.alura.forohub.util.KeysetCursor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Lectura de la bandeja que escribe DespachadorNotificaciones.
+ */
+@Service
+public class NotificacionServiceImpl implements NotificacionService {
+
+    private final NotificacionRepository notificacionRepository;
+    private final UsuarioRepository usuarioRepository;
+
+    public NotificacionServiceImpl(NotificacionRepository notificacionRepository,
+                                   UsuarioRepository usuarioRepository) {
+        this.notificacionRepository = notificacionRepository;
+        this.usuarioRepository = usuarioRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<NotificacionDto> listarPropias(String cursor, int size) {
+        String username = SecurityUtils.getCurrentUsername()
+                .orElseThrow(() -> new AccessDeniedException("Acceso denegado: usuario no autenticado."));
+        Long usuarioId = usuarioRepository.findByUsername(username)
+                .map(Usuario::getId)
+                .orElseThrow(() -> new RecursoNoEncontradoException("Usuario no encontrado (" + username + ")"));
+
+        int limite = KeysetCursor.normalizarSize(size);
+        KeysetCursor desde = KeysetCursor.decode(cursor);
+
+        List<NotificacionDto> filas = desde == null
+                ? notificacionRepository.findPorUsuario(usuarioId, KeysetCursor.limiteConSonda(limite))
+                : notificacionRepository.findPorUsuarioDespuesDe(usuarioId, desde.fecha(), desde.id(),
+                        KeysetCursor.limiteConSonda(limite));
+
+        return KeysetCursor.pagina(filas, limite, n -> new KeysetCursor(n.fecha(), n.id()));
+    }
+}
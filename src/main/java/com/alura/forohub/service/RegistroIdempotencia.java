@@ -0,0 +1,106 @@
+package com.alura.forohub.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resultados de POST con Idempotency-Key, por usuario + clave (TTL y tamaño acotado).
+ *
+ * La primera ejecución reserva la clave con un future; los duplicados que llegan
+ * mientras está en curso esperan ese future en lugar de ejecutar de nuevo.
+ * Si la ejecución falla (5xx / excepción) la reserva se libera y un reintento
+ * posterior vuelve a ejecutar.
+ */
+@Component
+public class RegistroIdempotencia {
+
+    /** Respuesta guardada para repetir tal cual. */
+    public record Resultado(int status, String contentType, String location, byte[] cuerpo) { }
+
+    /**
+     * Reserva de una clave. 'huella' identifica el cuerpo del request original.
+     */
+    public static final class Reserva {
+        private final byte[] huella;
+        private final CompletableFuture<Resultado> resultado = new CompletableFuture<>();
+        private volatile long expiraEn = Long.MAX_VALUE;
+
+        private Reserva(byte[] huella) {
+            this.huella = huella;
+        }
+
+        public boolean mismaHuella(byte[] otra) {
+            return Arrays.equals(huella, otra);
+        }
+
+        public CompletableFuture<Resultado> resultado() {
+            return resultado;
+        }
+    }
+
+    private final Map<String, Reserva> reservas = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final int maxEntradas;
+
+    public RegistroIdempotencia(@Value("${forohub.idempotencia.ttl-ms:3600000}") long ttlMillis,
+                                @Value("${forohub.idempotencia.max-entradas:10000}") int maxEntradas,
+                                MeterRegistry meterRegistry) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntradas = maxEntradas;
+        Gauge.builder("forohub.idempotencia.entradas", reservas, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Intenta reservar la clave. Devuelve null si la reserva es nuestra (hay que ejecutar)
+     * o la reserva existente (en curso o completada) si otro request ya la tomó.
+     */
+    public Reserva reservarOObtener(String clave, byte[] huella) {
+        long ahora = System.currentTimeMillis();
+        if (reservas.size() >= maxEntradas) {
+            purgar(ahora);
+        }
+        Reserva nueva = new Reserva(huella);
+        Reserva actual = reservas.compute(clave, (k, existente) ->
+                existente == null || ahora >= existente.expiraEn ? nueva : existente);
+        return actual == nueva ? null : actual;
+    }
+
+    /**
+     * Ejecución terminada: la respuesta queda disponible para los duplicados hasta que venza el TTL.
+     */
+    public void completar(String clave, Resultado resultado) {
+        Reserva r = reservas.get(clave);
+        if (r == null) return;
+        r.expiraEn = System.currentTimeMillis() + ttlMillis;
+        r.resultado.complete(resultado);
+    }
+
+    /**
+     * Ejecución fallida: se libera la clave y los que esperaban reciben null (ejecutan ellos).
+     */
+    public void liberar(String clave) {
+        Reserva r = reservas.remove(clave);
+        if (r != null) {
+            r.resultado.complete(null);
+        }
+    }
+
+    public int tamanio() {
+        return reservas.size();
+    }
+
+    private void purgar(long ahora) {
+        reservas.values().removeIf(r -> ahora >= r.expiraEn);
+        if (reservas.size() >= maxEntradas) {
+            // todas vigentes: se descartan las completadas (las en curso tienen waiters)
+            reservas.values().removeIf(r -> r.resultado.isDone());
+        }
+    }
+}
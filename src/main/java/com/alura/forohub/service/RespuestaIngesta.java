@@ -0,0 +1,425 @@
+package com.alura.forohub.service;
+
+import com.alura.forohub.dto.RespuestaCreateDto;
+import com.alura.forohub.dto.RespuestaResponseDto;
+import com.alura.forohub.eventos.RespuestaCreadaEvent;
+import com.alura.forohub.exception.RecursoNoEncontradoException;
+import com.alura.forohub.exception.ServicioSaturadoException;
+import com.alura.forohub.model.Cambio;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ingesta de respuestas con "group commit" para ráfagas (ej: clases en vivo).
+ *
+ * Modo opcional (forohub.ingesta.habilitada=true):
+ *  - La respuesta se valida en el hilo del request (RespuestaValidador) y se
+ *    encola en una cola acotada en memoria. Si la cola está llena -> 503.
+ *  - Un único hilo escritor drena la cola en lotes: espera como máximo
+ *    'max-latencia-ms' desde el primer elemento o hasta juntar 'max-lote',
+ *    y escribe el lote con un INSERT multi-fila en una sola transacción
+ *    (un solo commit/fsync para todo el lote).
+ *  - Cada elemento tiene su CompletableFuture: el request puede esperarlo
+ *    (semántica sincrónica, 201) o recibir 202 con un ticket para consultar.
+ *    Si la espera sincrónica vence, el elemento sigue encolado y se va a
+ *    escribir igual: también se responde 202 con su ticket (un 503 haría que
+ *    el cliente reintente y la respuesta quede duplicada).
+ *
+ * Si un lote falla (ej: el tópico se borró entre la validación y el insert)
+ * se reintenta fila por fila para que solo fallen los elementos culpables.
+ */
+@Component
+public class RespuestaIngesta {
+
+    private static final Logger log = LoggerFactory.getLogger(RespuestaIngesta.class);
+
+    private static final String INSERT_PREFIJO =
+            "INSERT INTO respuestas (mensaje, fecha_creacion, autor_id, topico_id, activo, baja_origen, parent_id, path, profundidad) VALUES ";
+    private static final String INSERT_FILA = "(?, ?, ?, ?, 1, 0, ?, ?, ?)";
+
+    /** Tiempo que se conserva el resultado de un ticket ya escrito. */
+    private static final long TTL_TICKET_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /** Cada cuánto el escritor purga tickets vencidos, haya tráfico o no. */
+    private static final long PERIODO_PURGA_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final RespuestaValidador validador;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DiarioCambiosCache diario;
+    private final CambioService cambioService;
+
+    private final boolean habilitada;
+    private final int maxLote;
+    private final long maxLatenciaNanos;
+    private final long esperaMaxMillis;
+    private final int maxTickets;
+    private final BlockingQueue<Pendiente> cola;
+
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    // --- métricas ---
+    private final AtomicLong lotesEscritos = new AtomicLong();
+    private final AtomicLong respuestasEscritas = new AtomicLong();
+    private final AtomicLong respuestasFallidas = new AtomicLong();
+    private final AtomicLong rechazadasPorCapacidad = new AtomicLong();
+    private final AtomicLong demoradasConTicket = new AtomicLong();
+    private final AtomicLong ticketsDescartados = new AtomicLong();
+    private volatile int ultimoLote;
+    private volatile int mayorLote;
+
+    private volatile boolean corriendo;
+    private Thread escritor;
+
+    public RespuestaIngesta(RespuestaValidador validador,
+                            JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            ApplicationEventPublisher eventPublisher,
+                            DiarioCambiosCache diario,
+                            CambioService cambioService,
+                            @Value("${forohub.ingesta.habilitada:false}") boolean habilitada,
+                            @Value("${forohub.ingesta.capacidad:10000}") int capacidad,
+                            @Value("${forohub.ingesta.max-lote:200}") int maxLote,
+                            @Value("${forohub.ingesta.max-latencia-ms:10}") long maxLatenciaMillis,
+                            @Value("${forohub.ingesta.espera-max-ms:5000}") long esperaMaxMillis,
+                            @Value("${forohub.ingesta.max-tickets:10000}") int maxTickets) {
+        this.validador = validador;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.diario = diario;
+        this.cambioService = cambioService;
+        this.habilitada = habilitada;
+        this.maxLote = maxLote;
+        this.maxLatenciaNanos = TimeUnit.MILLISECONDS.toNanos(maxLatenciaMillis);
+        this.esperaMaxMillis = esperaMaxMillis;
+        this.maxTickets = maxTickets;
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+    }
+
+    /** Elemento encolado: datos validados + fecha de creación + future del resultado. */
+    private record Pendiente(RespuestaValidador.NuevaRespuesta nueva,
+                             LocalDateTime fechaCreacion,
+                             CompletableFuture<RespuestaResponseDto> resultado) { }
+
+    /** Resultado consultable por ticket (modo 202). */
+    private record Ticket(CompletableFuture<RespuestaResponseDto> resultado, long creadoMillis) { }
+
+    /**
+     * Lo que devuelve {@link #crearYEsperar}: la respuesta ya escrita o, si no se
+     * confirmó a tiempo, el ticket para consultarla (exactamente uno de los dos).
+     */
+    public record Resultado(RespuestaResponseDto creada, String ticket) { }
+
+    /**
+     * Métricas de la cola para monitoreo.
+     */
+    public record Metricas(
+            boolean habilitada,
+            int profundidadCola,
+            int capacidadRestante,
+            long lotesEscritos,
+            long respuestasEscritas,
+            long respuestasFallidas,
+            long rechazadasPorCapacidad,
+            long demoradasConTicket,
+            long ticketsDescartados,
+            int ultimoLote,
+            int mayorLote,
+            double promedioLote
+    ) { }
+
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (!habilitada) return;
+        corriendo = true;
+        escritor = new Thread(this::bucleEscritor, "ingesta-respuestas");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        corriendo = false;
+        if (escritor != null) {
+            escritor.interrupt();
+            escritor.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    // -----------------------
+    // ENTRADA
+    // -----------------------
+
+    /**
+     * Valida y encola. Lanza ServicioSaturadoException si la cola está llena.
+     */
+    public CompletableFuture<RespuestaResponseDto> encolar(RespuestaCreateDto dto) {
+        RespuestaValidador.NuevaRespuesta nueva = validador.validar(dto);
+        Pendiente p = new Pendiente(nueva, LocalDateTime.now(), new CompletableFuture<>());
+        if (!corriendo || !cola.offer(p)) {
+            rechazadasPorCapacidad.incrementAndGet();
+            throw new ServicioSaturadoException("La cola de ingesta de respuestas está llena, reintentar en unos segundos.");
+        }
+        return p.resultado();
+    }
+
+    /**
+     * Semántica sincrónica: encola y espera a que el lote se escriba. Si no se
+     * confirma en 'espera-max-ms' devuelve un ticket, como encolarConTicket.
+     */
+    public Resultado crearYEsperar(RespuestaCreateDto dto) {
+        CompletableFuture<RespuestaResponseDto> f = encolar(dto);
+        try {
+            return new Resultado(f.get(esperaMaxMillis, TimeUnit.MILLISECONDS), null);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            demoradasConTicket.incrementAndGet();
+            return new Resultado(null, ticket(f));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando la ingesta", e);
+        }
+    }
+
+    /**
+     * Modo asincrónico: encola y devuelve un ticket para consultar con resultado(ticket).
+     */
+    public String encolarConTicket(RespuestaCreateDto dto) {
+        return ticket(encolar(dto));
+    }
+
+    private String ticket(CompletableFuture<RespuestaResponseDto> f) {
+        if (tickets.size() >= maxTickets) {
+            purgarTickets();
+            recortarTickets();
+        }
+        String ticket = UUID.randomUUID().toString();
+        tickets.put(ticket, new Ticket(f, System.currentTimeMillis()));
+        return ticket;
+    }
+
+    /**
+     * Estado de un ticket: null si todavía está pendiente, el DTO si ya se escribió.
+     * Si el insert falló se relanza la excepción original.
+     */
+    public RespuestaResponseDto resultado(String ticket) {
+        Ticket t = tickets.get(ticket);
+        if (t == null) {
+            throw new RecursoNoEncontradoException("Ticket de ingesta no encontrado o expirado (" + ticket + ")");
+        }
+        if (!t.resultado().isDone()) {
+            return null;
+        }
+        try {
+            return t.resultado().join();
+        } catch (RuntimeException e) {
+            Throwable causa = e.getCause() != null ? e.getCause() : e;
+            if (causa instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    public Metricas metricas() {
+        long lotes = lotesEscritos.get();
+        long escritas = respuestasEscritas.get();
+        return new Metricas(
+                habilitada,
+                cola.size(),
+                cola.remainingCapacity(),
+                lotes,
+                escritas,
+                respuestasFallidas.get(),
+                rechazadasPorCapacidad.get(),
+                demoradasConTicket.get(),
+                ticketsDescartados.get(),
+                ultimoLote,
+                mayorLote,
+                lotes == 0 ? 0.0 : (double) escritas / lotes
+        );
+    }
+
+    // -----------------------
+    // ESCRITOR
+    // -----------------------
+
+    private void bucleEscritor() {
+        List<Pendiente> lote = new ArrayList<>(maxLote);
+        long ultimaPurga = System.nanoTime();
+        while (corriendo || !cola.isEmpty()) {
+            try {
+                // con tráfico sostenido el escritor no queda ocioso: la purga va por reloj
+                if (System.nanoTime() - ultimaPurga >= PERIODO_PURGA_NANOS) {
+                    purgarTickets();
+                    ultimaPurga = System.nanoTime();
+                }
+                Pendiente primero = cola.poll(1, TimeUnit.SECONDS);
+                if (primero == null) continue;
+                lote.add(primero);
+                long limite = System.nanoTime() + maxLatenciaNanos;
+                while (lote.size() < maxLote) {
+                    // primero lo que ya está en la cola, sin esperar
+                    if (cola.drainTo(lote, maxLote - lote.size()) > 0) continue;
+                    long resta = limite - System.nanoTime();
+                    if (resta <= 0) break;
+                    Pendiente p = cola.poll(resta, TimeUnit.NANOSECONDS);
+                    if (p == null) break;
+                    lote.add(p);
+                }
+                escribir(lote);
+            } catch (InterruptedException e) {
+                if (!corriendo) {
+                    // apagado: se termina de drenar lo que quedó sin esperar
+                    cola.drainTo(lote);
+                    if (!lote.isEmpty()) escribir(lote);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                log.error("Error inesperado en el escritor de ingesta", e);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void escribir(List<Pendiente> lote) {
+        try {
+            List<RespuestaResponseDto> creadas = transactionTemplate.execute(tx -> insertarLote(lote));
+            for (int i = 0; i < lote.size(); i++) {
+                lote.get(i).resultado().complete(creadas.get(i));
+            }
+            registrarLote(lote.size());
+        } catch (RuntimeException e) {
+            log.warn("Falló el lote de {} respuestas, se reintenta fila por fila: {}", lote.size(), e.getMessage());
+            for (Pendiente p : lote) {
+                try {
+                    RespuestaResponseDto creada = transactionTemplate.execute(tx -> insertarLote(List.of(p)).get(0));
+                    p.resultado().complete(creada);
+                    registrarLote(1);
+                } catch (RuntimeException individual) {
+                    respuestasFallidas.incrementAndGet();
+                    p.resultado().completeExceptionally(individual);
+                }
+            }
+        }
+    }
+
+    /**
+     * INSERT multi-fila + ids generados (MySQL los devuelve en orden de inserción).
+     * Los eventos se publican dentro de la transacción: los listeners AFTER_COMMIT
+     * (ej: SSE) los reciben recién cuando el lote quedó confirmado.
+     */
+    private List<RespuestaResponseDto> insertarLote(List<Pendiente> lote) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIJO.length() + lote.size() * (INSERT_FILA.length() + 1));
+        sql.append(INSERT_PREFIJO);
+        for (int i = 0; i < lote.size(); i++) {
+            if (i > 0) sql.append(',');
+            sql.append(INSERT_FILA);
+        }
+
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString(), Statement.RETURN_GENERATED_KEYS);
+            int i = 1;
+            for (Pendiente p : lote) {
+                RespuestaValidador.NuevaRespuesta n = p.nueva();
+                ps.setString(i++, n.mensaje());
+                ps.setTimestamp(i++, Timestamp.valueOf(p.fechaCreacion()));
+                ps.setLong(i++, n.autorId());
+                ps.setLong(i++, n.topicoId());
+                if (n.parentId() != null) ps.setLong(i++, n.parentId());
+                else ps.setNull(i++, Types.BIGINT);
+                ps.setString(i++, n.path());
+                ps.setInt(i++, n.profundidad());
+            }
+            return ps;
+        }, keys);
+
+        List<Map<String, Object>> ids = keys.getKeyList();
+        List<RespuestaResponseDto> creadas = new ArrayList<>(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            Pendiente p = lote.get(i);
+            Number id = (Number) ids.get(i).values().iterator().next();
+            RespuestaResponseDto dto = new RespuestaResponseDto(
+                    id.longValue(),
+                    p.nueva().mensaje(),
+                    p.fechaCreacion(),
+                    p.nueva().autorId(),
+                    p.nueva().autorNombre(),
+                    p.nueva().topicoId()
+            );
+            eventPublisher.publishEvent(new RespuestaCreadaEvent(dto));
+            diario.anotar(DiarioCambiosCache.RESUMENES, dto.autorId());
+            cambioService.registrar(Cambio.RESPUESTA, dto.id(), dto.topicoId(), Cambio.CREADO);
+            creadas.add(dto);
+        }
+        return creadas;
+    }
+
+    private void registrarLote(int tamanio) {
+        lotesEscritos.incrementAndGet();
+        respuestasEscritas.addAndGet(tamanio);
+        ultimoLote = tamanio;
+        if (tamanio > mayorLote) mayorLote = tamanio;
+    }
+
+    private void purgarTickets() {
+        long ahora = System.currentTimeMillis();
+        tickets.values().removeIf(t -> t.resultado().isDone() && ahora - t.creadoMillis() > TTL_TICKET_MILLIS);
+    }
+
+    /**
+     * Con el mapa en 'max-tickets' aun sin vencidos, descarta los resultados ya
+     * escritos más viejos hasta el 90% del tope (el cliente recibe 404 "expirado").
+     * Los pendientes no se tocan: ya los acota la capacidad de la cola.
+     */
+    private void recortarTickets() {
+        int sobran = tickets.size() - maxTickets * 9 / 10;
+        if (tickets.size() < maxTickets || sobran <= 0) return;
+        List<String> viejos = tickets.entrySet().stream()
+                .filter(e -> e.getValue().resultado().isDone())
+                .sorted(Comparator.comparingLong(e -> e.getValue().creadoMillis()))
+                .limit(sobran)
+                .map(Map.Entry::getKey)
+                .toList();
+        viejos.forEach(tickets::remove);
+        ticketsDescartados.addAndGet(viejos.size());
+        log.warn("Tickets de ingesta sobre el tope ({}): se descartaron {} resultados antes de su TTL",
+                maxTickets, viejos.size());
+    }
+}
@@ -1,11 +1,15 @@
 package com.alura.forohub.service;
 
+import com.alura.forohub.dto.CursorPageDto;
 import com.alura.forohub.dto.RespuestaCreateDto;
+import com.alura.forohub.dto.RespuestaNodoDto;
 import com.alura.forohub.dto.RespuestaResponseDto;
 import com.alura.forohub.dto.RespuestaUpdateDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.function.Consumer;
+
 /**
  * Contrato del servicio de respuestas.
  * Define claramente las operaciones que expone el controlador.
@@ -42,4 +46,27 @@ public interface RespuestaService {
      * Reactiva una respuesta previamente eliminada (opcional).
      */
     RespuestaResponseDto reactivarRespuesta(Long id);
+
+    /**
+     * Historial de respuestas activas de un autor, paginado por cursor (keyset).
+     * cursor = null -> primera página.
+     */
+    CursorPageDto<RespuestaResponseDto> listarPorAutor(Long autorId, String cursor, int size);
+
+    /**
+     * Recorre todas las respuestas activas de un autor entregándolas al consumidor
+     * de a una (exportación de moderación, sin cargar todo en memoria).
+     */
+    void exportarPorAutor(Long autorId, Consumer<RespuestaResponseDto> consumidor);
+
+    /**
+     * Hilos de un tópico ya ensamblados: página de respuestas raíz (cursor = id de la
+     * última raíz) con sus descendientes hasta 'profundidad' niveles.
+     */
+    CursorPageDto<RespuestaNodoDto> arbolPorTopico(Long topicoId, String cursor, int size, int profundidad);
+
+    /**
+     * Subárbol de una respuesta hasta 'profundidad' niveles por debajo.
+     */
+    RespuestaNodoDto subarbol(Long id, int profundidad);
 }
@@ -1,74 +1,123 @@
 package com.alura.forohub.service;
 
+import com.alura.forohub.dto.CursorPageDto;
 import com.alura.forohub.dto.RespuestaCreateDto;
+import com.alura.forohub.dto.RespuestaNodoDto;
 import com.alura.forohub.dto.RespuestaResponseDto;
 import com.alura.forohub.dto.RespuestaUpdateDto;
+import com.alura.forohub.eventos.RespuestaCreadaEvent;
+import com.alura.forohub.exception.ParametroInvalidoException;
 import com.alura.forohub.exception.RecursoNoEncontradoException;
+import com.alura.forohub.model.Cambio;
 import com.alura.forohub.model.Respuesta;
-import com.alura.forohub.model.Topico;
-import com.alura.forohub.model.Usuario;
 import com.alura.forohub.repository.RespuestaRepository;
 import com.alura.forohub.repository.TopicoRepository;
 import com.alura.forohub.repository.UsuarioRepository;
+import com.alura.forohub.util.KeysetCursor;
+import com.alura.forohub.util.RutaMaterializada;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Implementación del servicio de respuestas.
  * - Se asegura que no se pueda responder a tópicos inactivos.
  * - Maneja borrado lógico y reactivación de respuestas.
  */
+@Timed(value = "forohub.servicio", histogram = true)
 @Service
 public class RespuestaServiceImpl implements RespuestaService {
 
+    /** Descendientes leídos por cada raíz de la página de árbol (cota de memoria). */
+    private static final int NODOS_POR_RAIZ = 50;
+
+    /** Máximo absoluto de descendientes devueltos en una sola consulta de árbol. */
+    private static final int MAX_NODOS = 1000;
+
     private final RespuestaRepository respuestaRepository;
     private final UsuarioRepository usuarioRepository;
     private final TopicoRepository topicoRepository;
+    private final RespuestaValidador respuestaValidador;
+    private final UsuarioResumenCache resumenCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DiarioCambiosCache diario;
+    private final CambioService cambioService;
 
     public RespuestaServiceImpl(RespuestaRepository respuestaRepository,
                                 UsuarioRepository usuarioRepository,
-                                TopicoRepository topicoRepository) {
+                                TopicoRepository topicoRepository,
+                                RespuestaValidador respuestaValidador,
+                                UsuarioResumenCache resumenCache,
+                                ApplicationEventPublisher eventPublisher,
+                                DiarioCambiosCache diario,
+                                CambioService cambioService) {
         this.respuestaRepository = respuestaRepository;
         this.usuarioRepository = usuarioRepository;
         this.topicoRepository = topicoRepository;
+        this.respuestaValidador = respuestaValidador;
+        this.resumenCache = resumenCache;
+        this.eventPublisher = eventPublisher;
+        this.diario = diario;
+        this.cambioService = cambioService;
     }
 
     /**
      * Crear una nueva respuesta.
-     * Valida que el usuario y el tópico existan y que el tópico esté activo.
+     * Valida que el usuario y el tópico existan y que el tópico esté activo
+     * (ver RespuestaValidador).
+     *
+     * El tópico (y el padre) se validan con proyecciones mínimas y las
+     * asociaciones se enlazan con referencias (getReferenceById), así no se
+     * carga el mensaje del tópico. El autor sí se carga completo (findById),
+     * password incluido, pero sale del cache de segundo nivel de Usuario: en el
+     * caso caliente no ejecuta SQL, cosa que la proyección AutorResumen no permite.
      */
     @Override
     @Transactional
     public RespuestaResponseDto crearRespuesta(RespuestaCreateDto dto) {
-        Usuario autor = usuarioRepository.findById(dto.autorId())
-                .orElseThrow(() -> new RecursoNoEncontradoException(
-                        "Usuario no encontrado (id=" + dto.autorId() + ")"
-                ));
-
-        Topico topico = topicoRepository.findById(dto.topicoId())
-                .orElseThrow(() -> new RecursoNoEncontradoException(
-                        "Tópico no encontrado (id=" + dto.topicoId() + ")"
-                ));
-
-        if (!Boolean.TRUE.equals(topico.getActivo())) {
-            throw new RecursoNoEncontradoException(
-                    "No se puede responder a un tópico inactivo (id=" + topico.getId() + ")"
-            );
-        }
+        RespuestaValidador.NuevaRespuesta nueva = respuestaValidador.validar(dto);
 
         Respuesta r = new Respuesta();
-        r.setMensaje(dto.mensaje().trim());
-        r.setAutor(autor);
-        r.setTopico(topico);
+        r.setMensaje(nueva.mensaje());
+        r.setAutor(usuarioRepository.getReferenceById(nueva.autorId()));
+        r.setTopico(topicoRepository.getReferenceById(nueva.topicoId()));
         r.setFechaCreacion(LocalDateTime.now());
         r.setActivo(true);
+        r.setParentId(nueva.parentId());
+        r.setPath(nueva.path());
+        r.setProfundidad(nueva.profundidad());
 
         Respuesta guardada = respuestaRepository.save(r);
-        return mapToResponseDto(guardada);
+
+        // Armamos el DTO con los datos ya proyectados (sin inicializar los proxies)
+        RespuestaResponseDto creada = new RespuestaResponseDto(
+                guardada.getId(),
+                guardada.getMensaje(),
+                guardada.getFechaCreacion(),
+                nueva.autorId(),
+                nueva.autorNombre(),
+                nueva.topicoId()
+        );
+
+        // Los listeners (ej: stream SSE del tópico) lo reciben recién después del commit
+        eventPublisher.publishEvent(new RespuestaCreadaEvent(creada));
+        diario.anotar(DiarioCambiosCache.RESUMENES, nueva.autorId());
+        cambioService.registrar(Cambio.RESPUESTA, creada.id(), nueva.topicoId(), Cambio.CREADO);
+        return creada;
     }
 
     /**
@@ -87,7 +136,7 @@ public class RespuestaServiceImpl implements RespuestaService {
     @Override
     @Transactional(readOnly = true)
     public RespuestaResponseDto obtenerDetalle(Long id) {
-        Respuesta r = respuestaRepository.findById(id)
+        Respuesta r = respuestaRepository.findConAutorById(id)
                 .orElseThrow(() -> new RecursoNoEncontradoException(
                         "Respuesta no encontrada (id=" + id + ")"
                 ));
@@ -120,6 +169,7 @@ public class RespuestaServiceImpl implements RespuestaService {
 
         existente.setMensaje(dto.mensaje().trim());
         Respuesta actualizada = respuestaRepository.save(existente);
+        cambioService.registrar(Cambio.RESPUESTA, id, existente.getTopico().getId(), Cambio.ACTUALIZADO);
         return mapToResponseDto(actualizada);
     }
 
@@ -134,8 +184,16 @@ public class RespuestaServiceImpl implements RespuestaService {
                         "Respuesta no encontrada (id=" + id + ")"
                 ));
 
+        boolean estabaActiva = Boolean.TRUE.equals(existente.getActivo());
         existente.setActivo(false);
+        existente.setBajaOrigen(Respuesta.BAJA_INDIVIDUAL);
         respuestaRepository.save(existente);
+
+        if (estabaActiva) {
+            resumenCache.respuestaEliminada(existente.getAutor().getId(), existente.getFechaCreacion());
+            diario.anotar(DiarioCambiosCache.RESUMENES, existente.getAutor().getId());
+            cambioService.registrar(Cambio.RESPUESTA, id, existente.getTopico().getId(), Cambio.ELIMINADO);
+        }
     }
 
     /**
@@ -154,14 +212,222 @@ public class RespuestaServiceImpl implements RespuestaService {
         }
 
         existente.setActivo(true);
+        existente.setBajaOrigen(Respuesta.BAJA_NINGUNA);
         Respuesta reactivada = respuestaRepository.save(existente);
+        resumenCache.respuestaReactivada(existente.getAutor().getId(), existente.getFechaCreacion());
+        diario.anotar(DiarioCambiosCache.RESUMENES, existente.getAutor().getId());
+        cambioService.registrar(Cambio.RESPUESTA, id, existente.getTopico().getId(), Cambio.REACTIVADO);
         return mapToResponseDto(reactivada);
     }
 
+    /**
+     * Historial del autor paginado por keyset sobre (fecha_creacion, id).
+     * Cada página es un rango sobre el índice por autor: el costo no depende
+     * de cuántos registros tenga el usuario ni de la profundidad de la página.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<RespuestaResponseDto> listarPorAutor(Long autorId, String cursor, int size) {
+        if (!usuarioRepository.existsById(autorId)) {
+            throw new RecursoNoEncontradoException("Usuario no encontrado (id=" + autorId + ")");
+        }
+
+        int limite = KeysetCursor.normalizarSize(size);
+        KeysetCursor desde = KeysetCursor.decode(cursor);
+
+        List<RespuestaResponseDto> filas = desde == null
+                ? respuestaRepository.findPorAutor(autorId, KeysetCursor.limiteConSonda(limite))
+                : respuestaRepository.findPorAutorDespuesDe(autorId, desde.fecha(), desde.id(),
+                        KeysetCursor.limiteConSonda(limite));
+
+        return KeysetCursor.pagina(filas, limite, d -> new KeysetCursor(d.fechaCreacion(), d.id()));
+    }
+
+    /**
+     * Exportación completa (streaming) para moderación.
+     * La transacción queda abierta mientras el consumidor escribe cada fila.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportarPorAutor(Long autorId, Consumer<RespuestaResponseDto> consumidor) {
+        try (Stream<RespuestaResponseDto> filas = respuestaRepository.streamPorAutor(autorId)) {
+            filas.forEach(consumidor);
+        }
+    }
+
+    /**
+     * Página de hilos de un tópico: raíces paginadas por id (keyset) y, con una
+     * sola consulta de rango sobre path, todos sus descendientes hasta 'profundidad'.
+     * Como las raíces de la página tienen ids contiguos, sus subárboles forman un
+     * único rango [segmento(primera), finDeRango(segmento(última))).
+     *
+     * Si el rango supera el tope de nodos, los nodos incompletos salen con
+     * truncado=true (ver {@link #truncados}) y se completan con {@link #subarbol}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<RespuestaNodoDto> arbolPorTopico(Long topicoId, String cursor, int size, int profundidad) {
+        int limite = KeysetCursor.normalizarSize(size);
+        int profundidadMax = normalizarProfundidad(profundidad);
+        long despuesDe = decodeCursorId(cursor);
+
+        List<RespuestaNodoDto> filas = respuestaRepository.findRaicesArbol(
+                topicoId, despuesDe, KeysetCursor.limiteConSonda(limite));
+        boolean hayMas = filas.size() > limite;
+        List<RespuestaNodoDto> raices = hayMas ? filas.subList(0, limite) : filas;
+        if (raices.isEmpty()) {
+            return new CursorPageDto<>(raices, null);
+        }
+
+        if (profundidadMax > 0) {
+            String desde = RutaMaterializada.segmento(raices.get(0).id());
+            String hasta = RutaMaterializada.finDeRango(
+                    RutaMaterializada.segmento(raices.get(raices.size() - 1).id()));
+            int maxNodos = Math.min(raices.size() * NODOS_POR_RAIZ, MAX_NODOS);
+
+            List<RespuestaNodoDto> leidos = respuestaRepository.findDescendientes(
+                    topicoId, desde, hasta, profundidadMax, PageRequest.of(0, maxNodos + 1));
+            Set<Long> truncados = truncados(raices, "", leidos, maxNodos, profundidadMax);
+            raices = ensamblar(raices, truncados.isEmpty() ? leidos : leidos.subList(0, maxNodos), truncados);
+        }
+
+        String siguiente = hayMas ? String.valueOf(raices.get(raices.size() - 1).id()) : null;
+        return new CursorPageDto<>(raices, siguiente);
+    }
+
+    /**
+     * Subárbol de una respuesta hasta 'profundidad' niveles por debajo de ella,
+     * leído con una única consulta de rango sobre path. Con más de MAX_NODOS
+     * descendientes, los nodos incompletos salen con truncado=true y se piden
+     * con otra llamada a partir de ellos.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public RespuestaNodoDto subarbol(Long id, int profundidad) {
+        RespuestaRepository.NodoResumen nodo = respuestaRepository.findNodoById(id)
+                .filter(n -> Boolean.TRUE.equals(n.getActivo()))
+                .orElseThrow(() -> new RecursoNoEncontradoException(
+                        "Respuesta no encontrada (id=" + id + ")"
+                ));
+        RespuestaNodoDto raiz = respuestaRepository.findNodoDtoById(id)
+                .orElseThrow(() -> new RecursoNoEncontradoException(
+                        "Respuesta no encontrada (id=" + id + ")"
+                ));
+
+        int niveles = normalizarProfundidad(profundidad);
+        if (niveles > 0) {
+            String desde = RutaMaterializada.prefijoDescendientes(nodo.getPath(), nodo.getId());
+            List<RespuestaNodoDto> leidos = respuestaRepository.findDescendientes(
+                    nodo.getTopicoId(), desde, RutaMaterializada.finDeRango(desde),
+                    nodo.getProfundidad() + niveles, PageRequest.of(0, MAX_NODOS + 1));
+            List<RespuestaNodoDto> raices = List.of(raiz);
+            Set<Long> truncados = truncados(raices, nodo.getPath(), leidos, MAX_NODOS,
+                    nodo.getProfundidad() + niveles);
+            return ensamblar(raices, truncados.isEmpty() ? leidos : leidos.subList(0, MAX_NODOS), truncados).get(0);
+        }
+        return raiz;
+    }
+
+    /**
+     * Los descendientes se piden con un nodo de sonda más que el tope: si llega,
+     * faltan todos los que siguen en orden (path, id). Ese orden agrupa a los
+     * hijos por el path del padre, no es un recorrido en profundidad: con el
+     * corte en el subárbol de C1, los hermanos posteriores (C2, C3...) se leyeron
+     * pero sus hijos no. Un nodo leído queda incompleto si su prefijo de
+     * descendientes (path + id/) es un prefijo del path de la sonda (es su
+     * ancestro) o va después de él (sus hijos caían después del corte). De estos
+     * últimos se marcan solo los que tienen respuestas activas; las hojas no.
+     * El path de la sonda y los padres se leen solo cuando hay corte.
+     * Devuelve los ids a marcar (vacío si no hubo corte).
+     */
+    private Set<Long> truncados(List<RespuestaNodoDto> raices, String pathRaices, List<RespuestaNodoDto> leidos,
+                                int maxNodos, int profundidadMax) {
+        if (leidos.size() <= maxNodos) {
+            return Set.of();
+        }
+        String corte = respuestaRepository.findNodoById(leidos.get(maxNodos).id())
+                .map(RespuestaRepository.NodoResumen::getPath)
+                .orElse("");
+
+        Set<Long> ids = new HashSet<>();
+        List<Long> posteriores = new ArrayList<>();
+        Map<Long, String> prefijos = new HashMap<>((raices.size() + maxNodos) * 4 / 3 + 1);
+        for (RespuestaNodoDto raiz : raices) {
+            String prefijo = RutaMaterializada.prefijoDescendientes(pathRaices, raiz.id());
+            prefijos.put(raiz.id(), prefijo);
+            clasificar(raiz, prefijo, corte, profundidadMax, ids, posteriores);
+        }
+        for (RespuestaNodoDto nodo : leidos.subList(0, maxNodos)) {
+            String prefijoPadre = prefijos.get(nodo.parentId());
+            if (prefijoPadre == null) continue; // rama que ensamblar descarta
+            String prefijo = prefijoPadre + RutaMaterializada.segmento(nodo.id());
+            prefijos.put(nodo.id(), prefijo);
+            clasificar(nodo, prefijo, corte, profundidadMax, ids, posteriores);
+        }
+        if (!posteriores.isEmpty()) {
+            ids.addAll(respuestaRepository.findPadresConRespuestas(posteriores));
+        }
+        return ids;
+    }
+
+    private static void clasificar(RespuestaNodoDto nodo, String prefijo, String corte, int profundidadMax,
+                                   Set<Long> ancestros, List<Long> posteriores) {
+        if (nodo.profundidad() >= profundidadMax) {
+            return; // sus hijos no se pidieron: no es un corte por tope
+        }
+        if (corte.startsWith(prefijo)) {
+            ancestros.add(nodo.id());
+        } else if (prefijo.compareTo(corte) > 0) {
+            posteriores.add(nodo.id());
+        }
+    }
+
+    /**
+     * Ensambla el árbol en O(n): los descendientes vienen ordenados por path,
+     * así cada padre ya está indexado cuando llega su hijo. Los nodos cuyo padre
+     * no está en el resultado (padre inactivo o fuera del rango) se descartan
+     * junto con su rama. Los ids de 'truncados' se reemplazan por su copia
+     * marcada; devuelve las raíces resultantes.
+     */
+    private List<RespuestaNodoDto> ensamblar(List<RespuestaNodoDto> raices, List<RespuestaNodoDto> descendientes,
+                                             Set<Long> truncados) {
+        Map<Long, RespuestaNodoDto> porId = new HashMap<>(
+                (raices.size() + descendientes.size()) * 4 / 3 + 1);
+        List<RespuestaNodoDto> resultado = new ArrayList<>(raices.size());
+        for (RespuestaNodoDto raiz : raices) {
+            RespuestaNodoDto r = truncados.contains(raiz.id()) ? raiz.comoTruncado() : raiz;
+            porId.put(r.id(), r);
+            resultado.add(r);
+        }
+        for (RespuestaNodoDto nodo : descendientes) {
+            RespuestaNodoDto padre = porId.get(nodo.parentId());
+            if (padre != null) {
+                RespuestaNodoDto n = truncados.contains(nodo.id()) ? nodo.comoTruncado() : nodo;
+                padre.respuestas().add(n);
+                porId.put(n.id(), n);
+            }
+        }
+        return resultado;
+    }
+
+    private int normalizarProfundidad(int profundidad) {
+        return Math.max(0, Math.min(profundidad, RutaMaterializada.PROFUNDIDAD_MAX));
+    }
+
+    private long decodeCursorId(String cursor) {
+        if (cursor == null || cursor.isBlank()) return 0L;
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new ParametroInvalidoException("Cursor de paginación inválido.");
+        }
+    }
+
     /**
      * Mapeo de entidad Respuesta a DTO de respuesta.
      */
-    private RespuestaResponseDto mapToResponseDto(Respuesta r) {
+    // package-private: lo usa MapeoDtoBenchmark (src/jmh)
+    RespuestaResponseDto mapToResponseDto(Respuesta r) {
         Long autorId = null;
         String autorNombre = null;
         if (r.getAutor() != null) {
@@ -0,0 +1,101 @@
+package com.alura.forohub.service;
+
+import com.alura.forohub.dto.RespuestaCreateDto;
+import com.alura.forohub.exception.ParametroInvalidoException;
+import com.alura.forohub.exception.RecursoNoEncontradoException;
+import com.alura.forohub.model.Usuario;
+import com.alura.forohub.repository.RespuestaRepository;
+import com.alura.forohub.repository.TopicoRepository;
+import com.alura.forohub.repository.UsuarioRepository;
+import com.alura.forohub.util.RutaMaterializada;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Validaciones previas a insertar una respuesta, compartidas por la creación
+ * directa (RespuestaServiceImpl) y la ingesta por lotes (RespuestaIngesta).
+ *
+ * El tópico y el padre se validan con proyecciones mínimas; el autor se
+ * resuelve por id contra el cache de segundo nivel de Usuario.
+ */
+@Component
+public class RespuestaValidador {
+
+    private final RespuestaRepository respuestaRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final TopicoRepository topicoRepository;
+
+    public RespuestaValidador(RespuestaRepository respuestaRepository,
+                              UsuarioRepository usuarioRepository,
+                              TopicoRepository topicoRepository) {
+        this.respuestaRepository = respuestaRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.topicoRepository = topicoRepository;
+    }
+
+    /**
+     * Respuesta ya validada, con todo lo necesario para el INSERT y para armar el DTO.
+     */
+    public record NuevaRespuesta(
+            String mensaje,
+            Long autorId,
+            String autorNombre,
+            Long topicoId,
+            Long parentId,
+            String path,
+            int profundidad
+    ) { }
+
+    /**
+     * Valida que el usuario y el tópico existan, que el tópico esté activo y,
+     * si es una respuesta anidada, que el padre esté activo y sea del mismo tópico.
+     */
+    @Transactional(readOnly = true)
+    public NuevaRespuesta validar(RespuestaCreateDto dto) {
+        // Usuario vive en el cache de 2do nivel: en el caso caliente esto no ejecuta SQL
+        Usuario autor = usuarioRepository.findById(dto.autorId())
+                .orElseThrow(() -> new RecursoNoEncontradoException(
+                        "Usuario no encontrado (id=" + dto.autorId() + ")"
+                ));
+
+        Boolean topicoActivo = topicoRepository.findActivoById(dto.topicoId())
+                .orElseThrow(() -> new RecursoNoEncontradoException(
+                        "Tópico no encontrado (id=" + dto.topicoId() + ")"
+                ));
+
+        if (!Boolean.TRUE.equals(topicoActivo)) {
+            throw new RecursoNoEncontradoException(
+                    "No se puede responder a un tópico inactivo (id=" + dto.topicoId() + ")"
+            );
+        }
+
+        // Hilo anidado opcional: el path se deriva del padre (mismo tópico, activo)
+        String path = "";
+        int profundidad = 0;
+        if (dto.parentId() != null) {
+            RespuestaRepository.NodoResumen padre = respuestaRepository.findNodoById(dto.parentId())
+                    .filter(n -> Boolean.TRUE.equals(n.getActivo()))
+                    .orElseThrow(() -> new RecursoNoEncontradoException(
+                            "Respuesta padre no encontrada (id=" + dto.parentId() + ")"
+                    ));
+            if (!padre.getTopicoId().equals(dto.topicoId())) {
+                throw new ParametroInvalidoException("La respuesta padre pertenece a otro tópico.");
+            }
+            if (padre.getProfundidad() >= RutaMaterializada.PROFUNDIDAD_MAX) {
+                throw new ParametroInvalidoException("Se alcanzó la profundidad máxima del hilo.");
+            }
+            path = RutaMaterializada.prefijoDescendientes(padre.getPath(), padre.getId());
+            profundidad = padre.getProfundidad() + 1;
+        }
+
+        return new NuevaRespuesta(
+                dto.mensaje().trim(),
+                autor.getId(),
+                autor.getNombre(),
+                dto.topicoId(),
+                dto.parentId(),
+                path,
+                profundidad
+        );
+    }
+}
@@ -1,11 +1,14 @@
 package com.alura.forohub.service;
 
+import com.alura.forohub.dto.CursorPageDto;
 import com.alura.forohub.dto.TopicoCreateDto;
 import com.alura.forohub.dto.TopicoResponseDto;
 import com.alura.forohub.dto.TopicoUpdateDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.function.Consumer;
+
 /**
  * Contrato del servicio de tópicos.
  * Aquí se declaran las operaciones que el controlador podrá invocar.
@@ -16,6 +19,11 @@ public interface TopicoService {
 
     Page<TopicoResponseDto> listarTopicos(Pageable pageable);
 
+    /**
+     * Listado paginado de tópicos activos de un curso.
+     */
+    Page<TopicoResponseDto> listarPorCurso(String curso, Pageable pageable);
+
     TopicoResponseDto obtenerDetalle(Long id);
 
     TopicoResponseDto actualizarTopico(Long id, TopicoUpdateDto dto);
@@ -29,4 +37,15 @@ public interface TopicoService {
      * Retorna el TopicoResponseDto actualizado (activo = true).
      */
     TopicoResponseDto reactivarTopico(Long id);
+
+    /**
+     * Historial de tópicos activos de un autor, paginado por cursor (keyset).
+     * cursor = null -> primera página.
+     */
+    CursorPageDto<TopicoResponseDto> listarPorAutor(Long autorId, String cursor, int size);
+
+    /**
+     * Recorre todos los tópicos activos de un autor entregándolos al consumidor de a uno.
+     */
+    void exportarPorAutor(Long autorId, Consumer<TopicoResponseDto> consumidor);
 }
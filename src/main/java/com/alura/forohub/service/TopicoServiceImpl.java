@@ -1,14 +1,24 @@
 package com.alura.forohub.service;
 
+import com.alura.forohub.dto.CursorPageDto;
 import com.alura.forohub.dto.TopicoCreateDto;
 import com.alura.forohub.dto.TopicoResponseDto;
 import com.alura.forohub.dto.TopicoUpdateDto;
 import com.alura.forohub.exception.DuplicadoException;
 import com.alura.forohub.exception.RecursoNoEncontradoException;
+import com.alura.forohub.model.Cambio;
+import com.alura.forohub.model.Respuesta;
 import com.alura.forohub.model.Topico;
 import com.alura.forohub.model.Usuario;
+import com.alura.forohub.repository.RespuestaRepository;
 import com.alura.forohub.repository.TopicoRepository;
 import com.alura.forohub.repository.UsuarioRepository;
+import com.alura.forohub.util.KeysetCursor;
+import com.alura.forohub.util.RestriccionesBd;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
@@ -18,6 +28,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Implementación del servicio de tópicos.
@@ -29,21 +44,50 @@ import java.time.LocalDateTime;
  *    Si no, se lanza AccessDeniedException (mapeada por GlobalExceptionHandler a 403).
  *
  *  - Se mantienen las validaciones de duplicados (excluyendo el propio id).
+ *
+ *  - crearTopico() consulta IndiceCasiDuplicados: según forohub.similares.modo
+ *    un casi duplicado se marca (log + métrica) o se rechaza con DuplicadoException (400).
  */
+@Timed(value = "forohub.servicio", histogram = true)
 @Service
 public class TopicoServiceImpl implements TopicoService {
 
+    private static final Logger log = LoggerFactory.getLogger(TopicoServiceImpl.class);
+
+    /** Más usuarios que esto en una cascada: se invalidan todos los resúmenes. */
+    private static final int MAX_RESUMENES_POR_CASCADA = 500;
+
     private final TopicoRepository topicoRepository;
     private final UsuarioRepository usuarioRepository;
+    private final RespuestaRepository respuestaRepository;
+    private final UsuarioResumenCache resumenCache;
+    private final ListadoTopicosCache listadoCache;
+    private final DiarioCambiosCache diario;
+    private final CambioService cambioService;
+    private final IndiceCasiDuplicados indiceSimilares;
 
-    public TopicoServiceImpl(TopicoRepository topicoRepository, UsuarioRepository usuarioRepository) {
+    public TopicoServiceImpl(TopicoRepository topicoRepository,
+                             UsuarioRepository usuarioRepository,
+                             RespuestaRepository respuestaRepository,
+                             UsuarioResumenCache resumenCache,
+                             ListadoTopicosCache listadoCache,
+                             DiarioCambiosCache diario,
+                             CambioService cambioService,
+                             IndiceCasiDuplicados indiceSimilares) {
         this.topicoRepository = topicoRepository;
         this.usuarioRepository = usuarioRepository;
+        this.respuestaRepository = respuestaRepository;
+        this.resumenCache = resumenCache;
+        this.listadoCache = listadoCache;
+        this.diario = diario;
+        this.cambioService = cambioService;
+        this.indiceSimilares = indiceSimilares;
     }
 
     @Override
     @Transactional
     public TopicoResponseDto crearTopico(TopicoCreateDto dto) {
+        // Usuario vive en el cache de 2do nivel: en el caso caliente esto no ejecuta SQL
         Usuario autor = usuarioRepository.findById(dto.autorId())
                 .orElseThrow(() -> new RecursoNoEncontradoException(
                         "Usuario no encontrado (id=" + dto.autorId() + ")"
@@ -53,8 +97,14 @@ public class TopicoServiceImpl implements TopicoService {
         String mensajeTrim = dto.mensaje() != null ? dto.mensaje().trim() : "";
         String cursoTrim = dto.curso() != null ? dto.curso().trim() : "";
 
-        if (topicoRepository.existsByTituloAndMensaje(tituloTrim, mensajeTrim)) {
-            throw new DuplicadoException("Ya existe un tópico con el mismo título y mensaje.");
+        // casi duplicados (repost con alguna palabra cambiada): el índice responde en memoria, sin SQL
+        IndiceCasiDuplicados.Coincidencia parecido = indiceSimilares.buscar(tituloTrim, mensajeTrim).orElse(null);
+        if (parecido != null) {
+            if (indiceSimilares.isRechazar()) {
+                throw new DuplicadoException("Ya existe un tópico casi idéntico (id=" + parecido.topicoId() + ").");
+            }
+            log.warn("Tópico casi duplicado del id={} (similitud {}), autor id={}",
+                    parecido.topicoId(), parecido.similitud(), autor.getId());
         }
 
         Topico topico = new Topico();
@@ -66,8 +116,35 @@ public class TopicoServiceImpl implements TopicoService {
         topico.setStatus("ABIERTO");
         topico.setActivo(true);
 
-        Topico guardado = topicoRepository.save(topico);
-        return mapToResponseDto(guardado);
+        // sin existsByTituloAndMensaje previo: el INSERT (IDENTITY, inmediato) choca con uq_topico_titulo_mensaje
+        Topico guardado;
+        try {
+            guardado = topicoRepository.save(topico);
+        } catch (DataIntegrityViolationException e) {
+            if (RestriccionesBd.violada(e, RestriccionesBd.UQ_TOPICO_TITULO_MENSAJE)) {
+                throw new DuplicadoException("Ya existe un tópico con el mismo título y mensaje.");
+            }
+            throw e;
+        }
+        resumenCache.topicoCreado(autor.getId(), guardado.getCurso(), guardado.getFechaCreacion());
+        listadoCache.invalidar();
+        diario.anotar(DiarioCambiosCache.RESUMENES, autor.getId());
+        diario.anotar(DiarioCambiosCache.LISTADOS, null);
+        indiceSimilares.agregar(guardado.getId(), tituloTrim, mensajeTrim);
+        diario.anotar(DiarioCambiosCache.SIMILARES, guardado.getId());
+        cambioService.registrar(Cambio.TOPICO, guardado.getId(), guardado.getId(), Cambio.CREADO);
+
+        // DTO armado directamente con los datos ya cargados
+        return new TopicoResponseDto(
+                guardado.getId(),
+                guardado.getTitulo(),
+                guardado.getMensaje(),
+                guardado.getFechaCreacion(),
+                guardado.getStatus(),
+                autor.getId(),
+                autor.getNombre(),
+                guardado.getCurso()
+        );
     }
 
     @Override
@@ -77,6 +154,13 @@ public class TopicoServiceImpl implements TopicoService {
                 .map(this::mapToResponseDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TopicoResponseDto> listarPorCurso(String curso, Pageable pageable) {
+        return topicoRepository.findByCursoAndActivoTrue(curso, pageable)
+                .map(this::mapToResponseDto);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public TopicoResponseDto obtenerDetalle(Long id) {
@@ -157,15 +241,32 @@ public class TopicoServiceImpl implements TopicoService {
             }
         }
 
+        if (!existente.getCurso().equals(cursoTrim) && autor != null) {
+            // cambia el ranking de cursos del autor
+            resumenCache.invalidar(autor.getId());
+            diario.anotar(DiarioCambiosCache.RESUMENES, autor.getId());
+        }
+
         existente.setTitulo(tituloTrim);
         existente.setMensaje(mensajeTrim);
         existente.setStatus(statusTrim);
         existente.setCurso(cursoTrim);
 
         Topico actualizado = topicoRepository.save(existente);
+        listadoCache.invalidar();
+        diario.anotar(DiarioCambiosCache.LISTADOS, null);
+        if (tituloChanged || mensajeChanged) {
+            indiceSimilares.agregar(id, tituloTrim, mensajeTrim);
+            diario.anotar(DiarioCambiosCache.SIMILARES, id);
+        }
+        cambioService.registrar(Cambio.TOPICO, id, id, Cambio.ACTUALIZADO);
         return mapToResponseDto(actualizado);
     }
 
+    /**
+     * Borrado lógico del tópico en cascada: sus respuestas activas pasan a
+     * inactivas (origen = con el tópico) con un único UPDATE, sin cargarlas.
+     */
     @Override
     @Transactional
     public void eliminarTopico(Long id) {
@@ -174,10 +275,24 @@ public class TopicoServiceImpl implements TopicoService {
                         "Tópico no encontrado (id=" + id + ")"
                 ));
 
+        // la cascada cambia los contadores de quienes respondieron: se leen antes de la baja
+        List<Long> autores = respuestaRepository.findAutoresPorTopico(id, Respuesta.BAJA_NINGUNA);
         existente.setActivo(false);
         topicoRepository.save(existente);
+        respuestaRepository.darDeBajaPorTopico(id);
+        // las respuestas dadas de baja en cascada no se anotan una por una (ver README, /api/cambios)
+        cambioService.registrar(Cambio.TOPICO, id, id, Cambio.ELIMINADO);
+        invalidarResumenes(existente.getAutor().getId(), autores);
+        listadoCache.invalidar();
+        diario.anotar(DiarioCambiosCache.LISTADOS, null);
+        indiceSimilares.quitar(id);
+        diario.anotar(DiarioCambiosCache.SIMILARES, id);
     }
 
+    /**
+     * Reactiva el tópico y, con un único UPDATE, solo las respuestas que se
+     * dieron de baja junto con él (las borradas individualmente no vuelven).
+     */
     @Override
     @Transactional
     public TopicoResponseDto reactivarTopico(Long id) {
@@ -190,12 +305,76 @@ public class TopicoServiceImpl implements TopicoService {
             return mapToResponseDto(existente);
         }
 
+        List<Long> autores = respuestaRepository.findAutoresPorTopico(id, Respuesta.BAJA_CON_TOPICO);
         existente.setActivo(true);
         Topico reactivado = topicoRepository.save(existente);
+        respuestaRepository.reactivarPorTopico(id);
+        cambioService.registrar(Cambio.TOPICO, id, id, Cambio.REACTIVADO);
+        invalidarResumenes(existente.getAutor().getId(), autores);
+        listadoCache.invalidar();
+        diario.anotar(DiarioCambiosCache.LISTADOS, null);
+        indiceSimilares.agregar(id, reactivado.getTitulo(), reactivado.getMensaje());
+        diario.anotar(DiarioCambiosCache.SIMILARES, id);
         return mapToResponseDto(reactivado);
     }
 
-    private TopicoResponseDto mapToResponseDto(Topico t) {
+    /**
+     * Resúmenes afectados por una baja / reactivación en cascada: el autor del
+     * tópico y los de sus respuestas, en este nodo y (por el diario) en los demás.
+     * Un tópico con muchísimos participantes se resuelve con una sola anotación
+     * global en lugar de una fila del diario por usuario.
+     */
+    private void invalidarResumenes(Long autorTopico, List<Long> autoresRespuestas) {
+        Set<Long> ids = new LinkedHashSet<>(autoresRespuestas);
+        ids.add(autorTopico);
+        if (ids.size() > MAX_RESUMENES_POR_CASCADA) {
+            resumenCache.invalidarTodo();
+            diario.anotar(DiarioCambiosCache.RESUMENES, null);
+            return;
+        }
+        resumenCache.invalidar(ids);
+        for (Long uid : ids) {
+            diario.anotar(DiarioCambiosCache.RESUMENES, uid);
+        }
+    }
+
+    /**
+     * Historial del autor paginado por keyset sobre (fecha_creacion, id).
+     * Cada página es un rango sobre el índice por autor: el costo no depende
+     * de cuántos registros tenga el usuario ni de la profundidad de la página.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<TopicoResponseDto> listarPorAutor(Long autorId, String cursor, int size) {
+        if (!usuarioRepository.existsById(autorId)) {
+            throw new RecursoNoEncontradoException("Usuario no encontrado (id=" + autorId + ")");
+        }
+
+        int limite = KeysetCursor.normalizarSize(size);
+        KeysetCursor desde = KeysetCursor.decode(cursor);
+
+        List<TopicoResponseDto> filas = desde == null
+                ? topicoRepository.findPorAutor(autorId, KeysetCursor.limiteConSonda(limite))
+                : topicoRepository.findPorAutorDespuesDe(autorId, desde.fecha(), desde.id(),
+                        KeysetCursor.limiteConSonda(limite));
+
+        return KeysetCursor.pagina(filas, limite, d -> new KeysetCursor(d.fechaCreacion(), d.id()));
+    }
+
+    /**
+     * Exportación completa (streaming) para moderación.
+     * La transacción queda abierta mientras el consumidor escribe cada fila.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportarPorAutor(Long autorId, Consumer<TopicoResponseDto> consumidor) {
+        try (Stream<TopicoResponseDto> filas = topicoRepository.streamPorAutor(autorId)) {
+            filas.forEach(consumidor);
+        }
+    }
+
+    // package-private: lo usa MapeoDtoBenchmark (src/jmh)
+    TopicoResponseDto mapToResponseDto(Topico t) {
         Long autorId = null;
         String autorNombre = null;
         if (t.getAutor() != null) {
@@ -0,0 +1,230 @@
+package com.alura.forohub.service;
+
+import com.alura.forohub.dto.CursoConteoDto;
+import com.alura.forohub.dto.UsuarioResumenDto;
+import com.alura.forohub.eventos.RespuestaCreadaEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Cache en memoria (TTL corto, tamaño acotado) de los resúmenes de perfil.
+ *
+ * En lugar de invalidar en cada escritura, los paths de creación / borrado
+ * "empujan" el cambio sobre la entrada cacheada (contador +1/-1, última
+ * actividad), así el hovercard sigue sirviéndose desde memoria.
+ * Los ajustes se aplican recién después del commit de la transacción.
+ *
+ * Cuando el ajuste exacto no es posible (ej: un curso fuera del top cambia
+ * de posición, o un borrado en cascada cambia los contadores del autor y de
+ * quienes respondieron) se invalidan esas entradas y el próximo GET recalcula
+ * con las consultas agregadas.
+ *
+ * Como en ListadoTopicosCache, una carga se guarda solo si ninguna escritura
+ * confirmada tocó a ese usuario mientras corría el cargador: si no, el ajuste
+ * posterior al commit no encuentra entrada, y se cachearían los contadores
+ * anteriores a la escritura como base de los próximos ajustes. La versión va
+ * por franja de usuarios y se sube dentro del compute() de la clave, así el
+ * chequeo del lector y el ajuste del escritor quedan serializados.
+ */
+@Component
+public class UsuarioResumenCache {
+
+    /** Cantidad de cursos que se muestran en el resumen. */
+    public static final int TOP_CURSOS = 3;
+
+    private final long ttlMillis;
+    private final int maxEntradas;
+
+    /** Franjas de versión (potencia de 2): cada usuario cae en una por su id. */
+    private static final int FRANJAS = 256;
+
+    private final Map<Long, Entrada> entradas = new ConcurrentHashMap<>();
+    private final AtomicLongArray versiones = new AtomicLongArray(FRANJAS);
+    private final AtomicLong versionGlobal = new AtomicLong();
+
+    public UsuarioResumenCache(@Value("${forohub.resumen.ttl-ms:60000}") long ttlMillis,
+                               @Value("${forohub.resumen.max-entradas:50000}") int maxEntradas) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntradas = maxEntradas;
+    }
+
+    private record Entrada(UsuarioResumenDto resumen, long expiraEn) {
+        boolean vencida(long ahora) {
+            return ahora >= expiraEn;
+        }
+    }
+
+    // -----------------------
+    // LECTURA / CARGA
+    // -----------------------
+
+    /**
+     * Devuelve el resumen cacheado o lo calcula con 'cargador' y lo guarda, salvo
+     * que una escritura confirmada sobre el usuario haya llegado durante la carga.
+     */
+    public UsuarioResumenDto obtener(Long usuarioId, Function<Long, UsuarioResumenDto> cargador) {
+        long ahora = System.currentTimeMillis();
+        Entrada e = entradas.get(usuarioId);
+        if (e != null && !e.vencida(ahora)) {
+            return e.resumen();
+        }
+        long versionLeida = version(usuarioId);
+        UsuarioResumenDto calculado = cargador.apply(usuarioId);
+        if (entradas.size() >= maxEntradas) {
+            purgar(ahora);
+        }
+        entradas.compute(usuarioId, (k, actual) ->
+                version(usuarioId) == versionLeida ? new Entrada(calculado, ahora + ttlMillis) : actual);
+        return calculado;
+    }
+
+    private long version(Long usuarioId) {
+        return versionGlobal.get() + versiones.get(franja(usuarioId));
+    }
+
+    private static int franja(Long usuarioId) {
+        return Long.hashCode(usuarioId) & (FRANJAS - 1);
+    }
+
+    /** Sube la versión del usuario y quita su entrada, dentro del compute() de la clave. */
+    private void quitar(Long usuarioId) {
+        entradas.compute(usuarioId, (k, e) -> {
+            versiones.incrementAndGet(franja(usuarioId));
+            return null;
+        });
+    }
+
+    private void purgar(long ahora) {
+        entradas.values().removeIf(e -> e.vencida(ahora));
+        if (entradas.size() >= maxEntradas) {
+            // todas vigentes: se descarta todo antes que crecer sin límite
+            entradas.clear();
+        }
+    }
+
+    public void invalidar(Long usuarioId) {
+        despuesDelCommit(() -> quitar(usuarioId));
+    }
+
+    /** Varias entradas con una sola synchronization (bajas / reactivaciones en cascada). */
+    public void invalidar(Collection<Long> usuarioIds) {
+        despuesDelCommit(() -> usuarioIds.forEach(this::quitar));
+    }
+
+    public void invalidarTodo() {
+        despuesDelCommit(() -> {
+            versionGlobal.incrementAndGet();
+            entradas.clear();
+        });
+    }
+
+    // -----------------------
+    // AJUSTES INCREMENTALES
+    // -----------------------
+
+    public void topicoCreado(Long autorId, String curso, LocalDateTime fecha) {
+        despuesDelCommit(() -> ajustar(autorId, r -> {
+            List<CursoConteoDto> cursos = sumarCurso(r.cursosPrincipales(), curso);
+            if (cursos == null) return null; // ranking incierto -> recalcular
+            return new UsuarioResumenDto(r.usuarioId(), r.nombre(), r.topicos() + 1, r.respuestas(),
+                    max(r.ultimaActividad(), fecha), cursos);
+        }));
+    }
+
+    public void respuestaEliminada(Long autorId, LocalDateTime fecha) {
+        despuesDelCommit(() -> ajustar(autorId, r -> {
+            // si era la más reciente no sabemos cuál es la anterior -> recalcular
+            if (fecha != null && fecha.equals(r.ultimaActividad())) return null;
+            return new UsuarioResumenDto(r.usuarioId(), r.nombre(), r.topicos(),
+                    Math.max(0, r.respuestas() - 1), r.ultimaActividad(), r.cursosPrincipales());
+        }));
+    }
+
+    public void respuestaReactivada(Long autorId, LocalDateTime fecha) {
+        despuesDelCommit(() -> ajustar(autorId, r -> new UsuarioResumenDto(r.usuarioId(), r.nombre(),
+                r.topicos(), r.respuestas() + 1, max(r.ultimaActividad(), fecha), r.cursosPrincipales())));
+    }
+
+    /**
+     * Respuestas nuevas (creación directa o ingesta por lotes), ya confirmadas.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onRespuestaCreada(RespuestaCreadaEvent event) {
+        var dto = event.respuesta();
+        ajustar(dto.autorId(), r -> new UsuarioResumenDto(r.usuarioId(), r.nombre(), r.topicos(),
+                r.respuestas() + 1, max(r.ultimaActividad(), dto.fechaCreacion()), r.cursosPrincipales()));
+    }
+
+    /**
+     * Aplica el ajuste solo si hay una entrada vigente; si el ajuste devuelve null se invalida.
+     * Sin entrada igual sube la versión: una carga en curso no debe guardarse.
+     */
+    private void ajustar(Long autorId, Function<UsuarioResumenDto, UsuarioResumenDto> ajuste) {
+        long ahora = System.currentTimeMillis();
+        entradas.compute(autorId, (k, e) -> {
+            versiones.incrementAndGet(franja(autorId));
+            if (e == null || e.vencida(ahora)) return null;
+            UsuarioResumenDto nuevo = ajuste.apply(e.resumen());
+            return nuevo == null ? null : new Entrada(nuevo, e.expiraEn());
+        });
+    }
+
+    /**
+     * Suma un tópico al curso dentro del top. Devuelve null si el resultado
+     * exacto no puede deducirse (curso fuera de un top ya completo).
+     */
+    private static List<CursoConteoDto> sumarCurso(List<CursoConteoDto> top, String curso) {
+        List<CursoConteoDto> res = new ArrayList<>(top.size() + 1);
+        boolean encontrado = false;
+        for (CursoConteoDto c : top) {
+            if (c.curso().equals(curso)) {
+                res.add(new CursoConteoDto(curso, c.topicos() + 1));
+                encontrado = true;
+            } else {
+                res.add(c);
+            }
+        }
+        if (!encontrado) {
+            // con menos de TOP_CURSOS el top contiene todos los cursos del usuario
+            if (top.size() >= TOP_CURSOS) return null;
+            res.add(new CursoConteoDto(curso, 1L));
+        }
+        res.sort(Comparator.comparing(CursoConteoDto::topicos).reversed()
+                .thenComparing(CursoConteoDto::curso));
+        return res;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static void despuesDelCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
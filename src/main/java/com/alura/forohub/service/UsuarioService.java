@@ -0,0 +1,15 @@
+package com.alura.forohub.service;
+
+import com.alura.forohub.dto.UsuarioResumenDto;
+
+/**
+ * Contrato del servicio de usuarios (perfil / actividad).
+ */
+public interface UsuarioService {
+
+    /**
+     * Resumen de actividad del usuario: cantidad de tópicos y respuestas,
+     * última actividad y cursos principales. Servido desde cache.
+     */
+    UsuarioResumenDto obtenerResumen(Long id);
+}
@@ -0,0 +1,75 @@
+package com.alura.forohub.service;
+
+import com.alura.forohub.dto.CursoConteoDto;
+import com.alura.forohub.dto.UsuarioResumenDto;
+import com.alura.forohub.exception.RecursoNoEncontradoException;
+import com.alura.forohub.repository.ConteoActividad;
+import com.alura.forohub.repository.RespuestaRepository;
+import com.alura.forohub.repository.TopicoRepository;
+import com.alura.forohub.repository.UsuarioRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Implementación del servicio de usuarios.
+ *
+ * El resumen se arma con consultas agregadas sobre los índices por autor
+ * (nunca cargando listas de tópicos / respuestas) y se cachea en UsuarioResumenCache.
+ */
+@Timed(value = "forohub.servicio", histogram = true)
+@Service
+public class UsuarioServiceImpl implements UsuarioService {
+
+    private final UsuarioRepository usuarioRepository;
+    private final TopicoRepository topicoRepository;
+    private final RespuestaRepository respuestaRepository;
+    private final UsuarioResumenCache resumenCache;
+
+    public UsuarioServiceImpl(UsuarioRepository usuarioRepository,
+                              TopicoRepository topicoRepository,
+                              RespuestaRepository respuestaRepository,
+                              UsuarioResumenCache resumenCache) {
+        this.usuarioRepository = usuarioRepository;
+        this.topicoRepository = topicoRepository;
+        this.respuestaRepository = respuestaRepository;
+        this.resumenCache = resumenCache;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UsuarioResumenDto obtenerResumen(Long id) {
+        return resumenCache.obtener(id, this::calcularResumen);
+    }
+
+    private UsuarioResumenDto calcularResumen(Long id) {
+        UsuarioRepository.AutorResumen usuario = usuarioRepository.findAutorResumenById(id)
+                .orElseThrow(() -> new RecursoNoEncontradoException(
+                        "Usuario no encontrado (id=" + id + ")"
+                ));
+
+        ConteoActividad topicos = topicoRepository.contarPorAutor(id);
+        ConteoActividad respuestas = respuestaRepository.contarPorAutor(id);
+        List<CursoConteoDto> cursos = topicoRepository.findCursosPorAutor(
+                id, PageRequest.of(0, UsuarioResumenCache.TOP_CURSOS));
+
+        return new UsuarioResumenDto(
+                usuario.getId(),
+                usuario.getNombre(),
+                topicos.getTotal(),
+                respuestas.getTotal(),
+                masReciente(topicos.getUltima(), respuestas.getUltima()),
+                cursos
+        );
+    }
+
+    private static LocalDateTime masReciente(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isAfter(b) ? a : b;
+    }
+}
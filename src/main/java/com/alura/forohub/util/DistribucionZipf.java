@@ -0,0 +1,40 @@
+package com.alura.forohub.util;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Muestreo Zipf sobre rangos 1..n: P(k) ∝ 1 / k^s.
+ * Precalcula la CDF (n doubles) y muestrea por búsqueda binaria: O(log n) por muestra.
+ * Con s ≈ 1 pocos elementos concentran la mayoría de las muestras (cola larga).
+ */
+public final class DistribucionZipf {
+
+    private final double[] cdf;
+
+    public DistribucionZipf(int n, double s) {
+        if (n <= 0) throw new IllegalArgumentException("n debe ser > 0");
+        cdf = new double[n];
+        double acumulado = 0;
+        for (int k = 1; k <= n; k++) {
+            acumulado += 1.0 / Math.pow(k, s);
+            cdf[k - 1] = acumulado;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= acumulado;
+        }
+    }
+
+    /**
+     * Rango en [0, n): 0 es el más frecuente.
+     */
+    public int muestra(SplittableRandom random) {
+        int i = Arrays.binarySearch(cdf, random.nextDouble());
+        int rango = i >= 0 ? i : -i - 1;
+        return Math.min(rango, cdf.length - 1);
+    }
+
+    public int tamanio() {
+        return cdf.length;
+    }
+}
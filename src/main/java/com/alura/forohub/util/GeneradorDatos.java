@@ -0,0 +1,323 @@
+package com.alura.forohub.util;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Generador de datos de volumen (usuarios, tópicos y respuestas) para pruebas
+ * de performance de paginación, búsqueda y cache.
+ *
+ * Características:
+ *  - Determinístico: misma semilla y parámetros -> mismos datos.
+ *  - Sesgado como un foro real: autores y cursos con distribución Zipf, hilos
+ *    de cola larga (pocos tópicos concentran la mayoría de las respuestas),
+ *    ~1/3 de las respuestas anidadas y mensajes de largo variable (log-normal).
+ *  - Rápido: JDBC por lotes, commit por lote, ids asignados por el generador
+ *    (así el path materializado se calcula sin volver a leer) y un único hash
+ *    BCrypt compartido por todos los usuarios.
+ *
+ * Uso como CLI (MySQL; agrega rewriteBatchedStatements=true a la URL):
+ * <pre>
+ * java -Dloader.main=com.alura.forohub.util.GeneradorDatos -cp target/forohub-0.0.1-SNAPSHOT.jar \
+ *   org.springframework.boot.loader.launch.PropertiesLauncher --url=jdbc:mysql://localhost:3306/forohub --usuario=root --password=... \
+ *   --usuarios=100000 --topicos=1000000 --respuestas=5000000
+ * </pre>
+ * Como fixture de tests: {@link #generar(Connection, Configuracion)}.
+ */
+public final class GeneradorDatos {
+
+    /** Contraseña en texto plano de todos los usuarios generados. */
+    public static final String PASSWORD = "clave-generada";
+
+    private static final String[] PALABRAS = (
+            "spring boot java jpa hibernate consulta indice error excepcion transaccion "
+            + "cache rendimiento api rest json token seguridad usuario respuesta topico curso "
+            + "migracion flyway mysql pool conexion hilo memoria test mock controlador servicio "
+            + "repositorio entidad proyeccion paginacion cursor lote commit latencia ayuda gracias"
+    ).split(" ");
+
+    private static final int PROFUNDIDAD_MAX_GENERADA = 8;
+
+    /**
+     * Parámetros de generación.
+     *
+     * @param prefijo prefijo de username / email (permite varias tandas en la misma base)
+     * @param cursos  cantidad de cursos distintos
+     * @param lote    filas por executeBatch / commit
+     */
+    public record Configuracion(
+            int usuarios,
+            int topicos,
+            int respuestas,
+            int cursos,
+            long semilla,
+            String prefijo,
+            int lote
+    ) {
+        public static Configuracion chica(long semilla, String prefijo) {
+            return new Configuracion(50, 500, 2000, 12, semilla, prefijo, 1000);
+        }
+    }
+
+    /**
+     * Rangos de ids generados (inclusive primero, exclusivo fin).
+     */
+    public record Resultado(long primerUsuarioId, long finUsuarioId,
+                            long primerTopicoId, long finTopicoId,
+                            long primeraRespuestaId, long finRespuestaId,
+                            long millis) { }
+
+    private GeneradorDatos() { }
+
+    // -----------------------
+    // CLI
+    // -----------------------
+
+    public static void main(String[] args) throws SQLException {
+        String url = arg(args, "url", "jdbc:mysql://localhost:3306/forohub");
+        if (url.startsWith("jdbc:mysql") && !url.contains("rewriteBatchedStatements")) {
+            url += (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+        }
+        Configuracion conf = new Configuracion(
+                Integer.parseInt(arg(args, "usuarios", "10000")),
+                Integer.parseInt(arg(args, "topicos", "100000")),
+                Integer.parseInt(arg(args, "respuestas", "500000")),
+                Integer.parseInt(arg(args, "cursos", "40")),
+                Long.parseLong(arg(args, "semilla", "42")),
+                arg(args, "prefijo", "gen"),
+                Integer.parseInt(arg(args, "lote", "2000")));
+
+        try (Connection con = DriverManager.getConnection(url,
+                arg(args, "usuario", System.getenv("DB_USERNAME")),
+                arg(args, "password", System.getenv("DB_PASSWORD")))) {
+            Resultado r = generar(con, conf);
+            System.out.printf("Generados %d usuarios, %d tópicos, %d respuestas en %d ms%n",
+                    r.finUsuarioId() - r.primerUsuarioId(), r.finTopicoId() - r.primerTopicoId(),
+                    r.finRespuestaId() - r.primeraRespuestaId(), r.millis());
+            System.out.println("Contraseña de todos los usuarios: " + PASSWORD);
+        }
+    }
+
+    private static String arg(String[] args, String nombre, String porDefecto) {
+        String prefijo = "--" + nombre + "=";
+        for (String a : args) {
+            if (a.startsWith(prefijo)) return a.substring(prefijo.length());
+        }
+        return porDefecto;
+    }
+
+    // -----------------------
+    // GENERACIÓN
+    // -----------------------
+
+    /**
+     * Genera e inserta todo sobre la conexión dada. Deja autocommit como estaba.
+     */
+    public static Resultado generar(Connection con, Configuracion conf) throws SQLException {
+        long t0 = System.currentTimeMillis();
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try {
+            SplittableRandom random = new SplittableRandom(conf.semilla());
+            LocalDateTime inicio = LocalDateTime.of(2024, 1, 1, 0, 0);
+            // hash calculado una vez: BCrypt cuesta ~100 ms por llamada
+            String hash = new BCryptPasswordEncoder(10).encode(PASSWORD);
+
+            long u0 = siguienteId(con, "usuarios");
+            insertarUsuarios(con, conf, u0, hash, inicio);
+
+            long t0Id = siguienteId(con, "topicos");
+            long[] fechaTopico = insertarTopicos(con, conf, random, u0, t0Id, inicio);
+
+            long r0 = siguienteId(con, "respuestas");
+            insertarRespuestas(con, conf, random, u0, t0Id, r0, fechaTopico);
+
+            realinearIdentidades(con);
+            con.commit();
+            return new Resultado(u0, u0 + conf.usuarios(), t0Id, t0Id + conf.topicos(),
+                    r0, r0 + conf.respuestas(), System.currentTimeMillis() - t0);
+        } catch (SQLException | RuntimeException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static long siguienteId(Connection con, String tabla) throws SQLException {
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + tabla)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * MySQL avanza AUTO_INCREMENT solo con ids explícitos; H2 no, así que se
+     * reinicia cada identidad después del último id para que los INSERT de la app no choquen.
+     */
+    private static void realinearIdentidades(Connection con) throws SQLException {
+        if (!"H2".equals(con.getMetaData().getDatabaseProductName())) return;
+        for (String tabla : new String[]{"usuarios", "topicos", "respuestas"}) {
+            long siguiente = siguienteId(con, tabla);
+            try (Statement st = con.createStatement()) {
+                st.execute("ALTER TABLE " + tabla + " ALTER COLUMN id RESTART WITH " + siguiente);
+            }
+        }
+    }
+
+    private static void insertarUsuarios(Connection con, Configuracion conf, long u0, String hash,
+                                         LocalDateTime inicio) throws SQLException {
+        String sql = "INSERT INTO usuarios (id, username, nombre, email, password, activo, rol, created_at) "
+                + "VALUES (?, ?, ?, ?, ?, true, 'ROLE_USER', ?)";
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            Timestamp creado = Timestamp.valueOf(inicio);
+            for (int i = 0; i < conf.usuarios(); i++) {
+                ps.setLong(1, u0 + i);
+                ps.setString(2, conf.prefijo() + i);
+                ps.setString(3, "Usuario " + conf.prefijo() + " " + i);
+                ps.setString(4, conf.prefijo() + i + "@example.com");
+                ps.setString(5, hash);
+                ps.setTimestamp(6, creado);
+                agregar(con, ps, i, conf.lote());
+            }
+            cerrarLote(con, ps);
+        }
+    }
+
+    /**
+     * Autores y cursos con Zipf. Devuelve la fecha (epoch minutes relativos) de cada tópico.
+     */
+    private static long[] insertarTopicos(Connection con, Configuracion conf, SplittableRandom random,
+                                          long u0, long t0, LocalDateTime inicio) throws SQLException {
+        DistribucionZipf autores = new DistribucionZipf(conf.usuarios(), 1.0);
+        DistribucionZipf cursos = new DistribucionZipf(conf.cursos(), 1.1);
+        long[] fechas = new long[conf.topicos()];
+        // los tópicos se reparten en ~2 años, en orden de id
+        long pasoSegundos = Math.max(1, 2L * 365 * 24 * 3600 / Math.max(1, conf.topicos()));
+
+        String sql = "INSERT INTO topicos (id, titulo, mensaje, fecha_creacion, status, autor_id, curso, activo) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, true)";
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            for (int j = 0; j < conf.topicos(); j++) {
+                long segundos = j * pasoSegundos + random.nextLong(pasoSegundos);
+                fechas[j] = segundos;
+                ps.setLong(1, t0 + j);
+                ps.setString(2, "Tópico " + (t0 + j) + ": " + texto(random, 3 + random.nextInt(8), 200));
+                ps.setString(3, texto(random, largo(random), 4000));
+                ps.setTimestamp(4, Timestamp.valueOf(inicio.plusSeconds(segundos)));
+                ps.setString(5, random.nextInt(10) < 7 ? "ABIERTO" : "CERRADO");
+                ps.setLong(6, u0 + autores.muestra(random));
+                ps.setString(7, "Curso " + (cursos.muestra(random) + 1));
+                agregar(con, ps, j, conf.lote());
+            }
+            cerrarLote(con, ps);
+        }
+        return fechas;
+    }
+
+    /**
+     * Tópico de cada respuesta con Zipf sobre una permutación de los tópicos
+     * (los hilos grandes quedan repartidos en el tiempo). ~1/3 responde a la
+     * última respuesta del mismo hilo, hasta PROFUNDIDAD_MAX_GENERADA niveles.
+     */
+    private static void insertarRespuestas(Connection con, Configuracion conf, SplittableRandom random,
+                                           long u0, long t0, long r0, long[] fechaTopico) throws SQLException {
+        int topicos = conf.topicos();
+        DistribucionZipf hilos = new DistribucionZipf(topicos, 1.1);
+        DistribucionZipf autores = new DistribucionZipf(conf.usuarios(), 1.0);
+        long salto = coprimo(topicos);
+        long[] ultimaId = new long[topicos];
+        String[] ultimaPath = new String[topicos];
+        byte[] ultimaProfundidad = new byte[topicos];
+        LocalDateTime inicio = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        String sql = "INSERT INTO respuestas (id, mensaje, fecha_creacion, autor_id, topico_id, activo, baja_origen, "
+                + "parent_id, path, profundidad) VALUES (?, ?, ?, ?, ?, true, 0, ?, ?, ?)";
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            for (int k = 0; k < conf.respuestas(); k++) {
+                int t = (int) ((hilos.muestra(random) * salto) % topicos);
+                long id = r0 + k;
+
+                Long parentId = null;
+                String path = "";
+                int profundidad = 0;
+                if (ultimaId[t] != 0 && random.nextInt(3) == 0
+                        && ultimaProfundidad[t] < PROFUNDIDAD_MAX_GENERADA) {
+                    parentId = ultimaId[t];
+                    path = RutaMaterializada.prefijoDescendientes(ultimaPath[t], parentId);
+                    profundidad = ultimaProfundidad[t] + 1;
+                }
+                ultimaId[t] = id;
+                ultimaPath[t] = path;
+                ultimaProfundidad[t] = (byte) profundidad;
+
+                // la respuesta llega entre minutos y semanas después del tópico
+                long demora = (long) Math.min(60L * 24 * 3600 * 30, Math.exp(4 + random.nextDouble() * 10));
+                ps.setLong(1, id);
+                ps.setString(2, texto(random, largo(random), 4000));
+                ps.setTimestamp(3, Timestamp.valueOf(inicio.plusSeconds(fechaTopico[t] + demora)));
+                ps.setLong(4, u0 + autores.muestra(random));
+                ps.setLong(5, t0 + t);
+                if (parentId != null) ps.setLong(6, parentId);
+                else ps.setNull(6, java.sql.Types.BIGINT);
+                ps.setString(7, path);
+                ps.setInt(8, profundidad);
+                agregar(con, ps, k, conf.lote());
+            }
+            cerrarLote(con, ps);
+        }
+    }
+
+    // -----------------------
+    // AUXILIARES
+    // -----------------------
+
+    private static void agregar(Connection con, PreparedStatement ps, int i, int lote) throws SQLException {
+        ps.addBatch();
+        if ((i + 1) % lote == 0) {
+            ps.executeBatch();
+            con.commit();
+        }
+    }
+
+    private static void cerrarLote(Connection con, PreparedStatement ps) throws SQLException {
+        ps.executeBatch();
+        con.commit();
+    }
+
+    /** Cantidad de palabras con cola larga (log-normal): la mayoría cortos, algunos muy largos. */
+    private static int largo(SplittableRandom random) {
+        double normal = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+        return (int) Math.max(3, Math.min(600, Math.exp(3.2 + 0.9 * normal)));
+    }
+
+    private static String texto(SplittableRandom random, int palabras, int maxChars) {
+        StringBuilder sb = new StringBuilder(palabras * 8);
+        for (int i = 0; i < palabras && sb.length() < maxChars - 20; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(PALABRAS[random.nextInt(PALABRAS.length)]);
+        }
+        return sb.toString();
+    }
+
+    /** Un salto coprimo con n: i -> i * salto mod n es una permutación de [0, n). */
+    private static long coprimo(int n) {
+        long salto = Math.max(1, (long) (n * 0.618));
+        while (gcd(salto, n) != 1) salto++;
+        return salto;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
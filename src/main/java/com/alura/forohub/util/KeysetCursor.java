@@ -0,0 +1,76 @@
+package com.alura.forohub.util;
+
+import com.alura.forohub.dto.CursorPageDto;
+import com.alura.forohub.exception.ParametroInvalidoException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Cursor opaco para paginación keyset sobre (fecha_creacion, id).
+ *
+ * Se serializa como Base64 URL-safe de "fecha|id" para que el cliente
+ * lo trate como un token y no dependa del formato interno.
+ */
+public record KeysetCursor(LocalDateTime fecha, Long id) {
+
+    /** Tamaño máximo de página permitido en los listados keyset. */
+    public static final int MAX_SIZE = 100;
+
+    public String encode() {
+        String raw = fecha + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido por query param.
+     * Devuelve null si no se envió cursor (primera página).
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep < 0) throw new IllegalArgumentException("sin separador");
+            return new KeysetCursor(
+                    LocalDateTime.parse(raw.substring(0, sep)),
+                    Long.parseLong(raw.substring(sep + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ParametroInvalidoException("Cursor de paginación inválido.");
+        }
+    }
+
+    /**
+     * Normaliza el tamaño pedido al rango [1, MAX_SIZE].
+     */
+    public static int normalizarSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    /**
+     * Límite para la query: se pide una fila extra para saber si existe otra página
+     * sin necesidad de un COUNT.
+     */
+    public static Pageable limiteConSonda(int size) {
+        return PageRequest.of(0, size + 1);
+    }
+
+    /**
+     * Arma la página a partir de las filas leídas con limiteConSonda(size).
+     */
+    public static <T> CursorPageDto<T> pagina(List<T> filas, int size, Function<T, KeysetCursor> cursorDe) {
+        if (filas.size() <= size) {
+            return new CursorPageDto<>(filas, null);
+        }
+        List<T> contenido = filas.subList(0, size);
+        return new CursorPageDto<>(contenido, cursorDe.apply(contenido.get(size - 1)).encode());
+    }
+}
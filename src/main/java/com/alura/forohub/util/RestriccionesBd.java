@@ -0,0 +1,47 @@
+package com.alura.forohub.util;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Nombres de las claves únicas del esquema (V1__create_tables.sql, repetidos
+ * en las entidades para que el esquema de tests tenga los mismos nombres) y
+ * detección de cuál se violó en un INSERT.
+ *
+ * Permite escribir "insertar y traducir el error" en lugar de "consultar y
+ * después insertar": una sola sentencia y sin carrera entre dos requests.
+ */
+public final class RestriccionesBd {
+
+    public static final String UQ_USUARIO_USERNAME = "uq_usuario_username";
+    public static final String UQ_USUARIO_EMAIL = "uq_usuario_email";
+    public static final String UQ_TOPICO_TITULO_MENSAJE = "uq_topico_titulo_mensaje";
+
+    private RestriccionesBd() { /* util class */ }
+
+    /**
+     * true si la excepción proviene de la clave única indicada.
+     *
+     * El nombre reportado depende del motor: MySQL 8 devuelve "tabla.clave",
+     * H2 el nombre del índice en mayúsculas con sufijo. Se compara por
+     * "contiene" sin distinguir mayúsculas; si Hibernate no pudo extraer el
+     * nombre se busca en el mensaje del driver.
+     */
+    public static boolean violada(DataIntegrityViolationException ex, String clave) {
+        String buscado = clave.toLowerCase(Locale.ROOT);
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof ConstraintViolationException cve && cve.getConstraintName() != null
+                    && cve.getConstraintName().toLowerCase(Locale.ROOT).contains(buscado)) {
+                return true;
+            }
+            if (t instanceof SQLException sql && sql.getMessage() != null
+                    && sql.getMessage().toLowerCase(Locale.ROOT).contains(buscado)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
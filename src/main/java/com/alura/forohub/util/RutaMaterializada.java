@@ -0,0 +1,42 @@
+package com.alura.forohub.util;
+
+/**
+ * Helpers para el "materialized path" de respuestas anidadas.
+ *
+ * Formato: cada ancestro se codifica como su id con 12 dígitos (ceros a la izquierda)
+ * seguido de '/'. El path de una respuesta contiene solo sus ancestros
+ * (las respuestas raíz tienen path "").
+ *
+ * Como los segmentos tienen ancho fijo y '/' (0x2F) es menor que '0' (0x30),
+ * el orden por path deja siempre a un padre antes que sus hijos y todo el
+ * subárbol de un nodo cae en el rango [prefijo, finDeRango(prefijo)).
+ */
+public final class RutaMaterializada {
+
+    /** Profundidad máxima admitida (path VARCHAR(767) / 13 caracteres por nivel). */
+    public static final int PROFUNDIDAD_MAX = 50;
+
+    private static final int ANCHO_SEGMENTO = 12;
+
+    private RutaMaterializada() { /* util class */ }
+
+    public static String segmento(Long id) {
+        String s = Long.toString(id);
+        return "0".repeat(Math.max(0, ANCHO_SEGMENTO - s.length())) + s + "/";
+    }
+
+    /**
+     * Prefijo que comparten todos los descendientes del nodo (path del nodo + su segmento).
+     */
+    public static String prefijoDescendientes(String pathNodo, Long idNodo) {
+        return (pathNodo == null ? "" : pathNodo) + segmento(idNodo);
+    }
+
+    /**
+     * Primer valor que ya no pertenece al rango del prefijo (prefijo termina en '/').
+     * Ej: "000000000003/" -> "0000000000030".
+     */
+    public static String finDeRango(String prefijo) {
+        return prefijo.substring(0, prefijo.length() - 1) + "0";
+    }
+}
@@ -0,0 +1,18 @@
+-- Bandeja de notificaciones por usuario (la escribe DespachadorNotificaciones con INSERT multi-fila).
+-- Una fila resume las respuestas nuevas de un tópico para un destinatario dentro de un lote (cantidad).
+CREATE TABLE IF NOT EXISTS notificaciones (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  usuario_id BIGINT NOT NULL,
+  tipo VARCHAR(16) NOT NULL,
+  topico_id BIGINT NOT NULL,
+  respuesta_id BIGINT NOT NULL,
+  cantidad INT NOT NULL,
+  fecha DATETIME(6) NOT NULL,
+  PRIMARY KEY (id),
+  -- GET /api/notificaciones: keyset por (fecha, id) del usuario
+  INDEX idx_notificaciones_usuario_fecha (usuario_id, fecha, id),
+  CONSTRAINT fk_notificacion_usuario FOREIGN KEY (usuario_id) REFERENCES usuarios (id)
+) ENGINE=InnoDB;
+
+-- Participantes de un tópico (primer respuesta de cada autor) sin leer las filas de respuestas
+CREATE INDEX idx_respuestas_topico_autor ON respuestas (topico_id, autor_id, activo);
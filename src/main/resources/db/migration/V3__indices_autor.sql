@@ -0,0 +1,9 @@
+-- V3__indices_autor.sql
+-- Índices para listar el historial de un autor con paginación keyset.
+-- El orden de columnas (autor_id, activo, fecha_creacion, id) permite resolver
+-- "WHERE autor_id = ? AND activo = 1 AND (fecha_creacion, id) < (?, ?)
+--  ORDER BY fecha_creacion DESC, id DESC" como un rango sobre el índice,
+-- con costo independiente de cuántos posts tenga el usuario.
+
+CREATE INDEX idx_topicos_autor_activo_fecha ON topicos (autor_id, activo, fecha_creacion, id);
+CREATE INDEX idx_respuestas_autor_activo_fecha ON respuestas (autor_id, activo, fecha_creacion, id);
@@ -0,0 +1,21 @@
+-- V4__respuestas_anidadas.sql
+-- Respuestas anidadas (hilos) con "materialized path".
+--
+-- parent_id   : respuesta a la que se contesta (NULL = respuesta directa al tópico)
+-- path        : ids de los ancestros, de 12 dígitos con ceros a la izquierda y
+--               terminados en '/'. Ej: respuesta 7 hija de 3 -> '000000000003/'.
+--               Las respuestas raíz tienen path ''.
+-- profundidad : cantidad de ancestros (0 = raíz)
+--
+-- Con ancho fijo, el orden lexicográfico de path coincide con el orden del árbol,
+-- así un subárbol completo es un rango (path >= prefijo AND path < fin) sobre
+-- idx_respuestas_topico_path, sin consultas recursivas por nivel.
+
+ALTER TABLE respuestas
+  ADD COLUMN parent_id BIGINT NULL,
+  ADD COLUMN path VARCHAR(767) CHARACTER SET ascii COLLATE ascii_bin NOT NULL DEFAULT '',
+  ADD COLUMN profundidad SMALLINT NOT NULL DEFAULT 0,
+  ADD CONSTRAINT fk_respuesta_parent FOREIGN KEY (parent_id) REFERENCES respuestas (id)
+    ON DELETE CASCADE ON UPDATE CASCADE;
+
+CREATE INDEX idx_respuestas_topico_path ON respuestas (topico_id, path);
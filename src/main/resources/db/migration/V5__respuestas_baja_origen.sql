@@ -0,0 +1,12 @@
+-- V5__respuestas_baja_origen.sql
+-- Origen del borrado lógico de una respuesta (columna compacta):
+--   0 = activa
+--   1 = borrada individualmente (DELETE /api/respuestas/{id})
+--   2 = borrada en cascada junto con su tópico
+-- Permite que reactivar un tópico restaure solo las respuestas que cayeron con él.
+
+ALTER TABLE respuestas
+  ADD COLUMN baja_origen TINYINT NOT NULL DEFAULT 0;
+
+-- Las respuestas ya inactivas se consideran borradas individualmente
+UPDATE respuestas SET baja_origen = 1 WHERE activo = 0;
@@ -0,0 +1,6 @@
+-- V6__indice_topicos_autor_curso.sql
+-- Índice cubriente para el resumen de perfil (GET /api/usuarios/{id}/resumen):
+-- "cursos principales" = GROUP BY curso de los tópicos activos del autor,
+-- resuelto solo con el índice, sin leer las filas (ni el mensaje TEXT).
+
+CREATE INDEX idx_topicos_autor_activo_curso ON topicos (autor_id, activo, curso);
@@ -0,0 +1,9 @@
+-- Latido de replicación: el primario actualiza marca_ms (epoch ms) periódicamente
+-- y cada réplica se compara contra el último valor escrito (ver MonitorReplicas).
+CREATE TABLE IF NOT EXISTS replicacion_latido (
+  id TINYINT NOT NULL,
+  marca_ms BIGINT NOT NULL,
+  PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+INSERT INTO replicacion_latido (id, marca_ms) VALUES (1, 0);
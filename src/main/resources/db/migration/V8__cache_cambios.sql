@@ -0,0 +1,11 @@
+-- Diario de cambios para la coherencia de caches entre nodos (ver DiarioCambiosCache).
+-- Cada nodo lo sigue con "id > último visto"; las filas viejas se purgan por creado_ms.
+CREATE TABLE IF NOT EXISTS cache_cambios (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  cache VARCHAR(32) NOT NULL,
+  clave VARCHAR(64) NULL,
+  nodo VARCHAR(64) NOT NULL,
+  creado_ms BIGINT NOT NULL,
+  PRIMARY KEY (id),
+  INDEX idx_cache_cambios_creado (creado_ms)
+) ENGINE=InnoDB;
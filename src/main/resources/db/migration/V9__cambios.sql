@@ -0,0 +1,11 @@
+-- Registro de cambios de tópicos y respuestas (solo INSERT), para GET /api/cambios?desde=.
+-- Los clientes sincronizan por rango de id: el costo depende de los cambios, no del tamaño del foro.
+CREATE TABLE IF NOT EXISTS cambios (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  entidad VARCHAR(16) NOT NULL,
+  entidad_id BIGINT NOT NULL,
+  topico_id BIGINT NOT NULL,
+  operacion VARCHAR(16) NOT NULL,
+  fecha DATETIME(6) NOT NULL,
+  PRIMARY KEY (id)
+) ENGINE=InnoDB;
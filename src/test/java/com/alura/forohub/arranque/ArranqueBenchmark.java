@@ -0,0 +1,267 @@
+package com.alura.forohub.arranque;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmark de arranque: levanta el jar extraído (perfil Maven "rapido") en
+ * procesos separados y mide, por modo, cuánto tarda en quedar lista (readiness) y la
+ * latencia de los primeros requests (login, listado, documentación).
+ *
+ * Modos:
+ *  - clasico: sin AOT ni CDS, documentación inicializada al arrancar (comportamiento anterior)
+ *  - normal:  sin AOT ni CDS, documentación diferida
+ *  - cds:     normal + archivo CDS entrenado con spring.context.exit=onRefresh
+ *  - aot:     bean definitions generadas en el build (-Dspring.aot.enabled=true)
+ *  - aot-cds: aot + archivo CDS propio
+ *
+ * La base es H2 en memoria (el jar de H2 se toma del classpath de test) y Flyway
+ * no migra (forohub.flyway.migrar=false): se mide la app, no MySQL. La base
+ * arranca vacía, así que el calentamiento del JIT no tiene qué leer y casi no suma.
+ *
+ * mvn -P rapido -DskipTests package exec:java [-Darranque.corridas=5 -Darranque.modos=normal,aot-cds]
+ */
+public final class ArranqueBenchmark {
+
+    private static final Pattern STARTED =
+            Pattern.compile("Started ForohubApplication in ([0-9.]+) seconds \\(process running for ([0-9.]+)\\)");
+    private static final Duration TIMEOUT_ARRANQUE = Duration.ofMinutes(3);
+    private static final String MAIN = "com.alura.forohub.ForohubApplication";
+
+    /** Una corrida de un modo. -1 = no se pudo medir. */
+    record Corrida(long listoMs, double springSegundos, long primerLoginMs, long primerListadoMs,
+                   long segundoListadoMs, long primerDocsMs) { }
+
+    private final Path dir;
+    private final String classpath;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    ArranqueBenchmark(Path dir, String classpath) {
+        this.dir = dir;
+        this.classpath = classpath;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Path.of(System.getProperty("arranque.dir", "target/arranque"));
+        Path app = dir.resolve("app");
+        File[] jars = app.toFile().listFiles((d, n) -> n.endsWith(".jar"));
+        if (jars == null || jars.length != 1) {
+            throw new IllegalStateException("No está el jar extraído en " + app + ": correr mvn -P rapido -DskipTests package");
+        }
+        String h2 = Path.of(org.h2.Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        String classpath = jars[0].getPath() + File.pathSeparator + h2;
+
+        int corridas = Integer.getInteger("arranque.corridas", 5);
+        List<String> modos = Arrays.asList(System.getProperty("arranque.modos", "clasico,normal,cds,aot,aot-cds").split(","));
+
+        ArranqueBenchmark bench = new ArranqueBenchmark(dir, classpath);
+        Map<String, Object> reporte = new LinkedHashMap<>();
+        reporte.put("java", System.getProperty("java.vm.name") + " " + System.getProperty("java.version"));
+        reporte.put("cpus", Runtime.getRuntime().availableProcessors());
+        reporte.put("corridas", corridas);
+        Map<String, Object> resultados = new LinkedHashMap<>();
+        for (String modo : modos) {
+            List<Corrida> lista = bench.medir(modo.trim(), corridas);
+            resultados.put(modo.trim(), Map.of("corridas", lista, "mediana", mediana(lista)));
+        }
+        reporte.put("modos", resultados);
+
+        Path salida = dir.resolve("arranque-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        bench.mapper.writeValue(salida.toFile(), reporte);
+
+        System.out.printf("%n%-8s %10s %10s %10s %10s %10s %10s%n",
+                "modo", "listo ms", "spring s", "login ms", "listado ms", "2do ms", "docs ms");
+        for (String modo : modos) {
+            @SuppressWarnings("unchecked")
+            Corrida m = (Corrida) ((Map<String, Object>) resultados.get(modo.trim())).get("mediana");
+            System.out.printf("%-8s %10d %10.2f %10d %10d %10d %10d%n", modo.trim(), m.listoMs(), m.springSegundos(),
+                    m.primerLoginMs(), m.primerListadoMs(), m.segundoListadoMs(), m.primerDocsMs());
+        }
+        System.out.println("Reporte: " + salida);
+    }
+
+    List<Corrida> medir(String modo, int corridas) throws Exception {
+        boolean aot = modo.startsWith("aot");
+        boolean cds = modo.endsWith("cds");
+        Path archivo = dir.resolve(aot ? "forohub-aot.jsa" : "forohub.jsa");
+        if (cds) entrenar(aot, archivo);
+
+        List<String> jvm = new ArrayList<>();
+        if (aot) jvm.add("-Dspring.aot.enabled=true");
+        if (cds) jvm.add("-XX:SharedArchiveFile=" + archivo);
+        List<String> app = new ArrayList<>();
+        if (modo.equals("clasico")) app.add("--forohub.arranque.diferir-docs=false");
+
+        List<Corrida> resultado = new ArrayList<>();
+        for (int i = 0; i < corridas; i++) {
+            Corrida c = corrida(modo + "-" + i, jvm, app);
+            System.out.printf("%s #%d: %s%n", modo, i, c);
+            resultado.add(c);
+        }
+        return resultado;
+    }
+
+    /**
+     * Corrida de entrenamiento: arranca hasta el refresh del contexto y la JVM
+     * vuelca al salir las clases cargadas en el archivo CDS.
+     */
+    private void entrenar(boolean aot, Path archivo) throws Exception {
+        List<String> cmd = new ArrayList<>(List.of("java", "-XX:ArchiveClassesAtExit=" + archivo,
+                "-Dspring.context.exit=onRefresh"));
+        if (aot) cmd.add("-Dspring.aot.enabled=true");
+        cmd.addAll(List.of("-cp", classpath, MAIN));
+        cmd.addAll(argumentosApp(libre(), libre()));
+        Process p = new ProcessBuilder(cmd).redirectErrorStream(true)
+                .redirectOutput(dir.resolve("entrenamiento" + (aot ? "-aot" : "") + ".log").toFile()).start();
+        if (!p.waitFor(TIMEOUT_ARRANQUE.toMillis(), TimeUnit.MILLISECONDS) || !Files.exists(archivo)) {
+            p.destroyForcibly();
+            throw new IllegalStateException("Falló el entrenamiento CDS, ver " + dir);
+        }
+    }
+
+    private Corrida corrida(String nombre, List<String> jvm, List<String> app) throws Exception {
+        int puerto = libre();
+        int management = libre();
+        List<String> cmd = new ArrayList<>();
+        cmd.add("java");
+        cmd.addAll(jvm);
+        cmd.addAll(List.of("-cp", classpath, MAIN));
+        cmd.addAll(argumentosApp(puerto, management));
+        cmd.addAll(app);
+
+        Path log = dir.resolve("logs").resolve(nombre + ".log");
+        Files.createDirectories(log.getParent());
+        long inicio = System.nanoTime();
+        Process p = new ProcessBuilder(cmd).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            long listo = esperarReadiness(p, management, inicio);
+            String base = "http://127.0.0.1:" + puerto;
+
+            enviar(post(base + "/api/auth/register",
+                    "{\"username\":\"arranque\",\"password\":\"clave\",\"nombre\":\"Arranque\",\"email\":\"arranque@example.com\"}"));
+            long t = System.nanoTime();
+            HttpResponse<String> login = enviar(post(base + "/api/auth/login", "{\"username\":\"arranque\",\"password\":\"clave\"}"));
+            long primerLogin = millisDesde(t);
+            String token = mapper.readTree(login.body()).path("token").asText();
+
+            HttpRequest listado = HttpRequest.newBuilder(URI.create(base + "/api/topicos"))
+                    .header("Authorization", "Bearer " + token).build();
+            t = System.nanoTime();
+            enviar(listado);
+            long primerListado = millisDesde(t);
+            t = System.nanoTime();
+            enviar(listado);
+            long segundoListado = millisDesde(t);
+
+            t = System.nanoTime();
+            enviar(HttpRequest.newBuilder(URI.create(base + "/v3/api-docs")).build());
+            long primerDocs = millisDesde(t);
+
+            return new Corrida(listo, segundosSpring(log), primerLogin, primerListado, segundoListado, primerDocs);
+        } finally {
+            p.destroy();
+            if (!p.waitFor(30, TimeUnit.SECONDS)) p.destroyForcibly();
+        }
+    }
+
+    private long esperarReadiness(Process p, int management, long inicio) throws Exception {
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + management + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(1)).build();
+        long limite = inicio + TIMEOUT_ARRANQUE.toNanos();
+        while (System.nanoTime() < limite) {
+            if (!p.isAlive()) throw new IllegalStateException("La app terminó al arrancar (código " + p.exitValue() + ")");
+            try {
+                if (http.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return millisDesde(inicio);
+                }
+            } catch (IOException e) {
+                // todavía no escucha
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("La app no respondió health en " + TIMEOUT_ARRANQUE);
+    }
+
+    private static List<String> argumentosApp(int puerto, int management) {
+        return List.of(
+                "--server.port=" + puerto,
+                "--management.server.port=" + management,
+                "--spring.datasource.url=jdbc:h2:mem:arranque;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--forohub.flyway.migrar=false",
+                "--jwt.secret=clave-del-benchmark-de-al-menos-32-bytes-hs256");
+    }
+
+    private HttpResponse<String> enviar(HttpRequest request) throws Exception {
+        HttpResponse<String> r = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (r.statusCode() >= 400) {
+            throw new IllegalStateException(request.uri() + " -> " + r.statusCode() + ": " + r.body());
+        }
+        return r;
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url)).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    private static double segundosSpring(Path log) throws IOException {
+        Matcher m = STARTED.matcher(Files.readString(log));
+        return m.find() ? Double.parseDouble(m.group(1)) : -1;
+    }
+
+    private static long millisDesde(long inicioNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicioNanos);
+    }
+
+    private static int libre() throws IOException {
+        try (ServerSocket s = new ServerSocket(0)) {
+            return s.getLocalPort();
+        }
+    }
+
+    /** Mediana campo por campo. */
+    static Corrida mediana(List<Corrida> corridas) {
+        return new Corrida(
+                (long) med(corridas.stream().mapToDouble(Corrida::listoMs).toArray()),
+                med(corridas.stream().mapToDouble(Corrida::springSegundos).toArray()),
+                (long) med(corridas.stream().mapToDouble(Corrida::primerLoginMs).toArray()),
+                (long) med(corridas.stream().mapToDouble(Corrida::primerListadoMs).toArray()),
+                (long) med(corridas.stream().mapToDouble(Corrida::segundoListadoMs).toArray()),
+                (long) med(corridas.stream().mapToDouble(Corrida::primerDocsMs).toArray()));
+    }
+
+    private static double med(double[] v) {
+        double[] o = v.clone();
+        Arrays.sort(o);
+        int n = o.length;
+        return n == 0 ? -1 : n % 2 == 1 ? o[n / 2] : (o[n / 2 - 1] + o[n / 2]) / 2;
+    }
+}
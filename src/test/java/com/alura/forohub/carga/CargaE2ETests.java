@@ -0,0 +1,101 @@
+package com.alura.forohub.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test de carga end-to-end: levanta la app completa en un puerto aleatorio
+ * contra H2 en modo MySQL, siembra un dataset y la somete a tráfico
+ * autenticado desde N clientes concurrentes.
+ *
+ * Deja un reporte JSON (latencias HdrHistogram y throughput por endpoint) en
+ * target/carga/ para comparar corridas. Todo local, sin red externa.
+ *
+ * Solo corre con el perfil Maven "carga" (mvn -P carga test).
+ */
+@Tag("carga")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                // el detalle por request lo da este mismo test
+                "forohub.sql.presupuesto.habilitado=false",
+                "logging.level.com.alura.forohub=WARN"
+        })
+@ActiveProfiles("test")
+class CargaE2ETests {
+
+    @LocalServerPort
+    private int puerto;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void traficoMixto() throws Exception {
+        ConfiguracionCarga conf = ConfiguracionCarga.desdeSystemProperties();
+        DatosCarga.Semilla semilla = DatosCarga.sembrar(jdbcTemplate, conf);
+
+        RegistroLatencias registro = new RegistroLatencias();
+        ObjectMapper objectMapper = new ObjectMapper();
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String base = "http://localhost:" + puerto;
+
+        long calentamientoNanos = TimeUnit.SECONDS.toNanos(conf.calentamientoSegundos());
+        long finNanos = System.nanoTime() + calentamientoNanos + TimeUnit.SECONDS.toNanos(conf.duracionSegundos());
+
+        ExecutorService clientes = Executors.newFixedThreadPool(conf.clientes());
+        for (int c = 0; c < conf.clientes(); c++) {
+            clientes.execute(new ClienteCarga(http, objectMapper, base, registro, semilla,
+                    c % semilla.usuarioIds().size(), finNanos, conf.semilla() + c));
+        }
+
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(calentamientoNanos));
+        registro.iniciar();
+        clientes.shutdown();
+        assertThat(clientes.awaitTermination(conf.duracionSegundos() + 60L, TimeUnit.SECONDS)).isTrue();
+        registro.detener();
+
+        Map<String, Object> reporte = new LinkedHashMap<>();
+        reporte.put("fecha", LocalDateTime.now().toString());
+        reporte.put("jvm", System.getProperty("java.vm.name") + " " + System.getProperty("java.version"));
+        reporte.put("procesadores", Runtime.getRuntime().availableProcessors());
+        reporte.put("configuracion", conf);
+        reporte.put("segundosMedidos", registro.segundosMedidos());
+        reporte.putAll(registro.resumen());
+
+        Path dir = Path.of("target", "carga");
+        Files.createDirectories(dir);
+        Path archivo = dir.resolve("reporte-carga-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(archivo.toFile(), reporte);
+        System.out.println("Reporte de carga: " + archivo.toAbsolutePath());
+        System.out.println(objectMapper.writeValueAsString(reporte.get("total")));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> total = (Map<String, Object>) reporte.get("total");
+        assertThat((Long) total.get("ok")).isPositive();
+    }
+}
@@ -0,0 +1,181 @@
+package com.alura.forohub.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Un usuario virtual: hace login y después ejecuta una mezcla de operaciones
+ * (lazo cerrado, sin think time) hasta que se cumple el plazo.
+ *
+ * Mezcla (sobre 100): 35 listar tópicos, 25 ver hilo, 10 detalle de tópico,
+ * 15 crear respuesta, 5 editar respuesta propia, 5 editar tópico propio, 5 re-login.
+ *
+ * Nota: al ser lazo cerrado la latencia no corrige "coordinated omission";
+ * sirve para comparar corridas entre sí, no como SLO absoluto.
+ */
+final class ClienteCarga implements Runnable {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String JSON = "application/json";
+
+    private final HttpClient http;
+    private final ObjectMapper objectMapper;
+    private final String base;
+    private final RegistroLatencias registro;
+    private final DatosCarga.Semilla semilla;
+    private final int usuario;
+    private final long finNanos;
+    private final Random random;
+
+    private final List<Long> misTopicos = new ArrayList<>();
+    private final List<Long> misRespuestas = new ArrayList<>();
+    private String token;
+
+    ClienteCarga(HttpClient http, ObjectMapper objectMapper, String base, RegistroLatencias registro,
+                 DatosCarga.Semilla semilla, int usuario, long finNanos, long seed) {
+        this.http = http;
+        this.objectMapper = objectMapper;
+        this.base = base;
+        this.registro = registro;
+        this.semilla = semilla;
+        this.usuario = usuario;
+        this.finNanos = finNanos;
+        this.random = new Random(seed);
+
+        misTopicos.addAll(semilla.topicosDe(usuario));
+    }
+
+    @Override
+    public void run() {
+        try {
+            login();
+            while (System.nanoTime() < finNanos && !Thread.currentThread().isInterrupted()) {
+                int op = random.nextInt(100);
+                if (op < 35) listarTopicos();
+                else if (op < 60) verHilo();
+                else if (op < 70) detalleTopico();
+                else if (op < 85) crearRespuesta();
+                else if (op < 90) editarRespuesta();
+                else if (op < 95) editarTopico();
+                else login();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // -----------------------
+    // OPERACIONES
+    // -----------------------
+
+    private void login() throws InterruptedException {
+        String body = "{\"username\":\"" + semilla.username(usuario) + "\",\"password\":\"" + DatosCarga.PASSWORD + "\"}";
+        JsonNode r = enviar("POST /api/auth/login", post("/api/auth/login", body, false));
+        if (r != null) {
+            token = r.get("token").asText();
+        }
+    }
+
+    private void listarTopicos() throws InterruptedException {
+        int pagina = random.nextInt(5);
+        enviar("GET /api/topicos", get("/api/topicos?size=20&page=" + pagina));
+    }
+
+    private void verHilo() throws InterruptedException {
+        enviar("GET /api/respuestas/arbol", get("/api/respuestas/arbol?size=20&topicoId=" + topicoAlAzar()));
+    }
+
+    private void detalleTopico() throws InterruptedException {
+        enviar("GET /api/topicos/{id}", get("/api/topicos/" + topicoAlAzar()));
+    }
+
+    private void crearRespuesta() throws InterruptedException {
+        String body = "{\"mensaje\":\"Respuesta bajo carga " + random.nextInt() + "\",\"autorId\":"
+                + semilla.usuarioIds().get(usuario) + ",\"topicoId\":" + topicoAlAzar() + "}";
+        JsonNode r = enviar("POST /api/respuestas", post("/api/respuestas", body, true));
+        if (r != null && r.has("id")) {
+            misRespuestas.add(r.get("id").asLong());
+        }
+    }
+
+    private void editarRespuesta() throws InterruptedException {
+        if (misRespuestas.isEmpty()) {
+            crearRespuesta();
+            return;
+        }
+        Long id = misRespuestas.get(random.nextInt(misRespuestas.size()));
+        enviar("PUT /api/respuestas/{id}", put("/api/respuestas/" + id,
+                "{\"mensaje\":\"Editada " + random.nextInt() + "\"}"));
+    }
+
+    private void editarTopico() throws InterruptedException {
+        if (misTopicos.isEmpty()) {
+            detalleTopico();
+            return;
+        }
+        Long id = misTopicos.get(random.nextInt(misTopicos.size()));
+        enviar("PUT /api/topicos/{id}", put("/api/topicos/" + id,
+                "{\"titulo\":\"Tópico " + id + " editado\",\"mensaje\":\"Mensaje editado " + random.nextInt()
+                        + "\",\"status\":\"ABIERTO\",\"curso\":\"Curso " + (id % 12) + "\"}"));
+    }
+
+    private Long topicoAlAzar() {
+        List<Long> ids = semilla.topicoIds();
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    // -----------------------
+    // HTTP
+    // -----------------------
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(base + path)).timeout(TIMEOUT);
+        if (token != null) {
+            b.header("Authorization", "Bearer " + token);
+        }
+        return b;
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest post(String path, String body, boolean autenticado) {
+        HttpRequest.Builder b = autenticado ? request(path)
+                : HttpRequest.newBuilder(URI.create(base + path)).timeout(TIMEOUT);
+        return b.header("Content-Type", JSON).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private HttpRequest put(String path, String body) {
+        return request(path).header("Content-Type", JSON).PUT(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    /**
+     * Envía, mide y registra. Devuelve el cuerpo parseado si fue 2xx con JSON.
+     */
+    private JsonNode enviar(String endpoint, HttpRequest request) throws InterruptedException {
+        long t0 = System.nanoTime();
+        try {
+            HttpResponse<byte[]> resp = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long nanos = System.nanoTime() - t0;
+            boolean ok = resp.statusCode() / 100 == 2;
+            registro.registrar(endpoint, nanos, ok);
+            if (ok && resp.body().length > 0) {
+                return objectMapper.readTree(resp.body());
+            }
+        } catch (IOException e) {
+            registro.registrar(endpoint, System.nanoTime() - t0, false);
+        }
+        return null;
+    }
+}
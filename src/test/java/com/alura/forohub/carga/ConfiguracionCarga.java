@@ -0,0 +1,31 @@
+package com.alura.forohub.carga;
+
+/**
+ * Parámetros del test de carga, leídos de system properties (-Dcarga.*).
+ */
+record ConfiguracionCarga(
+        int clientes,
+        int duracionSegundos,
+        int calentamientoSegundos,
+        int usuarios,
+        int topicos,
+        int respuestas,
+        long semilla
+) {
+
+    static ConfiguracionCarga desdeSystemProperties() {
+        return new ConfiguracionCarga(
+                entero("carga.clientes", 16),
+                entero("carga.duracion-s", 20),
+                entero("carga.calentamiento-s", 5),
+                entero("carga.usuarios", 50),
+                entero("carga.topicos", 500),
+                entero("carga.respuestas", 2000),
+                Long.getLong("carga.semilla", 42L)
+        );
+    }
+
+    private static int entero(String propiedad, int porDefecto) {
+        return Integer.getInteger(propiedad, porDefecto);
+    }
+}
@@ -0,0 +1,62 @@
+package com.alura.forohub.carga;
+
+import com.alura.forohub.util.GeneradorDatos;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Siembra el dataset del test de carga con {@link GeneradorDatos} (JDBC por
+ * lotes, autores y cursos Zipf, hilos de cola larga) y devuelve los ids que
+ * usan los clientes.
+ *
+ * Usuario i = "carga{i}"; cada cliente edita solo tópicos propios.
+ */
+final class DatosCarga {
+
+    static final String PASSWORD = GeneradorDatos.PASSWORD;
+
+    record Semilla(List<Long> usuarioIds, List<Long> topicoIds, Map<Long, List<Long>> topicosPorAutor) {
+
+        String username(int usuario) {
+            return "carga" + usuario;
+        }
+
+        List<Long> topicosDe(int usuario) {
+            return topicosPorAutor.getOrDefault(usuarioIds.get(usuario), List.of());
+        }
+    }
+
+    private DatosCarga() { }
+
+    static Semilla sembrar(JdbcTemplate jdbc, ConfiguracionCarga conf) {
+        GeneradorDatos.Configuracion generacion = new GeneradorDatos.Configuracion(
+                conf.usuarios(), conf.topicos(), conf.respuestas(), 12, conf.semilla(), "carga", 1000);
+        GeneradorDatos.Resultado r = jdbc.execute((Connection con) -> {
+            try {
+                return GeneradorDatos.generar(con, generacion);
+            } catch (SQLException e) {
+                throw new IllegalStateException("No se pudo generar el dataset de carga", e);
+            }
+        });
+
+        List<Long> usuarioIds = jdbc.queryForList(
+                "SELECT id FROM usuarios WHERE id >= ? AND id < ? ORDER BY id", Long.class,
+                r.primerUsuarioId(), r.finUsuarioId());
+        List<Long> topicoIds = jdbc.queryForList(
+                "SELECT id FROM topicos WHERE id >= ? AND id < ? ORDER BY id", Long.class,
+                r.primerTopicoId(), r.finTopicoId());
+        Map<Long, List<Long>> topicosPorAutor = new HashMap<>();
+        jdbc.query("SELECT autor_id, id FROM topicos WHERE id >= ? AND id < ?",
+                rs -> {
+                    topicosPorAutor.computeIfAbsent(rs.getLong(1), k -> new ArrayList<>()).add(rs.getLong(2));
+                },
+                r.primerTopicoId(), r.finTopicoId());
+        return new Semilla(usuarioIds, topicoIds, topicosPorAutor);
+    }
+}
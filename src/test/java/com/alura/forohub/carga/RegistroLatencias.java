@@ -0,0 +1,118 @@
+package com.alura.forohub.carga;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Histogramas HdrHistogram (microsegundos, 3 dígitos significativos) y errores
+ * por endpoint. El endpoint es el template ("GET /api/topicos/{id}"), no la URI.
+ */
+final class RegistroLatencias {
+
+    private static final long MAX_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+    private final Map<String, Histogram> histogramas = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> errores = new ConcurrentHashMap<>();
+    private volatile boolean activo;
+    private volatile long inicioNanos;
+    private volatile long finNanos;
+
+    /** Empieza a medir (descarta lo registrado durante el calentamiento). */
+    void iniciar() {
+        histogramas.clear();
+        errores.clear();
+        inicioNanos = System.nanoTime();
+        activo = true;
+    }
+
+    void detener() {
+        activo = false;
+        finNanos = System.nanoTime();
+    }
+
+    void registrar(String endpoint, long nanos, boolean ok) {
+        if (!activo) return;
+        if (ok) {
+            histogramas.computeIfAbsent(endpoint, k -> new ConcurrentHistogram(MAX_MICROS, 3))
+                    .recordValue(Math.min(MAX_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        } else {
+            errores.computeIfAbsent(endpoint, k -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    double segundosMedidos() {
+        return (finNanos - inicioNanos) / 1e9;
+    }
+
+    /**
+     * Resumen por endpoint + total, listo para serializar a JSON.
+     * Incluye el histograma comprimido (base64) para re-analizar o comparar corridas.
+     */
+    Map<String, Object> resumen() {
+        double segundos = segundosMedidos();
+        Map<String, Object> endpoints = new TreeMap<>();
+        Histogram total = new Histogram(MAX_MICROS, 3);
+        long totalErrores = 0;
+
+        Set<String> claves = new TreeSet<>();
+        claves.addAll(histogramas.keySet());
+        claves.addAll(errores.keySet());
+        for (String endpoint : claves) {
+            Histogram h = histogramas.getOrDefault(endpoint, new Histogram(MAX_MICROS, 3));
+            long err = errores.getOrDefault(endpoint, new AtomicLong()).get();
+            total.add(h);
+            totalErrores += err;
+            endpoints.put(endpoint, resumen(h, err, segundos, true));
+        }
+
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("total", resumen(total, totalErrores, segundos, false));
+        res.put("endpoints", endpoints);
+        return res;
+    }
+
+    private static Map<String, Object> resumen(Histogram h, long errores, double segundos, boolean conHistograma) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("ok", h.getTotalCount());
+        m.put("errores", errores);
+        m.put("throughputPorSegundo", redondear((h.getTotalCount() + errores) / segundos));
+        m.put("mediaMs", redondear(h.getMean() / 1000.0));
+        m.put("p50Ms", ms(h, 50));
+        m.put("p90Ms", ms(h, 90));
+        m.put("p99Ms", ms(h, 99));
+        m.put("p999Ms", ms(h, 99.9));
+        m.put("maxMs", redondear(h.getMaxValue() / 1000.0));
+        if (conHistograma) {
+            m.put("histogramaHdr", codificar(h));
+        }
+        return m;
+    }
+
+    private static double ms(Histogram h, double percentil) {
+        return redondear(h.getValueAtPercentile(percentil) / 1000.0);
+    }
+
+    private static double redondear(double v) {
+        return Math.round(v * 1000.0) / 1000.0;
+    }
+
+    private static String codificar(Histogram h) {
+        ByteBuffer buffer = ByteBuffer.allocate(h.getNeededByteBufferCapacity());
+        int n = h.encodeIntoCompressedByteBuffer(buffer);
+        byte[] bytes = new byte[n];
+        buffer.rewind();
+        buffer.get(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,126 @@
+package com.alura.forohub.config;
+
+import com.alura.forohub.model.Topico;
+import com.alura.forohub.model.Usuario;
+import com.alura.forohub.repository.TopicoRepository;
+import com.alura.forohub.repository.UsuarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * La app completa con puerto real: el calentamiento hace pedidos autenticados
+ * antes de que Spring Boot pase a ACCEPTING_TRAFFIC.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:calentamiento;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "forohub.calentamiento.habilitado=true",
+        "forohub.calentamiento.min-iteraciones=4",
+        "forohub.calentamiento.iteraciones=6",
+        "forohub.calentamiento.ventana=2",
+        // como en producción: management aparte (en loopback), probes también en el puerto principal
+        "management.server.port=0"
+})
+@ActiveProfiles("test")
+class CalentamientoTests {
+
+    /** Estados de readiness publicados y si el calentamiento ya había terminado en cada uno. */
+    static final List<String> EVENTOS = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class Datos {
+
+        /** Corre antes que CalentamientoJit (que va último): deja un autor y un tópico para leer. */
+        @Bean
+        @Order(0)
+        ApplicationRunner sembrar(UsuarioRepository usuarios, TopicoRepository topicos) {
+            return args -> {
+                Usuario u = new Usuario();
+                u.setUsername("tibio");
+                u.setNombre("Tibio");
+                u.setEmail("tibio@example.com");
+                u.setPassword("hash");
+                usuarios.save(u);
+                Topico t = new Topico();
+                t.setTitulo("Para calentar");
+                t.setMensaje("Leído en cada vuelta");
+                t.setCurso("Java");
+                t.setAutor(u);
+                topicos.save(t);
+            };
+        }
+
+        @Bean
+        ApplicationListener<AvailabilityChangeEvent<ReadinessState>> readiness(CalentamientoJit calentamiento) {
+            return e -> EVENTOS.add(e.getState() + (calentamiento.isTerminado() ? " terminado" : " calentando"));
+        }
+    }
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @LocalServerPort
+    private int puerto;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void readinessRecienDespuesDelCalentamiento() {
+        assertThat(EVENTOS).containsExactly("REFUSING_TRAFFIC calentando", "ACCEPTING_TRAFFIC terminado");
+        assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    @Test
+    void probesEnElPuertoPrincipalYPrometheusNo() throws Exception {
+        assertThat(get("/readyz")).isEqualTo(200);
+        assertThat(get("/livez")).isEqualTo(200);
+        assertThat(get("/actuator/prometheus")).isEqualTo(404);
+    }
+
+    @Test
+    void pedidosRealesConTokenYMetricas() {
+        Timer duracion = meterRegistry.find("forohub.calentamiento.duracion").timer();
+        assertThat(duracion).isNotNull();
+        assertThat(duracion.count()).isEqualTo(1);
+        assertThat(duracion.getId().getTag("resultado")).isIn("estable", "iteraciones");
+
+        double vueltas = meterRegistry.get("forohub.calentamiento.iteraciones").gauge().value();
+        assertThat(vueltas).isBetween(4.0, 6.0);
+        assertThat(meterRegistry.get("forohub.calentamiento.progreso").gauge().value()).isEqualTo(1.0);
+
+        // cada vuelta pasó por JwtFilter y llegó al controlador con 200
+        Timer detalle = meterRegistry.find("http.server.requests")
+                .tags("uri", "/api/topicos/{id}", "status", "200").timer();
+        assertThat(detalle).isNotNull();
+        assertThat((double) detalle.count()).isEqualTo(vueltas);
+        assertThat(meterRegistry.find("forohub.jwt").tags("etapa", "validacion", "resultado", "ok").timer().count())
+                .isGreaterThanOrEqualTo((long) vueltas);
+    }
+
+    private int get(String ruta) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + puerto + ruta)).GET().build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
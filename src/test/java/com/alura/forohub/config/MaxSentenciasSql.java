@@ -0,0 +1,20 @@
+package com.alura.forohub.config;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Máximo de sentencias SQL (vía Hibernate) que puede ejecutar el cuerpo del test.
+ * No cuenta lo que se haga en @BeforeEach / @BeforeAll.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(PresupuestoSqlExtension.class)
+public @interface MaxSentenciasSql {
+
+    int value();
+}
@@ -0,0 +1,52 @@
+package com.alura.forohub.config;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Extensión JUnit que abre un ámbito de {@link PresupuestoSqlInspector} alrededor
+ * del cuerpo de cada test anotado con {@link MaxSentenciasSql} y falla si se
+ * supera el máximo, mostrando cuántas veces se ejecutó cada forma de SQL.
+ *
+ * Con MockMvc el request corre en el mismo hilo del test, así que el conteo
+ * incluye todo lo que hace el endpoint (filtros, service, repositorios).
+ */
+public class PresupuestoSqlExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NS =
+            ExtensionContext.Namespace.create(PresupuestoSqlExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NS).put("ambito", PresupuestoSqlInspector.abrir(context.getDisplayName()));
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        PresupuestoSqlInspector.Ambito ambito =
+                context.getStore(NS).remove("ambito", PresupuestoSqlInspector.Ambito.class);
+        ambito.close();
+
+        MaxSentenciasSql max = context.getRequiredTestMethod().getAnnotation(MaxSentenciasSql.class);
+        if (max == null || context.getExecutionException().isPresent()) {
+            return;
+        }
+        assertThat(ambito.total())
+                .withFailMessage(() -> "Se ejecutaron %d sentencias SQL (máx %d):%n%s"
+                        .formatted(ambito.total(), max.value(), detalle(ambito.porForma())))
+                .isLessThanOrEqualTo(max.value());
+    }
+
+    private static String detalle(Map<String, Integer> porForma) {
+        return porForma.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .map(e -> "  x" + e.getValue() + "  " + e.getKey())
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+}
@@ -0,0 +1,177 @@
+package com.alura.forohub.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ruteo de lecturas con dos H2 en memoria (primario y réplica, sin replicación real:
+ * el test copia la marca de latido a mano para simular réplica al día o atrasada).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ruteo_primario;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "forohub.replicas.habilitado=true",
+        "forohub.replicas.urls=jdbc:h2:mem:ruteo_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        // el test llama a verificar() a mano
+        "forohub.replicas.intervalo-ms=3600000",
+        "forohub.replicas.max-lag-ms=2000",
+        "forohub.replicas.ventana-escritura-ms=60000"
+})
+@ActiveProfiles("test")
+class RuteoReplicasTests {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MonitorReplicas monitor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EscrituraRecienteFilter escrituraRecienteFilter;
+
+    private JdbcTemplate primario;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void latido() {
+        primario = new JdbcTemplate(monitor.primario());
+        replica = new JdbcTemplate(monitor.replicas().get(0).dataSource());
+        for (JdbcTemplate jdbc : List.of(primario, replica)) {
+            jdbc.execute("CREATE TABLE IF NOT EXISTS replicacion_latido (id TINYINT PRIMARY KEY, marca_ms BIGINT NOT NULL)");
+            jdbc.update("MERGE INTO replicacion_latido (id, marca_ms) KEY (id) VALUES (1, 0)");
+        }
+    }
+
+    @AfterEach
+    void sinUsuario() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void escriturasVanAlPrimario() {
+        replicaAlDia();
+        assertThat(baseUsada(false)).isEqualTo("ruteo_primario");
+    }
+
+    @Test
+    void lecturasVanALaReplicaAlDia() {
+        replicaAlDia();
+        assertThat(baseUsada(true)).isEqualTo("ruteo_replica");
+        assertThat(monitor.replicas().get(0).lagMillis()).isZero();
+    }
+
+    @Test
+    void replicaAtrasadaCaeAlPrimario() {
+        replicaAlDia();
+        replica.update("UPDATE replicacion_latido SET marca_ms = marca_ms - 60000");
+        monitor.verificar();
+
+        assertThat(monitor.replicas().get(0).disponible()).isFalse();
+        assertThat(baseUsada(true)).isEqualTo("ruteo_primario");
+    }
+
+    @Test
+    void replicaCaidaCaeAlPrimario() {
+        replicaAlDia();
+        replica.execute("DROP TABLE replicacion_latido");
+        monitor.verificar();
+
+        assertThat(baseUsada(true)).isEqualTo("ruteo_primario");
+    }
+
+    @Test
+    void quienEscribeLeeDelPrimarioDuranteLaVentana() {
+        replicaAlDia();
+
+        como("ana");
+        assertThat(baseUsada(false)).isEqualTo("ruteo_primario");
+        assertThat(baseUsada(true)).isEqualTo("ruteo_primario");
+
+        como("beto");
+        assertThat(baseUsada(true)).isEqualTo("ruteo_replica");
+    }
+
+    /**
+     * El mapa de escrituras es de cada nodo: otro nodo (otra instancia de RuteoDataSource)
+     * no ve la escritura, salvo que el cliente traiga la cookie que dejó el primero.
+     */
+    @Test
+    void otroNodoRespetaLaEscrituraQueTraeElCliente() throws Exception {
+        replicaAlDia();
+        como("ana");
+        DataSource otroNodo = new LazyConnectionDataSourceProxy(
+                new RuteoDataSource(monitor, 60000, new SimpleMeterRegistry()));
+        PlatformTransactionManager txOtroNodo = new DataSourceTransactionManager(otroNodo);
+
+        MockHttpServletResponse escritura = new MockHttpServletResponse();
+        escrituraRecienteFilter.doFilter(new MockHttpServletRequest(), escritura,
+                (req, res) -> assertThat(baseUsada(false)).isEqualTo("ruteo_primario"));
+        Cookie cookie = escritura.getCookie(EscrituraRecienteFilter.COOKIE);
+        assertThat(cookie).isNotNull();
+
+        // sin la cookie el otro nodo manda la lectura a la réplica (no sabe que ana escribió)
+        assertThat(leerEn(txOtroNodo, otroNodo, null)).isEqualTo("ruteo_replica");
+        assertThat(leerEn(txOtroNodo, otroNodo, cookie)).isEqualTo("ruteo_primario");
+
+        // pasada la ventana la cookie ya no cuenta; una lectura no la renueva
+        Cookie vieja = new Cookie(EscrituraRecienteFilter.COOKIE, Long.toString(System.currentTimeMillis() - 61000));
+        assertThat(leerEn(txOtroNodo, otroNodo, vieja)).isEqualTo("ruteo_replica");
+    }
+
+    private String leerEn(PlatformTransactionManager tm, DataSource ds, Cookie cookie) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (cookie != null) request.setCookies(cookie);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String[] base = new String[1];
+        escrituraRecienteFilter.doFilter(request, response, (req, res) -> base[0] = baseUsada(tm, ds, true));
+        assertThat(response.getCookie(EscrituraRecienteFilter.COOKIE)).isNull();
+        return base[0];
+    }
+
+    /** Simula replicación: la réplica recibe la última marca del primario. */
+    private void replicaAlDia() {
+        monitor.verificar();
+        Long marca = primario.queryForObject("SELECT marca_ms FROM replicacion_latido WHERE id = 1", Long.class);
+        replica.update("UPDATE replicacion_latido SET marca_ms = ? WHERE id = 1", marca);
+        monitor.verificar();
+        assertThat(monitor.replicas().get(0).disponible()).isTrue();
+    }
+
+    private String baseUsada(boolean soloLectura) {
+        return baseUsada(transactionManager, dataSource, soloLectura);
+    }
+
+    private static String baseUsada(PlatformTransactionManager tm, DataSource ds, boolean soloLectura) {
+        TransactionTemplate tx = new TransactionTemplate(tm);
+        tx.setReadOnly(soloLectura);
+        return tx.execute(s -> new JdbcTemplate(ds).queryForObject("SELECT DATABASE()", String.class))
+                .toLowerCase();
+    }
+
+    private static void como(String usuario) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(usuario, null, List.of()));
+    }
+}
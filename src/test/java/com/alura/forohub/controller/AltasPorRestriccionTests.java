@@ -0,0 +1,103 @@
+package com.alura.forohub.controller;
+
+import com.alura.forohub.config.PresupuestoSqlInspector;
+import com.alura.forohub.model.Usuario;
+import com.alura.forohub.repository.TopicoRepository;
+import com.alura.forohub.repository.UsuarioRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Registro y creación de tópicos sin consulta previa de duplicados:
+ * un solo INSERT y la violación de la clave única se traduce al mismo 400.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AltasPorRestriccionTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TopicoRepository topicoRepository;
+
+    private Long autorId;
+
+    @BeforeAll
+    void datos() {
+        Usuario u = new Usuario();
+        u.setUsername("existente");
+        u.setNombre("Existente");
+        u.setEmail("existente@example.com");
+        u.setPassword("hash");
+        autorId = usuarioRepository.save(u).getId();
+    }
+
+    @AfterAll
+    void limpiar() {
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+    }
+
+    @Test
+    void registroEsUnSoloInsert() throws Exception {
+        try (PresupuestoSqlInspector.Ambito ambito = PresupuestoSqlInspector.abrir("test")) {
+            mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                            .content(registro("nuevo", "nuevo@example.com")))
+                    .andExpect(status().isCreated());
+            assertThat(ambito.total()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void registroDuplicadoPorClave() throws Exception {
+        mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content(registro("existente", "otro@example.com")))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("El username ya existe"));
+
+        mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content(registro("otro", "existente@example.com")))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("El email ya está registrado"));
+    }
+
+    @Test
+    @WithMockUser(username = "existente")
+    void topicoDuplicadoPorClave() throws Exception {
+        String body = """
+                {"titulo":"Repetido","mensaje":"Mismo mensaje","autorId":%d,"curso":"Java"}
+                """.formatted(autorId);
+        mockMvc.perform(post("/api/topicos").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/topicos").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Ya existe un tópico con el mismo título y mensaje."));
+    }
+
+    private static String registro(String username, String email) {
+        return """
+                {"username":"%s","password":"clave","nombre":"Nombre","email":"%s"}
+                """.formatted(username, email);
+    }
+}
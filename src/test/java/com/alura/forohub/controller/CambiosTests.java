@@ -0,0 +1,240 @@
+package com.alura.forohub.controller;
+
+import com.alura.forohub.model.Cambio;
+import com.alura.forohub.model.Usuario;
+import com.alura.forohub.repository.RespuestaRepository;
+import com.alura.forohub.repository.TopicoRepository;
+import com.alura.forohub.repository.UsuarioRepository;
+import com.alura.forohub.service.CambioService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /api/cambios: los cambios llegan en orden, en lotes acotados, y el
+ * cursor no pasa por encima de un id que todavía puede confirmarse.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cambios;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "forohub.cambios.espera-huecos-ms=" + CambiosTests.ESPERA_HUECOS_MS
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CambiosTests {
+
+    static final long ESPERA_HUECOS_MS = 1000;
+
+    private static final RequestPostProcessor ADMIN = user("sincro").roles("ADMIN");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TopicoRepository topicoRepository;
+
+    @Autowired
+    private RespuestaRepository respuestaRepository;
+
+    @Autowired
+    private CambioService cambioService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long autorId;
+
+    @BeforeAll
+    void datos() {
+        Usuario u = new Usuario();
+        u.setUsername("sincro");
+        u.setNombre("Cliente de escritorio");
+        u.setEmail("sincro@example.com");
+        u.setPassword("hash");
+        autorId = usuarioRepository.save(u).getId();
+    }
+
+    @AfterAll
+    void limpiar() {
+        respuestaRepository.deleteAll();
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+    }
+
+    @Test
+    void altasEdicionesYBajasEnOrden() throws Exception {
+        long cursor = ultimoId();
+
+        long topicoId = idCreado(mockMvc.perform(post("/api/topicos").with(ADMIN)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"titulo":"Sincronizar","mensaje":"Original","autorId":%d,"curso":"Java"}
+                        """.formatted(autorId))).andExpect(status().isCreated()).andReturn()
+                .getResponse().getContentAsString());
+        long respuestaId = idCreado(mockMvc.perform(post("/api/respuestas").with(ADMIN)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"mensaje":"Primera","autorId":%d,"topicoId":%d}
+                        """.formatted(autorId, topicoId))).andExpect(status().isCreated()).andReturn()
+                .getResponse().getContentAsString());
+        mockMvc.perform(put("/api/topicos/{id}", topicoId).with(ADMIN)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"titulo":"Sincronizar","mensaje":"Editado","status":"ABIERTO","curso":"Java"}
+                        """)).andExpect(status().isOk());
+        mockMvc.perform(delete("/api/respuestas/{id}", respuestaId).with(ADMIN))
+                .andExpect(status().is2xxSuccessful());
+
+        JsonNode lote = cambios(cursor, 100);
+        JsonNode cambios = lote.get("cambios");
+        assertThat(cambios).hasSize(4);
+        assertThat(cambios.get(0).get("entidad").asText()).isEqualTo("TOPICO");
+        assertThat(cambios.get(0).get("operacion").asText()).isEqualTo("CREADO");
+        assertThat(cambios.get(1).get("entidad").asText()).isEqualTo("RESPUESTA");
+        assertThat(cambios.get(1).get("topicoId").asLong()).isEqualTo(topicoId);
+        assertThat(cambios.get(2).get("operacion").asText()).isEqualTo("ACTUALIZADO");
+        // el estado que acompaña al cambio es el actual
+        assertThat(cambios.get(0).get("topico").get("mensaje").asText()).isEqualTo("Editado");
+        assertThat(cambios.get(3).get("operacion").asText()).isEqualTo("ELIMINADO");
+        assertThat(cambios.get(3).has("respuesta")).isFalse();
+        assertThat(lote.get("hayMas").asBoolean()).isFalse();
+
+        // sin cambios nuevos el cursor se mantiene
+        long siguiente = lote.get("cursor").asLong();
+        JsonNode vacio = cambios(siguiente, 100);
+        assertThat(vacio.get("cambios")).isEmpty();
+        assertThat(vacio.get("cursor").asLong()).isEqualTo(siguiente);
+    }
+
+    @Test
+    void lotesAcotados() throws Exception {
+        long cursor = ultimoId();
+        for (int i = 0; i < 3; i++) insertar(cursor + 1 + i, LocalDateTime.now());
+        try {
+            JsonNode primero = cambios(cursor, 2);
+            assertThat(primero.get("cambios")).hasSize(2);
+            assertThat(primero.get("hayMas").asBoolean()).isTrue();
+
+            JsonNode segundo = cambios(primero.get("cursor").asLong(), 2);
+            assertThat(segundo.get("cambios")).hasSize(1);
+            assertThat(segundo.get("hayMas").asBoolean()).isFalse();
+        } finally {
+            realinear();
+        }
+    }
+
+    @Test
+    void huecoRecienteDetieneElCursor() throws Exception {
+        long cursor = ultimoId();
+        try {
+            // cursor+1 todavía "en vuelo": cursor+2 ya confirmado no se entrega
+            insertar(cursor + 2, LocalDateTime.now());
+            JsonNode lote = cambios(cursor, 100);
+            assertThat(lote.get("cambios")).isEmpty();
+            assertThat(lote.get("cursor").asLong()).isEqualTo(cursor);
+
+            insertar(cursor + 1, LocalDateTime.now());
+            assertThat(cambios(cursor, 100).get("cambios")).hasSize(2);
+
+            // hueco viejo (rollback): se saltea
+            insertar(cursor + 4, LocalDateTime.now().minusMinutes(1));
+            JsonNode despues = cambios(cursor + 2, 100);
+            assertThat(despues.get("cambios")).hasSize(1);
+            assertThat(despues.get("cursor").asLong()).isEqualTo(cursor + 4);
+        } finally {
+            realinear();
+        }
+    }
+
+    @Test
+    void transaccionLargaNoHaceViejoAlHueco() throws Exception {
+        long cursor = ultimoId();
+        try {
+            // cursor+1 queda para una transacción "en vuelo"; la larga inserta cursor+2
+            jdbcTemplate.execute("ALTER TABLE cambios ALTER COLUMN id RESTART WITH " + (cursor + 2));
+            transactionTemplate.executeWithoutResult(tx -> {
+                cambioService.registrar(Cambio.TOPICO, 0L, 0L, Cambio.ACTUALIZADO);
+                dormir(ESPERA_HUECOS_MS + 500);
+            });
+
+            // anotado hace más de espera-huecos-ms, pero insertado recién: el hueco es reciente
+            JsonNode lote = cambios(cursor, 100);
+            assertThat(lote.get("cambios")).isEmpty();
+            assertThat(lote.get("cursor").asLong()).isEqualTo(cursor);
+
+            insertar(cursor + 1, LocalDateTime.now());
+            assertThat(cambios(cursor, 100).get("cambios")).hasSize(2);
+        } finally {
+            realinear();
+        }
+    }
+
+    private static void dormir(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+    }
+
+    private JsonNode cambios(long desde, int size) throws Exception {
+        String json = mockMvc.perform(get("/api/cambios").with(ADMIN)
+                        .param("desde", String.valueOf(desde))
+                        .param("size", String.valueOf(size)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(json);
+    }
+
+    private long idCreado(String json) throws Exception {
+        return objectMapper.readTree(json).get("id").asLong();
+    }
+
+    private long ultimoId() {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM cambios", Long.class);
+        return max != null ? max : 0;
+    }
+
+    private void insertar(long id, LocalDateTime fecha) {
+        jdbcTemplate.update("INSERT INTO cambios (id, entidad, entidad_id, topico_id, operacion, fecha) "
+                + "VALUES (?, 'TOPICO', 0, 0, 'ACTUALIZADO', ?)", id, Timestamp.valueOf(fecha));
+    }
+
+    /** Los ids explícitos no mueven la identidad de H2: los próximos INSERT siguen después. */
+    private void realinear() {
+        jdbcTemplate.execute("ALTER TABLE cambios ALTER COLUMN id RESTART WITH " + (ultimoId() + 1));
+    }
+}
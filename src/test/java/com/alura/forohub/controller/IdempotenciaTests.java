@@ -0,0 +1,144 @@
+package com.alura.forohub.controller;
+
+import com.alura.forohub.config.PresupuestoSqlInspector;
+import com.alura.forohub.model.Topico;
+import com.alura.forohub.model.Usuario;
+import com.alura.forohub.repository.RespuestaRepository;
+import com.alura.forohub.repository.TopicoRepository;
+import com.alura.forohub.repository.UsuarioRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Idempotency-Key en POST /api/respuestas: repeticiones secuenciales y
+ * concurrentes crean una sola respuesta y reciben el mismo cuerpo.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class IdempotenciaTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TopicoRepository topicoRepository;
+
+    @Autowired
+    private RespuestaRepository respuestaRepository;
+
+    private Long autorId;
+    private Long topicoId;
+
+    @BeforeAll
+    void datos() {
+        Usuario u = new Usuario();
+        u.setUsername("movil");
+        u.setNombre("Cliente Móvil");
+        u.setEmail("movil@example.com");
+        u.setPassword("hash");
+        autorId = usuarioRepository.save(u).getId();
+
+        Topico t = new Topico();
+        t.setTitulo("Red inestable");
+        t.setMensaje("Reintentos desde el celular");
+        t.setCurso("Java");
+        t.setAutor(u);
+        topicoId = topicoRepository.save(t).getId();
+    }
+
+    @AfterAll
+    void limpiar() {
+        respuestaRepository.deleteAll();
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+    }
+
+    @Test
+    void repeticionDevuelveLaRespuestaGuardadaSinSql() throws Exception {
+        MvcResult primera = mockMvc.perform(crear("clave-1", "Hola"))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        try (PresupuestoSqlInspector.Ambito ambito = PresupuestoSqlInspector.abrir("test")) {
+            MvcResult repetida = mockMvc.perform(crear("clave-1", "Hola"))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string("Idempotent-Replayed", "true"))
+                    .andExpect(header().string("Location", primera.getResponse().getHeader("Location")))
+                    .andReturn();
+            assertThat(repetida.getResponse().getContentAsByteArray())
+                    .isEqualTo(primera.getResponse().getContentAsByteArray());
+            assertThat(ambito.total()).isZero();
+        }
+        assertThat(respuestas("Hola")).isEqualTo(1);
+    }
+
+    @Test
+    void mismaClaveConOtroCuerpo() throws Exception {
+        mockMvc.perform(crear("clave-2", "Uno")).andExpect(status().isCreated());
+        mockMvc.perform(crear("clave-2", "Dos")).andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void concurrentesEjecutanUnaSolaVez() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<MvcResult>> tareas = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                tareas.add(() -> mockMvc.perform(crear("clave-3", "Simultanea")).andReturn());
+            }
+            List<String> cuerpos = new ArrayList<>();
+            for (Future<MvcResult> f : pool.invokeAll(tareas)) {
+                MvcResult r = f.get();
+                assertThat(r.getResponse().getStatus()).isEqualTo(201);
+                cuerpos.add(r.getResponse().getContentAsString());
+            }
+            assertThat(cuerpos).containsOnly(cuerpos.get(0));
+        } finally {
+            pool.shutdown();
+        }
+        assertThat(respuestas("Simultanea")).isEqualTo(1);
+    }
+
+    private MockHttpServletRequestBuilder crear(String clave, String mensaje) {
+        String body = """
+                {"mensaje":"%s","autorId":%d,"topicoId":%d}
+                """.formatted(mensaje, autorId, topicoId);
+        return post("/api/respuestas")
+                .with(user("movil"))
+                .header("Idempotency-Key", clave)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+
+    private long respuestas(String mensaje) {
+        return respuestaRepository.findAll().stream().filter(r -> mensaje.equals(r.getMensaje())).count();
+    }
+}
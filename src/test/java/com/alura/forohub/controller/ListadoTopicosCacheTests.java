@@ -0,0 +1,152 @@
+package com.alura.forohub.controller;
+
+import com.alura.forohub.config.PresupuestoSqlInspector;
+import com.alura.forohub.model.Topico;
+import com.alura.forohub.model.Usuario;
+import com.alura.forohub.repository.TopicoRepository;
+import com.alura.forohub.repository.UsuarioRepository;
+import com.alura.forohub.service.ListadoTopicosCache;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cache de listados serializados: un hit devuelve los mismos bytes sin SQL,
+ * y crear un tópico invalida las páginas cacheadas.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "lector")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListadoTopicosCacheTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TopicoRepository topicoRepository;
+
+    @Autowired
+    private ListadoTopicosCache listadoCache;
+
+    private Long autorId;
+
+    @BeforeAll
+    void datos() {
+        Usuario u = new Usuario();
+        u.setUsername("listador");
+        u.setNombre("Listador");
+        u.setEmail("listador@example.com");
+        u.setPassword("hash");
+        autorId = usuarioRepository.save(u).getId();
+
+        List<Topico> topicos = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Topico t = new Topico();
+            t.setTitulo("Listado " + i);
+            t.setMensaje("Mensaje del listado número " + i);
+            t.setCurso(i % 3 == 0 ? "Spring" : "Java");
+            t.setAutor(u);
+            topicos.add(t);
+        }
+        topicoRepository.saveAll(topicos);
+    }
+
+    @AfterAll
+    void limpiar() {
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        listadoCache.invalidar();
+    }
+
+    @BeforeEach
+    void cacheVacio() {
+        listadoCache.invalidar();
+    }
+
+    @Test
+    void hitSinSqlConLosMismosBytes() throws Exception {
+        MvcResult miss = mockMvc.perform(get("/api/topicos").param("curso", "Java"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Cache", "MISS"))
+                .andExpect(jsonPath("$.content.length()").value(20))
+                .andReturn();
+
+        MvcResult hit;
+        try (PresupuestoSqlInspector.Ambito ambito = PresupuestoSqlInspector.abrir("test")) {
+            hit = mockMvc.perform(get("/api/topicos").param("curso", "Java"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("X-Cache", "HIT"))
+                    .andReturn();
+            assertThat(ambito.total()).isZero();
+        }
+        assertThat(hit.getResponse().getContentAsByteArray())
+                .isEqualTo(miss.getResponse().getContentAsByteArray());
+
+        // otra clave (sin filtro) y parámetros no cacheables
+        mockMvc.perform(get("/api/topicos"))
+                .andExpect(header().string("X-Cache", "MISS"));
+        mockMvc.perform(get("/api/topicos").param("sort", "titulo"))
+                .andExpect(header().doesNotExist("X-Cache"));
+    }
+
+    @Test
+    void gzipCuandoElClienteLoAcepta() throws Exception {
+        MvcResult miss = mockMvc.perform(get("/api/topicos")).andReturn();
+        MvcResult hit = mockMvc.perform(get("/api/topicos").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andReturn();
+
+        byte[] descomprimido;
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(hit.getResponse().getContentAsByteArray()))) {
+            descomprimido = in.readAllBytes();
+        }
+        assertThat(descomprimido).isEqualTo(miss.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    void crearTopicoInvalida() throws Exception {
+        mockMvc.perform(get("/api/topicos").param("curso", "Spring"))
+                .andExpect(jsonPath("$.totalElements").value(10));
+        mockMvc.perform(get("/api/topicos").param("curso", "Spring"))
+                .andExpect(header().string("X-Cache", "HIT"));
+
+        String body = """
+                {"titulo":"Nuevo","mensaje":"Tópico nuevo de Spring","autorId":%d,"curso":"Spring"}
+                """.formatted(autorId);
+        mockMvc.perform(post("/api/topicos").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/topicos").param("curso", "Spring"))
+                .andExpect(header().string("X-Cache", "MISS"))
+                .andExpect(jsonPath("$.totalElements").value(11));
+    }
+}
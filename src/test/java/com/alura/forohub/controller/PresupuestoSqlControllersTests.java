@@ -0,0 +1,472 @@
+package com.alura.forohub.controller;
+
+import com.alura.forohub.config.MaxSentenciasSql;
+import com.alura.forohub.model.Cambio;
+import com.alura.forohub.model.Notificacion;
+import com.alura.forohub.model.Respuesta;
+import com.alura.forohub.model.Topico;
+import com.alura.forohub.model.Usuario;
+import com.alura.forohub.repository.CambioRepository;
+import com.alura.forohub.repository.NotificacionRepository;
+import com.alura.forohub.repository.RespuestaRepository;
+import com.alura.forohub.repository.TopicoRepository;
+import com.alura.forohub.repository.UsuarioRepository;
+import com.alura.forohub.service.IndiceCasiDuplicados;
+import com.alura.forohub.service.ListadoTopicosCache;
+import com.alura.forohub.util.RutaMaterializada;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Presupuesto de sentencias SQL de los endpoints de cada controller.
+ *
+ * Los datos están armados para el peor caso de N+1: cada fila tiene un autor
+ * distinto y el cache de segundo nivel (y el de listados) se vacía antes de cada test.
+ * Las escrituras usan tópicos y respuestas propios para no alterar lo que
+ * cuentan los tests de lectura; las cascadas tocan {@code FILAS / 5} respuestas
+ * de autores distintos.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "lector", roles = "ADMIN")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PresupuestoSqlControllersTests {
+
+    private static final int FILAS = 50;
+    private static final String CLAVE = "clave-lector";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TopicoRepository topicoRepository;
+
+    @Autowired
+    private RespuestaRepository respuestaRepository;
+
+    @Autowired
+    private NotificacionRepository notificacionRepository;
+
+    @Autowired
+    private CambioRepository cambioRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private IndiceCasiDuplicados indiceSimilares;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ListadoTopicosCache listadoCache;
+
+    private Long autorId;
+    private Long topicoId;
+    private Long raizId;
+    private List<Long> topicoIds;
+    private Long topicoSinRespuestasId;
+    private Long topicoEditableId;
+    private Long topicoParaBajaId;
+    private Long topicoDadoDeBajaId;
+    private Long respuestaEditableId;
+    private Long respuestaParaBajaId;
+    private Long respuestaDadaDeBajaId;
+
+    @BeforeAll
+    void datos() {
+        List<Usuario> autores = new ArrayList<>();
+        for (int i = 0; i < FILAS; i++) {
+            Usuario u = new Usuario();
+            u.setUsername("autor" + i);
+            u.setNombre("Autor " + i);
+            u.setEmail("autor" + i + "@example.com");
+            u.setPassword("hash");
+            autores.add(u);
+        }
+        autores = usuarioRepository.saveAll(autores);
+        autorId = autores.get(0).getId();
+
+        List<Topico> topicos = new ArrayList<>();
+        for (int i = 0; i < FILAS; i++) {
+            Topico t = new Topico();
+            t.setTitulo("Titulo " + i);
+            t.setMensaje("Cómo configurar el pool de conexiones, caso " + i);
+            t.setCurso("Curso " + (i % 4));
+            // el primer autor tiene todos sus tópicos; el resto uno cada uno
+            t.setAutor(autores.get(i % 2 == 0 ? 0 : i));
+            topicos.add(t);
+        }
+        topicos = topicoRepository.saveAll(topicos);
+        topicoId = topicos.get(0).getId();
+        topicoIds = topicos.stream().map(Topico::getId).toList();
+        // mensajes casi iguales: el índice los agrupa con un umbral bajo
+        topicos.forEach(t -> indiceSimilares.agregar(t.getId(), t.getTitulo(), t.getMensaje()));
+
+        // mitad raíces, mitad respuestas a esas raíces
+        List<Respuesta> raices = new ArrayList<>();
+        for (int i = 0; i < FILAS / 2; i++) {
+            raices.add(respuesta("Raiz " + i, autores.get(i), topicos.get(0), null, "", 0));
+        }
+        raices = respuestaRepository.saveAll(raices);
+        raizId = raices.get(0).getId();
+
+        List<Respuesta> hijas = new ArrayList<>();
+        for (int i = 0; i < FILAS / 2; i++) {
+            Respuesta padre = raices.get(i);
+            // el primer autor también responde algunas veces
+            Usuario autor = autores.get(i % 5 == 0 ? 0 : FILAS / 2 + i);
+            hijas.add(respuesta("Hija " + i, autor, topicos.get(0), padre.getId(),
+                    RutaMaterializada.prefijoDescendientes(padre.getPath(), padre.getId()), 1));
+        }
+        respuestaRepository.saveAll(hijas);
+
+        Usuario lector = new Usuario();
+        lector.setUsername("lector");
+        lector.setNombre("Lector");
+        lector.setEmail("lector@example.com");
+        lector.setPassword(passwordEncoder.encode(CLAVE));
+        usuarioRepository.save(lector);
+
+        // escrituras: el tópico 1 no tiene respuestas (responder en él no notifica a nadie)
+        topicoSinRespuestasId = topicos.get(1).getId();
+        topicoEditableId = topicos.get(3).getId();
+
+        Topico paraBaja = topicoRepository.save(topico("Baja en cascada", autores.get(2), true));
+        topicoParaBajaId = paraBaja.getId();
+        Topico dadoDeBaja = topicoRepository.save(topico("Reactivar en cascada", autores.get(4), false));
+        topicoDadoDeBajaId = dadoDeBaja.getId();
+        List<Respuesta> cascada = new ArrayList<>();
+        for (int i = 0; i < FILAS / 5; i++) {
+            cascada.add(respuesta("Cascada " + i, autores.get(10 + i), paraBaja, null, "", 0));
+            Respuesta baja = respuesta("Cascada " + i, autores.get(20 + i), dadoDeBaja, null, "", 0);
+            baja.setActivo(false);
+            baja.setBajaOrigen(Respuesta.BAJA_CON_TOPICO);
+            cascada.add(baja);
+        }
+        respuestaRepository.saveAll(cascada);
+
+        Topico sueltas = topicos.get(5);
+        respuestaEditableId = respuestaRepository.save(
+                respuesta("Editable", autores.get(5), sueltas, null, "", 0)).getId();
+        respuestaParaBajaId = respuestaRepository.save(
+                respuesta("Para baja", autores.get(6), sueltas, null, "", 0)).getId();
+        Respuesta dadaDeBaja = respuesta("Dada de baja", autores.get(7), sueltas, null, "", 0);
+        dadaDeBaja.setActivo(false);
+        dadaDeBaja.setBajaOrigen(Respuesta.BAJA_INDIVIDUAL);
+        respuestaDadaDeBajaId = respuestaRepository.save(dadaDeBaja).getId();
+
+        // bandeja del primer autor y registro de cambios con estado de tópicos y respuestas
+        List<Notificacion> notificaciones = new ArrayList<>();
+        List<Cambio> cambios = new ArrayList<>();
+        for (int i = 0; i < FILAS; i++) {
+            Notificacion n = new Notificacion();
+            n.setUsuarioId(autorId);
+            n.setTipo(Notificacion.TOPICO_PROPIO);
+            n.setTopicoId(topicos.get(2 * (i % (FILAS / 2))).getId());
+            n.setRespuestaId(raizId);
+            n.setCantidad(1);
+            n.setFecha(LocalDateTime.now().minusMinutes(i));
+            notificaciones.add(n);
+            cambios.add(i % 2 == 0
+                    ? new Cambio(null, Cambio.TOPICO, topicos.get(i).getId(), topicos.get(i).getId(),
+                            Cambio.CREADO, LocalDateTime.now().minusMinutes(1))
+                    : new Cambio(null, Cambio.RESPUESTA, raices.get(i / 2).getId(), topicoId,
+                            Cambio.CREADO, LocalDateTime.now().minusMinutes(1)));
+        }
+        notificacionRepository.saveAll(notificaciones);
+        cambioRepository.saveAll(cambios);
+    }
+
+    private static Topico topico(String titulo, Usuario autor, boolean activo) {
+        Topico t = new Topico();
+        t.setTitulo(titulo);
+        t.setMensaje(titulo);
+        t.setCurso("Curso 0");
+        t.setAutor(autor);
+        t.setActivo(activo);
+        return t;
+    }
+
+    private static Respuesta respuesta(String mensaje, Usuario autor, Topico topico,
+                                       Long parentId, String path, int profundidad) {
+        Respuesta r = new Respuesta();
+        r.setMensaje(mensaje);
+        r.setAutor(autor);
+        r.setTopico(topico);
+        r.setParentId(parentId);
+        r.setPath(path);
+        r.setProfundidad(profundidad);
+        return r;
+    }
+
+    @AfterAll
+    void limpiar() {
+        topicoIds.forEach(indiceSimilares::quitar);
+        notificacionRepository.deleteAll();
+        respuestaRepository.deleteAll();
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+    }
+
+    @BeforeEach
+    void cacheFrio() {
+        entityManagerFactory.getCache().evictAll();
+        listadoCache.invalidar();
+    }
+
+    // -----------------------
+    // TopicoController
+    // -----------------------
+
+    @Test
+    @MaxSentenciasSql(2)
+    void listarTopicos() throws Exception {
+        mockMvc.perform(get("/api/topicos").param("size", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(FILAS));
+    }
+
+    @Test
+    @MaxSentenciasSql(1)
+    void detalleTopico() throws Exception {
+        mockMvc.perform(get("/api/topicos/{id}", topicoId))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxSentenciasSql(2) // autor + INSERT
+    void crearTopico() throws Exception {
+        mockMvc.perform(post("/api/topicos").contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"titulo":"Nuevo","mensaje":"Tópico nuevo","autorId":%d,"curso":"Curso 0"}
+                                """.formatted(autorId)))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    @MaxSentenciasSql(3) // tópico con autor + duplicado + UPDATE
+    void actualizarTopico() throws Exception {
+        mockMvc.perform(put("/api/topicos/{id}", topicoEditableId).contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"titulo":"Editado","mensaje":"Tópico editado","status":"ABIERTO","curso":"Curso 1"}
+                                """))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxSentenciasSql(4) // tópico + autores de respuestas + UPDATE tópico + UPDATE respuestas
+    void eliminarTopicoEnCascada() throws Exception {
+        mockMvc.perform(delete("/api/topicos/{id}", topicoParaBajaId))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    @MaxSentenciasSql(5) // tópico + autores + UPDATE tópico + UPDATE respuestas + autor del tópico
+    void reactivarTopicoEnCascada() throws Exception {
+        mockMvc.perform(post("/api/topicos/{id}/reactivar", topicoDadoDeBajaId))
+                .andExpect(status().isOk());
+    }
+
+    // -----------------------
+    // RespuestaController
+    // -----------------------
+
+    @Test
+    @MaxSentenciasSql(2)
+    void listarRespuestasDeTopico() throws Exception {
+        mockMvc.perform(get("/api/respuestas").param("topicoId", topicoId.toString()).param("size", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(FILAS));
+    }
+
+    @Test
+    @MaxSentenciasSql(2)
+    void arbolDeTopico() throws Exception {
+        mockMvc.perform(get("/api/respuestas/arbol").param("topicoId", topicoId.toString()).param("size", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenido.length()").value(FILAS / 2));
+    }
+
+    @Test
+    @MaxSentenciasSql(3) // nodo + rango de descendientes + raíz proyectada
+    void subarbol() throws Exception {
+        mockMvc.perform(get("/api/respuestas/{id}/subarbol", raizId))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxSentenciasSql(1)
+    void detalleRespuesta() throws Exception {
+        mockMvc.perform(get("/api/respuestas/{id}", raizId))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxSentenciasSql(3) // tópico activo + autor + INSERT
+    void crearRespuesta() throws Exception {
+        mockMvc.perform(post("/api/respuestas").contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"mensaje":"Respuesta nueva","autorId":%d,"topicoId":%d}
+                                """.formatted(autorId, topicoSinRespuestasId)))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    @MaxSentenciasSql(4) // + padre proyectado
+    void crearRespuestaAnidada() throws Exception {
+        mockMvc.perform(post("/api/respuestas").contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"mensaje":"Respuesta anidada","autorId":%d,"topicoId":%d,"parentId":%d}
+                                """.formatted(autorId, topicoId, raizId)))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    @MaxSentenciasSql(3)
+    void actualizarRespuesta() throws Exception {
+        mockMvc.perform(put("/api/respuestas/{id}", respuestaEditableId).contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"mensaje":"Respuesta editada"}
+                                """))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxSentenciasSql(2)
+    void eliminarRespuesta() throws Exception {
+        mockMvc.perform(delete("/api/respuestas/{id}", respuestaParaBajaId))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    @MaxSentenciasSql(3)
+    void reactivarRespuesta() throws Exception {
+        mockMvc.perform(post("/api/respuestas/{id}/reactivar", respuestaDadaDeBajaId))
+                .andExpect(status().isOk());
+    }
+
+    // -----------------------
+    // UsuarioController
+    // -----------------------
+
+    @Test
+    @MaxSentenciasSql(2) // existencia del usuario (404) + página
+    void topicosDeUsuario() throws Exception {
+        mockMvc.perform(get("/api/usuarios/{id}/topicos", autorId).param("size", "50"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxSentenciasSql(2) // existencia del usuario (404) + página
+    void respuestasDeUsuario() throws Exception {
+        mockMvc.perform(get("/api/usuarios/{id}/respuestas", autorId).param("size", "50"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxSentenciasSql(4)
+    void resumenDeUsuario() throws Exception {
+        mockMvc.perform(get("/api/usuarios/{id}/resumen", autorId))
+                .andExpect(status().isOk());
+    }
+
+    // -----------------------
+    // AdminCacheController
+    // -----------------------
+
+    @Test
+    @MaxSentenciasSql(0)
+    void estadisticasDeCache() throws Exception {
+        mockMvc.perform(get("/api/admin/cache"))
+                .andExpect(status().isOk());
+    }
+
+    // -----------------------
+    // AdminSimilaresController
+    // -----------------------
+
+    @Test
+    @MaxSentenciasSql(1) // todos los tópicos de todos los grupos en un SELECT
+    void topicosSimilares() throws Exception {
+        mockMvc.perform(get("/api/admin/topicos/similares").param("umbral", "0.1").param("max", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.grupos").isNotEmpty());
+    }
+
+    // -----------------------
+    // CambioController
+    // -----------------------
+
+    @Test
+    @MaxSentenciasSql(3) // registro + estado de tópicos + estado de respuestas
+    void cambiosDesdeElInicio() throws Exception {
+        mockMvc.perform(get("/api/cambios").param("desde", "0").param("size", "100"))
+                .andExpect(status().isOk());
+    }
+
+    // -----------------------
+    // NotificacionController
+    // -----------------------
+
+    @Test
+    @WithMockUser(username = "autor0")
+    @MaxSentenciasSql(2) // usuario + página
+    void notificacionesPropias() throws Exception {
+        mockMvc.perform(get("/api/notificaciones").param("size", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenido.length()").value(FILAS));
+    }
+
+    // -----------------------
+    // AuthController
+    // -----------------------
+
+    @Test
+    @MaxSentenciasSql(1)
+    void login() throws Exception {
+        mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"username":"lector","password":"%s"}
+                                """.formatted(CLAVE)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxSentenciasSql(1)
+    void registro() throws Exception {
+        mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"username":"nuevo","password":"clave","nombre":"Nuevo","email":"nuevo@example.com"}
+                                """))
+                .andExpect(status().isCreated());
+    }
+}
@@ -0,0 +1,51 @@
+package com.alura.forohub.eventos;
+
+import com.alura.forohub.dto.NotificacionDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Canal de prueba: guarda en memoria lo que entrega el despachador, por destinatario.
+ */
+public class CanalNotificacionesLocal implements CanalNotificaciones {
+
+    private final Map<Long, List<NotificacionDto>> entregadas = new ConcurrentHashMap<>();
+
+    @Override
+    public String nombre() {
+        return "local";
+    }
+
+    @Override
+    public synchronized void entregar(Long usuarioId, List<NotificacionDto> notificaciones) {
+        entregadas.computeIfAbsent(usuarioId, k -> new CopyOnWriteArrayList<>()).addAll(notificaciones);
+        notifyAll();
+    }
+
+    public List<NotificacionDto> de(Long usuarioId) {
+        return new ArrayList<>(entregadas.getOrDefault(usuarioId, List.of()));
+    }
+
+    /**
+     * Espera hasta que el destinatario tenga al menos 'cantidad' notificaciones entregadas.
+     */
+    public synchronized List<NotificacionDto> esperar(Long usuarioId, int cantidad, long timeoutMillis)
+            throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (de(usuarioId).size() < cantidad) {
+            long resta = TimeUnit.NANOSECONDS.toMillis(limite - System.nanoTime());
+            if (resta <= 0) break;
+            wait(resta);
+        }
+        return de(usuarioId);
+    }
+
+    public void limpiar() {
+        entregadas.clear();
+    }
+}
@@ -0,0 +1,216 @@
+package com.alura.forohub.eventos;
+
+import com.alura.forohub.dto.NotificacionDto;
+import com.alura.forohub.dto.RespuestaCreateDto;
+import com.alura.forohub.dto.RespuestaResponseDto;
+import com.alura.forohub.model.Notificacion;
+import com.alura.forohub.model.Respuesta;
+import com.alura.forohub.model.Topico;
+import com.alura.forohub.model.Usuario;
+import com.alura.forohub.repository.NotificacionRepository;
+import com.alura.forohub.repository.RespuestaRepository;
+import com.alura.forohub.repository.TopicoRepository;
+import com.alura.forohub.repository.UsuarioRepository;
+import com.alura.forohub.service.RespuestaService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Notificaciones de respuestas nuevas: despacho asincrónico después del commit,
+ * agrupación por destinatario y tópico, bandeja paginada por cursor.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:notificaciones;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "forohub.notificaciones.max-latencia-ms=20"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(NotificacionesTests.Canal.class)
+class NotificacionesTests {
+
+    @TestConfiguration
+    static class Canal {
+        @Bean
+        CanalNotificacionesLocal canalNotificacionesLocal() {
+            return new CanalNotificacionesLocal();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CanalNotificacionesLocal canal;
+
+    @Autowired
+    private DespachadorNotificaciones despachador;
+
+    @Autowired
+    private RespuestaService respuestaService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TopicoRepository topicoRepository;
+
+    @Autowired
+    private RespuestaRepository respuestaRepository;
+
+    @Autowired
+    private NotificacionRepository notificacionRepository;
+
+    private Usuario autor;
+    private Usuario ana;
+    private Usuario beto;
+    private Topico topico;
+
+    @BeforeEach
+    void datos() {
+        autor = usuario("duenio");
+        ana = usuario("ana");
+        beto = usuario("beto");
+        Topico t = new Topico();
+        t.setTitulo("Notificar");
+        t.setMensaje("Respuestas nuevas");
+        t.setCurso("Java");
+        t.setAutor(autor);
+        topico = topicoRepository.save(t);
+    }
+
+    @AfterEach
+    void limpiar() {
+        canal.limpiar();
+        notificacionRepository.deleteAll();
+        respuestaRepository.deleteAll();
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+    }
+
+    @Test
+    void despuesDelCommitFueraDelRequest() throws Exception {
+        respuestaService.crearRespuesta(new RespuestaCreateDto("Primera", ana.getId(), topico.getId(), null));
+
+        List<NotificacionDto> entregadas = canal.esperar(autor.getId(), 1, 5000);
+        assertThat(entregadas).hasSize(1);
+        assertThat(entregadas.get(0).tipo()).isEqualTo(Notificacion.TOPICO_PROPIO);
+        // quien responde no se notifica a sí mismo
+        assertThat(canal.de(ana.getId())).isEmpty();
+
+        JsonNode bandeja = bandeja("duenio", null, 20);
+        assertThat(bandeja.get("contenido")).hasSize(1);
+        assertThat(bandeja.get("contenido").get(0).get("topicoId").asLong()).isEqualTo(topico.getId());
+        assertThat(bandeja("ana", null, 20).get("contenido")).isEmpty();
+    }
+
+    @Test
+    void agrupaPorDestinatarioYTopico() throws Exception {
+        // guardadas sin pasar por el servicio: el lote se despacha a mano
+        Respuesta r1 = respuesta("Ana primero", ana);
+        Respuesta r2 = respuesta("Beto", beto);
+        Respuesta r3 = respuesta("Beto otra vez", beto);
+        Respuesta r4 = respuesta("Ana de nuevo", ana);
+
+        despachador.despachar(List.of(dto(r2), dto(r3), dto(r4)));
+
+        NotificacionDto alAutor = canal.de(autor.getId()).get(0);
+        assertThat(alAutor.tipo()).isEqualTo(Notificacion.TOPICO_PROPIO);
+        assertThat(alAutor.cantidad()).isEqualTo(3);
+        assertThat(alAutor.respuestaId()).isEqualTo(r4.getId());
+
+        // Ana participa desde r1: recibe r2 y r3, no la suya
+        NotificacionDto aAna = canal.de(ana.getId()).get(0);
+        assertThat(aAna.tipo()).isEqualTo(Notificacion.PARTICIPACION);
+        assertThat(aAna.cantidad()).isEqualTo(2);
+        assertThat(aAna.respuestaId()).isEqualTo(r3.getId());
+
+        // Beto participa desde r2: solo r4
+        assertThat(canal.de(beto.getId())).singleElement()
+                .satisfies(n -> assertThat(n.cantidad()).isEqualTo(1));
+        assertThat(notificacionRepository.count()).isEqualTo(3);
+        assertThat(r1.getId()).isLessThan(r2.getId());
+    }
+
+    @Test
+    void bandejaPaginadaPorCursor() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Topico t = new Topico();
+            t.setTitulo("Otro " + i);
+            t.setMensaje("Para paginar");
+            t.setCurso("Java");
+            t.setAutor(autor);
+            t = topicoRepository.save(t);
+            Respuesta r = new Respuesta();
+            r.setMensaje("En otro " + i);
+            r.setAutor(ana);
+            r.setTopico(t);
+            r.setPath("");
+            r.setProfundidad(0);
+            despachador.despachar(List.of(dto(respuestaRepository.save(r))));
+        }
+
+        JsonNode primera = bandeja("duenio", null, 2);
+        assertThat(primera.get("contenido")).hasSize(2);
+        String cursor = primera.get("siguienteCursor").asText();
+        JsonNode segunda = bandeja("duenio", cursor, 2);
+        assertThat(segunda.get("contenido")).hasSize(1);
+        assertThat(segunda.get("siguienteCursor").isNull()).isTrue();
+        // más nuevas primero
+        assertThat(primera.get("contenido").get(0).get("id").asLong())
+                .isGreaterThan(segunda.get("contenido").get(0).get("id").asLong());
+    }
+
+    private JsonNode bandeja(String username, String cursor, int size) throws Exception {
+        var request = get("/api/notificaciones").with(user(username)).param("size", String.valueOf(size));
+        if (cursor != null) request = request.param("cursor", cursor);
+        String json = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(json);
+    }
+
+    private Usuario usuario(String username) {
+        Usuario u = new Usuario();
+        u.setUsername(username);
+        u.setNombre(username);
+        u.setEmail(username + "@example.com");
+        u.setPassword("hash");
+        return usuarioRepository.save(u);
+    }
+
+    private Respuesta respuesta(String mensaje, Usuario autorRespuesta) {
+        Respuesta r = new Respuesta();
+        r.setMensaje(mensaje);
+        r.setAutor(autorRespuesta);
+        r.setTopico(topico);
+        r.setPath("");
+        r.setProfundidad(0);
+        return respuestaRepository.save(r);
+    }
+
+    private static RespuestaResponseDto dto(Respuesta r) {
+        return new RespuestaResponseDto(r.getId(), r.getMensaje(), r.getFechaCreacion(),
+                r.getAutor().getId(), r.getAutor().getNombre(), r.getTopico().getId());
+    }
+}
@@ -0,0 +1,228 @@
+package com.alura.forohub.eventos;
+
+import com.alura.forohub.dto.RespuestaResponseDto;
+import com.alura.forohub.repository.RespuestaRepository;
+import com.alura.forohub.repository.TopicoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * El hub sin servlet: cada emitter registra lo que se le envía y, si hace falta,
+ * traba el send como un cliente TCP que dejó de leer.
+ */
+class TopicoEventosHubTests {
+
+    private static final Long TOPICO = 1L;
+    private static final Long OTRO_TOPICO = 2L;
+    private static final Pattern ID = Pattern.compile("id:(\\d+)");
+
+    private final RespuestaRepository respuestas = mock(RespuestaRepository.class);
+    private final TopicoRepository topicos = mock(TopicoRepository.class);
+    private final List<EmitterDePrueba> emitters = new CopyOnWriteArrayList<>();
+    /** Traba el send del próximo emitter creado hasta que se libere. */
+    private volatile CountDownLatch trabarProximo;
+    private TopicoEventosHub hub;
+
+    /** Emitter que registra cada send (como texto SSE) y si se completó. */
+    static final class EmitterDePrueba extends SseEmitter {
+        final List<String> enviados = new CopyOnWriteArrayList<>();
+        final CountDownLatch traba;
+        final CountDownLatch enSend = new CountDownLatch(1);
+        volatile boolean completado;
+
+        EmitterDePrueba(long timeout, CountDownLatch traba) {
+            super(timeout);
+            this.traba = traba;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            enSend.countDown();
+            if (traba != null) {
+                try {
+                    traba.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            enviados.add(builder.build().stream().map(d -> String.valueOf(d.getData())).collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completado = true;
+        }
+
+        List<Long> ids() {
+            return enviados.stream().map(ID::matcher).filter(Matcher::find)
+                    .map(m -> Long.valueOf(m.group(1))).toList();
+        }
+    }
+
+    private TopicoEventosHub hub(int buffer, int historial, long heartbeatMs, int hilos, long plazoMs) {
+        when(topicos.findActivoById(TOPICO)).thenReturn(Optional.of(true));
+        return new TopicoEventosHub(respuestas, topicos, new ObjectMapper().findAndRegisterModules(),
+                buffer, historial, 60_000, heartbeatMs, hilos, plazoMs) {
+            @Override
+            SseEmitter nuevoEmitter(long timeoutMillis) {
+                CountDownLatch traba = trabarProximo;
+                trabarProximo = null;
+                EmitterDePrueba e = new EmitterDePrueba(timeoutMillis, traba);
+                emitters.add(e);
+                return e;
+            }
+        };
+    }
+
+    @AfterEach
+    void cerrar() {
+        if (hub != null) hub.cerrar();
+    }
+
+    @Test
+    void reanudarSinDuplicadosNiDesorden() {
+        hub = hub(64, 2, 60_000, 2, 5_000);
+        when(respuestas.findMaxIdPorTopico(TOPICO)).thenReturn(3L);
+        hub.suscribir(TOPICO, null);
+        // 4, 5, 6 publicadas: el historial guarda 5 y 6, así que reanudar desde 1 va a la base
+        LongStream.rangeClosed(4, 6).forEach(this::publicar);
+
+        when(respuestas.findNuevasPorTopico(eq(TOPICO), eq(1L), any())).thenAnswer(inv -> {
+            // commit concurrente mientras se consulta: queda en el historial y en vivo
+            publicar(7);
+            return LongStream.rangeClosed(2, 6).mapToObj(TopicoEventosHubTests::respuesta).toList();
+        });
+        hub.suscribir(TOPICO, 1L);
+        publicar(8);
+
+        EmitterDePrueba reanudado = emitters.get(1);
+        esperar(() -> reanudado.ids().size() >= 7);
+        assertThat(reanudado.ids()).containsExactly(2L, 3L, 4L, 5L, 6L, 7L, 8L);
+        assertThat(emitters.get(0).ids()).containsExactly(4L, 5L, 6L, 7L, 8L);
+    }
+
+    @Test
+    void heartbeatComoComentario() {
+        hub = hub(64, 16, 50, 1, 5_000);
+        hub.suscribir(TOPICO, null);
+        EmitterDePrueba e = emitters.get(0);
+        esperar(() -> e.enviados.stream().anyMatch(t -> t.startsWith(":ping")));
+        assertThat(e.ids()).isEmpty();
+    }
+
+    @Test
+    void consumidorLentoSeExpulsaSinFrenarAlQuePublica() {
+        hub = hub(2, 16, 60_000, 1, 60_000);
+        CountDownLatch traba = new CountDownLatch(1);
+        trabarProximo = traba;
+        hub.suscribir(TOPICO, null);
+        EmitterDePrueba lento = emitters.get(0);
+
+        // 1 queda trabada en el send; 2 y 3 llenan el buffer; 4 lo desborda
+        long inicio = System.nanoTime();
+        publicar(1);
+        esperar(() -> lento.enSend.getCount() == 0);
+        LongStream.rangeClosed(2, 4).forEach(this::publicar);
+        assertThat(Duration.ofNanos(System.nanoTime() - inicio)).isLessThan(Duration.ofSeconds(1));
+        assertThat(hub.totalSuscriptores()).isZero();
+        assertThat(lento.completado).isFalse(); // lo completa el escritor al volver, no quien publica
+
+        traba.countDown();
+        esperar(() -> lento.completado);
+        assertThat(lento.ids()).containsExactly(1L);
+    }
+
+    @Test
+    void escrituraTrabadaSeExpulsaYLosDemasSiguen() {
+        hub = hub(64, 16, 60_000, 1, 100);
+        CountDownLatch traba = new CountDownLatch(1);
+        trabarProximo = traba;
+        hub.suscribir(TOPICO, null);
+        hub.suscribir(TOPICO, null);
+        EmitterDePrueba trabado = emitters.get(0);
+        EmitterDePrueba sano = emitters.get(1);
+
+        // el único escritor queda en el send del trabado; el vigía lo da por perdido y suma un hilo.
+        // Los suscriptores no tienen orden: el sano puede recibir el 1 antes de que el escritor se trabe.
+        publicar(1);
+        esperar(() -> sano.ids().contains(1L) && hub.totalSuscriptores() == 1 && hub.hilosEscritores() == 2);
+
+        publicar(2);
+        esperar(() -> sano.ids().contains(2L));
+
+        // vuelve el send trabado: se completa el emitter y el pool vuelve a su tamaño
+        traba.countDown();
+        esperar(() -> trabado.completado && hub.hilosEscritores() == 1);
+        assertThat(trabado.ids()).containsExactly(1L);
+    }
+
+    @Test
+    void trabadoQueDesbordaElBufferTambienLiberaSuEscritor() {
+        hub = hub(2, 16, 60_000, 1, 200);
+        when(topicos.findActivoById(OTRO_TOPICO)).thenReturn(Optional.of(true));
+        CountDownLatch traba = new CountDownLatch(1);
+        trabarProximo = traba;
+        hub.suscribir(TOPICO, null);
+        hub.suscribir(OTRO_TOPICO, null);
+        EmitterDePrueba trabado = emitters.get(0);
+        EmitterDePrueba sano = emitters.get(1);
+
+        // el único escritor se traba; 2..4 desbordan el buffer antes del plazo y lo sacan del canal
+        publicar(1);
+        esperar(() -> trabado.enSend.getCount() == 0);
+        LongStream.rangeClosed(2, 4).forEach(this::publicar);
+        assertThat(hub.totalSuscriptores()).isEqualTo(1);
+
+        // igual vence su plazo: el vigía suma un hilo y el otro tópico sigue recibiendo
+        hub.onRespuestaCreada(new RespuestaCreadaEvent(
+                new RespuestaResponseDto(5L, "respuesta 5", LocalDateTime.now(), 9L, "Autor", OTRO_TOPICO)));
+        esperar(() -> sano.ids().contains(5L));
+        assertThat(hub.hilosEscritores()).isEqualTo(2);
+
+        traba.countDown();
+        esperar(() -> trabado.completado && hub.hilosEscritores() == 1);
+        assertThat(trabado.ids()).containsExactly(1L);
+    }
+
+    private void publicar(long id) {
+        hub.onRespuestaCreada(new RespuestaCreadaEvent(respuesta(id)));
+    }
+
+    private static RespuestaResponseDto respuesta(long id) {
+        return new RespuestaResponseDto(id, "respuesta " + id, LocalDateTime.now(), 9L, "Autor", TOPICO);
+    }
+
+    private static void esperar(BooleanSupplier condicion) {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condicion.getAsBoolean()) {
+            if (System.nanoTime() > limite) throw new AssertionError("no se cumplió a tiempo");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.alura.forohub.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Forma de los cuerpos de error (RFC 7807) y excepciones de dominio sin stack trace.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "lector")
+class GlobalExceptionHandlerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void noEncontradoComoProblemDetail() throws Exception {
+        mockMvc.perform(get("/api/topicos/{id}", 987654321L).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.type").value("about:blank"))
+                .andExpect(jsonPath("$.title").value("Not Found"))
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.detail").value("Tópico no encontrado (id=987654321)"))
+                .andExpect(jsonPath("$.instance").value("/api/topicos/987654321"))
+                .andExpect(jsonPath("$.errors").doesNotExist());
+    }
+
+    @Test
+    void validacionIncluyeErroresPorCampo() throws Exception {
+        mockMvc.perform(post("/api/topicos").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.errors.titulo").exists());
+    }
+
+    @Test
+    void rutaDesconocidaEs404() throws Exception {
+        mockMvc.perform(get("/api/wp-login.php"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.instance").value("/api/wp-login.php"));
+    }
+
+    @Test
+    void idNoNumericoYParametroFaltanteSon400() throws Exception {
+        mockMvc.perform(get("/api/topicos/abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.detail").value("Valor inválido para 'id'"));
+        mockMvc.perform(get("/api/respuestas"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Falta el parámetro 'topicoId'"));
+    }
+
+    @Test
+    void metodoNoSoportadoConservaSuStatus() throws Exception {
+        mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put("/api/notificaciones"))
+                .andExpect(status().isMethodNotAllowed())
+                .andExpect(jsonPath("$.status").value(405));
+    }
+
+    @Test
+    void excepcionesDeDominioSinStackTrace() {
+        assertThat(new RecursoNoEncontradoException("x").getStackTrace()).isEmpty();
+        assertThat(new DuplicadoException("x").getStackTrace()).isEmpty();
+        assertThat(new ParametroInvalidoException("x").getStackTrace()).isEmpty();
+    }
+}
@@ -0,0 +1,123 @@
+package com.alura.forohub.repository;
+
+import com.alura.forohub.model.Topico;
+import com.alura.forohub.model.Usuario;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que la resolución repetida de autores (por id, por username y vía
+ * la asociación LAZY Topico.autor) se sirve desde el cache de segundo nivel
+ * y no ejecuta SQL. Cada TransactionTemplate simula un request distinto.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UsuarioCacheSegundoNivelTests {
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TopicoRepository topicoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private Statistics stats;
+    private Long usuarioId;
+    private Long topicoId;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+
+        Usuario u = new Usuario();
+        u.setUsername("cacheado");
+        u.setNombre("Usuario Cacheado");
+        u.setEmail("cacheado@example.com");
+        u.setPassword("hash");
+        usuarioId = usuarioRepository.save(u).getId();
+
+        Topico t = new Topico();
+        t.setTitulo("Titulo");
+        t.setMensaje("Mensaje");
+        t.setCurso("Java");
+        t.setAutor(u);
+        topicoId = topicoRepository.save(t).getId();
+
+        entityManagerFactory.getCache().evictAll();
+        stats.clear();
+    }
+
+    @Test
+    void findByIdEnRequestsSucesivosNoEjecutaSql() {
+        tx.executeWithoutResult(s -> usuarioRepository.findById(usuarioId).orElseThrow());
+        long sentenciasPrimerRequest = stats.getPrepareStatementCount();
+        assertThat(sentenciasPrimerRequest).isEqualTo(1);
+
+        for (int i = 0; i < 5; i++) {
+            tx.executeWithoutResult(s -> {
+                // dentro del mismo request: 1er nivel; entre requests: 2do nivel
+                usuarioRepository.findById(usuarioId).orElseThrow();
+                usuarioRepository.findById(usuarioId).orElseThrow();
+            });
+        }
+
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(sentenciasPrimerRequest);
+        assertThat(stats.getDomainDataRegionStatistics("usuarios").getHitCount()).isEqualTo(5);
+    }
+
+    @Test
+    void findByUsernameUsaElCacheDeNaturalId() {
+        tx.executeWithoutResult(s -> usuarioRepository.findByUsername("cacheado").orElseThrow());
+        long sentenciasPrimerRequest = stats.getPrepareStatementCount();
+
+        for (int i = 0; i < 5; i++) {
+            tx.executeWithoutResult(s ->
+                    assertThat(usuarioRepository.findByUsername("cacheado")).isPresent());
+        }
+
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(sentenciasPrimerRequest);
+        assertThat(stats.getDomainDataRegionStatistics("usuarios-username").getHitCount())
+                .isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    void autorLazyDeTopicoSeResuelveDesdeMemoria() {
+        // calienta el cache de Usuario
+        tx.executeWithoutResult(s -> usuarioRepository.findById(usuarioId).orElseThrow());
+        stats.clear();
+
+        String nombre = tx.execute(s -> topicoRepository.findById(topicoId).orElseThrow()
+                .getAutor().getNombre());
+
+        assertThat(nombre).isEqualTo("Usuario Cacheado");
+        // solo el SELECT del tópico: el proxy del autor se inicializa desde el cache
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(stats.getDomainDataRegionStatistics("usuarios").getHitCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,190 @@
+package com.alura.forohub.service;
+
+import com.alura.forohub.dto.CursorPageDto;
+import com.alura.forohub.dto.RespuestaNodoDto;
+import com.alura.forohub.model.Respuesta;
+import com.alura.forohub.model.Topico;
+import com.alura.forohub.model.Usuario;
+import com.alura.forohub.repository.RespuestaRepository;
+import com.alura.forohub.repository.TopicoRepository;
+import com.alura.forohub.repository.UsuarioRepository;
+import com.alura.forohub.util.RutaMaterializada;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Árbol de respuestas por materialized path: el ensamblado respeta el
+ * anidamiento y el orden, y cuando el tope de nodos corta el rango los nodos
+ * incompletos salen marcados y se completan pidiendo su subárbol.
+ */
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:arbol;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class ArbolRespuestasTests {
+
+    @Autowired
+    private RespuestaService respuestaService;
+
+    @Autowired
+    private RespuestaRepository respuestaRepository;
+
+    @Autowired
+    private TopicoRepository topicoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Usuario autor;
+    private Topico topico;
+
+    @BeforeEach
+    void datos() {
+        Usuario u = new Usuario();
+        u.setUsername("hilos");
+        u.setNombre("Hilos");
+        u.setEmail("hilos@example.com");
+        u.setPassword("hash");
+        autor = usuarioRepository.save(u);
+
+        Topico t = new Topico();
+        t.setTitulo("Árbol");
+        t.setMensaje("Respuestas anidadas");
+        t.setCurso("Java");
+        t.setAutor(autor);
+        topico = topicoRepository.save(t);
+    }
+
+    @AfterEach
+    void limpiar() {
+        // de las hojas hacia arriba por la FK parent_id
+        for (int p = RutaMaterializada.PROFUNDIDAD_MAX; p >= 0; p--) {
+            jdbcTemplate.update("DELETE FROM respuestas WHERE profundidad = ?", p);
+        }
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+    }
+
+    @Test
+    void ensamblaPorPathConAnidamientoYOrden() throws Exception {
+        Respuesta a = responder("A", null);
+        Respuesta b = responder("B", null);
+        Respuesta a1 = responder("A.1", a);
+        Respuesta b1 = responder("B.1", b);
+        Respuesta a2 = responder("A.2", a);
+        responder("A.1.1", a1);
+
+        CursorPageDto<RespuestaNodoDto> pagina = respuestaService.arbolPorTopico(topico.getId(), null, 20, 5);
+
+        assertThat(pagina.contenido()).extracting(RespuestaNodoDto::mensaje).containsExactly("A", "B");
+        RespuestaNodoDto nodoA = pagina.contenido().get(0);
+        assertThat(nodoA.respuestas()).extracting(RespuestaNodoDto::id).containsExactly(a1.getId(), a2.getId());
+        assertThat(nodoA.respuestas().get(0).respuestas()).extracting(RespuestaNodoDto::mensaje)
+                .containsExactly("A.1.1");
+        assertThat(pagina.contenido().get(1).respuestas()).extracting(RespuestaNodoDto::id).containsExactly(b1.getId());
+        assertThat(objectMapper.writeValueAsString(pagina)).doesNotContain("truncado");
+
+        // profundidad 1: solo los hijos directos, sin marcar como truncado lo que queda más abajo
+        RespuestaNodoDto poco = respuestaService.arbolPorTopico(topico.getId(), null, 20, 1).contenido().get(0);
+        assertThat(poco.respuestas()).allSatisfy(n -> assertThat(n.respuestas()).isEmpty());
+        assertThat(poco.truncado()).isFalse();
+    }
+
+    @Test
+    void topePorRaizMarcaTruncadoYSeCompletaConElSubarbol() throws Exception {
+        Respuesta raiz = responder("Raíz", null);
+        IntStream.range(0, 60).forEach(i -> responder("Hijo " + i, raiz));
+
+        RespuestaNodoDto nodo = respuestaService.arbolPorTopico(topico.getId(), null, 1, 5).contenido().get(0);
+        assertThat(nodo.respuestas()).hasSize(50);
+        assertThat(nodo.truncado()).isTrue();
+        assertThat(nodo.respuestas()).noneMatch(RespuestaNodoDto::truncado);
+        assertThat(objectMapper.writeValueAsString(nodo)).contains("\"truncado\":true");
+
+        RespuestaNodoDto completo = respuestaService.subarbol(raiz.getId(), 5);
+        assertThat(completo.respuestas()).hasSize(60);
+        assertThat(completo.truncado()).isFalse();
+    }
+
+    @Test
+    void corteMarcaAncestrosDeLaSondaYRaicesPosteriores() {
+        Respuesta r1 = responder("R1", null);
+        Respuesta r2 = responder("R2", null);
+        Respuesta hijo = responder("R1.1", r1);
+        IntStream.range(0, 110).forEach(i -> responder("Nieto " + i, hijo));
+        Respuesta hijoR2 = responder("R2.1", r2);
+
+        // 2 raíces -> tope de 100 descendientes: entran R1.1 y 99 nietos
+        List<RespuestaNodoDto> raices = respuestaService.arbolPorTopico(topico.getId(), null, 2, 5).contenido();
+        RespuestaNodoDto nodoR1 = raices.get(0);
+        RespuestaNodoDto nodoHijo = nodoR1.respuestas().get(0);
+        assertThat(nodoHijo.respuestas()).hasSize(99).noneMatch(RespuestaNodoDto::truncado);
+        assertThat(nodoR1.truncado()).isTrue();
+        assertThat(nodoHijo.truncado()).isTrue();
+        assertThat(raices.get(1).truncado()).isTrue();
+        assertThat(raices.get(1).respuestas()).isEmpty();
+
+        assertThat(respuestaService.subarbol(r2.getId(), 5).respuestas())
+                .extracting(RespuestaNodoDto::id).containsExactly(hijoR2.getId());
+        RespuestaNodoDto nietos = respuestaService.subarbol(hijo.getId(), 5);
+        assertThat(nietos.respuestas()).hasSize(110);
+        assertThat(nietos.truncado()).isFalse();
+    }
+
+    @Test
+    void corteMarcaHermanosPosterioresConRespuestas() {
+        Respuesta r1 = responder("R1", null);
+        Respuesta c1 = responder("C1", r1);
+        Respuesta c2 = responder("C2", r1);
+        Respuesta c3 = responder("C3", r1);
+        IntStream.range(0, 60).forEach(i -> responder("C1." + i, c1));
+        Respuesta hijoC2 = responder("C2.1", c2);
+
+        // orden (path, id): C1, C2, C3 y después los hijos de C1; el corte en 50 deja fuera a C2.1
+        RespuestaNodoDto nodoR1 = respuestaService.arbolPorTopico(topico.getId(), null, 1, 5).contenido().get(0);
+        assertThat(nodoR1.truncado()).isTrue();
+        assertThat(nodoR1.respuestas()).extracting(RespuestaNodoDto::id)
+                .containsExactly(c1.getId(), c2.getId(), c3.getId());
+        RespuestaNodoDto nodoC1 = nodoR1.respuestas().get(0);
+        RespuestaNodoDto nodoC2 = nodoR1.respuestas().get(1);
+        RespuestaNodoDto nodoC3 = nodoR1.respuestas().get(2);
+        assertThat(nodoC1.truncado()).isTrue();
+        assertThat(nodoC1.respuestas()).hasSize(47).noneMatch(RespuestaNodoDto::truncado);
+        assertThat(nodoC2.truncado()).isTrue();
+        assertThat(nodoC2.respuestas()).isEmpty();
+        // hoja: nada que completar
+        assertThat(nodoC3.truncado()).isFalse();
+
+        assertThat(respuestaService.subarbol(c2.getId(), 5).respuestas())
+                .extracting(RespuestaNodoDto::id).containsExactly(hijoC2.getId());
+    }
+
+    private Respuesta responder(String mensaje, Respuesta padre) {
+        Respuesta r = new Respuesta();
+        r.setMensaje(mensaje);
+        r.setAutor(autor);
+        r.setTopico(topico);
+        if (padre != null) {
+            r.setParentId(padre.getId());
+            r.setPath(RutaMaterializada.prefijoDescendientes(padre.getPath(), padre.getId()));
+            r.setProfundidad(padre.getProfundidad() + 1);
+        }
+        return respuestaRepository.save(r);
+    }
+}
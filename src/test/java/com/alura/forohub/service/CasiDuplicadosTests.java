@@ -0,0 +1,152 @@
+package com.alura.forohub.service;
+
+import com.alura.forohub.model.Topico;
+import com.alura.forohub.model.Usuario;
+import com.alura.forohub.repository.TopicoRepository;
+import com.alura.forohub.repository.UsuarioRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Índice de casi duplicados en modo rechazar: el repost con una palabra cambiada
+ * no entra, la baja del original lo libera y el admin ve los grupos.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:similares;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "forohub.similares.modo=rechazar"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CasiDuplicadosTests {
+
+    private static final String MENSAJE = "Al levantar la aplicación con Spring Boot aparece Communications link failure "
+            + "y no encuentro la causa, ya revisé el usuario y la contraseña del datasource en application.properties";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IndiceCasiDuplicados indice;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TopicoRepository topicoRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Long autorId;
+
+    @BeforeEach
+    void datos() {
+        Usuario u = new Usuario();
+        u.setUsername("reposter");
+        u.setNombre("Reposter");
+        u.setEmail("reposter@example.com");
+        u.setPassword("hash");
+        autorId = usuarioRepository.save(u).getId();
+    }
+
+    @AfterEach
+    void limpiar() {
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        indice.reconstruir();
+    }
+
+    @Test
+    void repostConUnaPalabraCambiadaSeRechaza() throws Exception {
+        Long original = crear("Error al conectar con MySQL", MENSAJE, 201);
+        double antes = meterRegistry.get("forohub.similares.detectados").tag("accion", "rechazar").counter().count();
+
+        mockMvc.perform(post("/api/topicos").with(user("reposter"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("Error al conectar con MySQL", MENSAJE.replace("causa", "razón"))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Ya existe un tópico casi idéntico (id=" + original + ")."));
+        assertThat(meterRegistry.get("forohub.similares.detectados").tag("accion", "rechazar").counter().count())
+                .isEqualTo(antes + 1);
+
+        // otro tema del mismo autor entra
+        crear("Diferencia entre List y Set", "No entiendo cuándo conviene usar HashSet en lugar de ArrayList "
+                + "si el ejercicio pide mantener el orden de inserción de los elementos", 201);
+        assertThat(indice.tamanio()).isEqualTo(2);
+
+        // dado de baja el original, el índice lo suelta después del commit
+        mockMvc.perform(delete("/api/topicos/" + original).with(user("admin").roles("ADMIN")))
+                .andExpect(status().isNoContent());
+        crear("Error al conectar con MySQL", MENSAJE.replace("causa", "razón"), 201);
+    }
+
+    @Test
+    void gruposParaElAdmin() throws Exception {
+        // cargados por fuera del servicio (como un import): el índice los ve al reconstruirse
+        Usuario autor = usuarioRepository.findById(autorId).orElseThrow();
+        Long a = guardar(autor, "Error al conectar con MySQL", MENSAJE);
+        Long b = guardar(autor, "Error al conectar con MySQL!!", MENSAJE.replace("causa", "razón"));
+        Long c = guardar(autor, "Error conectando con MySQL", MENSAJE.replace("no encuentro", "no veo"));
+        guardar(autor, "Diferencia entre List y Set", "No entiendo cuándo conviene usar HashSet en lugar de "
+                + "ArrayList si el ejercicio pide mantener el orden de inserción de los elementos");
+        indice.reconstruir();
+
+        mockMvc.perform(get("/api/admin/topicos/similares").with(user("reposter")))
+                .andExpect(status().isForbidden());
+
+        String json = mockMvc.perform(get("/api/admin/topicos/similares").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode r = objectMapper.readTree(json);
+        assertThat(r.get("listo").asBoolean()).isTrue();
+        assertThat(r.get("indexados").asInt()).isEqualTo(4);
+        assertThat(r.get("grupos")).hasSize(1);
+        JsonNode grupo = r.get("grupos").get(0);
+        assertThat(grupo.get("cantidad").asInt()).isEqualTo(3);
+        assertThat(grupo.get("similitudMaxima").asDouble()).isGreaterThanOrEqualTo(0.8);
+        assertThat(grupo.get("topicos").findValuesAsText("id")).containsExactly(a.toString(), b.toString(), c.toString());
+    }
+
+    private Long crear(String titulo, String mensaje, int esperado) throws Exception {
+        String json = mockMvc.perform(post("/api/topicos").with(user("reposter"))
+                        .contentType(MediaType.APPLICATION_JSON).content(body(titulo, mensaje)))
+                .andExpect(status().is(esperado))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(json).get("id").asLong();
+    }
+
+    private Long guardar(Usuario autor, String titulo, String mensaje) {
+        Topico t = new Topico();
+        t.setTitulo(titulo);
+        t.setMensaje(mensaje);
+        t.setCurso("Java");
+        t.setAutor(autor);
+        return topicoRepository.save(t).getId();
+    }
+
+    private String body(String titulo, String mensaje) throws Exception {
+        return objectMapper.writeValueAsString(java.util.Map.of(
+                "titulo", titulo, "mensaje", mensaje, "autorId", autorId, "curso", "Java"));
+    }
+}
@@ -0,0 +1,124 @@
+package com.alura.forohub.service;
+
+import com.alura.forohub.ForohubApplication;
+import com.alura.forohub.dto.TopicoCreateDto;
+import com.alura.forohub.dto.UsuarioResumenDto;
+import com.alura.forohub.exception.DuplicadoException;
+import com.alura.forohub.model.Usuario;
+import com.alura.forohub.repository.UsuarioRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Dos nodos (dos contextos de Spring) sobre la misma base H2: lo que escribe
+ * uno invalida los caches locales del otro en el siguiente sondeo del diario.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CoherenciaCachesTests {
+
+    private static final String URL = "jdbc:h2:mem:coherencia;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private ConfigurableApplicationContext nodoA;
+    private ConfigurableApplicationContext nodoB;
+    private Long autorId;
+
+    @BeforeAll
+    void arrancar() throws Exception {
+        nodoA = nodo("a", "create-drop");
+        // el esquema de tests sale de las entidades (lo crea el nodo A); el diario no es una entidad
+        try (Connection con = DriverManager.getConnection(URL, "sa", "");
+             Statement st = con.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS cache_cambios (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "cache VARCHAR(32) NOT NULL, clave VARCHAR(64), nodo VARCHAR(64) NOT NULL, creado_ms BIGINT NOT NULL)");
+        }
+        nodoB = nodo("b", "none");
+
+        Usuario u = new Usuario();
+        u.setUsername("coherente");
+        u.setNombre("Coherente");
+        u.setEmail("coherente@example.com");
+        u.setPassword("hash");
+        autorId = nodoA.getBean(UsuarioRepository.class).save(u).getId();
+
+        nodoA.getBean(DiarioCambiosCache.class).sondear();
+        nodoB.getBean(DiarioCambiosCache.class).sondear();
+    }
+
+    @AfterAll
+    void detener() {
+        if (nodoB != null) nodoB.close();
+        if (nodoA != null) nodoA.close();
+    }
+
+    @Test
+    void escrituraEnUnNodoInvalidaLosCachesDelOtro() {
+        ListadoTopicosCache listadosB = nodoB.getBean(ListadoTopicosCache.class);
+        UsuarioResumenCache resumenesB = nodoB.getBean(UsuarioResumenCache.class);
+        AtomicInteger calculos = new AtomicInteger();
+
+        listadosB.guardar("-|0|10", listadosB.version(), "[]".getBytes(StandardCharsets.UTF_8), "application/json");
+        resumenesB.obtener(autorId, id -> resumen(id, calculos));
+        assertThat(calculos).hasValue(1);
+
+        nodoA.getBean(TopicoService.class)
+                .crearTopico(new TopicoCreateDto("Desde A", "Visible en B apenas sondea el diario de cambios", autorId, "Java"));
+
+        // antes del sondeo B sigue sirviendo lo que tenía
+        assertThat(listadosB.obtener("-|0|10")).isNotNull();
+
+        // listados, resumen del autor y la huella del tópico en IndiceCasiDuplicados
+        assertThat(nodoB.getBean(DiarioCambiosCache.class).sondear()).isEqualTo(3);
+        assertThat(listadosB.obtener("-|0|10")).isNull();
+        resumenesB.obtener(autorId, id -> resumen(id, calculos));
+        assertThat(calculos).hasValue(2);
+        assertThat(nodoB.getBean(IndiceCasiDuplicados.class).tamanio()).isEqualTo(1);
+
+        // el nodo que escribió ya invalidó después del commit: no se aplica dos veces
+        assertThat(nodoA.getBean(DiarioCambiosCache.class).sondear()).isZero();
+    }
+
+    @Test
+    void transaccionRevertidaNoAnota() {
+        TopicoService topicosA = nodoA.getBean(TopicoService.class);
+        topicosA.crearTopico(new TopicoCreateDto("Repetido", "Entre nodos", autorId, "Java"));
+        nodoB.getBean(DiarioCambiosCache.class).sondear();
+
+        assertThatThrownBy(() -> topicosA.crearTopico(new TopicoCreateDto("Repetido", "Entre nodos", autorId, "Java")))
+                .isInstanceOf(DuplicadoException.class);
+        assertThat(nodoB.getBean(DiarioCambiosCache.class).sondear()).isZero();
+    }
+
+    private static UsuarioResumenDto resumen(Long id, AtomicInteger calculos) {
+        calculos.incrementAndGet();
+        return new UsuarioResumenDto(id, "Coherente", 0, 0, null, List.of());
+    }
+
+    private static ConfigurableApplicationContext nodo(String nombre, String ddl) {
+        return new SpringApplicationBuilder(ForohubApplication.class)
+                .profiles("test")
+                // argumentos de línea de comando: pisan a application-test.properties
+                .run("--spring.datasource.url=" + URL,
+                        "--spring.jpa.hibernate.ddl-auto=" + ddl,
+                        "--server.port=0",
+                        // el CacheManager de Ehcache es único por JVM: cada nodo sin 2do nivel
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "--forohub.coherencia.habilitado=true",
+                        "--forohub.coherencia.nodo=" + nombre,
+                        // los tests llaman a sondear() a mano
+                        "--forohub.coherencia.intervalo-ms=3600000");
+    }
+}
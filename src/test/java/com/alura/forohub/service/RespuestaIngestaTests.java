@@ -0,0 +1,213 @@
+package com.alura.forohub.service;
+
+import com.alura.forohub.dto.RespuestaCreateDto;
+import com.alura.forohub.dto.RespuestaResponseDto;
+import com.alura.forohub.exception.RecursoNoEncontradoException;
+import com.alura.forohub.model.Topico;
+import com.alura.forohub.model.Usuario;
+import com.alura.forohub.repository.NotificacionRepository;
+import com.alura.forohub.repository.RespuestaRepository;
+import com.alura.forohub.repository.TopicoRepository;
+import com.alura.forohub.repository.UsuarioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Ingesta por lotes: un lote lleno es un solo INSERT, un lote con una fila
+ * culpable se reintenta fila por fila, y un POST que no llega a confirmarse
+ * recibe 202 con su ticket en lugar de un error que invite a reenviarlo.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ingesta;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "forohub.ingesta.habilitada=true",
+        "forohub.ingesta.max-lote=4",
+        "forohub.ingesta.max-latencia-ms=300",
+        "forohub.ingesta.espera-max-ms=50",
+        "forohub.ingesta.max-tickets=3"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RespuestaIngestaTests {
+
+    @Autowired
+    private RespuestaIngesta ingesta;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TopicoRepository topicoRepository;
+
+    @Autowired
+    private RespuestaRepository respuestaRepository;
+
+    @Autowired
+    private NotificacionRepository notificacionRepository;
+
+    private Usuario autor;
+    private Topico topico;
+
+    @BeforeEach
+    void datos() {
+        Usuario u = new Usuario();
+        u.setUsername("clase");
+        u.setNombre("Clase en vivo");
+        u.setEmail("clase@example.com");
+        u.setPassword("hash");
+        autor = usuarioRepository.save(u);
+        topico = topico("Clase 1");
+    }
+
+    @AfterEach
+    void limpiar() {
+        notificacionRepository.deleteAll();
+        respuestaRepository.deleteAll();
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+    }
+
+    @Test
+    void loteLlenoEnUnSoloInsert() throws Exception {
+        RespuestaIngesta.Metricas antes = ingesta.metricas();
+
+        List<CompletableFuture<RespuestaResponseDto>> futuros = IntStream.range(0, 4)
+                .mapToObj(i -> ingesta.encolar(dto("Pregunta " + i, topico.getId())))
+                .toList();
+        List<Long> ids = futuros.stream().map(RespuestaIngestaTests::esperar).map(RespuestaResponseDto::id).toList();
+
+        assertThat(ids).doesNotHaveDuplicates().isSorted();
+        assertThat(respuestaRepository.count()).isEqualTo(4);
+        RespuestaIngesta.Metricas despues = ingesta.metricas();
+        assertThat(despues.lotesEscritos() - antes.lotesEscritos()).isEqualTo(1);
+        assertThat(despues.respuestasEscritas() - antes.respuestasEscritas()).isEqualTo(4);
+        assertThat(despues.ultimoLote()).isEqualTo(4);
+        assertThat(despues.profundidadCola()).isZero();
+    }
+
+    @Test
+    void loteFallidoSeReintentaFilaPorFila() throws Exception {
+        Topico borrado = topico("Se borra antes del insert");
+        RespuestaIngesta.Metricas antes = ingesta.metricas();
+
+        // validadas las dos; el escritor todavía junta el lote (max-latencia-ms) cuando se borra el tópico
+        CompletableFuture<RespuestaResponseDto> sana = ingesta.encolar(dto("Sana", topico.getId()));
+        CompletableFuture<RespuestaResponseDto> culpable = ingesta.encolar(dto("Culpable", borrado.getId()));
+        jdbcTemplate.update("DELETE FROM topicos WHERE id = ?", borrado.getId());
+
+        assertThat(esperar(sana).topicoId()).isEqualTo(topico.getId());
+        assertThatThrownBy(() -> culpable.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+
+        assertThat(respuestaRepository.count()).isEqualTo(1);
+        RespuestaIngesta.Metricas despues = ingesta.metricas();
+        assertThat(despues.respuestasFallidas() - antes.respuestasFallidas()).isEqualTo(1);
+        assertThat(despues.respuestasEscritas() - antes.respuestasEscritas()).isEqualTo(1);
+        assertThat(despues.ultimoLote()).isEqualTo(1);
+    }
+
+    @Test
+    void esperaVencidaDevuelveTicketSinDuplicar() throws Exception {
+        long demoradasAntes = ingesta.metricas().demoradasConTicket();
+
+        // el escritor toma la respuesta y espera 300 ms por más; el POST espera solo 50
+        String location = mockMvc.perform(post("/api/respuestas").with(user("clase"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"mensaje":"Llega tarde","autorId":%d,"topicoId":%d}
+                                """.formatted(autor.getId(), topico.getId())))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getHeader("Location");
+
+        assertThat(location).contains("/api/respuestas/ingesta/");
+        assertThat(ingesta.metricas().demoradasConTicket() - demoradasAntes).isEqualTo(1);
+
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        int status;
+        do {
+            Thread.sleep(20);
+            status = mockMvc.perform(get(location).with(user("clase"))).andReturn().getResponse().getStatus();
+        } while (status == 202 && System.nanoTime() < limite);
+        assertThat(status).isEqualTo(200);
+        assertThat(respuestaRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void topeDeTicketsDescartaLosResultadosMasViejos() {
+        long descartadosAntes = ingesta.metricas().ticketsDescartados();
+        List<String> tickets = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            tickets.add(ingesta.encolarConTicket(dto("Async " + i, topico.getId())));
+        }
+        tickets.forEach(this::esperarTicket);
+
+        // el cuarto llega con el mapa lleno: se va el resultado más viejo, no los demás
+        String ultimo = ingesta.encolarConTicket(dto("Async 3", topico.getId()));
+        assertThat(esperarTicket(ultimo).mensaje()).isEqualTo("Async 3");
+        assertThat(ingesta.metricas().ticketsDescartados() - descartadosAntes).isEqualTo(1);
+        assertThatThrownBy(() -> ingesta.resultado(tickets.get(0))).isInstanceOf(RecursoNoEncontradoException.class);
+        assertThat(ingesta.resultado(tickets.get(2)).mensaje()).isEqualTo("Async 2");
+    }
+
+    private RespuestaResponseDto esperarTicket(String ticket) {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        RespuestaResponseDto r;
+        while ((r = ingesta.resultado(ticket)) == null) {
+            if (System.nanoTime() > limite) throw new AssertionError("ticket sin resultado: " + ticket);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+        return r;
+    }
+
+    private Topico topico(String titulo) {
+        Topico t = new Topico();
+        t.setTitulo(titulo);
+        t.setMensaje("Preguntas de la clase");
+        t.setCurso("Java");
+        t.setAutor(autor);
+        return topicoRepository.save(t);
+    }
+
+    private RespuestaCreateDto dto(String mensaje, Long topicoId) {
+        return new RespuestaCreateDto(mensaje, autor.getId(), topicoId, null);
+    }
+
+    private static RespuestaResponseDto esperar(CompletableFuture<RespuestaResponseDto> f) {
+        try {
+            return f.get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.alura.forohub.service;
+
+import com.alura.forohub.dto.CursoConteoDto;
+import com.alura.forohub.dto.RespuestaResponseDto;
+import com.alura.forohub.dto.UsuarioResumenDto;
+import com.alura.forohub.eventos.RespuestaCreadaEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ajustes incrementales sobre la entrada cacheada y los casos en que se
+ * invalida para recalcular. Sin Spring: el cargador cuenta cuántas veces se
+ * recalcula cada usuario.
+ */
+class UsuarioResumenCacheTests {
+
+    private static final LocalDateTime AYER = LocalDateTime.now().minusDays(1);
+
+    private final UsuarioResumenCache cache = new UsuarioResumenCache(60_000, 100);
+    private final Map<Long, Integer> cargas = new HashMap<>();
+
+    @Test
+    void ajustesSinRecalcular() {
+        obtener(1L);
+        cache.topicoCreado(1L, "Java", AYER.plusHours(1));
+        cache.onRespuestaCreada(new RespuestaCreadaEvent(
+                new RespuestaResponseDto(10L, "hola", AYER.plusHours(2), 1L, "Usuario 1", 5L)));
+
+        UsuarioResumenDto r = obtener(1L);
+        assertThat(cargas.get(1L)).isEqualTo(1);
+        assertThat(r.topicos()).isEqualTo(3);
+        assertThat(r.respuestas()).isEqualTo(5);
+        assertThat(r.ultimaActividad()).isEqualTo(AYER.plusHours(2));
+        assertThat(r.cursosPrincipales()).containsExactly(
+                new CursoConteoDto("Java", 2L), new CursoConteoDto("Spring", 1L));
+
+        // una baja que no es la última actividad también se ajusta en memoria
+        cache.respuestaEliminada(1L, AYER.minusDays(3));
+        assertThat(obtener(1L).respuestas()).isEqualTo(4);
+        assertThat(cargas.get(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void ajusteInciertoInvalida() {
+        obtener(1L);
+        // borrar la respuesta más reciente: no se sabe cuál es la anterior
+        cache.respuestaEliminada(1L, AYER);
+        obtener(1L);
+        assertThat(cargas.get(1L)).isEqualTo(2);
+
+        // curso nuevo con el top completo: el ranking puede cambiar
+        obtener(2L);
+        cache.topicoCreado(2L, "Docker", AYER);
+        cache.topicoCreado(2L, "Python", AYER);
+        cache.topicoCreado(2L, "Go", AYER);
+        assertThat(obtener(2L).cursosPrincipales()).hasSize(3);
+        assertThat(cargas.get(2L)).isEqualTo(2);
+    }
+
+    @Test
+    void invalidaSoloLosIndicadosYDespuesDelCommit() {
+        obtener(1L);
+        obtener(2L);
+        obtener(3L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidar(Set.of(1L, 3L));
+            // antes del commit se sigue sirviendo lo cacheado
+            obtener(1L);
+            assertThat(cargas.get(1L)).isEqualTo(1);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        obtener(1L);
+        obtener(2L);
+        obtener(3L);
+        assertThat(cargas).containsEntry(1L, 2).containsEntry(2L, 1).containsEntry(3L, 2);
+    }
+
+    @Test
+    void escrituraDuranteLaCargaNoDejaBaseVieja() {
+        // el cargador lee los contadores y, antes de guardar, se confirma una respuesta nueva
+        UsuarioResumenDto leido = cache.obtener(1L, id -> {
+            UsuarioResumenDto r = cargar(id);
+            cache.onRespuestaCreada(new RespuestaCreadaEvent(
+                    new RespuestaResponseDto(11L, "durante", AYER.plusHours(3), 1L, "Usuario 1", 5L)));
+            return r;
+        });
+        assertThat(leido.respuestas()).isEqualTo(4);
+
+        // no quedó cacheado: la próxima lectura recalcula en vez de servir 4 (y sumar encima)
+        obtener(1L);
+        assertThat(cargas.get(1L)).isEqualTo(2);
+        obtener(1L);
+        assertThat(cargas.get(1L)).isEqualTo(2);
+    }
+
+    private UsuarioResumenDto obtener(Long id) {
+        return cache.obtener(id, this::cargar);
+    }
+
+    /** Lo que devolverían las consultas agregadas: 2 tópicos, 4 respuestas, actividad de ayer. */
+    private UsuarioResumenDto cargar(Long id) {
+        cargas.merge(id, 1, Integer::sum);
+        List<CursoConteoDto> cursos = id == 2L
+                ? List.of(new CursoConteoDto("Java", 3L), new CursoConteoDto("Spring", 2L), new CursoConteoDto("SQL", 1L))
+                : List.of(new CursoConteoDto("Java", 1L), new CursoConteoDto("Spring", 1L));
+        return new UsuarioResumenDto(id, "Usuario " + id, 2, 4, AYER, cursos);
+    }
+}
@@ -0,0 +1,99 @@
+package com.alura.forohub.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que el generador es determinístico, respeta el sesgo de los hilos
+ * y deja paths materializados coherentes con parent_id.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GeneradorDatosTests {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private final List<GeneradorDatos.Resultado> generados = new ArrayList<>();
+
+    @AfterEach
+    void limpiar() {
+        for (GeneradorDatos.Resultado r : generados) {
+            jdbc.update("UPDATE respuestas SET parent_id = NULL WHERE topico_id >= ? AND topico_id < ?",
+                    r.primerTopicoId(), r.finTopicoId());
+            jdbc.update("DELETE FROM respuestas WHERE topico_id >= ? AND topico_id < ?",
+                    r.primerTopicoId(), r.finTopicoId());
+            jdbc.update("DELETE FROM topicos WHERE id >= ? AND id < ?", r.primerTopicoId(), r.finTopicoId());
+            jdbc.update("DELETE FROM usuarios WHERE id >= ? AND id < ?", r.primerUsuarioId(), r.finUsuarioId());
+        }
+    }
+
+    @Test
+    void mismaSemillaGeneraLaMismaForma() throws Exception {
+        GeneradorDatos.Resultado a = generar("gena", 7);
+        GeneradorDatos.Resultado b = generar("genb", 7);
+
+        assertThat(respuestasPorTopico(b)).isEqualTo(respuestasPorTopico(a));
+        assertThat(jdbc.queryForList("SELECT curso FROM topicos WHERE id >= ? AND id < ? ORDER BY id",
+                String.class, b.primerTopicoId(), b.finTopicoId()))
+                .isEqualTo(jdbc.queryForList("SELECT curso FROM topicos WHERE id >= ? AND id < ? ORDER BY id",
+                        String.class, a.primerTopicoId(), a.finTopicoId()));
+    }
+
+    @Test
+    void hilosConColaLargaYPathsCoherentes() throws Exception {
+        GeneradorDatos.Resultado r = generar("genc", 11);
+
+        List<Integer> tamanios = respuestasPorTopico(r).stream().sorted((x, y) -> y - x).toList();
+        int total = tamanios.stream().mapToInt(Integer::intValue).sum();
+        int top10 = tamanios.stream().limit(tamanios.size() / 10).mapToInt(Integer::intValue).sum();
+        assertThat(total).isEqualTo(2000);
+        assertThat(top10).isGreaterThan(total / 2);
+
+        List<Map<String, Object>> hijos = jdbc.queryForList(
+                "SELECT h.path AS hijo, p.path AS padre, p.id AS padre_id, h.profundidad AS prof "
+                        + "FROM respuestas h JOIN respuestas p ON p.id = h.parent_id "
+                        + "WHERE h.id >= ? AND h.id < ?", r.primeraRespuestaId(), r.finRespuestaId());
+        assertThat(hijos).isNotEmpty();
+        for (Map<String, Object> h : hijos) {
+            String esperado = RutaMaterializada.prefijoDescendientes(
+                    (String) h.get("padre"), ((Number) h.get("padre_id")).longValue());
+            assertThat(h.get("hijo")).isEqualTo(esperado);
+            assertThat(((Number) h.get("prof")).intValue()).isEqualTo(esperado.length() / 13);
+        }
+    }
+
+    private GeneradorDatos.Resultado generar(String prefijo, long semilla) throws Exception {
+        try (Connection con = dataSource.getConnection()) {
+            GeneradorDatos.Resultado r = GeneradorDatos.generar(con, GeneradorDatos.Configuracion.chica(semilla, prefijo));
+            generados.add(r);
+            return r;
+        }
+    }
+
+    private List<Integer> respuestasPorTopico(GeneradorDatos.Resultado r) {
+        return jdbc.queryForList("SELECT (SELECT COUNT(*) FROM respuestas x WHERE x.topico_id = t.id) "
+                + "FROM topicos t WHERE t.id >= ? AND t.id < ? ORDER BY t.id", Integer.class,
+                r.primerTopicoId(), r.finTopicoId());
+    }
+}